@@ -0,0 +1,67 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.benchmarks;
+
+
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.jdbc.geometry.binary.ValueSetter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/** Writing the geometry model as hex-encoded and binary EWKB. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryWriterBenchmark {
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+    private byte rep;
+
+
+    @Setup
+    public void setUp(final GeometryState input) {
+        rep = "XDR".equals(input.endian) ? ValueSetter.XDR.NUMBER : ValueSetter.NDR.NUMBER;
+    }
+
+
+    @Benchmark
+    public String writeHexed(final GeometryState input) {
+        return writer.writeHexed(input.geometry, rep);
+    }
+
+
+    @Benchmark
+    public byte[] writeBinary(final GeometryState input) {
+        return writer.writeBinary(input.geometry, rep);
+    }
+
+
+}
@@ -0,0 +1,136 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.benchmarks;
+
+
+import net.postgis.jdbc.DriverWrapper;
+import net.postgis.jdbc.GeometryDecoder;
+import net.postgis.jdbc.PGgeometry;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.tools.corpus.GeometryCorpus;
+import net.postgis.tools.testutils.FakePgServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * End to end driver benchmarks against the in-process fake server: connecting through DriverWrapper (including
+ * the type registration) and decoding geometry result sets, in text (hex EWKB) or binary transfer format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DriverRoundTripBenchmark {
+
+    private static final String QUERY = "SELECT id, geom FROM bench";
+
+    /** The number of rows per query. */
+    @Param({"1000"})
+    public int rows;
+
+    /** The number of vertices of every geometry (a polygon with holes). */
+    @Param({"16", "1024"})
+    public int vertices;
+
+    /** The transfer format of the geometry column. */
+    @Param({"TEXT", "BINARY"})
+    public String format;
+
+    private FakePgServer server;
+
+    private String url;
+
+    private Properties properties;
+
+    private Connection connection;
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Class.forName(DriverWrapper.class.getName());
+        Geometry geometry = new GeometryCorpus().generate(GeometryCorpus.Shape.POLYGON, vertices, false, false);
+        server = new FakePgServer(FakePgServer.repeating(
+                new FakePgServer.Column[]{
+                        new FakePgServer.Column("id", FakePgServer.INT4_OID),
+                        new FakePgServer.Column("geom", FakePgServer.GEOMETRY_OID)
+                },
+                new Object[]{1, new BinaryWriter().writeBinary(geometry)},
+                rows));
+        url = DriverWrapper.POSTGIS_PROTOCOL + server.getUrlSuffix("bench");
+        properties = new Properties();
+        properties.setProperty("user", "bench");
+        if ("BINARY".equals(format)) {
+            properties.setProperty("binaryTransferEnable", String.valueOf(FakePgServer.GEOMETRY_OID));
+            properties.setProperty("prepareThreshold", "-1");
+        }
+        connection = DriverManager.getConnection(url, properties);
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        server.close();
+    }
+
+
+    @Benchmark
+    public void connect() throws SQLException {
+        DriverManager.getConnection(url, properties).close();
+    }
+
+
+    @Benchmark
+    public void decodeRows(final Blackhole blackhole) throws SQLException {
+        boolean binary = "BINARY".equals(format);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(QUERY)) {
+            while (resultSet.next()) {
+                if (binary) {
+                    blackhole.consume(GeometryDecoder.GEOMETRY.decode(resultSet.getBytes(2)));
+                } else {
+                    blackhole.consume(((PGgeometry) resultSet.getObject(2)).getGeometry());
+                }
+            }
+        }
+    }
+
+
+}
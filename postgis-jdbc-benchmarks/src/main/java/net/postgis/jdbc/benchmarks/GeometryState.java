@@ -0,0 +1,73 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.benchmarks;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.jdbc.geometry.binary.ValueSetter;
+import net.postgis.tools.corpus.GeometryCorpus;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * The benchmark input: one geometry of the standard corpus, selected by the parameters, in all encodings the
+ * benchmarks consume.
+ */
+@State(Scope.Benchmark)
+public class GeometryState {
+
+    /** The geometry type, polygons have holes and collections are nested. */
+    @Param({"POINT", "LINESTRING", "POLYGON", "MULTIPOLYGON", "GEOMETRYCOLLECTION"})
+    public String type;
+
+    /** The total number of vertices, ignored for points. */
+    @Param({"16", "256", "4096"})
+    public int vertices;
+
+    /** The ordinates present in every vertex. */
+    @Param({"XY", "XYZ", "XYM", "XYZM"})
+    public String ordinates;
+
+    /** The byte order of the EWKB encodings. */
+    @Param({"NDR", "XDR"})
+    public String endian;
+
+    public Geometry geometry;
+
+    public String hex;
+
+    public byte[] binary;
+
+    public String wkt;
+
+
+    @Setup
+    public void setUp() {
+        geometry = new GeometryCorpus().generate(GeometryCorpus.Shape.valueOf(type), vertices,
+                ordinates.contains("Z"), ordinates.contains("M"));
+        byte rep = "XDR".equals(endian) ? ValueSetter.XDR.NUMBER : ValueSetter.NDR.NUMBER;
+        BinaryWriter writer = new BinaryWriter();
+        hex = writer.writeHexed(geometry, rep);
+        binary = writer.writeBinary(geometry, rep);
+        wkt = geometry.toString();
+    }
+
+
+}
@@ -0,0 +1,86 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.benchmarks;
+
+
+import net.postgis.jdbc.geometry.binary.ValueSetter;
+import net.postgis.jdbc.jts.JtsBinaryParser;
+import net.postgis.jdbc.jts.JtsBinaryWriter;
+import org.locationtech.jts.geom.Geometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/** Parsing EWKB into JTS geometries and writing them back. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JtsBenchmark {
+
+    private final JtsBinaryParser parser = new JtsBinaryParser();
+
+    private final JtsBinaryWriter writer = new JtsBinaryWriter();
+
+    private Geometry geometry;
+
+    private byte rep;
+
+
+    @Setup
+    public void setUp(final GeometryState input) {
+        geometry = parser.parse(input.binary);
+        rep = "XDR".equals(input.endian) ? ValueSetter.XDR.NUMBER : ValueSetter.NDR.NUMBER;
+    }
+
+
+    @Benchmark
+    public Geometry parseHex(final GeometryState input) {
+        return parser.parse(input.hex);
+    }
+
+
+    @Benchmark
+    public Geometry parseBinary(final GeometryState input) {
+        return parser.parse(input.binary);
+    }
+
+
+    @Benchmark
+    public String writeHexed() {
+        return writer.writeHexed(geometry, rep);
+    }
+
+
+    @Benchmark
+    public byte[] writeBinary() {
+        return writer.writeBinary(geometry, rep);
+    }
+
+
+}
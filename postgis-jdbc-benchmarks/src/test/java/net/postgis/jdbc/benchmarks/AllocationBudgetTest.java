@@ -0,0 +1,191 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.benchmarks;
+
+
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.jdbc.geometry.binary.ValueSetter;
+import net.postgis.jdbc.java2d.ShapeBinaryParser;
+import net.postgis.jdbc.jts.JtsBinaryParser;
+import net.postgis.tools.corpus.GeometryCorpus;
+import net.postgis.tools.corpus.Sample;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+
+/**
+ * Fails the build when the bytes allocated per geometry by a parser or writer exceed the budget configured in
+ * allocation-budgets.properties.
+ *
+ * A budget is <code>base + perVertex * vertices</code> bytes per operation, checked against every sample of the
+ * standard corpus with {@value #VERTICES} vertices. Allocation is measured with the per thread allocation counter of
+ * HotSpot, after a warm up so that the measured code is compiled.
+ */
+public class AllocationBudgetTest {
+
+    private static final int VERTICES = 256;
+
+    private static final int WARMUP = 2000;
+
+    private static final int ITERATIONS = 200;
+
+    private final Properties budgets = new Properties();
+
+    private final List<Sample> samples = new ArrayList<Sample>();
+
+    private com.sun.management.ThreadMXBean threads;
+
+
+    /** An operation under test, run repeatedly on one encoded sample. */
+    private interface Operation {
+        void run(Sample sample, byte[] binary, String hex);
+    }
+
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            throw new SkipException("Thread allocation counters are not supported by this JVM");
+        }
+        threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            budgets.load(in);
+        }
+        for (Sample sample : new GeometryCorpus().samples()) {
+            if (sample.getGeometry().numPoints() == 1 || sample.getName().contains("-" + VERTICES + "-")) {
+                samples.add(sample);
+            }
+        }
+    }
+
+
+    @Test
+    public void testBinaryParserParseBinary() {
+        final BinaryParser parser = new BinaryParser();
+        check("BinaryParser.parse.binary", new Operation() {
+            @Override
+            public void run(final Sample sample, final byte[] binary, final String hex) {
+                parser.parse(binary);
+            }
+        });
+    }
+
+
+    @Test
+    public void testBinaryParserParseHex() {
+        final BinaryParser parser = new BinaryParser();
+        check("BinaryParser.parse.hex", new Operation() {
+            @Override
+            public void run(final Sample sample, final byte[] binary, final String hex) {
+                parser.parse(hex);
+            }
+        });
+    }
+
+
+    @Test
+    public void testBinaryWriterWriteBinary() {
+        final BinaryWriter writer = new BinaryWriter();
+        check("BinaryWriter.writeBinary", new Operation() {
+            @Override
+            public void run(final Sample sample, final byte[] binary, final String hex) {
+                writer.writeBinary(sample.getGeometry());
+            }
+        });
+    }
+
+
+    @Test
+    public void testJtsBinaryParserParseBinary() {
+        final JtsBinaryParser parser = new JtsBinaryParser();
+        check("JtsBinaryParser.parse.binary", new Operation() {
+            @Override
+            public void run(final Sample sample, final byte[] binary, final String hex) {
+                parser.parse(binary);
+            }
+        });
+    }
+
+
+    @Test
+    public void testShapeBinaryParserParseBinary() {
+        final ShapeBinaryParser parser = new ShapeBinaryParser();
+        final GeneralPath path = new GeneralPath();
+        check("ShapeBinaryParser.parse.binary", new Operation() {
+            @Override
+            public void run(final Sample sample, final byte[] binary, final String hex) {
+                path.reset();
+                parser.parse(binary, path);
+            }
+        });
+    }
+
+
+    private void check(final String operation, final Operation code) {
+        long base = budget(operation + ".base");
+        long perVertex = budget(operation + ".perVertex");
+        List<String> violations = new ArrayList<String>();
+        for (Sample sample : samples) {
+            for (byte rep : new byte[]{ValueSetter.NDR.NUMBER, ValueSetter.XDR.NUMBER}) {
+                byte[] binary = sample.binary(rep);
+                String hex = sample.hex(rep);
+                long allocated = measure(sample, binary, hex, code);
+                long budget = base + perVertex * sample.getGeometry().numPoints();
+                if (allocated > budget) {
+                    violations.add(sample.getName() + (rep == ValueSetter.NDR.NUMBER ? "/ndr" : "/xdr") + ": "
+                            + allocated + " bytes per operation, budget " + budget);
+                }
+            }
+        }
+        Assert.assertTrue(violations.isEmpty(), operation + " exceeds its allocation budget: " + violations);
+    }
+
+
+    private long measure(final Sample sample, final byte[] binary, final String hex, final Operation code) {
+        for (int i = 0; i < WARMUP; i++) {
+            code.run(sample, binary, hex);
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            code.run(sample, binary, hex);
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / ITERATIONS;
+    }
+
+
+    private long budget(final String key) {
+        String value = budgets.getProperty(key);
+        Assert.assertNotNull(value, "No allocation budget configured for " + key);
+        return Long.parseLong(value.trim());
+    }
+
+
+}
@@ -30,6 +30,8 @@ package net.postgis.jdbc.geometry;
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * ComposedGeom - Abstract base class for all Geometries that are composed out
@@ -51,9 +53,24 @@ public abstract class ComposedGeom extends Geometry {
      * The Array containing the geometries
      * 
      * This is only to be exposed by concrete subclasses, to retain type safety.
+     * Subclasses assigning it or its elements outside the constructors of
+     * this class call {@link #invalidateEnvelope()} afterwards.
      */
     protected Geometry[] subgeoms = EMPTY;
 
+    /*
+     * The lazy caches below are each a value and a volatile stamp. The value
+     * is written before the stamp and read after it, so that a thread seeing
+     * a current stamp also sees the value belonging to it, as geometries are
+     * shared between threads, e.g. through a GeometryCache.
+     */
+
+    /** The latest change stamp of this geometry and its parts, see {@link #version()}. */
+    private transient long version;
+
+    /** One more than the stamp counter when the version was computed, 0 if not computed yet. */
+    private transient volatile long versionTicks;
+
     /**
      * Constructs an instance with the specified type
      *
@@ -118,6 +135,37 @@ public abstract class ComposedGeom extends Geometry {
         haveMeasure = subgeoms[0].haveMeasure;
     }
 
+    /**
+     * Discard the caches of this geometry and of its parts. The geometries
+     * containing it notice the change through {@link #version()}.
+     */
+    public void invalidateEnvelope() {
+        for (int i = 0; subgeoms != null && i < subgeoms.length; i++) {
+            if (subgeoms[i] instanceof ComposedGeom) {
+                subgeoms[i].invalidateEnvelope();
+            }
+        }
+        structureChanged();
+    }
+
+    /**
+     * Walks the parts only if some geometry changed since the last walk, so
+     * checking the caches of an unchanged geometry costs nothing.
+     */
+    long version() {
+        long ticks = ticks() + 1;
+        if (versionTicks == ticks) {
+            return version;
+        }
+        long result = super.version();
+        for (int i = 0; subgeoms != null && i < subgeoms.length; i++) {
+            result = Math.max(result, subgeoms[i].version());
+        }
+        version = result;
+        versionTicks = ticks;
+        return result;
+    }
+
     /**
      * Return the appropriate instance of the sub-geometry - this encapsulates
      * subclass specific constructor calls
@@ -161,35 +209,104 @@ public abstract class ComposedGeom extends Geometry {
         return true;
     }
 
+    /**
+     * The index of the first point of each sub-geometry, followed by the
+     * number of points, null if not built yet
+     */
+    private transient int[] offsets;
+
+    /** One more than the version the offsets belong to, 0 if none */
+    private transient volatile long offsetsStamp;
+
+    /**
+     * Get the point offsets of the sub-geometries, building them on first use.
+     * They are rebuilt after this geometry or one of its parts changed.
+     */
+    private int[] offsets() {
+        long stamp = version() + 1;
+        int[] result = offsetsStamp == stamp ? offsets : null;
+        if (result == null || result.length != subgeoms.length + 1) {
+            result = new int[subgeoms.length + 1];
+            int count = 0;
+            for (int i = 0; i < subgeoms.length; i++) {
+                result[i] = count;
+                count += subgeoms[i].numPoints();
+            }
+            result[subgeoms.length] = count;
+            offsets = result;
+            offsetsStamp = stamp;
+        }
+        return result;
+    }
+
+    /**
+     * Cached, see {@link #getPoint(int)}.
+     */
     public int numPoints() {
         if ((subgeoms == null) || (subgeoms.length == 0)) {
             return 0;
         } else {
-            int result = 0;
-            for (int i = 0; i < subgeoms.length; i++) {
-                result += subgeoms[i].numPoints();
-            }
-            return result;
+            int[] offsets = offsets();
+            return offsets[offsets.length - 1];
         }
     }
 
+    /**
+     * Finds the sub-geometry holding the point by binary search over cached
+     * point offsets, so that looping over all points with this costs
+     * O(n log n) instead of O(n^2). Nested geometries search their own
+     * offsets in turn. The offsets stay valid while coordinates change, and
+     * are rebuilt after sub-geometry arrays were changed in place and
+     * {@link #invalidateEnvelope()} was called.
+     */
     public Point getPoint(int n) {
         if (n < 0) {
             throw new ArrayIndexOutOfBoundsException("Negative index not allowed");
         } else if ((subgeoms == null) || (subgeoms.length == 0)) {
             throw new ArrayIndexOutOfBoundsException("Empty Geometry has no Points!");
-        } else {
-            for (int i = 0; i < subgeoms.length; i++) {
+        }
+        if (n >= numPoints()) {
+            throw new ArrayIndexOutOfBoundsException("Index too large!");
+        }
+        int part = partIndex(n);
+        return subgeoms[part].getPoint(n - partOffset(part));
+    }
 
-                Geometry current = subgeoms[i];
-                int np = current.numPoints();
-                if (n < np) {
-                    return current.getPoint(n);
-                } else {
-                    n -= np;
-                }
+    /**
+     * Find the sub-geometry holding a point.
+     *
+     * @param n the index of the point, from 0 to numPoints()-1
+     * @return the index of the last sub-geometry starting at or before the
+     *         point, which skips empty ones
+     */
+    int partIndex(int n) {
+        int[] offsets = offsets();
+        int low = 0;
+        int high = subgeoms.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= n) {
+                low = mid;
+            } else {
+                high = mid - 1;
             }
-            throw new ArrayIndexOutOfBoundsException("Index too large!");
+        }
+        return low;
+    }
+
+    /**
+     * Get the index of the first point of a sub-geometry.
+     *
+     * @param part the index of the sub-geometry, from 0 to numGeoms()
+     * @return the point index, numPoints() for part numGeoms()
+     */
+    int partOffset(int part) {
+        return offsets()[part];
+    }
+
+    public void visitPoints(PointVisitor visitor) {
+        for (int i = 0; subgeoms != null && i < subgeoms.length; i++) {
+            subgeoms[i].visitPoints(visitor);
         }
     }
 
@@ -215,6 +332,19 @@ public abstract class ComposedGeom extends Geometry {
         }
     }
 
+    /**
+     * Stream the sub-geometries. When run in parallel, the stream is split
+     * where both halves hold about the same number of vertices instead of
+     * the same number of parts. A single part is never split, use
+     * {@link #coordinates()} to spread its points over threads.
+     *
+     * @return a sequential stream of the sub-geometries
+     */
+    public Stream<Geometry> subGeometries() {
+        int count = subgeoms == null ? 0 : subgeoms.length;
+        return StreamSupport.stream(new PartSpliterator(this, 0, count), false);
+    }
+
     public Iterator iterator() {
         return java.util.Arrays.asList(subgeoms).iterator();
     }
@@ -241,16 +371,80 @@ public abstract class ComposedGeom extends Geometry {
         }
     }
 
-    // Hashing - still buggy!
-    boolean nohash = true;
-    int hashcode = 0;
+    /** The cached envelope, null if not computed yet */
+    private transient Envelope envelope;
+
+    /** One more than the version the cached envelope belongs to, 0 if none */
+    private transient volatile long envelopeStamp;
+
+    public Envelope getEnvelope() {
+        long stamp = version() + 1;
+        Envelope result = envelopeStamp == stamp ? envelope : null;
+        if (result == null) {
+            result = computeEnvelope();
+            envelope = result;
+            envelopeStamp = stamp;
+        }
+        return result;
+    }
+
+    /**
+     * Set the envelope as known by a decoder, which saves computing it. The
+     * value is not checked.
+     *
+     * @param envelope the envelope of this geometry
+     */
+    public void setEnvelope(Envelope envelope) {
+        this.envelope = envelope;
+        this.envelopeStamp = version() + 1;
+    }
+
+    protected boolean knownDifferentEnvelopes(Geometry other) {
+        ComposedGeom cother = (ComposedGeom) other;
+        Envelope known = envelopeStamp == version() + 1 ? envelope : null;
+        Envelope otherKnown = cother.envelopeStamp == cother.version() + 1 ? cother.envelope : null;
+        return known != null && otherKnown != null && !known.equals(otherKnown);
+    }
+
+    /** The cached coordinates hash, valid if hashStamp is current */
+    private transient int coordinatesHash;
 
-    public int hashCode() {
-        if (nohash) {
-            hashcode = super.hashCode() ^ subgeoms.hashCode();
-            nohash = false;
+    /** One more than the version the hash belongs to, 0 if none */
+    private transient volatile long hashStamp;
+
+    /**
+     * Combines the hashes of the sub-geometries, which are cached in turn,
+     * so hashing a geometry again costs nothing until coordinates change.
+     */
+    protected int coordinatesHash() {
+        long stamp = version() + 1;
+        if (hashStamp == stamp) {
+            return coordinatesHash;
+        }
+        int result = 1;
+        for (int i = 0; subgeoms != null && i < subgeoms.length; i++) {
+            result = 31 * result + subgeoms[i].coordinatesHash();
+        }
+        coordinatesHash = result;
+        hashStamp = stamp;
+        return result;
+    }
+
+    /**
+     * Unites the envelopes of the sub-geometries, which are cached in turn.
+     */
+    protected Envelope computeEnvelope() {
+        double[] bounds = Envelope.newBounds();
+        for (int i = 0; subgeoms != null && i < subgeoms.length; i++) {
+            Geometry current = subgeoms[i];
+            if (current instanceof Point) {
+                Point point = (Point) current;
+                Envelope.include(bounds, point.x, point.y, point.dimension == 3 ? point.z : Double.NaN);
+            } else {
+                current.getEnvelope().includeIn(bounds);
+            }
         }
-        return hashcode;
+        return Envelope.of(bounds);
     }
 
     public boolean checkConsistency() {
@@ -0,0 +1,275 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry;
+
+
+import java.io.Serializable;
+
+
+/**
+ * The bounding box of a geometry, with a z range for three dimensional geometries.
+ *
+ * Instances are immutable. Ordinates which are NaN do not contribute, a geometry without any other coordinates has
+ * the {@link #EMPTY} envelope.
+ *
+ * @see Geometry#getEnvelope()
+ */
+public final class Envelope implements Serializable {
+
+    private static final long serialVersionUID = -4399530839612498711L;
+
+    /** The envelope of empty geometries. */
+    public static final Envelope EMPTY = new Envelope(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+
+    private final double minX;
+
+    private final double minY;
+
+    private final double minZ;
+
+    private final double maxX;
+
+    private final double maxY;
+
+    private final double maxZ;
+
+
+    /**
+     * Instantiate a two dimensional envelope.
+     *
+     * @param minX the minimum x
+     * @param minY the minimum y
+     * @param maxX the maximum x
+     * @param maxY the maximum y
+     */
+    public Envelope(final double minX, final double minY, final double maxX, final double maxY) {
+        this(minX, minY, Double.NaN, maxX, maxY, Double.NaN);
+    }
+
+
+    /**
+     * Instantiate an envelope, with NaN z values for two dimensions.
+     *
+     * @param minX the minimum x
+     * @param minY the minimum y
+     * @param minZ the minimum z
+     * @param maxX the maximum x
+     * @param maxY the maximum y
+     * @param maxZ the maximum z
+     */
+    public Envelope(final double minX, final double minY, final double minZ,
+                    final double maxX, final double maxY, final double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+
+    public double getMinX() {
+        return minX;
+    }
+
+
+    public double getMinY() {
+        return minY;
+    }
+
+
+    public double getMinZ() {
+        return minZ;
+    }
+
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+
+    public double getMaxZ() {
+        return maxZ;
+    }
+
+
+    public double getWidth() {
+        return isEmpty() ? 0 : maxX - minX;
+    }
+
+
+    public double getHeight() {
+        return isEmpty() ? 0 : maxY - minY;
+    }
+
+
+    /**
+     * Whether this is the envelope of an empty geometry.
+     *
+     * @return true if there is no x/y range
+     */
+    public boolean isEmpty() {
+        return !(minX <= maxX && minY <= maxY);
+    }
+
+
+    /**
+     * Whether there is a z range.
+     *
+     * @return true for the envelope of a three dimensional geometry
+     */
+    public boolean is3d() {
+        return minZ <= maxZ;
+    }
+
+
+    /**
+     * Whether the x/y ranges of two envelopes overlap, including touching edges.
+     *
+     * @param other the other envelope
+     * @return true if the envelopes intersect, false if either is empty
+     */
+    public boolean intersects(final Envelope other) {
+        return !isEmpty() && !other.isEmpty()
+                && other.minX <= maxX && other.maxX >= minX && other.minY <= maxY && other.maxY >= minY;
+    }
+
+
+    /**
+     * Whether a point lies within the x/y ranges, including the edges.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return true if the point is covered
+     */
+    public boolean contains(final double x, final double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object other) {
+        if (!(other instanceof Envelope)) {
+            return false;
+        }
+        Envelope envelope = (Envelope) other;
+        return Point.double_equals(minX, envelope.minX) && Point.double_equals(minY, envelope.minY)
+                && Point.double_equals(minZ, envelope.minZ) && Point.double_equals(maxX, envelope.maxX)
+                && Point.double_equals(maxY, envelope.maxY) && Point.double_equals(maxZ, envelope.maxZ);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        int result = Point.hashCode(minX);
+        result = 31 * result + Point.hashCode(minY);
+        result = 31 * result + Point.hashCode(minZ);
+        result = 31 * result + Point.hashCode(maxX);
+        result = 31 * result + Point.hashCode(maxY);
+        return 31 * result + Point.hashCode(maxZ);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "Envelope[EMPTY]";
+        } else if (is3d()) {
+            return "Envelope[" + minX + " " + minY + " " + minZ + "," + maxX + " " + maxY + " " + maxZ + "]";
+        }
+        return "Envelope[" + minX + " " + minY + "," + maxX + " " + maxY + "]";
+    }
+
+
+    /**
+     * Create the bounds to accumulate coordinates in.
+     *
+     * @return minX, minY, minZ, maxX, maxY, maxZ, not covering anything yet
+     */
+    static double[] newBounds() {
+        double inf = Double.POSITIVE_INFINITY;
+        return new double[]{inf, inf, inf, -inf, -inf, -inf};
+    }
+
+
+    /**
+     * Widen bounds to include a coordinate, skipping NaN ordinates.
+     *
+     * @param bounds the bounds from {@link #newBounds()}
+     * @param x the x ordinate
+     * @param y the y ordinate
+     * @param z the z ordinate, NaN for two dimensions
+     */
+    static void include(final double[] bounds, final double x, final double y, final double z) {
+        if (x < bounds[0]) {
+            bounds[0] = x;
+        }
+        if (x > bounds[3]) {
+            bounds[3] = x;
+        }
+        if (y < bounds[1]) {
+            bounds[1] = y;
+        }
+        if (y > bounds[4]) {
+            bounds[4] = y;
+        }
+        if (z < bounds[2]) {
+            bounds[2] = z;
+        }
+        if (z > bounds[5]) {
+            bounds[5] = z;
+        }
+    }
+
+
+    /**
+     * Widen bounds to include this envelope.
+     *
+     * @param bounds the bounds from {@link #newBounds()}
+     */
+    void includeIn(final double[] bounds) {
+        if (!isEmpty()) {
+            include(bounds, minX, minY, minZ);
+            include(bounds, maxX, maxY, maxZ);
+        }
+    }
+
+
+    /**
+     * Create the envelope of accumulated bounds.
+     *
+     * @param bounds the bounds from {@link #newBounds()}
+     * @return the envelope, {@link #EMPTY} if nothing was included
+     */
+    static Envelope of(final double[] bounds) {
+        if (!(bounds[0] <= bounds[3] && bounds[1] <= bounds[4])) {
+            return EMPTY;
+        } else if (bounds[2] <= bounds[5]) {
+            return new Envelope(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+        }
+        return new Envelope(bounds[0], bounds[1], bounds[3], bounds[4]);
+    }
+
+
+}
@@ -27,7 +27,11 @@
 
 package net.postgis.jdbc.geometry;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /** The base class of all geometries */
 public abstract class Geometry implements Serializable {
@@ -122,6 +126,18 @@ public abstract class Geometry implements Serializable {
 	 */
 	public int srid = UNKNOWN_SRID;
 
+	/**
+	 * Hands out change stamps. Stamps only order changes, every geometry
+	 * checks its caches against the stamps of its own parts only.
+	 */
+	private static final AtomicLong TICKS = new AtomicLong();
+
+	/**
+	 * The stamp of the last change of this geometry itself, 0 if unchanged
+	 * since construction.
+	 */
+	private transient long stamp;
+
 	/**
 	 * Parse a SRID value, anything {@code <= 0} is unknown
      *
@@ -147,10 +163,30 @@ public abstract class Geometry implements Serializable {
 	}
 
 	/**
-	 * java.lang.Object hashCode implementation
+	 * java.lang.Object hashCode implementation, consistent with equals: the
+	 * header fields combined with {@link #coordinatesHash()}.
 	 */
 	public int hashCode() {
-		return dimension | (type * 4) | (srid * 32);
+		return (dimension | (type * 4) | (srid * 32)) ^ coordinatesHash();
+	}
+
+	/**
+	 * Hash the coordinates the way {@link #equalsintern(Geometry)} compares
+	 * them: ordinates that are not compared are not hashed, -0.0 hashes like
+	 * 0.0 and all NaNs hash alike. The srid and type of nested geometries are
+	 * left out, as equalsintern does not compare them either.
+	 *
+	 * Subclasses may override this with a faster or cached version than
+	 * visiting every point.
+	 *
+	 * @return the hash
+	 */
+	protected int coordinatesHash() {
+		int result = 1;
+		for (int i = 0, count = numPoints(); i < count; i++) {
+			result = 31 * result + getPoint(i).coordinatesHash();
+		}
+		return result;
 	}
 
 	/**
@@ -176,9 +212,99 @@ public abstract class Geometry implements Serializable {
 				&& (this.type == other.type) && (this.srid == other.srid)
 				&& (this.haveMeasure == other.haveMeasure)
 				&& other.getClass().equals(this.getClass())
+				&& !knownDifferentEnvelopes(other)
 				&& this.equalsintern(other);
 	}
 
+	/**
+	 * Fast reject for equals: whether the envelopes of both geometries are
+	 * already known and differ. Envelopes must not be computed just for this.
+	 *
+	 * @param other geometry of the same class to compare
+	 * @return true if the geometries are known to differ
+	 */
+	protected boolean knownDifferentEnvelopes(Geometry other) {
+		return false;
+	}
+
+	/**
+	 * Get the bounding box of this geometry.
+	 * 
+	 * Composed geometries compute the envelope on first use and cache it
+	 * until coordinates are changed through the setters of one of their
+	 * points. After assigning coordinate fields directly, call
+	 * {@link #invalidateEnvelope()}.
+	 *
+	 * @return the envelope, {@link Envelope#EMPTY} for empty geometries
+	 */
+	public Envelope getEnvelope() {
+		return computeEnvelope();
+	}
+
+	/**
+	 * Discard cached envelopes, hashes and point indexes after coordinates
+	 * were assigned directly or elements of sub-geometry arrays replaced.
+	 * Call this on the changed geometry or on one containing it: the caches
+	 * of its parts and of the geometries containing it are discarded.
+	 */
+	public void invalidateEnvelope() {
+		structureChanged();
+	}
+
+	/**
+	 * To be called by subclasses whenever they change coordinates. The
+	 * geometries containing this one notice the change the next time they
+	 * check their caches, see {@link #version()}.
+	 */
+	protected void coordinatesChanged() {
+		stamp = TICKS.incrementAndGet();
+	}
+
+	/**
+	 * To be called by subclasses whenever they change the number of points,
+	 * which changes coordinates, too.
+	 */
+	protected void structureChanged() {
+		stamp = TICKS.incrementAndGet();
+	}
+
+	/**
+	 * The latest change stamp of this geometry and its parts: caches built
+	 * at one version are valid as long as the version stays the same.
+	 * Composed geometries walk their parts unless nothing changed anywhere
+	 * since they last did.
+	 *
+	 * @return the stamp, 0 if nothing changed since construction
+	 */
+	long version() {
+		return stamp;
+	}
+
+	/**
+	 * The current value of the stamp counter, which only changes when some
+	 * geometry changes.
+	 *
+	 * @return the last stamp handed out
+	 */
+	static long ticks() {
+		return TICKS.get();
+	}
+
+	/**
+	 * Compute the envelope - subclasses may override this with a faster
+	 * version than visiting every point.
+	 *
+	 * @return the envelope, {@link Envelope#EMPTY} for empty geometries
+	 */
+	protected Envelope computeEnvelope() {
+		double[] bounds = Envelope.newBounds();
+		for (int i = 0, count = numPoints(); i < count; i++) {
+			Point point = getPoint(i);
+			Envelope.include(bounds, point.x, point.y, point.dimension == 3 ? point.z : Double.NaN);
+		}
+		return Envelope.of(bounds);
+	}
+
 	/**
 	 * Whether test coordinates for geometry - subclass specific code
 	 * 
@@ -220,6 +346,33 @@ public abstract class Geometry implements Serializable {
 	 */
 	public abstract Point getLastPoint();
 
+	/**
+	 * Visit all points of the geometry in the order of
+	 * {@link #getPoint(int)}, without allocating anything. See
+	 * {@link PointCursor} for walking the points in a loop instead.
+	 *
+	 * @param visitor the visitor to call for every point
+	 */
+	public void visitPoints(PointVisitor visitor) {
+		for (int i = 0, count = numPoints(); i < count; i++) {
+			visitor.visit(getPoint(i));
+		}
+	}
+
+	/**
+	 * Stream all points of the geometry in the order of
+	 * {@link #getPoint(int)}. The stream splits by vertex count, so a parallel
+	 * stream gives every thread an equal share of the points no matter how
+	 * they are distributed over the parts, e.g.
+	 * <code>geometry.coordinates().parallel().mapToDouble(p -&gt; p.x).max()</code>.
+	 * The geometry must not be changed while the stream is in use.
+	 *
+	 * @return a sequential stream of the points, which are not copies
+	 */
+	public Stream<Point> coordinates() {
+		return StreamSupport.stream(new PointSpliterator(this, 0, numPoints()), false);
+	}
+
 	/**
 	 * The OGIS geometry type number of this geometry.
 	 *
@@ -355,6 +508,30 @@ public abstract class Geometry implements Serializable {
 		return (dimension >= 2 && dimension <= 3) && (type >= 0 && type <= 7);
 	}
 
+	/**
+	 * Check whether this geometry is serialized as EWKB, see {@link #writeReplace()}.
+	 *
+	 * @return true if this geometry and all of its parts are of the classes of
+	 *         this package and it is not a linear ring
+	 */
+	public boolean isSerializedCompact() {
+		return SerializedGeometry.isCompact(this);
+	}
+
+	/**
+	 * Serialize as EWKB instead of the object tree, see {@link SerializedGeometry}.
+	 * 
+	 * Linear rings have no EWKB representation of their own, and subclasses from
+	 * outside this package would lose their type and state, so both keep the
+	 * default form.
+	 *
+	 * @return the object to serialize in place of this geometry
+	 * @throws ObjectStreamException never, declared for serialization
+	 */
+	protected Object writeReplace() throws ObjectStreamException {
+		return SerializedGeometry.isCompact(this) ? new SerializedGeometry(this) : this;
+	}
+
 	/**
 	 * Splits the SRID=4711; part of a EWKT rep if present and sets the srid.
 	 *
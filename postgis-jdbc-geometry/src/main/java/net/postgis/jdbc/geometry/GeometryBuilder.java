@@ -2,6 +2,7 @@ package net.postgis.jdbc.geometry;
 
 
 import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.jfr.GeometryEvents;
 
 import java.sql.SQLException;
 
@@ -55,7 +56,10 @@ public class GeometryBuilder {
         }
 
         Geometry result;
-        if (value.startsWith("00") || value.startsWith("01")) {
+        boolean hexed = value.startsWith("00") || value.startsWith("01");
+        // hex values are recorded by the parser itself
+        Object event = hexed ? null : GeometryEvents.beginParse();
+        if (hexed) {
             result = bp.parse(value);
         } else if (value.endsWith("EMPTY")) {
             // We have a standard conforming representation for an empty
@@ -78,6 +82,7 @@ public class GeometryBuilder {
         } else {
             throw new SQLException("Unknown type: " + value);
         }
+        GeometryEvents.end(event, result, value.length(), GeometryEvents.WKT);
 
         if (srid != Geometry.UNKNOWN_SRID) {
             result.srid = srid;
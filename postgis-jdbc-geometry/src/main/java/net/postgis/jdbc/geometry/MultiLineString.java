@@ -35,10 +35,6 @@ public class MultiLineString extends ComposedGeom {
 
     double len = -1;
 
-    public int hashCode() {
-        return super.hashCode() ^ (int) this.length();
-    }
-
     public MultiLineString() {
         super(MULTILINESTRING);
     }
@@ -0,0 +1,96 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry;
+
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+
+/**
+ * Splits the sub-geometries of a geometry where the halves hold about the same number of vertices, not the same
+ * number of parts, as one polygon of a multipolygon may hold most of its points. See
+ * {@link ComposedGeom#subGeometries()}.
+ */
+final class PartSpliterator implements Spliterator<Geometry> {
+
+    private final ComposedGeom geometry;
+
+    private int part;
+
+    private final int fence;
+
+
+    PartSpliterator(final ComposedGeom geometry, final int part, final int fence) {
+        this.geometry = geometry;
+        this.part = part;
+        this.fence = fence;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean tryAdvance(final Consumer<? super Geometry> action) {
+        if (part >= fence) {
+            return false;
+        }
+        action.accept(geometry.subgeoms[part++]);
+        return true;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void forEachRemaining(final Consumer<? super Geometry> action) {
+        Geometry[] parts = geometry.subgeoms;
+        for (; part < fence; part++) {
+            action.accept(parts[part]);
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Spliterator<Geometry> trySplit() {
+        if (fence - part < 2) {
+            return null;
+        }
+        int first = geometry.partOffset(part);
+        int last = geometry.partOffset(fence);
+        int middle = last > first ? geometry.partIndex(first + (last - first) / 2) : (part + fence) >>> 1;
+        // the part holding the middle vertex starts the suffix, as long as neither half is empty
+        int split = Math.min(Math.max(middle, part + 1), fence - 1);
+        Spliterator<Geometry> prefix = new PartSpliterator(geometry, part, split);
+        part = split;
+        return prefix;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long estimateSize() {
+        return fence - part;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+
+
+}
@@ -36,15 +36,39 @@ public class Point extends Geometry {
 
     public static final boolean CUTINTS = true;
 
-    public int hashCode() {
-        return super.hashCode() ^ hashCode(x) ^ hashCode(y) ^ hashCode(z) ^ hashCode(m);
+    protected int coordinatesHash() {
+        int result = 31 * hashCode(x) + hashCode(y);
+        if (dimension != 2) {
+            result = 31 * result + hashCode(z);
+        }
+        if (haveMeasure) {
+            result = 31 * result + hashCode(m);
+        }
+        return result;
     }
 
+    /**
+     * Hash a double consistently with {@link #double_equals(double, double)}:
+     * -0.0 hashes like 0.0, and all NaNs hash alike.
+     *
+     * @param value the value to hash
+     * @return the hash
+     */
     public static int hashCode(double value) {
-        long v = Double.doubleToLongBits(value);
+        long v = Double.doubleToLongBits(value + 0.0);
         return (int) (v ^ (v >>> 32));
     }
 
+    protected Envelope computeEnvelope() {
+        double[] bounds = Envelope.newBounds();
+        Envelope.include(bounds, x, y, dimension == 3 ? z : Double.NaN);
+        return Envelope.of(bounds);
+    }
+
+    public void visitPoints(PointVisitor visitor) {
+        visitor.visit(this);
+    }
+
     protected boolean equalsintern(Geometry otherg) {
         Point other = (Point) otherg;
         return equals(other);
@@ -247,31 +271,38 @@ public class Point extends Geometry {
 
     public void setX(double x) {
         this.x = x;
+        coordinatesChanged();
     }
 
     public void setY(double y) {
         this.y = y;
+        coordinatesChanged();
     }
 
     public void setZ(double z) {
         this.z = z;
+        coordinatesChanged();
     }
 
     public void setM(double m) {
         haveMeasure = true;
         this.m = m;
+        coordinatesChanged();
     }
 
     public void setX(int x) {
         this.x = x;
+        coordinatesChanged();
     }
 
     public void setY(int y) {
         this.y = y;
+        coordinatesChanged();
     }
 
     public void setZ(int z) {
         this.z = z;
+        coordinatesChanged();
     }
 
     public double distance(Point other) {
@@ -90,6 +90,23 @@ public abstract class PointComposedGeom extends ComposedGeom {
         }
     }
 
+    int partIndex(int n) {
+        return n;
+    }
+
+    int partOffset(int part) {
+        return part;
+    }
+
+    /**
+     * optimized version
+     */
+    public void visitPoints(PointVisitor visitor) {
+        for (int i = 0; i < subgeoms.length; i++) {
+            visitor.visit((Point) subgeoms[i]);
+        }
+    }
+
     /**
      * Get the underlying Point array
      *
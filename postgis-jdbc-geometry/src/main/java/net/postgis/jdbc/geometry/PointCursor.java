@@ -0,0 +1,193 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry;
+
+
+import java.util.Arrays;
+
+
+/**
+ * Walks all points of a geometry in the order of {@link Geometry#getPoint(int)}, for loops which would otherwise call
+ * getPoint(i) for every index.
+ *
+ * The cursor descends into the sub-geometries itself, so a step costs O(1) regardless of how the geometry is nested.
+ * It does not allocate anything once its stack is deep enough, and may be reused for other geometries with
+ * {@link #reset(Geometry)}:
+ *
+ * <code>
+ * PointCursor cursor = new PointCursor(polygon);
+ * while (cursor.next()) {
+ *     sum += cursor.getPoint().x;
+ * }
+ * </code>
+ *
+ * The sub-geometry arrays must not be changed while the cursor walks them.
+ */
+public final class PointCursor {
+
+    /** The composed geometries being walked, outermost first. */
+    private ComposedGeom[] stack = new ComposedGeom[4];
+
+    /** The index of the next sub-geometry to visit per stack entry. */
+    private int[] positions = new int[4];
+
+    private int depth;
+
+    /** A point geometry to return on the next step. */
+    private Point pending;
+
+    private Point current;
+
+    private int index;
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param geometry the geometry to walk
+     */
+    public PointCursor(final Geometry geometry) {
+        reset(geometry);
+    }
+
+
+    /**
+     * Start walking another geometry.
+     *
+     * @param geometry the geometry to walk
+     * @return this cursor
+     */
+    public PointCursor reset(final Geometry geometry) {
+        while (depth > 0) {
+            stack[--depth] = null;
+        }
+        pending = null;
+        current = null;
+        index = -1;
+        if (geometry instanceof Point) {
+            pending = (Point) geometry;
+        } else {
+            push((ComposedGeom) geometry);
+        }
+        return this;
+    }
+
+
+    /**
+     * Start walking another geometry from the given point on, which costs a binary search per nesting level.
+     *
+     * @param geometry the geometry to walk
+     * @param start the index of the first point to return, up to numPoints() for a cursor that has no more points
+     * @return this cursor
+     */
+    public PointCursor reset(final Geometry geometry, final int start) {
+        reset(geometry);
+        if (start < 0 || start > geometry.numPoints()) {
+            throw new ArrayIndexOutOfBoundsException("Start index out of range: " + start);
+        }
+        index = start - 1;
+        if (start == 0) {
+            return this;
+        } else if (pending != null) {
+            pending = null; // the point itself was skipped
+            return this;
+        } else if (start == geometry.numPoints()) {
+            stack[--depth] = null;
+            return this;
+        }
+        int n = start;
+        ComposedGeom composed = (ComposedGeom) geometry;
+        while (true) {
+            int part = composed.partIndex(n);
+            n -= composed.partOffset(part);
+            Geometry sub = composed.subgeoms[part];
+            if (sub instanceof Point) {
+                positions[depth - 1] = part; // next() returns this point first
+                return this;
+            }
+            positions[depth - 1] = part + 1;
+            composed = (ComposedGeom) sub;
+            push(composed);
+        }
+    }
+
+
+    /**
+     * Advance to the next point.
+     *
+     * @return true if there is one, false if all points have been walked
+     */
+    public boolean next() {
+        if (pending != null) {
+            current = pending;
+            pending = null;
+            index++;
+            return true;
+        }
+        while (depth > 0) {
+            ComposedGeom top = stack[depth - 1];
+            int position = positions[depth - 1];
+            if (top.subgeoms == null || position >= top.subgeoms.length) {
+                stack[--depth] = null;
+                continue;
+            }
+            positions[depth - 1] = position + 1;
+            Geometry sub = top.subgeoms[position];
+            if (sub instanceof Point) {
+                current = (Point) sub;
+                index++;
+                return true;
+            }
+            push((ComposedGeom) sub);
+        }
+        current = null;
+        return false;
+    }
+
+
+    /**
+     * Get the current point.
+     *
+     * @return the point, which is part of the walked geometry and not a copy; null before the first and after the
+     *         last step
+     */
+    public Point getPoint() {
+        return current;
+    }
+
+
+    /**
+     * Get the index of the current point.
+     *
+     * @return the index, as used by {@link Geometry#getPoint(int)}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+
+    private void push(final ComposedGeom geometry) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+            positions = Arrays.copyOf(positions, depth * 2);
+        }
+        stack[depth] = geometry;
+        positions[depth] = 0;
+        depth++;
+    }
+
+
+}
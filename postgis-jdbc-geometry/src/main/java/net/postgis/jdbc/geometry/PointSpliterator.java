@@ -0,0 +1,114 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry;
+
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+
+/**
+ * Splits the points of a geometry by index, so that both halves hold the same number of vertices however they are
+ * distributed over the parts. See {@link Geometry#coordinates()}.
+ */
+final class PointSpliterator implements Spliterator<Point> {
+
+    /** Below this many points a range is not split any further. */
+    private static final int MIN_SPLIT = 1024;
+
+    private final Geometry geometry;
+
+    private int index;
+
+    private final int fence;
+
+    /** Walks the range, positioned at index; null until traversal starts. */
+    private PointCursor cursor;
+
+
+    PointSpliterator(final Geometry geometry, final int index, final int fence) {
+        this.geometry = geometry;
+        this.index = index;
+        this.fence = fence;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean tryAdvance(final Consumer<? super Point> action) {
+        if (index >= fence) {
+            return false;
+        }
+        PointCursor cursor = cursor();
+        cursor.next();
+        index++;
+        action.accept(cursor.getPoint());
+        return true;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void forEachRemaining(final Consumer<? super Point> action) {
+        if (index >= fence) {
+            return;
+        }
+        PointCursor cursor = cursor();
+        for (; index < fence; index++) {
+            cursor.next();
+            action.accept(cursor.getPoint());
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Spliterator<Point> trySplit() {
+        int remaining = fence - index;
+        if (remaining < MIN_SPLIT) {
+            return null;
+        }
+        int middle = index + (remaining >>> 1);
+        Spliterator<Point> prefix = new PointSpliterator(geometry, index, middle);
+        index = middle;
+        cursor = null; // seek again on the next traversal
+        return prefix;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+
+
+    private PointCursor cursor() {
+        if (cursor == null) {
+            cursor = new PointCursor(geometry).reset(geometry, index);
+        }
+        return cursor;
+    }
+
+
+}
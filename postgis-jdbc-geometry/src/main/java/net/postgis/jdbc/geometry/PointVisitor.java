@@ -0,0 +1,30 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry;
+
+
+/**
+ * Receives the points of a geometry, see {@link Geometry#visitPoints(PointVisitor)}.
+ */
+public interface PointVisitor {
+
+    /**
+     * Called for every point, in the order of {@link Geometry#getPoint(int)}.
+     *
+     * @param point the point, which is part of the visited geometry and not a copy
+     */
+    void visit(Point point);
+}
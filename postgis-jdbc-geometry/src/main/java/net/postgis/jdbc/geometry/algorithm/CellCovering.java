@@ -0,0 +1,479 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.ComposedGeom;
+import net.postgis.jdbc.geometry.Envelope;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.LineString;
+import net.postgis.jdbc.geometry.LinearRing;
+import net.postgis.jdbc.geometry.MultiPolygon;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.Polygon;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+
+/**
+ * Computes the geohash or quadkey cells a geometry intersects, for example to bucket geometries for sharding or to
+ * build cache keys.
+ *
+ * Both cell systems are quadtrees which split x first and then y, geohashes over longitude/latitude with 5 splits
+ * per character, quadkeys over the Web Mercator tile pyramid with 2 splits per digit. The cells are searched from
+ * the whole world downwards, descending only into cells which some edge or point of the geometry touches, and
+ * carrying along only the edges touching the parent cell. A cell touched by no edge lies either outside the
+ * geometry or inside one of its polygons, which a {@link PreparedPolygon} tells from the cell center; in the latter
+ * case all its subcells belong to the covering.
+ *
+ * Geometries with SRID {@link WebMercator#WEB_MERCATOR} are taken as Web Mercator coordinates, all others as
+ * longitude/latitude. Cells are closed: a geometry touching the edge of a cell is reported in the cells on both
+ * sides.
+ *
+ * The number of cells grows with the area of the geometry and four times with every further split, so coverings are
+ * limited to a maximum number of cells, {@link #DEFAULT_MAX_CELLS} unless given. A covering exceeding it fails before
+ * the cells are produced; retry with a coarser precision or zoom level.
+ */
+public final class CellCovering {
+
+    /** The longest supported geohash, 60 bits. */
+    public static final int MAX_GEOHASH_PRECISION = 12;
+
+    /** The deepest supported tile zoom level. */
+    public static final int MAX_ZOOM = 30;
+
+    /** The maximum number of cells of a covering unless given. */
+    public static final int DEFAULT_MAX_CELLS = 1 << 16;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private static final double MERCATOR_EDGE = WebMercator.RADIUS * Math.PI;
+
+    /** Whether the cells are quadkeys instead of geohashes. */
+    private final boolean quadkeys;
+
+    /** The number of splits down to the requested cells. */
+    private final int depth;
+
+    /** The maximum number of cells of the result. */
+    private final int maxCells;
+
+    /** Whether the cell bounds have to be transformed into the coordinates of the geometry. */
+    private final boolean transform;
+
+    /** x1, y1, x2, y2 of every edge, points are edges of length 0. */
+    private final double[] edges;
+
+    /** The polygonal parts of the geometry, null if there are none. */
+    private final PreparedPolygon polygon;
+
+    private final Envelope envelope;
+
+    /** The candidate edges of the cell being visited, per depth. */
+    private final int[][] candidates;
+
+    /** The bounds of the cell being visited in the coordinates of the geometry. */
+    private final double[] cell = new double[4];
+
+    private final SortedSet<String> result = new TreeSet<String>();
+
+
+    private CellCovering(final Geometry geometry, final boolean quadkeys, final int depth, final int maxCells) {
+        if (maxCells < 1) {
+            throw new IllegalArgumentException("Maximum number of cells must be positive: " + maxCells);
+        }
+        this.quadkeys = quadkeys;
+        this.depth = depth;
+        this.maxCells = maxCells;
+        this.transform = quadkeys != (geometry.getSrid() == WebMercator.WEB_MERCATOR);
+        List<Polygon> polygons = new ArrayList<Polygon>();
+        EdgeList edgeList = new EdgeList();
+        collect(geometry, edgeList, polygons);
+        this.edges = Arrays.copyOf(edgeList.edges, 4 * edgeList.count);
+        this.polygon = polygons.isEmpty() ? null
+                : new PreparedPolygon(new MultiPolygon(polygons.toArray(new Polygon[0])));
+        this.envelope = geometry.getEnvelope();
+        this.candidates = new int[depth + 1][];
+    }
+
+
+    /**
+     * Compute the geohashes of the given length which intersect a geometry.
+     *
+     * @param geometry the geometry
+     * @param precision the number of characters of the geohashes, 1 to {@link #MAX_GEOHASH_PRECISION}
+     * @return the geohashes in ascending order, empty for an empty geometry
+     * @throws IllegalArgumentException if the precision is out of range or the covering exceeds
+     *         {@link #DEFAULT_MAX_CELLS}
+     */
+    public static SortedSet<String> geohashes(final Geometry geometry, final int precision) {
+        return geohashes(geometry, precision, DEFAULT_MAX_CELLS);
+    }
+
+
+    /**
+     * Compute the geohashes of the given length which intersect a geometry, failing if there are too many.
+     *
+     * @param geometry the geometry
+     * @param precision the number of characters of the geohashes, 1 to {@link #MAX_GEOHASH_PRECISION}
+     * @param maxCells the maximum number of geohashes
+     * @return the geohashes in ascending order, empty for an empty geometry
+     * @throws IllegalArgumentException if the precision is out of range or the covering exceeds maxCells
+     */
+    public static SortedSet<String> geohashes(final Geometry geometry, final int precision, final int maxCells) {
+        if (precision < 1 || precision > MAX_GEOHASH_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_GEOHASH_PRECISION
+                    + ": " + precision);
+        }
+        return new CellCovering(geometry, false, 5 * precision, maxCells).cover();
+    }
+
+
+    /**
+     * Compute the geohashes of the given length which intersect an EWKB encoded geometry.
+     *
+     * @param ewkb the geometry
+     * @param precision the number of characters of the geohashes, 1 to {@link #MAX_GEOHASH_PRECISION}
+     * @return the geohashes in ascending order, empty for an empty geometry
+     * @throws IllegalArgumentException if the precision is out of range, the geometry cannot be parsed or the
+     *         covering exceeds {@link #DEFAULT_MAX_CELLS}
+     */
+    public static SortedSet<String> geohashes(final byte[] ewkb, final int precision) {
+        return geohashes(new BinaryParser().parse(ewkb), precision);
+    }
+
+
+    /**
+     * Compute the quadkeys of the tiles at a zoom level which intersect a geometry.
+     *
+     * @param geometry the geometry
+     * @param zoom the zoom level, and thus the number of digits of the quadkeys, 1 to {@link #MAX_ZOOM}
+     * @return the quadkeys in ascending order, empty for an empty geometry
+     * @throws IllegalArgumentException if the zoom level is out of range or the covering exceeds
+     *         {@link #DEFAULT_MAX_CELLS}
+     */
+    public static SortedSet<String> quadkeys(final Geometry geometry, final int zoom) {
+        return quadkeys(geometry, zoom, DEFAULT_MAX_CELLS);
+    }
+
+
+    /**
+     * Compute the quadkeys of the tiles at a zoom level which intersect a geometry, failing if there are too many.
+     *
+     * @param geometry the geometry
+     * @param zoom the zoom level, and thus the number of digits of the quadkeys, 1 to {@link #MAX_ZOOM}
+     * @param maxCells the maximum number of quadkeys
+     * @return the quadkeys in ascending order, empty for an empty geometry
+     * @throws IllegalArgumentException if the zoom level is out of range or the covering exceeds maxCells
+     */
+    public static SortedSet<String> quadkeys(final Geometry geometry, final int zoom, final int maxCells) {
+        if (zoom < 1 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom level must be between 1 and " + MAX_ZOOM + ": " + zoom);
+        }
+        return new CellCovering(geometry, true, 2 * zoom, maxCells).cover();
+    }
+
+
+    /**
+     * Compute the quadkeys of the tiles at a zoom level which intersect an EWKB encoded geometry.
+     *
+     * @param ewkb the geometry
+     * @param zoom the zoom level, and thus the number of digits of the quadkeys, 1 to {@link #MAX_ZOOM}
+     * @return the quadkeys in ascending order, empty for an empty geometry
+     * @throws IllegalArgumentException if the zoom level is out of range, the geometry cannot be parsed or the
+     *         covering exceeds {@link #DEFAULT_MAX_CELLS}
+     */
+    public static SortedSet<String> quadkeys(final byte[] ewkb, final int zoom) {
+        return quadkeys(new BinaryParser().parse(ewkb), zoom);
+    }
+
+
+    /**
+     * Compute the geohash of a location.
+     *
+     * @param longitude the longitude
+     * @param latitude the latitude
+     * @param precision the number of characters, 1 to {@link #MAX_GEOHASH_PRECISION}
+     * @return the geohash of the cell holding the location; locations on a cell edge belong to the cell north or
+     *         east of it
+     * @throws IllegalArgumentException if the precision is out of range
+     */
+    public static String geohash(final double longitude, final double latitude, final int precision) {
+        if (precision < 1 || precision > MAX_GEOHASH_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_GEOHASH_PRECISION
+                    + ": " + precision);
+        }
+        int depth = 5 * precision;
+        return geohash(cellIndex(longitude, -180, 360, (depth + 1) / 2),
+                cellIndex(latitude, -90, 180, depth / 2), depth);
+    }
+
+
+    /** The index of the cell holding a value among 2^bits cells, clamped to the valid range. */
+    private static int cellIndex(final double value, final double min, final double extent, final int bits) {
+        long cells = 1L << bits;
+        long index = (long) Math.floor((value - min) / extent * cells);
+        return (int) Math.max(0, Math.min(cells - 1, index));
+    }
+
+
+    private SortedSet<String> cover() {
+        int count = edges.length / 4;
+        if (count > 0) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = i;
+            }
+            visit(0, 0, 0, all, count);
+        }
+        return result;
+    }
+
+
+    /**
+     * Visit a cell.
+     *
+     * @param level the number of splits leading to the cell
+     * @param ix the column of the cell
+     * @param iy the row of the cell, counted from the south
+     * @param parent the candidate edges of the parent cell
+     * @param parentCount the number of candidate edges of the parent cell
+     */
+    private void visit(final int level, final int ix, final int iy, final int[] parent, final int parentCount) {
+        bounds(level, ix, iy);
+        double minX = cell[0];
+        double minY = cell[1];
+        double maxX = cell[2];
+        double maxY = cell[3];
+        if (maxX < envelope.getMinX() || minX > envelope.getMaxX()
+                || maxY < envelope.getMinY() || minY > envelope.getMaxY()) {
+            return;
+        }
+        int[] touching = candidates[level];
+        if (touching == null || touching.length < parentCount) {
+            touching = new int[parentCount];
+            candidates[level] = touching;
+        }
+        int count = 0;
+        for (int i = 0; i < parentCount; i++) {
+            int e = parent[i];
+            if (intersects(edges[4 * e], edges[4 * e + 1], edges[4 * e + 2], edges[4 * e + 3],
+                    minX, minY, maxX, maxY)) {
+                touching[count++] = e;
+            }
+        }
+        if (count == 0) {
+            if (polygon != null && polygon.covers((minX + maxX) / 2, (minY + maxY) / 2)) {
+                addAll(level, ix, iy);
+            }
+        } else if (level == depth) {
+            add(ix, iy);
+        } else if (level % 2 == 0) {
+            visit(level + 1, 2 * ix, iy, touching, count);
+            visit(level + 1, 2 * ix + 1, iy, touching, count);
+        } else {
+            visit(level + 1, ix, 2 * iy, touching, count);
+            visit(level + 1, ix, 2 * iy + 1, touching, count);
+        }
+    }
+
+
+    /** Add all subcells of a cell at the requested depth. */
+    private void addAll(final int level, final int ix, final int iy) {
+        // cells are visited once, so the subcells are all new
+        checkSize(1L << (depth - level));
+        addSubcells(level, ix, iy);
+    }
+
+
+    private void addSubcells(final int level, final int ix, final int iy) {
+        if (level == depth) {
+            add(ix, iy);
+        } else if (level % 2 == 0) {
+            addSubcells(level + 1, 2 * ix, iy);
+            addSubcells(level + 1, 2 * ix + 1, iy);
+        } else {
+            addSubcells(level + 1, ix, 2 * iy);
+            addSubcells(level + 1, ix, 2 * iy + 1);
+        }
+    }
+
+
+    private void checkSize(final long added) {
+        if (result.size() + added > maxCells) {
+            throw new IllegalArgumentException("Covering exceeds " + maxCells + " cells at "
+                    + (quadkeys ? "zoom level " + depth / 2 : "geohash precision " + depth / 5));
+        }
+    }
+
+
+    private void add(final int ix, final int iy) {
+        checkSize(1);
+        result.add(quadkeys ? quadkey(ix, iy, depth / 2) : geohash(ix, iy, depth));
+    }
+
+
+    /** Compute the bounds of a cell into {@link #cell}. */
+    private void bounds(final int level, final int ix, final int iy) {
+        int bitsX = (level + 1) / 2;
+        int bitsY = level / 2;
+        if (quadkeys) {
+            double width = 2 * MERCATOR_EDGE / (1L << bitsX);
+            double height = 2 * MERCATOR_EDGE / (1L << bitsY);
+            cell[0] = -MERCATOR_EDGE + ix * width;
+            cell[1] = -MERCATOR_EDGE + iy * height;
+            cell[2] = -MERCATOR_EDGE + (ix + 1) * width;
+            cell[3] = -MERCATOR_EDGE + (iy + 1) * height;
+            if (transform) {
+                WebMercator.toWgs84(cell, 0, 2, 2);
+            }
+        } else {
+            double width = 360.0 / (1L << bitsX);
+            double height = 180.0 / (1L << bitsY);
+            cell[0] = -180 + ix * width;
+            cell[1] = -90 + iy * height;
+            cell[2] = -180 + (ix + 1) * width;
+            cell[3] = -90 + (iy + 1) * height;
+            if (transform) {
+                WebMercator.toMercator(cell, 0, 2, 2);
+            }
+        }
+    }
+
+
+    /** Interleave the bits of a cell, x first, into base 32 characters. */
+    private static String geohash(final int ix, final int iy, final int depth) {
+        int bitsX = (depth + 1) / 2;
+        int bitsY = depth / 2;
+        char[] chars = new char[depth / 5];
+        int value = 0;
+        for (int bit = 0; bit < depth; bit++) {
+            int b = bit % 2 == 0 ? (ix >>> (--bitsX)) & 1 : (iy >>> (--bitsY)) & 1;
+            value = (value << 1) | b;
+            if (bit % 5 == 4) {
+                chars[bit / 5] = BASE32[value];
+                value = 0;
+            }
+        }
+        return new String(chars);
+    }
+
+
+    /** One digit per zoom level, 1 for east and 2 for south, as tile rows are counted from the north. */
+    private static String quadkey(final int ix, final int iy, final int zoom) {
+        int row = (1 << zoom) - 1 - iy;
+        char[] chars = new char[zoom];
+        for (int i = 0; i < zoom; i++) {
+            int shift = zoom - 1 - i;
+            chars[i] = (char) ('0' + ((ix >>> shift) & 1) + 2 * ((row >>> shift) & 1));
+        }
+        return new String(chars);
+    }
+
+
+    /** Test whether a segment intersects a closed rectangle, clipping its parameter range slab by slab. */
+    private static boolean intersects(final double x1, final double y1, final double x2, final double y2,
+                                      final double minX, final double minY, final double maxX, final double maxY) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double t0 = 0;
+        double t1 = 1;
+        if (dx == 0) {
+            if (x1 < minX || x1 > maxX) {
+                return false;
+            }
+        } else {
+            double a = (minX - x1) / dx;
+            double b = (maxX - x1) / dx;
+            t0 = Math.max(t0, Math.min(a, b));
+            t1 = Math.min(t1, Math.max(a, b));
+        }
+        if (dy == 0) {
+            if (y1 < minY || y1 > maxY) {
+                return false;
+            }
+        } else {
+            double a = (minY - y1) / dy;
+            double b = (maxY - y1) / dy;
+            t0 = Math.max(t0, Math.min(a, b));
+            t1 = Math.min(t1, Math.max(a, b));
+        }
+        return t0 <= t1;
+    }
+
+
+    private static void collect(final Geometry geometry, final EdgeList edges, final List<Polygon> polygons) {
+        if (geometry instanceof Point) {
+            Point point = (Point) geometry;
+            edges.add(point.x, point.y, point.x, point.y);
+        } else if (geometry instanceof LineString || geometry instanceof LinearRing) {
+            int count = geometry.numPoints();
+            for (int i = 0; i < count; i++) {
+                // a single point is an edge of length 0
+                Point from = geometry.getPoint(i);
+                Point to = geometry.getPoint(Math.min(i + 1, count - 1));
+                if (i < count - 1 || count == 1) {
+                    edges.add(from.x, from.y, to.x, to.y);
+                }
+            }
+        } else if (geometry instanceof Polygon) {
+            Polygon polygon = (Polygon) geometry;
+            polygons.add(polygon);
+            for (int r = 0; r < polygon.numRings(); r++) {
+                LinearRing ring = polygon.getRing(r);
+                int count = ring.numPoints();
+                for (int i = 0; i < count; i++) {
+                    Point from = ring.getPoint(i);
+                    Point to = ring.getPoint((i + 1) % count);
+                    edges.add(from.x, from.y, to.x, to.y);
+                }
+            }
+        } else {
+            // MultiPoint, MultiLineString, MultiPolygon and GeometryCollection
+            ComposedGeom composed = (ComposedGeom) geometry;
+            for (int i = 0; i < composed.numGeoms(); i++) {
+                collect(composed.getSubGeometry(i), edges, polygons);
+            }
+        }
+    }
+
+
+    /** A growing array of edges. */
+    private static final class EdgeList {
+
+        double[] edges = new double[64];
+
+        int count;
+
+        void add(final double x1, final double y1, final double x2, final double y2) {
+            if (4 * count + 4 > edges.length) {
+                edges = Arrays.copyOf(edges, 2 * edges.length);
+            }
+            edges[4 * count] = x1;
+            edges[4 * count + 1] = y1;
+            edges[4 * count + 2] = x2;
+            edges[4 * count + 3] = y2;
+            count++;
+        }
+    }
+
+
+}
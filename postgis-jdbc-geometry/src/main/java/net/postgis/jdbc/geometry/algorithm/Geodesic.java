@@ -0,0 +1,261 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.Point;
+
+
+/**
+ * Batch distances on the earth between one query point and many candidate points, for example to rerank the
+ * candidates of a coarse k nearest neighbour query on a geography column by their geodesic distance.
+ *
+ * Coordinates are WGS 84 longitude/latitude in degrees, packed as in {@link WebMercator}: longitude and latitude
+ * first per vertex, followed by as many further ordinates as the dimension says, which are ignored. Geography values,
+ * for example of a PGgeography, can be packed with {@link #pack(Geometry[], double[])}. Distances are in meters.
+ */
+public final class Geodesic {
+
+    /** The mean radius of the earth used by {@link #haversine}, the IUGG value. */
+    public static final double MEAN_RADIUS = 6371008.8;
+
+    /** The semi-major axis of the WGS 84 ellipsoid. */
+    public static final double SEMI_MAJOR_AXIS = 6378137.0;
+
+    /** The flattening of the WGS 84 ellipsoid. */
+    public static final double FLATTENING = 1 / 298.257223563;
+
+    private static final double SEMI_MINOR_AXIS = SEMI_MAJOR_AXIS * (1 - FLATTENING);
+
+    private static final double RADIANS = Math.PI / 180;
+
+    /** Iterations after which Vincenty's method is considered not to converge, near antipodal points. */
+    private static final int MAX_ITERATIONS = 200;
+
+
+    private Geodesic() {
+    }
+
+
+    /**
+     * Pack the coordinates of points into an array of longitude/latitude pairs. For other geometries the first
+     * vertex is used.
+     *
+     * @param geometries the geometries, in WGS 84, none of them empty
+     * @param ordinates the array to pack into, null or too short to allocate a new one
+     * @return the array holding 2 ordinates per geometry
+     */
+    public static double[] pack(final Geometry[] geometries, final double[] ordinates) {
+        double[] result = ordinates != null && ordinates.length >= 2 * geometries.length
+                ? ordinates : new double[2 * geometries.length];
+        for (int i = 0; i < geometries.length; i++) {
+            Point point = geometries[i].getFirstPoint();
+            result[2 * i] = point.x;
+            result[2 * i + 1] = point.y;
+        }
+        return result;
+    }
+
+
+    /**
+     * Compute great circle distances on a sphere with the {@link #MEAN_RADIUS}. This is up to about 0.5% off the
+     * distance on the ellipsoid, but cheap and branch free.
+     *
+     * @param longitude the longitude of the query point
+     * @param latitude the latitude of the query point
+     * @param ordinates the candidate points
+     * @param offset the index of the first ordinate
+     * @param count the number of candidate points
+     * @param dimension the number of ordinates per point, at least 2
+     * @param distances receives the distance of each candidate, from index 0
+     */
+    public static void haversine(final double longitude, final double latitude, final double[] ordinates,
+                                 final int offset, final int count, final int dimension, final double[] distances) {
+        double lambda = longitude * RADIANS;
+        double phi = latitude * RADIANS;
+        double cosPhi = Math.cos(phi);
+        for (int i = 0, j = offset; i < count; i++, j += dimension) {
+            distances[i] = haversine(lambda, phi, cosPhi, ordinates[j] * RADIANS, ordinates[j + 1] * RADIANS);
+        }
+    }
+
+
+    private static double haversine(final double lambda, final double phi, final double cosPhi,
+                                    final double lambda2, final double phi2) {
+        double sinLat = Math.sin((phi2 - phi) * 0.5);
+        double sinLon = Math.sin((lambda2 - lambda) * 0.5);
+        double h = sinLat * sinLat + cosPhi * Math.cos(phi2) * sinLon * sinLon;
+        return 2 * MEAN_RADIUS * Math.asin(Math.sqrt(Math.min(1, h)));
+    }
+
+
+    /**
+     * Compute distances on the WGS 84 ellipsoid with Vincenty's inverse method, accurate to well below a millimeter.
+     * For nearly antipodal points where the method does not converge, the {@link #haversine} distance is used.
+     *
+     * @param longitude the longitude of the query point
+     * @param latitude the latitude of the query point
+     * @param ordinates the candidate points
+     * @param offset the index of the first ordinate
+     * @param count the number of candidate points
+     * @param dimension the number of ordinates per point, at least 2
+     * @param distances receives the distance of each candidate, from index 0
+     */
+    public static void vincenty(final double longitude, final double latitude, final double[] ordinates,
+                                final int offset, final int count, final int dimension, final double[] distances) {
+        // the reduced latitude of the query point is the same for all candidates
+        double phi = latitude * RADIANS;
+        double u1 = Math.atan((1 - FLATTENING) * Math.tan(phi));
+        double sinU1 = Math.sin(u1);
+        double cosU1 = Math.cos(u1);
+        for (int i = 0, j = offset; i < count; i++, j += dimension) {
+            double phi2 = ordinates[j + 1] * RADIANS;
+            double distance = vincenty(sinU1, cosU1, (ordinates[j] - longitude) * RADIANS, phi2);
+            distances[i] = Double.isNaN(distance)
+                    ? haversine(longitude * RADIANS, phi, Math.cos(phi), ordinates[j] * RADIANS, phi2) : distance;
+        }
+    }
+
+
+    /**
+     * Vincenty's inverse method for one pair of points.
+     *
+     * @return the distance, NaN if the iteration does not converge
+     */
+    private static double vincenty(final double sinU1, final double cosU1, final double l, final double phi2) {
+        double u2 = Math.atan((1 - FLATTENING) * Math.tan(phi2));
+        double sinU2 = Math.sin(u2);
+        double cosU2 = Math.cos(u2);
+        double lambda = l;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double sinLambda = Math.sin(lambda);
+            double cosLambda = Math.cos(lambda);
+            double a = cosU2 * sinLambda;
+            double b = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            double sinSigma = Math.sqrt(a * a + b * b);
+            if (sinSigma == 0) {
+                return 0; // coincident points
+            }
+            double cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            double sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            double cosSqAlpha = 1 - sinAlpha * sinAlpha;
+            // on the equator cosSqAlpha is 0 and the term vanishes
+            double cos2SigmaM = cosSqAlpha == 0 ? 0 : cosSigma - 2 * sinU1 * sinU2 / cosSqAlpha;
+            double c = FLATTENING / 16 * cosSqAlpha * (4 + FLATTENING * (4 - 3 * cosSqAlpha));
+            double previous = lambda;
+            lambda = l + (1 - c) * FLATTENING * sinAlpha * (sigma + c * sinSigma
+                    * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+            if (Math.abs(lambda - previous) < 1e-12) {
+                double uSq = cosSqAlpha * (SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS - SEMI_MINOR_AXIS * SEMI_MINOR_AXIS)
+                        / (SEMI_MINOR_AXIS * SEMI_MINOR_AXIS);
+                double bigA = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
+                double bigB = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+                double deltaSigma = bigB * sinSigma * (cos2SigmaM + bigB / 4 * (cosSigma
+                        * (-1 + 2 * cos2SigmaM * cos2SigmaM) - bigB / 6 * cos2SigmaM
+                        * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+                return SEMI_MINOR_AXIS * bigA * (sigma - deltaSigma);
+            }
+        }
+        return Double.NaN;
+    }
+
+
+    /**
+     * Select the indices of the k smallest distances, without sorting all of them. A bounded heap keeps the best k
+     * seen so far, which takes O(n log k) time.
+     *
+     * @param distances the distances
+     * @param count the number of distances
+     * @param k the number of indices to select
+     * @return the indices of the min(k, count) smallest distances, nearest first; ties in index order
+     */
+    public static int[] nearest(final double[] distances, final int count, final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        int size = 0;
+        int[] heap = new int[Math.min(k, count)];
+        if (heap.length == 0) {
+            return heap;
+        }
+        for (int i = 0; i < count; i++) {
+            if (size < heap.length) {
+                heap[size] = i;
+                up(heap, distances, size++);
+            } else if (before(distances, i, heap[0])) {
+                heap[0] = i;
+                down(heap, distances, 0, size);
+            }
+        }
+        // remove the farthest repeatedly, filling the array from its end
+        for (int end = size - 1; end > 0; end--) {
+            int farthest = heap[0];
+            heap[0] = heap[end];
+            heap[end] = farthest;
+            down(heap, distances, 0, end);
+        }
+        return heap;
+    }
+
+
+    /** Whether index a ranks before index b. NaN distances rank last. */
+    private static boolean before(final double[] distances, final int a, final int b) {
+        int order = Double.compare(distances[a], distances[b]);
+        return order < 0 || (order == 0 && a < b);
+    }
+
+
+    /** Move the element at i up the max-heap. */
+    private static void up(final int[] heap, final double[] distances, final int i) {
+        int index = heap[i];
+        int child = i;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (!before(distances, heap[parent], index)) {
+                break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = index;
+    }
+
+
+    /** Move the element at i down the max-heap of the given size. */
+    private static void down(final int[] heap, final double[] distances, final int i, final int size) {
+        int index = heap[i];
+        int parent = i;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(distances, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!before(distances, index, heap[child])) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        heap[parent] = index;
+    }
+
+
+}
@@ -0,0 +1,337 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.Envelope;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.LinearRing;
+import net.postgis.jdbc.geometry.MultiPolygon;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.Polygon;
+
+import java.util.Arrays;
+
+
+/**
+ * A polygon or multipolygon prepared for fast point-in-polygon tests.
+ *
+ * The edges of all rings are copied into a flat array and indexed by horizontal bands of the envelope: every band
+ * lists the edges crossing it. A test only looks at the edges in the band of the point and counts those a ray towards
+ * +x crosses, so it takes time proportional to the edges per band instead of all edges. Holes and the parts of a
+ * multipolygon need no special treatment, as every ring crossed flips inside and outside.
+ *
+ * An edge is listed in every band it crosses, so the bands are made coarse enough for the edges to cross a few bands
+ * each on average. Polygons with many tall edges, like combs and zigzags, get fewer bands instead of an index growing
+ * with the square of their edges.
+ *
+ * The polygon is expected to be valid: rings do not cross, holes lie within their shells and parts do not overlap.
+ * Only x and y are considered. Instances are immutable and safe for use by multiple threads; the polygon may be
+ * changed after preparing without affecting them.
+ */
+public final class PreparedPolygon {
+
+    /** The location of a point in the interior. */
+    public static final int INTERIOR = 0;
+
+    /** The location of a point on a ring. */
+    public static final int BOUNDARY = 1;
+
+    /** The location of a point outside of the polygon, or in a hole. */
+    public static final int EXTERIOR = 2;
+
+    /** The upper limit of the number of bands. */
+    private static final int MAX_BANDS = 1 << 16;
+
+    /** The upper limit of the average number of bands an edge crosses. */
+    private static final int MAX_BANDS_PER_EDGE = 4;
+
+    private final Envelope envelope;
+
+    private final double minX;
+
+    private final double minY;
+
+    private final double maxX;
+
+    private final double maxY;
+
+    /** x1, y1, x2, y2 of every edge. */
+    private final double[] edges;
+
+    /** The number of bands per unit of y. */
+    private final double bandScale;
+
+    private final int bands;
+
+    /** The first entry of each band in bandEdges, followed by the number of entries. */
+    private final int[] bandStart;
+
+    /** The edge numbers of all bands, band by band. */
+    private final int[] bandEdges;
+
+
+    /**
+     * Prepare a polygon.
+     *
+     * @param geometry a {@link Polygon} or {@link MultiPolygon}
+     * @throws IllegalArgumentException for other geometry types
+     */
+    public PreparedPolygon(final Geometry geometry) {
+        this.envelope = geometry.getEnvelope();
+        this.edges = collectEdges(geometry);
+        int edgeCount = edges.length / 4;
+        if (edgeCount == 0) {
+            minX = Double.NaN;
+            minY = Double.NaN;
+            maxX = Double.NaN;
+            maxY = Double.NaN;
+            bands = 0;
+            bandScale = 0;
+            bandStart = new int[1];
+            bandEdges = new int[0];
+            return;
+        }
+        minX = envelope.getMinX();
+        minY = envelope.getMinY();
+        maxX = envelope.getMaxX();
+        maxY = envelope.getMaxY();
+        // with a band height of (maxY - minY) / bands, the edges cross summedHeight / band height bands in total
+        double summedHeight = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            summedHeight += Math.abs(edges[4 * e + 3] - edges[4 * e + 1]);
+        }
+        double maxBands = Math.min(edgeCount / 2, MAX_BANDS);
+        if (summedHeight > 0) {
+            maxBands = Math.min(maxBands, MAX_BANDS_PER_EDGE * (double) edgeCount * (maxY - minY) / summedHeight);
+        }
+        bands = Math.max(1, (int) maxBands);
+        bandScale = maxY > minY ? bands / (maxY - minY) : 0;
+
+        // count the entries per band, then fill them in
+        int[] counts = new int[bands + 1];
+        long entries = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            int from = band(Math.min(edges[4 * e + 1], edges[4 * e + 3]));
+            int to = band(Math.max(edges[4 * e + 1], edges[4 * e + 3]));
+            for (int b = from; b <= to; b++) {
+                counts[b + 1]++;
+            }
+            entries += to - from + 1;
+        }
+        if (entries > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Polygon too large to index: " + edgeCount + " edges");
+        }
+        for (int b = 0; b < bands; b++) {
+            counts[b + 1] += counts[b];
+        }
+        bandStart = counts;
+        bandEdges = new int[counts[bands]];
+        int[] fill = Arrays.copyOf(counts, bands);
+        for (int e = 0; e < edgeCount; e++) {
+            int from = band(Math.min(edges[4 * e + 1], edges[4 * e + 3]));
+            int to = band(Math.max(edges[4 * e + 1], edges[4 * e + 3]));
+            for (int b = from; b <= to; b++) {
+                bandEdges[fill[b]++] = e;
+            }
+        }
+    }
+
+
+    /**
+     * Get the number of edge entries of all bands, for tests.
+     *
+     * @return the size of the index
+     */
+    int indexSize() {
+        return bandEdges.length;
+    }
+
+
+    /**
+     * Get the envelope of the polygon.
+     *
+     * @return the envelope
+     */
+    public Envelope getEnvelope() {
+        return envelope;
+    }
+
+
+    /**
+     * Locate a point relative to the polygon.
+     *
+     * @param x the x ordinate of the point
+     * @param y the y ordinate of the point
+     * @return {@link #INTERIOR}, {@link #BOUNDARY} or {@link #EXTERIOR}
+     */
+    public int locate(final double x, final double y) {
+        if (!(x >= minX && x <= maxX && y >= minY && y <= maxY)) {
+            return EXTERIOR; // also for NaN ordinates and empty polygons
+        }
+        int band = band(y);
+        boolean inside = false;
+        for (int i = bandStart[band], end = bandStart[band + 1]; i < end; i++) {
+            int e = 4 * bandEdges[i];
+            double x1 = edges[e];
+            double y1 = edges[e + 1];
+            double x2 = edges[e + 2];
+            double y2 = edges[e + 3];
+            if ((y1 > y) != (y2 > y)) {
+                double crossing = x1 + (y - y1) * (x2 - x1) / (y2 - y1);
+                if (x == crossing) {
+                    return BOUNDARY;
+                } else if (x < crossing) {
+                    inside = !inside;
+                }
+            } else if (onEdge(x, y, x1, y1, x2, y2)) {
+                return BOUNDARY;
+            }
+        }
+        return inside ? INTERIOR : EXTERIOR;
+    }
+
+
+    /**
+     * Test whether a point lies in the interior of the polygon.
+     *
+     * @param x the x ordinate of the point
+     * @param y the y ordinate of the point
+     * @return true if inside, false if on the boundary or outside
+     */
+    public boolean contains(final double x, final double y) {
+        return locate(x, y) == INTERIOR;
+    }
+
+
+    /**
+     * Test whether a point lies in the interior or on the boundary of the polygon.
+     *
+     * @param x the x ordinate of the point
+     * @param y the y ordinate of the point
+     * @return true if inside or on the boundary, false if outside
+     */
+    public boolean covers(final double x, final double y) {
+        return locate(x, y) != EXTERIOR;
+    }
+
+
+    /**
+     * Test whether a point lies in the interior of the polygon.
+     *
+     * @param point the point
+     * @return true if inside, false if on the boundary or outside
+     */
+    public boolean contains(final Point point) {
+        return contains(point.x, point.y);
+    }
+
+
+    /**
+     * Test many points for lying in the interior of the polygon.
+     *
+     * @param xy the points as x, y pairs
+     * @param result receives the result per point, at least xy.length / 2 long
+     * @return the number of points inside
+     */
+    public int contains(final double[] xy, final boolean[] result) {
+        return test(xy, result, false);
+    }
+
+
+    /**
+     * Test many points for lying in the interior or on the boundary of the polygon.
+     *
+     * @param xy the points as x, y pairs
+     * @param result receives the result per point, at least xy.length / 2 long
+     * @return the number of points inside or on the boundary
+     */
+    public int covers(final double[] xy, final boolean[] result) {
+        return test(xy, result, true);
+    }
+
+
+    private int test(final double[] xy, final boolean[] result, final boolean boundary) {
+        int count = xy.length / 2;
+        if (result.length < count) {
+            throw new IllegalArgumentException("Result array too small: " + result.length + " < " + count);
+        }
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            int location = locate(xy[2 * i], xy[2 * i + 1]);
+            boolean hit = location == INTERIOR || (boundary && location == BOUNDARY);
+            result[i] = hit;
+            if (hit) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+
+    private int band(final double y) {
+        int band = (int) ((y - minY) * bandScale);
+        return band < 0 ? 0 : band >= bands ? bands - 1 : band;
+    }
+
+
+    /** Test whether a point lies on an edge which it does not cross, e.g. a horizontal one. */
+    private static boolean onEdge(final double x, final double y, final double x1, final double y1,
+                                  final double x2, final double y2) {
+        if (x < Math.min(x1, x2) || x > Math.max(x1, x2) || y < Math.min(y1, y2) || y > Math.max(y1, y2)) {
+            return false;
+        }
+        return (x2 - x1) * (y - y1) == (y2 - y1) * (x - x1);
+    }
+
+
+    private static double[] collectEdges(final Geometry geometry) {
+        Polygon[] polygons;
+        if (geometry instanceof Polygon) {
+            polygons = new Polygon[]{(Polygon) geometry};
+        } else if (geometry instanceof MultiPolygon) {
+            MultiPolygon multi = (MultiPolygon) geometry;
+            polygons = new Polygon[multi.numPolygons()];
+            for (int i = 0; i < polygons.length; i++) {
+                polygons[i] = multi.getPolygon(i);
+            }
+        } else {
+            throw new IllegalArgumentException("Not a polygon: " + geometry.getTypeString());
+        }
+        double[] edges = new double[4 * geometry.numPoints()];
+        int e = 0;
+        for (Polygon polygon : polygons) {
+            for (int r = 0; r < polygon.numRings(); r++) {
+                LinearRing ring = polygon.getRing(r);
+                int count = ring.numPoints();
+                for (int i = 0; i < count; i++) {
+                    Point from = ring.getPoint(i);
+                    Point to = ring.getPoint((i + 1) % count); // closes rings lacking the closing point
+                    if (from.x == to.x && from.y == to.y) {
+                        continue;
+                    }
+                    edges[e++] = from.x;
+                    edges[e++] = from.y;
+                    edges[e++] = to.x;
+                    edges[e++] = to.y;
+                }
+            }
+        }
+        return Arrays.copyOf(edges, e);
+    }
+
+
+}
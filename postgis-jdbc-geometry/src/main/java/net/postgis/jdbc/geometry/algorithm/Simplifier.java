@@ -0,0 +1,480 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.ComposedGeom;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryCollection;
+import net.postgis.jdbc.geometry.LineString;
+import net.postgis.jdbc.geometry.LinearRing;
+import net.postgis.jdbc.geometry.MultiLineString;
+import net.postgis.jdbc.geometry.MultiPolygon;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.PointComposedGeom;
+import net.postgis.jdbc.geometry.Polygon;
+
+import java.util.Arrays;
+
+
+/**
+ * Simplifies line strings and polygon rings by removing vertices, like ST_Simplify and ST_SimplifyVW on the server.
+ *
+ * The algorithms work on packed coordinates, i.e. a double array holding x, y and the optional z and m of every vertex
+ * in turn, and compact the array in place. This lets {@link net.postgis.jdbc.geometry.binary.BinaryParser} simplify
+ * the point arrays it decodes before creating any Point objects, so the full resolution geometry is never built.
+ * Only x and y are considered, z and m are kept with their vertex.
+ *
+ * Line strings keep at least their two end points. Rings keep their first (and last) point and at least four points
+ * in total, so polygons never collapse, but may become invalid for large tolerances. Points and multipoints are
+ * returned as they are.
+ *
+ * Instances keep scratch buffers from call to call and must not be used by several threads at once.
+ */
+public abstract class Simplifier {
+
+    /** Whether a vertex is kept, per vertex. */
+    boolean[] keep = new boolean[0];
+
+    private double[] packed = new double[0];
+
+
+    Simplifier() {
+    }
+
+
+    /**
+     * Create a Douglas-Peucker simplifier, which keeps a vertex if it lies further than the tolerance from the line
+     * between the vertices kept around it.
+     *
+     * @param tolerance the maximum distance of removed vertices from the simplified line
+     * @return the simplifier
+     */
+    public static Simplifier douglasPeucker(final double tolerance) {
+        return new DouglasPeucker(tolerance);
+    }
+
+
+    /**
+     * Create a Visvalingam-Whyatt simplifier, which repeatedly removes the vertex forming the smallest triangle with
+     * its neighbours, as long as that area is below the tolerance.
+     *
+     * @param tolerance the minimum effective area of kept vertices, in square units
+     * @return the simplifier
+     */
+    public static Simplifier visvalingam(final double tolerance) {
+        return new Visvalingam(tolerance);
+    }
+
+
+    /**
+     * Simplify packed vertices in place.
+     *
+     * @param ordinates the vertices, x, y and the further ordinates of each vertex in turn
+     * @param count the number of vertices
+     * @param dimension the number of ordinates per vertex, at least 2
+     * @param ring whether the vertices form a closed ring
+     * @return the number of vertices kept, which now are the first ones in the array
+     */
+    public int simplify(final double[] ordinates, final int count, final int dimension, final boolean ring) {
+        if (count <= (ring ? 4 : 2)) {
+            return count;
+        }
+        if (keep.length < count) {
+            keep = new boolean[count];
+        }
+        Arrays.fill(keep, 0, count, false);
+        mark(ordinates, count, dimension, ring);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                if (kept != i) {
+                    System.arraycopy(ordinates, i * dimension, ordinates, kept * dimension, dimension);
+                }
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+
+    /**
+     * Simplify a geometry.
+     *
+     * @param geometry the geometry
+     * @return a simplified copy, or the geometry itself if it is a point or multipoint
+     */
+    public Geometry simplify(final Geometry geometry) {
+        Geometry result;
+        switch (geometry.getType()) {
+        case Geometry.LINESTRING:
+            result = new LineString(simplifyPoints((PointComposedGeom) geometry, false));
+            break;
+        case Geometry.LINEARRING:
+            result = new LinearRing(simplifyPoints((PointComposedGeom) geometry, true));
+            break;
+        case Geometry.POLYGON:
+            LinearRing[] rings = new LinearRing[((Polygon) geometry).numRings()];
+            for (int i = 0; i < rings.length; i++) {
+                rings[i] = (LinearRing) simplify(((Polygon) geometry).getRing(i));
+            }
+            result = new Polygon(rings);
+            break;
+        case Geometry.MULTILINESTRING:
+            LineString[] lines = new LineString[((ComposedGeom) geometry).numGeoms()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = (LineString) simplify(((ComposedGeom) geometry).getSubGeometry(i));
+            }
+            result = new MultiLineString(lines);
+            break;
+        case Geometry.MULTIPOLYGON:
+            Polygon[] polygons = new Polygon[((ComposedGeom) geometry).numGeoms()];
+            for (int i = 0; i < polygons.length; i++) {
+                polygons[i] = (Polygon) simplify(((ComposedGeom) geometry).getSubGeometry(i));
+            }
+            result = new MultiPolygon(polygons);
+            break;
+        case Geometry.GEOMETRYCOLLECTION:
+            Geometry[] geometries = new Geometry[((ComposedGeom) geometry).numGeoms()];
+            for (int i = 0; i < geometries.length; i++) {
+                geometries[i] = simplify(((ComposedGeom) geometry).getSubGeometry(i));
+            }
+            result = new GeometryCollection(geometries);
+            break;
+        default:
+            return geometry;
+        }
+        if (((ComposedGeom) result).isEmpty()) {
+            // keep the dimension of empty geometries, which constructors take from the first part
+            result.dimension = geometry.dimension;
+            result.haveMeasure = geometry.haveMeasure;
+        }
+        if (geometry.srid != Geometry.UNKNOWN_SRID) {
+            result.setSrid(geometry.srid);
+        }
+        return result;
+    }
+
+
+    /**
+     * Mark the vertices to keep.
+     *
+     * @param ordinates the vertices
+     * @param count the number of vertices, more than the minimum to keep
+     * @param dimension the number of ordinates per vertex
+     * @param ring whether the vertices form a closed ring
+     */
+    abstract void mark(double[] ordinates, int count, int dimension, boolean ring);
+
+
+    private Point[] simplifyPoints(final PointComposedGeom geometry, final boolean ring) {
+        int count = geometry.numPoints();
+        boolean haveZ = geometry.dimension == 3;
+        boolean haveM = geometry.haveMeasure;
+        int dimension = 2 + (haveZ ? 1 : 0) + (haveM ? 1 : 0);
+        if (packed.length < count * dimension) {
+            packed = new double[count * dimension];
+        }
+        for (int i = 0, j = 0; i < count; i++, j += dimension) {
+            Point point = geometry.getPoint(i);
+            packed[j] = point.x;
+            packed[j + 1] = point.y;
+            if (haveZ) {
+                packed[j + 2] = point.z;
+            }
+            if (haveM) {
+                packed[j + dimension - 1] = point.m;
+            }
+        }
+        int kept = simplify(packed, count, dimension, ring);
+        Point[] result = new Point[kept];
+        for (int i = 0, j = 0; i < kept; i++, j += dimension) {
+            Point point = haveZ ? new Point(packed[j], packed[j + 1], packed[j + 2]) : new Point(packed[j], packed[j + 1]);
+            if (haveM) {
+                point.setM(packed[j + dimension - 1]);
+            }
+            result[i] = point;
+        }
+        return result;
+    }
+
+
+    /** The squared distance of vertex p from the segment between vertices a and b. */
+    static double segmentDistanceSquared(final double[] o, final int dimension, final int p, final int a,
+                                         final int b) {
+        double px = o[p * dimension];
+        double py = o[p * dimension + 1];
+        double ax = o[a * dimension];
+        double ay = o[a * dimension + 1];
+        double dx = o[b * dimension] - ax;
+        double dy = o[b * dimension + 1] - ay;
+        double length = dx * dx + dy * dy;
+        double t = length == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / length;
+        t = t < 0 ? 0 : t > 1 ? 1 : t;
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+
+
+    /** The area of the triangle formed by vertices a, b and c. */
+    static double triangleArea(final double[] o, final int dimension, final int a, final int b, final int c) {
+        double ax = o[a * dimension];
+        double ay = o[a * dimension + 1];
+        return Math.abs((o[b * dimension] - ax) * (o[c * dimension + 1] - ay)
+                - (o[c * dimension] - ax) * (o[b * dimension + 1] - ay)) / 2;
+    }
+
+
+    /** Douglas-Peucker, with an explicit stack of vertex ranges instead of recursion. */
+    private static final class DouglasPeucker extends Simplifier {
+
+        private final double toleranceSquared;
+
+        private int[] stack = new int[64];
+
+
+        DouglasPeucker(final double tolerance) {
+            this.toleranceSquared = tolerance * tolerance;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        void mark(final double[] ordinates, final int count, final int dimension, final boolean ring) {
+            int last = count - 1;
+            keep[0] = true;
+            keep[last] = true;
+            if (!ring) {
+                mark(ordinates, dimension, 0, last);
+                return;
+            }
+            // the end points of a ring coincide, split it at the vertex farthest from them instead
+            int split = 1;
+            double farthest = -1;
+            for (int i = 1; i < last; i++) {
+                double distance = segmentDistanceSquared(ordinates, dimension, i, 0, 0);
+                if (distance > farthest) {
+                    farthest = distance;
+                    split = i;
+                }
+            }
+            keep[split] = true;
+            mark(ordinates, dimension, 0, split);
+            mark(ordinates, dimension, split, last);
+            keepFourth(ordinates, dimension, count);
+        }
+
+
+        private void mark(final double[] ordinates, final int dimension, final int first, final int last) {
+            int depth = 0;
+            stack[depth++] = first;
+            stack[depth++] = last;
+            while (depth > 0) {
+                int b = stack[--depth];
+                int a = stack[--depth];
+                int index = -1;
+                double max = toleranceSquared;
+                for (int i = a + 1; i < b; i++) {
+                    double distance = segmentDistanceSquared(ordinates, dimension, i, a, b);
+                    if (distance > max) {
+                        max = distance;
+                        index = i;
+                    }
+                }
+                if (index >= 0) {
+                    keep[index] = true;
+                    if (depth + 4 > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[depth++] = a;
+                    stack[depth++] = index;
+                    stack[depth++] = index;
+                    stack[depth++] = b;
+                }
+            }
+        }
+
+
+        /** Keep the vertex farthest from the simplified ring if only three are left. */
+        private void keepFourth(final double[] ordinates, final int dimension, final int count) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                kept += keep[i] ? 1 : 0;
+            }
+            if (kept >= 4) {
+                return;
+            }
+            int index = -1;
+            double max = -1;
+            int previous = 0;
+            for (int i = 1; i < count; i++) {
+                if (keep[i]) {
+                    for (int j = previous + 1; j < i; j++) {
+                        double distance = segmentDistanceSquared(ordinates, dimension, j, previous, i);
+                        if (distance > max) {
+                            max = distance;
+                            index = j;
+                        }
+                    }
+                    previous = i;
+                }
+            }
+            keep[index] = true;
+        }
+    }
+
+
+    /** Visvalingam-Whyatt, with a linked list of remaining vertices and a heap of their effective areas. */
+    private static final class Visvalingam extends Simplifier {
+
+        private final double tolerance;
+
+        private int[] previous = new int[0];
+
+        private int[] next = new int[0];
+
+        private double[] areas = new double[0];
+
+        /** The vertices still removable, as a binary min-heap by area. */
+        private int[] heap = new int[0];
+
+        /** The heap position of each vertex, -1 once removed from the heap. */
+        private int[] positions = new int[0];
+
+        private int size;
+
+
+        Visvalingam(final double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        void mark(final double[] ordinates, final int count, final int dimension, final boolean ring) {
+            if (previous.length < count) {
+                previous = new int[count];
+                next = new int[count];
+                areas = new double[count];
+                heap = new int[count];
+                positions = new int[count];
+            }
+            size = 0;
+            for (int i = 0; i < count; i++) {
+                previous[i] = i - 1;
+                next[i] = i + 1;
+                keep[i] = true;
+            }
+            // the first and last vertex stay, for rings as well
+            for (int i = 1; i < count - 1; i++) {
+                areas[i] = triangleArea(ordinates, dimension, i - 1, i, i + 1);
+                positions[i] = size;
+                heap[size++] = i;
+                up(positions[i]);
+            }
+            int remaining = count;
+            int minimum = ring ? 4 : 2;
+            while (size > 0 && remaining > minimum && areas[heap[0]] < tolerance) {
+                int vertex = heap[0];
+                double area = areas[vertex];
+                remove(0);
+                keep[vertex] = false;
+                remaining--;
+                int before = previous[vertex];
+                int after = next[vertex];
+                next[before] = after;
+                previous[after] = before;
+                // the neighbours get at least the area just removed, so that the order of removals is monotonic
+                update(ordinates, dimension, before, area);
+                update(ordinates, dimension, after, area);
+            }
+        }
+
+
+        /** Recompute the area of a vertex whose neighbour was removed, not going below the removed area. */
+        private void update(final double[] ordinates, final int dimension, final int vertex, final double removed) {
+            int position = positions[vertex];
+            if (position < 0 || position >= size || heap[position] != vertex) {
+                return; // an end point, which is not in the heap
+            }
+            double old = areas[vertex];
+            double area = Math.max(removed, triangleArea(ordinates, dimension, previous[vertex], vertex, next[vertex]));
+            areas[vertex] = area;
+            if (area < old) {
+                up(position);
+            } else {
+                down(position);
+            }
+        }
+
+
+        private void remove(final int position) {
+            int vertex = heap[position];
+            positions[vertex] = -1;
+            size--;
+            if (position < size) {
+                int moved = heap[size];
+                heap[position] = moved;
+                positions[moved] = position;
+                down(position);
+                up(positions[moved]);
+            }
+        }
+
+
+        private void up(final int start) {
+            int position = start;
+            int vertex = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (areas[heap[parent]] <= areas[vertex]) {
+                    break;
+                }
+                heap[position] = heap[parent];
+                positions[heap[position]] = position;
+                position = parent;
+            }
+            heap[position] = vertex;
+            positions[vertex] = position;
+        }
+
+
+        private void down(final int start) {
+            int position = start;
+            int vertex = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && areas[heap[child + 1]] < areas[heap[child]]) {
+                    child++;
+                }
+                if (areas[heap[child]] >= areas[vertex]) {
+                    break;
+                }
+                heap[position] = heap[child];
+                positions[heap[position]] = position;
+                position = child;
+            }
+            heap[position] = vertex;
+            positions[vertex] = position;
+        }
+    }
+
+
+}
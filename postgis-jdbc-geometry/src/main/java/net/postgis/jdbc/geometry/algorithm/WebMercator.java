@@ -0,0 +1,190 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.PointCursor;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+
+/**
+ * Transforms between WGS 84 longitude/latitude (EPSG:4326) and spherical Web Mercator (EPSG:3857), the projection
+ * of map tiles.
+ *
+ * The methods on double arrays transform packed coordinates in place: x and y of every vertex in turn, followed by
+ * as many further ordinates as the dimension says, which are kept. Latitudes beyond
+ * {@link #MAX_LATITUDE} are clamped to it, which maps the poles to the edge of the square tile pyramid instead of
+ * infinity.
+ */
+public final class WebMercator {
+
+    /** The SRID of WGS 84 longitude/latitude. */
+    public static final int WGS84 = 4326;
+
+    /** The SRID of spherical Web Mercator. */
+    public static final int WEB_MERCATOR = 3857;
+
+    /** The radius of the sphere, which is the semi-major axis of WGS 84. */
+    public static final double RADIUS = 6378137.0;
+
+    /** The latitude at which the projected square ends, in degrees. */
+    public static final double MAX_LATITUDE = 85.0511287798066;
+
+    private static final double RADIANS = Math.PI / 180;
+
+    private static final double DEGREES = 180 / Math.PI;
+
+
+    private WebMercator() {
+    }
+
+
+    /**
+     * Project longitude/latitude into Web Mercator.
+     *
+     * @param ordinates the coordinates, longitude and latitude first per vertex
+     * @param offset the index of the first ordinate
+     * @param count the number of vertices
+     * @param dimension the number of ordinates per vertex, at least 2
+     */
+    public static void toMercator(final double[] ordinates, final int offset, final int count, final int dimension) {
+        for (int i = offset, end = offset + count * dimension; i < end; i += dimension) {
+            double latitude = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, ordinates[i + 1]));
+            double sin = Math.sin(latitude * RADIANS);
+            ordinates[i] = RADIUS * RADIANS * ordinates[i];
+            // R * atanh(sin(latitude)), the same as R * ln(tan(pi/4 + latitude/2)) with one call less
+            ordinates[i + 1] = RADIUS * 0.5 * Math.log((1 + sin) / (1 - sin));
+        }
+    }
+
+
+    /**
+     * Unproject Web Mercator into longitude/latitude.
+     *
+     * @param ordinates the coordinates, x and y first per vertex
+     * @param offset the index of the first ordinate
+     * @param count the number of vertices
+     * @param dimension the number of ordinates per vertex, at least 2
+     */
+    public static void toWgs84(final double[] ordinates, final int offset, final int count, final int dimension) {
+        for (int i = offset, end = offset + count * dimension; i < end; i += dimension) {
+            ordinates[i] = ordinates[i] / RADIUS * DEGREES;
+            ordinates[i + 1] = Math.atan(Math.sinh(ordinates[i + 1] / RADIUS)) * DEGREES;
+        }
+    }
+
+
+    /**
+     * Transform packed coordinates between the two SRIDs, in either direction.
+     *
+     * @param ordinates the coordinates
+     * @param offset the index of the first ordinate
+     * @param count the number of vertices
+     * @param dimension the number of ordinates per vertex, at least 2
+     * @param sourceSrid the SRID of the coordinates
+     * @param targetSrid the SRID to transform to, nothing is done if it equals the source
+     * @throws IllegalArgumentException if the SRIDs are not {@link #WGS84} and {@link #WEB_MERCATOR}
+     */
+    public static void transform(final double[] ordinates, final int offset, final int count, final int dimension,
+                                 final int sourceSrid, final int targetSrid) {
+        checkSrids(sourceSrid, targetSrid);
+        if (sourceSrid == WGS84 && targetSrid == WEB_MERCATOR) {
+            toMercator(ordinates, offset, count, dimension);
+        } else if (sourceSrid == WEB_MERCATOR && targetSrid == WGS84) {
+            toWgs84(ordinates, offset, count, dimension);
+        }
+    }
+
+
+    /**
+     * Transform a geometry in place, from its SRID to the target one, and set the target SRID.
+     *
+     * Point instances occurring more than once, like a closing vertex that is the first point of its ring, are
+     * transformed once.
+     *
+     * @param geometry the geometry, with SRID {@link #WGS84} or {@link #WEB_MERCATOR}
+     * @param targetSrid the SRID to transform to
+     * @return the geometry
+     * @throws IllegalArgumentException if the SRIDs are not {@link #WGS84} and {@link #WEB_MERCATOR}
+     */
+    public static Geometry transform(final Geometry geometry, final int targetSrid) {
+        int sourceSrid = geometry.getSrid();
+        checkSrids(sourceSrid, targetSrid);
+        if (sourceSrid == targetSrid) {
+            return geometry;
+        }
+        // transform in chunks through a small buffer, assigning the fields directly
+        int chunk = Math.min(Math.max(geometry.numPoints(), 1), 256);
+        double[] buffer = new double[2 * chunk];
+        Point[] points = new Point[chunk];
+        Set<Point> seen = Collections.newSetFromMap(new IdentityHashMap<Point, Boolean>());
+        PointCursor cursor = new PointCursor(geometry);
+        int count = 0;
+        boolean more = true;
+        while (more) {
+            more = cursor.next();
+            if (more) {
+                Point point = cursor.getPoint();
+                if (!seen.add(point)) {
+                    continue;
+                }
+                points[count] = point;
+                buffer[2 * count] = point.x;
+                buffer[2 * count + 1] = point.y;
+                count++;
+            }
+            if (count == chunk || (!more && count > 0)) {
+                transform(buffer, 0, count, 2, sourceSrid, targetSrid);
+                for (int i = 0; i < count; i++) {
+                    points[i].x = buffer[2 * i];
+                    points[i].y = buffer[2 * i + 1];
+                    // also discards the caches of other geometries sharing the point
+                    points[i].invalidateEnvelope();
+                }
+                count = 0;
+            }
+        }
+        geometry.setSrid(targetSrid);
+        return geometry;
+    }
+
+
+    /**
+     * Check whether the SRIDs are supported.
+     *
+     * @param sourceSrid the SRID of the coordinates
+     * @param targetSrid the SRID to transform to
+     * @throws IllegalArgumentException if the SRIDs are not {@link #WGS84} and {@link #WEB_MERCATOR}
+     */
+    public static void checkSrids(final int sourceSrid, final int targetSrid) {
+        if (!isSupported(sourceSrid) || !isSupported(targetSrid)) {
+            throw new IllegalArgumentException("Cannot transform SRID " + sourceSrid + " to " + targetSrid
+                    + ", only " + WGS84 + " and " + WEB_MERCATOR + " are supported");
+        }
+    }
+
+
+    private static boolean isSupported(final int srid) {
+        return srid == WGS84 || srid == WEB_MERCATOR;
+    }
+
+
+}
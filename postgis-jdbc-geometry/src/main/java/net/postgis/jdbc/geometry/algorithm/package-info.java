@@ -0,0 +1,4 @@
+/**
+ * Geometric algorithms working on the geometry model directly, without a conversion to JTS.
+ */
+package net.postgis.jdbc.geometry.algorithm;
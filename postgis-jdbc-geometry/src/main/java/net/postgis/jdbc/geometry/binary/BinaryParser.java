@@ -24,6 +24,7 @@
  */
 package net.postgis.jdbc.geometry.binary;
 
+import net.postgis.jdbc.geometry.Envelope;
 import net.postgis.jdbc.geometry.Geometry;
 import net.postgis.jdbc.geometry.GeometryCollection;
 import net.postgis.jdbc.geometry.LineString;
@@ -33,8 +34,11 @@ import net.postgis.jdbc.geometry.MultiPoint;
 import net.postgis.jdbc.geometry.MultiPolygon;
 import net.postgis.jdbc.geometry.Point;
 import net.postgis.jdbc.geometry.Polygon;
+import net.postgis.jdbc.geometry.algorithm.Simplifier;
+import net.postgis.jdbc.geometry.algorithm.WebMercator;
 import net.postgis.jdbc.geometry.binary.ByteGetter.BinaryByteGetter;
 import net.postgis.jdbc.geometry.binary.ByteGetter.StringByteGetter;
+import net.postgis.jdbc.geometry.jfr.GeometryEvents;
 
 
 /**
@@ -53,6 +57,81 @@ import net.postgis.jdbc.geometry.binary.ByteGetter.StringByteGetter;
  */
 public class BinaryParser {
 
+    /** Reused for decoding the coordinates of point arrays at once, guarded by the parse lock. */
+    private double[] ordinates = new double[0];
+
+    /** Reused for the envelope of the decoded point arrays, guarded by the parse lock. */
+    private final double[] bounds = new double[4];
+
+    /** Reused for transforming single points, guarded by the parse lock. */
+    private final double[] xy = new double[2];
+
+    /** Simplifies decoded point arrays, null to keep all points. */
+    private final Simplifier simplifier;
+
+    /** The SRID to transform coordinates to, UNKNOWN_SRID to keep them. */
+    private final int targetSrid;
+
+    /** The SRID of the geometry being decoded, inherited by its parts, guarded by the parse lock. */
+    private int sourceSrid = Geometry.UNKNOWN_SRID;
+
+    /** Instantiate a parser which keeps all points. */
+    public BinaryParser() {
+        this(null);
+    }
+
+    /**
+     * Instantiate a parser which simplifies line strings and polygon rings
+     * while decoding them, before any Point objects are created.
+     *
+     * @param simplifier the simplifier, which must not be used elsewhere
+     *            while this parser is in use; null to keep all points
+     */
+    public BinaryParser(Simplifier simplifier) {
+        this(simplifier, Geometry.UNKNOWN_SRID);
+    }
+
+    /**
+     * Instantiate a parser which transforms coordinates between WGS 84 and
+     * Web Mercator while decoding them, see {@link WebMercator}.
+     *
+     * Geometries in the target SRID or without SRID are returned as they
+     * are, others get the target SRID. The simplifier, if any, runs on the
+     * transformed coordinates, so its tolerance is in target units.
+     *
+     * @param simplifier the simplifier, which must not be used elsewhere
+     *            while this parser is in use; null to keep all points
+     * @param targetSrid {@link WebMercator#WGS84} or
+     *            {@link WebMercator#WEB_MERCATOR}; UNKNOWN_SRID to keep the
+     *            coordinates
+     * @throws IllegalArgumentException if the target SRID is not supported
+     */
+    public BinaryParser(Simplifier simplifier, int targetSrid) {
+        if (targetSrid != Geometry.UNKNOWN_SRID) {
+            WebMercator.checkSrids(targetSrid, targetSrid);
+        }
+        this.simplifier = simplifier;
+        this.targetSrid = targetSrid;
+    }
+
+    /**
+     * Get the simplifier of this parser, see {@link GeometryCache}.
+     *
+     * @return the simplifier, null if all points are kept
+     */
+    Simplifier simplifier() {
+        return simplifier;
+    }
+
+    /**
+     * Get the SRID this parser transforms to, see {@link GeometryCache}.
+     *
+     * @return the target SRID, UNKNOWN_SRID if coordinates are kept
+     */
+    int targetSrid() {
+        return targetSrid;
+    }
+
     /**
      * Get the appropriate ValueGetter for my endianness
      * 
@@ -80,8 +159,11 @@ public class BinaryParser {
      * @return resulting geometry for the parsed data
      */
     public synchronized Geometry parse(String value) {
+        Object event = GeometryEvents.beginParse();
         StringByteGetter bytes = new StringByteGetter(value);
-        return parseGeometry(valueGetterForEndian(bytes));
+        Geometry result = parseGeometry(valueGetterForEndian(bytes));
+        GeometryEvents.end(event, result, value.length(), GeometryEvents.HEX);
+        return result;
     }
 
     /**
@@ -94,8 +176,11 @@ public class BinaryParser {
      * @return resulting geometry for the parsed data
      */
     public synchronized Geometry parse(byte[] value) {
+        Object event = GeometryEvents.beginParse();
         BinaryByteGetter bytes = new BinaryByteGetter(value);
-        return parseGeometry(valueGetterForEndian(bytes));
+        Geometry result = parseGeometry(valueGetterForEndian(bytes));
+        GeometryEvents.end(event, result, value.length, GeometryEvents.BINARY);
+        return result;
     }
 
     /**
@@ -122,6 +207,18 @@ public class BinaryParser {
         if (haveS) {
             srid = Geometry.parseSRID(data.getInt());
         }
+        int outerSrid = sourceSrid;
+        if (srid != Geometry.UNKNOWN_SRID) {
+            sourceSrid = srid;
+        }
+        try {
+            return setTargetSrid(parseGeometry(data, realtype, haveZ, haveM), srid);
+        } finally {
+            sourceSrid = outerSrid;
+        }
+    }
+
+    private Geometry parseGeometry(ValueGetter data, int realtype, boolean haveZ, boolean haveM) {
         Geometry result1;
         switch (realtype) {
         case Geometry.POINT :
@@ -149,17 +246,34 @@ public class BinaryParser {
             throw new IllegalArgumentException("Unknown Geometry Type: " + realtype);
         }
 
-        Geometry result = result1;
+        return result1;
+    }
 
+    private Geometry setTargetSrid(Geometry result, int srid) {
         if (srid != Geometry.UNKNOWN_SRID) {
-            result.setSrid(srid);
+            result.setSrid(transforming() ? targetSrid : srid);
         }
         return result;
     }
 
+    /**
+     * Whether the coordinates being decoded have to be transformed.
+     */
+    private boolean transforming() {
+        return targetSrid != Geometry.UNKNOWN_SRID && sourceSrid != Geometry.UNKNOWN_SRID
+                && sourceSrid != targetSrid;
+    }
+
     private Point parsePoint(ValueGetter data, boolean haveZ, boolean haveM) {
         double X = data.getDouble();
         double Y = data.getDouble();
+        if (transforming()) {
+            xy[0] = X;
+            xy[1] = Y;
+            WebMercator.transform(xy, 0, 1, 2, sourceSrid, targetSrid);
+            X = xy[0];
+            Y = xy[1];
+        }
         Point result;
         if (haveZ) {
             double Z = data.getDouble();
@@ -188,12 +302,29 @@ public class BinaryParser {
      * 
      * @param haveZ
      * @param haveM
+     * @param ring whether the points form a ring, for the simplifier
      */
-    private Point[] parsePointArray(ValueGetter data, boolean haveZ, boolean haveM) {
+    private Point[] parsePointArray(ValueGetter data, boolean haveZ, boolean haveM, boolean ring) {
         int count = data.getInt();
+        int dimension = 2 + (haveZ ? 1 : 0) + (haveM ? 1 : 0);
+        if (ordinates.length < count * dimension) {
+            ordinates = new double[count * dimension];
+        }
+        data.getDoubles(ordinates, 0, count * dimension);
+        if (transforming()) {
+            WebMercator.transform(ordinates, 0, count, dimension, sourceSrid, targetSrid);
+        }
+        if (simplifier != null) {
+            count = simplifier.simplify(ordinates, count, dimension, ring);
+        }
         Point[] result = new Point[count];
-        for (int i = 0; i < count; i++) {
-            result[i] = parsePoint(data, haveZ, haveM);
+        for (int i = 0, j = 0; i < count; i++, j += dimension) {
+            Point point = haveZ ? new Point(ordinates[j], ordinates[j + 1], ordinates[j + 2])
+                    : new Point(ordinates[j], ordinates[j + 1]);
+            if (haveM) {
+                point.setM(ordinates[j + dimension - 1]);
+            }
+            result[i] = point;
         }
         return result;
     }
@@ -205,13 +336,48 @@ public class BinaryParser {
     }
 
     private LineString parseLineString(ValueGetter data, boolean haveZ, boolean haveM) {
-        Point[] points = parsePointArray(data, haveZ, haveM);
-        return new LineString(points);
+        Point[] points = parsePointArray(data, haveZ, haveM, false);
+        LineString result = new LineString(points);
+        result.setEnvelope(ordinatesEnvelope(points.length, haveZ, haveM));
+        return result;
     }
 
     private LinearRing parseLinearRing(ValueGetter data, boolean haveZ, boolean haveM) {
-        Point[] points = parsePointArray(data, haveZ, haveM);
-        return new LinearRing(points);
+        Point[] points = parsePointArray(data, haveZ, haveM, true);
+        LinearRing result = new LinearRing(points);
+        result.setEnvelope(ordinatesEnvelope(points.length, haveZ, haveM));
+        return result;
+    }
+
+    /**
+     * The envelope of the point array just decoded into the ordinates buffer.
+     */
+    private Envelope ordinatesEnvelope(int count, boolean haveZ, boolean haveM) {
+        int dimension = 2 + (haveZ ? 1 : 0) + (haveM ? 1 : 0);
+        double inf = Double.POSITIVE_INFINITY;
+        bounds[0] = inf;
+        bounds[1] = inf;
+        bounds[2] = -inf;
+        bounds[3] = -inf;
+        Kernels.expandEnvelope(ordinates, 0, count, dimension, bounds);
+        if (bounds[0] > bounds[2] || bounds[1] > bounds[3]) {
+            return Envelope.EMPTY;
+        } else if (!haveZ) {
+            return new Envelope(bounds[0], bounds[1], bounds[2], bounds[3]);
+        }
+        double minZ = inf;
+        double maxZ = -inf;
+        for (int i = 2, end = count * dimension; i < end; i += dimension) {
+            double z = ordinates[i];
+            if (z < minZ) {
+                minZ = z;
+            }
+            if (z > maxZ) {
+                maxZ = z;
+            }
+        }
+        return minZ <= maxZ ? new Envelope(bounds[0], bounds[1], minZ, bounds[2], bounds[3], maxZ)
+                : new Envelope(bounds[0], bounds[1], bounds[2], bounds[3]);
     }
 
     private Polygon parsePolygon(ValueGetter data, boolean haveZ, boolean haveM) {
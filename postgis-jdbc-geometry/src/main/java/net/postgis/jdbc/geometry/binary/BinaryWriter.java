@@ -33,6 +33,7 @@ import net.postgis.jdbc.geometry.MultiPoint;
 import net.postgis.jdbc.geometry.MultiPolygon;
 import net.postgis.jdbc.geometry.Point;
 import net.postgis.jdbc.geometry.Polygon;
+import net.postgis.jdbc.geometry.jfr.GeometryEvents;
 
 
 /**
@@ -86,10 +87,13 @@ public class BinaryWriter {
      * @return String containing the hex encoded geometry
      */
     public synchronized String writeHexed(Geometry geom, byte REP) {
+        Object event = GeometryEvents.beginSerialize();
         int length = estimateBytes(geom);
         ByteSetter.StringByteSetter bytes = new ByteSetter.StringByteSetter(length);
         writeGeometry(geom, valueSetterForEndian(bytes, REP));
-        return bytes.result();
+        String result = bytes.result();
+        GeometryEvents.end(event, geom, result.length(), GeometryEvents.HEX);
+        return result;
     }
 
     public synchronized String writeHexed(Geometry geom) {
@@ -113,10 +117,13 @@ public class BinaryWriter {
      * @return byte array containing the encoded geometry
      */
     public synchronized byte[] writeBinary(Geometry geom, byte REP) {
+        Object event = GeometryEvents.beginSerialize();
         int length = estimateBytes(geom);
         ByteSetter.BinaryByteSetter bytes = new ByteSetter.BinaryByteSetter(length);
         writeGeometry(geom, valueSetterForEndian(bytes, REP));
-        return bytes.result();
+        byte[] result = bytes.result();
+        GeometryEvents.end(event, geom, result.length, GeometryEvents.BINARY);
+        return result;
     }
 
     public synchronized byte[] writeBinary(Geometry geom) {
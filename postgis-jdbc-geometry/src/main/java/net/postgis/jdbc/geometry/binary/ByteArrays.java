@@ -0,0 +1,94 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+/**
+ * Reads and writes the values of the binary representation in byte arrays at once, instead of byte by byte.
+ *
+ * The jar is a multi-release jar: on Java 17 and newer, the variant in META-INF/versions/17 replaces this class. This
+ * one must stay compatible with Java 8 and keeps to plain shifts.
+ */
+final class ByteArrays {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+
+    private ByteArrays() {
+    }
+
+
+    static int getInt(final byte[] array, final int index, final boolean bigEndian) {
+        if (bigEndian) {
+            return (array[index] << 24) | ((array[index + 1] & 0xFF) << 16)
+                    | ((array[index + 2] & 0xFF) << 8) | (array[index + 3] & 0xFF);
+        } else {
+            return (array[index + 3] << 24) | ((array[index + 2] & 0xFF) << 16)
+                    | ((array[index + 1] & 0xFF) << 8) | (array[index] & 0xFF);
+        }
+    }
+
+
+    static long getLong(final byte[] array, final int index, final boolean bigEndian) {
+        if (bigEndian) {
+            return ((long) getInt(array, index, true) << 32) | (getInt(array, index + 4, true) & 0xFFFFFFFFL);
+        } else {
+            return ((long) getInt(array, index + 4, false) << 32) | (getInt(array, index, false) & 0xFFFFFFFFL);
+        }
+    }
+
+
+    static void putInt(final byte[] array, final int index, final int value, final boolean bigEndian) {
+        if (bigEndian) {
+            array[index] = (byte) (value >>> 24);
+            array[index + 1] = (byte) (value >>> 16);
+            array[index + 2] = (byte) (value >>> 8);
+            array[index + 3] = (byte) value;
+        } else {
+            array[index + 3] = (byte) (value >>> 24);
+            array[index + 2] = (byte) (value >>> 16);
+            array[index + 1] = (byte) (value >>> 8);
+            array[index] = (byte) value;
+        }
+    }
+
+
+    static void putLong(final byte[] array, final int index, final long value, final boolean bigEndian) {
+        if (bigEndian) {
+            putInt(array, index, (int) (value >>> 32), true);
+            putInt(array, index + 4, (int) value, true);
+        } else {
+            putInt(array, index + 4, (int) (value >>> 32), false);
+            putInt(array, index, (int) value, false);
+        }
+    }
+
+
+    /**
+     * Hex encode bytes.
+     *
+     * @param array the bytes
+     * @return the upper case hex representation
+     */
+    static String hex(final byte[] array) {
+        char[] chars = new char[array.length * 2];
+        for (int i = 0, j = 0; i < array.length; i++, j += 2) {
+            chars[j] = HEX_DIGITS[(array[i] >>> 4) & 0xF];
+            chars[j + 1] = HEX_DIGITS[array[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -36,7 +36,7 @@ public abstract class ByteGetter {
     public abstract int get(int index);
 
     public static class BinaryByteGetter extends ByteGetter {
-        private byte[] array;
+        final byte[] array;
 
         public BinaryByteGetter(byte[] array) {
             this.array = array;
@@ -61,6 +61,24 @@ public abstract class ByteGetter {
             return (high << 4) + low;
         }
 
+        /**
+         * Decode a hex string into a byte array, reusing the given buffer if it
+         * is large enough.
+         *
+         * @param hex the hex encoded data
+         * @param buffer a buffer to reuse, may be null
+         * @return the buffer holding the decoded bytes at its start, which is a
+         *         new array if the given one was too small
+         */
+        public static byte[] unhex(String hex, byte[] buffer) {
+            int length = hex.length() / 2;
+            if (buffer == null || buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer == null ? 0 : buffer.length * 2)];
+            }
+            Kernels.unhex(hex, buffer, length);
+            return buffer;
+        }
+
         public static byte unhex(char c) {
             if (c >= '0' && c <= '9') {
                 return (byte) (c - '0');
@@ -36,7 +36,7 @@ public abstract class ByteSetter {
     public abstract void set(byte b, int index);
 
     public static class BinaryByteSetter extends ByteSetter {
-        private byte[] array;
+        final byte[] array;
 
         public BinaryByteSetter(int length) {
             this.array = new byte[length];
@@ -59,30 +59,32 @@ public abstract class ByteSetter {
         }
     }
 
+    /**
+     * Collects the bytes and hex encodes them at once when the result is
+     * taken, so values can be written to the array directly.
+     */
     public static class StringByteSetter extends ByteSetter {
         protected static final char[] hextypes = "0123456789ABCDEF".toCharArray();
-        private char[] rep;
+        final byte[] array;
 
         public StringByteSetter(int length) {
-            this.rep = new char[length * 2];
+            this.array = new byte[length];
         }
 
         public void set(byte b, int index) {
-            index *= 2;
-            rep[index] = hextypes[(b >>> 4) & 0xF];
-            rep[index + 1] = hextypes[b & 0xF];
+            array[index] = b;
         }
 
         public char[] resultAsArray() {
-            return rep;
+            return result().toCharArray();
         }
 
         public String result() {
-            return new String(rep);
+            return Kernels.hex(array);
         }
         
         public String toString() {
-            return new String(rep);
+            return result();
         }
     }
 }
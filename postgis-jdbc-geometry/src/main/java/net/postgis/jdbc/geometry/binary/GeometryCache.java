@@ -0,0 +1,232 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.algorithm.Simplifier;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * An interning cache for decoded geometries, so that rows repeating the same value share one decoded instance.
+ *
+ * Query results often repeat a few large values, e.g. the boundary of a region joined to every row inside of it.
+ * Parsing them again for every row costs time and keeps one copy of the coordinates per row. This cache is keyed by
+ * the SHA-256 digest of the EWKB: a value seen before is returned without being parsed, values are only parsed when
+ * missing. Values shorter than a threshold are always parsed, as digesting them costs about as much as parsing.
+ * Equal geometries sent in a different byte order are separate entries.
+ *
+ * As the parser may simplify or transform the geometry, the simplifier instance and the target SRID of the parser are
+ * part of the key: the same value parsed with other settings is a separate entry.
+ *
+ * The least recently used entries are evicted beyond the maximum size. The cache is safe for use by multiple threads.
+ *
+ * The returned geometries are shared with every other caller getting the same value, so they must be treated as
+ * read-only: changing one changes the geometry of all rows it was returned for.
+ */
+public final class GeometryCache {
+
+    /** Values shorter than this are not interned by default; a 2d line string of 16 vertices has 265 bytes. */
+    public static final int DEFAULT_MIN_BYTES = 256;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    };
+
+    private final int minBytes;
+
+    private final Map<Key, Geometry> entries;
+
+    private long hits;
+
+    private long misses;
+
+
+    /**
+     * Instantiate with the specified state, interning values of at least {@link #DEFAULT_MIN_BYTES}.
+     *
+     * @param maxEntries the maximum number of geometries kept
+     */
+    public GeometryCache(final int maxEntries) {
+        this(maxEntries, DEFAULT_MIN_BYTES);
+    }
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param maxEntries the maximum number of geometries kept
+     * @param minBytes the minimum EWKB length of values to intern, shorter ones are always parsed
+     */
+    public GeometryCache(final int maxEntries, final int minBytes) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1: " + maxEntries);
+        }
+        this.minBytes = minBytes;
+        this.entries = new LinkedHashMap<Key, Geometry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Geometry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+
+    /**
+     * Get the geometry encoded in the given EWKB, parsing it only if it is not cached yet.
+     *
+     * @param parser the parser for values which are not cached
+     * @param value the buffer holding the EWKB at its start
+     * @param length the length of the EWKB, the rest of the buffer is ignored
+     * @return the geometry, shared with other callers if the value was interned
+     */
+    public Geometry parse(final BinaryParser parser, final byte[] value, final int length) {
+        if (length < minBytes) {
+            return parser.parse(value);
+        }
+        MessageDigest digest = DIGEST.get();
+        digest.update(value, 0, length);
+        Key key = new Key(digest.digest(), parser.simplifier(), parser.targetSrid());
+        synchronized (entries) {
+            Geometry geometry = entries.get(key);
+            if (geometry != null) {
+                hits++;
+                return geometry;
+            }
+            misses++;
+        }
+        // parse outside of the lock; should another thread be parsing the same value, the later one wins
+        Geometry geometry = parser.parse(value);
+        synchronized (entries) {
+            entries.put(key, geometry);
+        }
+        return geometry;
+    }
+
+
+    /**
+     * Get the geometry encoded in the given EWKB, parsing it only if it is not cached yet.
+     *
+     * @param parser the parser for values which are not cached
+     * @param value the EWKB
+     * @return the geometry, shared with other callers if the value was interned
+     */
+    public Geometry parse(final BinaryParser parser, final byte[] value) {
+        return parse(parser, value, value.length);
+    }
+
+
+    /**
+     * Get the number of cached geometries.
+     *
+     * @return the size
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+
+    /**
+     * Get the number of lookups which found the value cached.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+
+    /**
+     * Get the number of lookups which had to parse the value, not counting values below the minimum length.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+
+
+    /** Remove all cached geometries. */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+
+    /** A digest and the parser settings as map key. */
+    private static final class Key {
+
+        private final byte[] digest;
+
+        /** Compared by identity, as simplifiers have no value semantics. */
+        private final Simplifier simplifier;
+
+        private final int targetSrid;
+
+        private final int hash;
+
+
+        Key(final byte[] digest, final Simplifier simplifier, final int targetSrid) {
+            this.digest = digest;
+            this.simplifier = simplifier;
+            this.targetSrid = targetSrid;
+            this.hash = ((digest[0] & 0xFF) | (digest[1] & 0xFF) << 8 | (digest[2] & 0xFF) << 16 | digest[3] << 24)
+                    ^ 31 * targetSrid ^ System.identityHashCode(simplifier);
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return simplifier == key.simplifier && targetSrid == key.targetSrid && Arrays.equals(digest, key.digest);
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+
+}
@@ -0,0 +1,96 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+/**
+ * Bulk operations over coordinates and encoded values, used by the parsers and writers.
+ *
+ * This is the implementation for Java 8 to 16, which is scalar. The multi-release jar has a variant for Java 17 and
+ * newer in META-INF/versions/17, which uses the jdk.incubator.vector module if it was added to the runtime with
+ * <code>--add-modules jdk.incubator.vector</code>.
+ */
+public final class Kernels {
+
+    private Kernels() {
+    }
+
+
+    /**
+     * Check whether the Vector API implementation is used.
+     *
+     * @return true if vectorized, false for the scalar implementation
+     */
+    public static boolean isVectorized() {
+        return false;
+    }
+
+
+    /**
+     * Decode consecutive doubles of the binary representation.
+     *
+     * @param source the encoded bytes
+     * @param index the index of the first encoded double in source
+     * @param target the array to decode into
+     * @param offset the index of the first decoded value in target
+     * @param count the number of doubles
+     * @param bigEndian true for XDR, false for NDR
+     */
+    public static void getDoubles(final byte[] source, final int index, final double[] target, final int offset,
+                                  final int count, final boolean bigEndian) {
+        ScalarKernels.getDoubles(source, index, target, offset, count, bigEndian);
+    }
+
+
+    /**
+     * Expand bounds to include the x and y ordinates of packed coordinates. NaN ordinates are ignored.
+     *
+     * @param coordinates the packed coordinates
+     * @param offset the index of the first ordinate of the first coordinate
+     * @param count the number of coordinates
+     * @param dimension the number of ordinates of each coordinate, at least 2
+     * @param bounds minimum x, minimum y, maximum x and maximum y, expanded in place; start from positive and
+     *               negative infinity for an empty envelope
+     */
+    public static void expandEnvelope(final double[] coordinates, final int offset, final int count,
+                                      final int dimension, final double[] bounds) {
+        ScalarKernels.expandEnvelope(coordinates, offset, count, dimension, bounds);
+    }
+
+
+    /**
+     * Hex encode bytes.
+     *
+     * @param bytes the bytes
+     * @return the upper case hex representation
+     */
+    public static String hex(final byte[] bytes) {
+        return ByteArrays.hex(bytes);
+    }
+
+
+    /**
+     * Decode the start of a hex string.
+     *
+     * @param hex the hex string
+     * @param target the array to decode into
+     * @param length the number of bytes to decode
+     * @throws IllegalArgumentException if the string contains other characters than hex digits
+     */
+    public static void unhex(final String hex, final byte[] target, final int length) {
+        ScalarKernels.unhex(hex, target, length);
+    }
+}
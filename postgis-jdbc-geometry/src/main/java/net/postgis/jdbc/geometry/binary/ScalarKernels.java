@@ -0,0 +1,110 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+/**
+ * The scalar implementations of the {@link Kernels}, used on all runtimes for the parts of the input not filling a
+ * whole vector and wherever no vector implementation is available.
+ */
+final class ScalarKernels {
+
+    static final byte[] HEX_DIGITS = new byte[]{
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
+    };
+
+    /** The value of each ASCII hex digit, -1 for other characters. */
+    private static final byte[] NIBBLES = new byte[128];
+
+
+    static {
+        for (int i = 0; i < NIBBLES.length; i++) {
+            NIBBLES[i] = -1;
+        }
+        for (int i = 0; i < 10; i++) {
+            NIBBLES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            NIBBLES['A' + i] = (byte) (10 + i);
+            NIBBLES['a' + i] = (byte) (10 + i);
+        }
+    }
+
+
+    private ScalarKernels() {
+    }
+
+
+    static void getDoubles(final byte[] source, final int index, final double[] target, final int offset,
+                           final int count, final boolean bigEndian) {
+        for (int i = 0; i < count; i++) {
+            target[offset + i] = Double.longBitsToDouble(ByteArrays.getLong(source, index + 8 * i, bigEndian));
+        }
+    }
+
+
+    static void expandEnvelope(final double[] coordinates, final int offset, final int count, final int dimension,
+                               final double[] bounds) {
+        double minX = bounds[0];
+        double minY = bounds[1];
+        double maxX = bounds[2];
+        double maxY = bounds[3];
+        for (int i = offset, end = offset + count * dimension; i < end; i += dimension) {
+            double x = coordinates[i];
+            double y = coordinates[i + 1];
+            // comparisons are false for NaN, which leaves the bounds untouched like Envelope.expandToInclude
+            if (x < minX) {
+                minX = x;
+            }
+            if (x > maxX) {
+                maxX = x;
+            }
+            if (y < minY) {
+                minY = y;
+            }
+            if (y > maxY) {
+                maxY = y;
+            }
+        }
+        bounds[0] = minX;
+        bounds[1] = minY;
+        bounds[2] = maxX;
+        bounds[3] = maxY;
+    }
+
+
+    /** Hex encode the bytes from the given index on into the ASCII characters at twice the index. */
+    static void hex(final byte[] bytes, final int from, final byte[] chars) {
+        for (int i = from, j = 2 * from; i < bytes.length; i++, j += 2) {
+            chars[j] = HEX_DIGITS[(bytes[i] >>> 4) & 0xF];
+            chars[j + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+    }
+
+
+    static void unhex(final String hex, final byte[] target, final int length) {
+        for (int i = 0, j = 0; i < length; i++, j += 2) {
+            char high = hex.charAt(j);
+            char low = hex.charAt(j + 1);
+            int highValue = high < 128 ? NIBBLES[high] : -1;
+            int lowValue = low < 128 ? NIBBLES[low] : -1;
+            if ((highValue | lowValue) < 0) {
+                throw new IllegalArgumentException("No valid Hex char " + (highValue < 0 ? high : low));
+            }
+            target[i] = (byte) ((highValue << 4) | lowValue);
+        }
+    }
+}
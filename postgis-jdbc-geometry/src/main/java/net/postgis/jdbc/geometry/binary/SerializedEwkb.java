@@ -0,0 +1,70 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.Arrays;
+
+
+/**
+ * Reads the EWKB written by the serialized forms of geometries and PostGIS values, each preceded by its length.
+ *
+ * The length comes from the stream and cannot be trusted: allocating it at once lets a stream of a few bytes claim
+ * gigabytes. Lengths that no PostGIS value can have are rejected, and the array grows with the bytes actually read.
+ */
+public final class SerializedEwkb {
+
+    /** Largest length accepted, the 1 GB limit of a PostgreSQL field. */
+    public static final int MAX_LENGTH = 1 << 30;
+
+    /** Bytes allocated before the first read; the array doubles from there. */
+    private static final int CHUNK = 1 << 16;
+
+
+    private SerializedEwkb() {
+    }
+
+
+    /**
+     * Read the EWKB of a serialized value.
+     *
+     * @param in the stream to read from
+     * @param length the length written before the value
+     * @return the bytes read
+     * @throws InvalidObjectException if the length is negative or above {@link #MAX_LENGTH}
+     * @throws IOException if reading fails, e.g. as the stream ends before the given length
+     */
+    public static byte[] read(final DataInput in, final int length) throws IOException {
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new InvalidObjectException("Invalid length of serialized geometry: " + length);
+        }
+        byte[] bytes = new byte[Math.min(length, CHUNK)];
+        int read = 0;
+        while (true) {
+            in.readFully(bytes, read, bytes.length - read);
+            read = bytes.length;
+            if (read == length) {
+                return bytes;
+            }
+            bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+        }
+    }
+
+
+}
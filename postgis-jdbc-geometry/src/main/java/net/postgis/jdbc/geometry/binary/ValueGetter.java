@@ -27,11 +27,14 @@ package net.postgis.jdbc.geometry.binary;
 
 public abstract class ValueGetter {
     ByteGetter data;
+    /** The bytes behind data if it is backed by an array, for reading values at once. */
+    final byte[] array;
     int position;
     public final byte endian;
 
     public ValueGetter(ByteGetter data, byte endian) {
         this.data = data;
+        this.array = data instanceof ByteGetter.BinaryByteGetter ? ((ByteGetter.BinaryByteGetter) data).array : null;
         this.endian = endian;
     }
 
@@ -83,6 +86,24 @@ public abstract class ValueGetter {
         return Double.longBitsToDouble(bitrep);
     }
 
+    /**
+     * Get consecutive doubles.
+     *
+     * @param target the array to store the values in
+     * @param offset the index in target of the first value
+     * @param count the number of doubles
+     */
+    public void getDoubles(double[] target, int offset, int count) {
+        if (array != null) {
+            Kernels.getDoubles(array, position, target, offset, count, endian == XDR.NUMBER);
+            position += 8 * count;
+        } else {
+            for (int i = 0; i < count; i++) {
+                target[offset + i] = getDouble();
+            }
+        }
+    }
+
     public static class XDR extends ValueGetter {
         public static final byte NUMBER = 0;
 
@@ -91,11 +112,17 @@ public abstract class ValueGetter {
         }
 
         protected int getInt(int index) {
+            if (array != null) {
+                return ByteArrays.getInt(array, index, true);
+            }
             return (data.get(index) << 24) + (data.get(index + 1) << 16)
                     + (data.get(index + 2) << 8) + data.get(index + 3);
         }
 
         protected long getLong(int index) {
+            if (array != null) {
+                return ByteArrays.getLong(array, index, true);
+            }
             return ((long) data.get(index) << 56) + ((long) data.get(index + 1) << 48)
                     + ((long) data.get(index + 2) << 40) + ((long) data.get(index + 3) << 32)
                     + ((long) data.get(index + 4) << 24) + ((long) data.get(index + 5) << 16)
@@ -111,11 +138,17 @@ public abstract class ValueGetter {
         }
 
         protected int getInt(int index) {
+            if (array != null) {
+                return ByteArrays.getInt(array, index, false);
+            }
             return (data.get(index + 3) << 24) + (data.get(index + 2) << 16)
                     + (data.get(index + 1) << 8) + data.get(index);
         }
 
         protected long getLong(int index) {
+            if (array != null) {
+                return ByteArrays.getLong(array, index, false);
+            }
             return ((long) data.get(index + 7) << 56) + ((long) data.get(index + 6) << 48)
                     + ((long) data.get(index + 5) << 40) + ((long) data.get(index + 4) << 32)
                     + ((long) data.get(index + 3) << 24) + ((long) data.get(index + 2) << 16)
@@ -27,11 +27,20 @@ package net.postgis.jdbc.geometry.binary;
 
 public abstract class ValueSetter {
     ByteSetter data;
+    /** The bytes behind data if it is backed by an array, for writing values at once. */
+    final byte[] array;
     int position=0;
     public final byte endian;
 
     public ValueSetter(ByteSetter data, byte endian) {
         this.data = data;
+        if (data instanceof ByteSetter.BinaryByteSetter) {
+            this.array = ((ByteSetter.BinaryByteSetter) data).array;
+        } else if (data instanceof ByteSetter.StringByteSetter) {
+            this.array = ((ByteSetter.StringByteSetter) data).array;
+        } else {
+            this.array = null;
+        }
         this.endian = endian;
     }
 
@@ -98,6 +107,10 @@ public abstract class ValueSetter {
         }
 
         protected void setInt(int value, int index) {
+            if (array != null) {
+                ByteArrays.putInt(array, index, value, true);
+                return;
+            }
             data.set((byte) (value >>> 24), index);
             data.set((byte) (value >>> 16), index + 1);
             data.set((byte) (value >>> 8), index + 2);
@@ -105,6 +118,10 @@ public abstract class ValueSetter {
         }
 
         protected void setLong(long value, int index) {
+            if (array != null) {
+                ByteArrays.putLong(array, index, value, true);
+                return;
+            }
             data.set((byte) (value >>> 56), index);
             data.set((byte) (value >>> 48), index + 1);
             data.set((byte) (value >>> 40), index + 2);
@@ -124,6 +141,10 @@ public abstract class ValueSetter {
         }
 
         protected void setInt(int value, int index) {
+            if (array != null) {
+                ByteArrays.putInt(array, index, value, false);
+                return;
+            }
             data.set((byte) (value >>> 24), index + 3);
             data.set((byte) (value >>> 16), index + 2);
             data.set((byte) (value >>> 8), index + 1);
@@ -131,6 +152,10 @@ public abstract class ValueSetter {
         }
 
         protected void setLong(long value, int index) {
+            if (array != null) {
+                ByteArrays.putLong(array, index, value, false);
+                return;
+            }
             data.set((byte) (value >>> 56), index + 7);
             data.set((byte) (value >>> 48), index + 6);
             data.set((byte) (value >>> 40), index + 5);
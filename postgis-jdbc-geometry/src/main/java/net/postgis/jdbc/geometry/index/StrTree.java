@@ -0,0 +1,553 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.index;
+
+
+import net.postgis.jdbc.geometry.Envelope;
+import net.postgis.jdbc.geometry.Geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * An immutable R-tree bulk loaded with the Sort-Tile-Recursive algorithm, indexing items by their 2d envelopes.
+ *
+ * The tree is stored in flat arrays instead of node objects: the bounds of all entries and nodes in one double array,
+ * four values each, and the child ranges of the nodes in two int arrays. The entries come first, in the order STR
+ * packed them, followed by the nodes level by level up to the root. The children of a node are contiguous, so a query
+ * scans neighbouring array elements.
+ *
+ * Instances are built with a {@link Builder}, which may be fed row by row from a query, and are safe for use by
+ * multiple threads. Items whose envelope is empty are not indexed.
+ *
+ * @param <T> the item type
+ */
+public final class StrTree<T> {
+
+    /** Receives the items found by a query. */
+    public interface Visitor<T> {
+
+        /**
+         * Called for every item found.
+         *
+         * @param item the item
+         * @return true to continue the query, false to stop it
+         */
+        boolean visit(T item);
+    }
+
+
+    /** Computes the exact distance of an item to a point, for nearest neighbour queries. */
+    public interface ItemDistance<T> {
+
+        /**
+         * Compute the distance of the item to the point.
+         *
+         * @param item the item
+         * @param x the x ordinate of the point
+         * @param y the y ordinate of the point
+         * @return the distance, which must not be smaller than the distance of the envelope of the item
+         */
+        double distance(T item, double x, double y);
+    }
+
+
+    /** The default maximum number of children per node. */
+    public static final int DEFAULT_NODE_CAPACITY = 16;
+
+    private final Object[] items;
+
+    /** minX, minY, maxX, maxY of the entries, followed by those of the nodes. */
+    private final double[] bounds;
+
+    /** The first child of each node, indexed by node number minus the number of entries. */
+    private final int[] childStart;
+
+    /** One past the last child of each node. */
+    private final int[] childEnd;
+
+    /** The height of the tree, 0 if empty. */
+    private final int height;
+
+
+    private StrTree(final Object[] items, final double[] bounds, final int[] childStart, final int[] childEnd,
+                    final int height) {
+        this.items = items;
+        this.bounds = bounds;
+        this.childStart = childStart;
+        this.childEnd = childEnd;
+        this.height = height;
+    }
+
+
+    /**
+     * Create a builder with the default node capacity.
+     *
+     * @param <T> the item type
+     * @return the builder
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<T>(DEFAULT_NODE_CAPACITY);
+    }
+
+
+    /**
+     * Create a builder.
+     *
+     * @param nodeCapacity the maximum number of children per node, at least 2
+     * @param <T> the item type
+     * @return the builder
+     */
+    public static <T> Builder<T> builder(final int nodeCapacity) {
+        return new Builder<T>(nodeCapacity);
+    }
+
+
+    /**
+     * Get the number of indexed items.
+     *
+     * @return the size
+     */
+    public int size() {
+        return items.length;
+    }
+
+
+    /**
+     * Get the number of levels of nodes above the items.
+     *
+     * @return the height, 0 for an empty tree
+     */
+    public int getHeight() {
+        return height;
+    }
+
+
+    /**
+     * Get the envelope of all indexed items.
+     *
+     * @return the envelope, {@link Envelope#EMPTY} for an empty tree
+     */
+    public Envelope getEnvelope() {
+        if (items.length == 0) {
+            return Envelope.EMPTY;
+        }
+        int root = 4 * (bounds.length / 4 - 1);
+        return new Envelope(bounds[root], bounds[root + 1], bounds[root + 2], bounds[root + 3]);
+    }
+
+
+    /**
+     * Find the items whose envelope intersects the given one, boundaries included.
+     *
+     * @param envelope the query envelope
+     * @return the items, in index order
+     */
+    public List<T> query(final Envelope envelope) {
+        final List<T> result = new ArrayList<T>();
+        query(envelope, new Visitor<T>() {
+            @Override
+            public boolean visit(final T item) {
+                return result.add(item);
+            }
+        });
+        return result;
+    }
+
+
+    /**
+     * Visit the items whose envelope intersects the given one, boundaries included.
+     *
+     * @param envelope the query envelope
+     * @param visitor the visitor to call for every item found
+     */
+    @SuppressWarnings("unchecked")
+    public void query(final Envelope envelope, final Visitor<? super T> visitor) {
+        if (items.length == 0 || envelope.isEmpty()) {
+            return;
+        }
+        double minX = envelope.getMinX();
+        double minY = envelope.getMinY();
+        double maxX = envelope.getMaxX();
+        double maxY = envelope.getMaxY();
+        int entries = items.length;
+        int[] stack = new int[64];
+        int depth = 0;
+        stack[depth++] = bounds.length / 4 - 1;
+        while (depth > 0) {
+            int node = stack[--depth];
+            int b = 4 * node;
+            if (bounds[b] > maxX || bounds[b + 2] < minX || bounds[b + 1] > maxY || bounds[b + 3] < minY) {
+                continue;
+            }
+            if (node < entries) {
+                if (!visitor.visit((T) items[node])) {
+                    return;
+                }
+                continue;
+            }
+            int start = childStart[node - entries];
+            int end = childEnd[node - entries];
+            if (depth + end - start > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, depth + end - start));
+            }
+            // push in reverse, so that children are visited in index order
+            for (int child = end - 1; child >= start; child--) {
+                stack[depth++] = child;
+            }
+        }
+    }
+
+
+    /**
+     * Find the items nearest to a point by the distance of their envelopes, which is exact for points.
+     *
+     * @param x the x ordinate of the point
+     * @param y the y ordinate of the point
+     * @param k the maximum number of items to return
+     * @return up to k items, nearest first
+     */
+    public List<T> nearest(final double x, final double y, final int k) {
+        return nearest(x, y, k, null);
+    }
+
+
+    /**
+     * Find the items nearest to a point, searching the tree best first.
+     *
+     * Items are ranked by their envelope distance until they are reached, then by the exact distance if a distance
+     * function is given. As the envelope distance is a lower bound of the exact one, the result is exact, while the
+     * exact distance is only computed for items whose envelopes are close enough to the point.
+     *
+     * @param x the x ordinate of the point
+     * @param y the y ordinate of the point
+     * @param k the maximum number of items to return
+     * @param distance the exact distance of an item, null to rank by envelope distance
+     * @return up to k items, nearest first
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> nearest(final double x, final double y, final int k, final ItemDistance<? super T> distance) {
+        List<T> result = new ArrayList<T>(Math.min(Math.max(k, 0), items.length));
+        if (items.length == 0 || k <= 0) {
+            return result;
+        }
+        int entries = items.length;
+        Queue queue = new Queue();
+        int root = bounds.length / 4 - 1;
+        queue.add(boxDistance(root, x, y), root);
+        while (queue.size > 0 && result.size() < k) {
+            double current = queue.peekDistance();
+            int node = queue.poll();
+            if (node < 0) {
+                result.add((T) items[-1 - node]); // exact distance already applied
+            } else if (node < entries) {
+                if (distance == null) {
+                    result.add((T) items[node]);
+                } else {
+                    double exact = distance.distance((T) items[node], x, y);
+                    queue.add(Math.max(exact, current), -1 - node);
+                }
+            } else {
+                for (int child = childStart[node - entries]; child < childEnd[node - entries]; child++) {
+                    queue.add(boxDistance(child, x, y), child);
+                }
+            }
+        }
+        return result;
+    }
+
+
+    private double boxDistance(final int node, final double x, final double y) {
+        int b = 4 * node;
+        double dx = x < bounds[b] ? bounds[b] - x : x > bounds[b + 2] ? x - bounds[b + 2] : 0;
+        double dy = y < bounds[b + 1] ? bounds[b + 1] - y : y > bounds[b + 3] ? y - bounds[b + 3] : 0;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+
+    /** A binary min-heap of node numbers keyed by distance, in two primitive arrays. */
+    private static final class Queue {
+
+        private double[] distances = new double[64];
+
+        private int[] nodes = new int[64];
+
+        private int size;
+
+
+        void add(final double distance, final int node) {
+            if (size == nodes.length) {
+                distances = Arrays.copyOf(distances, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (distances[parent] <= distance) {
+                    break;
+                }
+                distances[i] = distances[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            distances[i] = distance;
+            nodes[i] = node;
+        }
+
+
+        double peekDistance() {
+            return distances[0];
+        }
+
+
+        int poll() {
+            int result = nodes[0];
+            size--;
+            double distance = distances[size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && distances[child + 1] < distances[child]) {
+                    child++;
+                }
+                if (distances[child] >= distance) {
+                    break;
+                }
+                distances[i] = distances[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            distances[i] = distance;
+            nodes[i] = node;
+            return result;
+        }
+    }
+
+
+    /**
+     * Collects items and builds the tree. The items are kept in flat arrays as well until the tree is built.
+     *
+     * @param <T> the item type
+     */
+    public static final class Builder<T> {
+
+        private final int nodeCapacity;
+
+        private Object[] items = new Object[64];
+
+        private double[] bounds = new double[4 * 64];
+
+        private int size;
+
+
+        Builder(final int nodeCapacity) {
+            if (nodeCapacity < 2) {
+                throw new IllegalArgumentException("nodeCapacity must be at least 2: " + nodeCapacity);
+            }
+            this.nodeCapacity = nodeCapacity;
+        }
+
+
+        /**
+         * Add a geometry, indexed by its envelope.
+         *
+         * @param geometry the geometry
+         * @param item the item to return from queries for it
+         * @return this builder
+         */
+        public Builder<T> add(final Geometry geometry, final T item) {
+            return add(geometry.getEnvelope(), item);
+        }
+
+
+        /**
+         * Add an item.
+         *
+         * @param envelope the envelope to index the item by, the item is skipped if it is empty
+         * @param item the item to return from queries for it
+         * @return this builder
+         */
+        public Builder<T> add(final Envelope envelope, final T item) {
+            if (envelope.isEmpty()) {
+                return this;
+            }
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+                bounds = Arrays.copyOf(bounds, 4 * size * 2);
+            }
+            items[size] = item;
+            int b = 4 * size++;
+            bounds[b] = envelope.getMinX();
+            bounds[b + 1] = envelope.getMinY();
+            bounds[b + 2] = envelope.getMaxX();
+            bounds[b + 3] = envelope.getMaxY();
+            return this;
+        }
+
+
+        /**
+         * Build the tree. The builder may be used further, later changes do not affect the tree.
+         *
+         * @return the tree
+         */
+        public StrTree<T> build() {
+            if (size == 0) {
+                return new StrTree<T>(new Object[0], new double[0], new int[0], new int[0], 0);
+            }
+            // the entries, then every level of nodes, each being packed in turn
+            int total = size;
+            for (int count = size; count > 1; ) {
+                count = (count + nodeCapacity - 1) / nodeCapacity;
+                total += count;
+            }
+            if (total == size) {
+                total++; // a single entry still gets a root node
+            }
+            double[] tree = new double[4 * total];
+            int[] start = new int[total - size];
+            int[] end = new int[total - size];
+            Object[] packedItems = new Object[size];
+
+            // sort the entries and store them in STR order
+            int[] order = strOrder(bounds, identity(size), size);
+            for (int i = 0; i < size; i++) {
+                packedItems[i] = items[order[i]];
+                System.arraycopy(bounds, 4 * order[i], tree, 4 * i, 4);
+            }
+
+            int levelStart = 0;
+            int levelCount = size;
+            int next = size;
+            int height = 0;
+            do {
+                // group the level, which is in STR order, into parent nodes appended after it
+                int parents = (levelCount + nodeCapacity - 1) / nodeCapacity;
+                int parentStart = next;
+                for (int p = 0; p < parents; p++) {
+                    int first = levelStart + p * nodeCapacity;
+                    int last = Math.min(first + nodeCapacity, levelStart + levelCount);
+                    int node = next++;
+                    start[node - size] = first;
+                    end[node - size] = last;
+                    union(tree, first, last, node);
+                }
+                height++;
+                if (parents > 1) {
+                    // reorder the new level itself, so that the next one groups neighbouring nodes
+                    reorder(tree, start, end, size, parentStart, parents);
+                }
+                levelStart = parentStart;
+                levelCount = parents;
+            } while (levelCount > 1);
+            return new StrTree<T>(packedItems, tree, start, end, height);
+        }
+
+
+        /** Union the bounds of nodes [first, last) into the bounds of node. */
+        private static void union(final double[] tree, final int first, final int last, final int node) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = first; i < last; i++) {
+                int b = 4 * i;
+                minX = Math.min(minX, tree[b]);
+                minY = Math.min(minY, tree[b + 1]);
+                maxX = Math.max(maxX, tree[b + 2]);
+                maxY = Math.max(maxY, tree[b + 3]);
+            }
+            int b = 4 * node;
+            tree[b] = minX;
+            tree[b + 1] = minY;
+            tree[b + 2] = maxX;
+            tree[b + 3] = maxY;
+        }
+
+
+        /** Put the nodes [levelStart, levelStart + count) into STR order, moving their child ranges along. */
+        private void reorder(final double[] tree, final int[] start, final int[] end, final int entries,
+                             final int levelStart, final int count) {
+            double[] levelBounds = Arrays.copyOfRange(tree, 4 * levelStart, 4 * (levelStart + count));
+            int[] levelChildStart = Arrays.copyOfRange(start, levelStart - entries, levelStart - entries + count);
+            int[] levelChildEnd = Arrays.copyOfRange(end, levelStart - entries, levelStart - entries + count);
+            int[] order = strOrder(levelBounds, identity(count), count);
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(levelBounds, 4 * order[i], tree, 4 * (levelStart + i), 4);
+                start[levelStart - entries + i] = levelChildStart[order[i]];
+                end[levelStart - entries + i] = levelChildEnd[order[i]];
+            }
+        }
+
+
+        /**
+         * Sort-Tile-Recursive order: sort by x of the centres, cut into vertical slices of whole nodes, and sort
+         * each slice by y of the centres.
+         */
+        private int[] strOrder(final double[] boxes, final int[] order, final int count) {
+            final double[] centreX = new double[count];
+            final double[] centreY = new double[count];
+            for (int i = 0; i < count; i++) {
+                centreX[i] = (boxes[4 * i] + boxes[4 * i + 2]) / 2;
+                centreY[i] = (boxes[4 * i + 1] + boxes[4 * i + 3]) / 2;
+            }
+            sort(order, 0, count, centreX);
+            int nodes = (count + nodeCapacity - 1) / nodeCapacity;
+            int slices = (int) Math.ceil(Math.sqrt(nodes));
+            int sliceSize = (int) Math.ceil((double) nodes / slices) * nodeCapacity;
+            for (int from = 0; from < count; from += sliceSize) {
+                sort(order, from, Math.min(from + sliceSize, count), centreY);
+            }
+            return order;
+        }
+
+
+        private static int[] identity(final int count) {
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = i;
+            }
+            return result;
+        }
+
+
+        /** Sort order[from, to) by the keys of its elements, without boxing. */
+        private static void sort(final int[] order, final int from, final int to, final double[] keys) {
+            // replace every key by its rank among the keys, and sort (rank, index) pairs packed into longs
+            long[] packed = new long[to - from];
+            double[] sortedKeys = new double[to - from];
+            for (int i = from; i < to; i++) {
+                sortedKeys[i - from] = keys[order[i]];
+            }
+            Arrays.sort(sortedKeys);
+            for (int i = from; i < to; i++) {
+                long rank = Arrays.binarySearch(sortedKeys, keys[order[i]]);
+                packed[i - from] = rank << 32 | order[i];
+            }
+            Arrays.sort(packed);
+            for (int i = from; i < to; i++) {
+                order[i] = (int) packed[i - from];
+            }
+        }
+    }
+
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Client-side spatial indexes over geometries, e.g. for joining against a reference layer kept in memory.
+ */
+package net.postgis.jdbc.geometry.index;
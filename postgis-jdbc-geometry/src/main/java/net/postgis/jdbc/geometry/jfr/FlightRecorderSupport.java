@@ -0,0 +1,55 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.jfr;
+
+
+/**
+ * The flight recorder part of the event support, which records nothing here.
+ *
+ * This class is replaced by its Java 17 variant in META-INF/versions/17 of the multi-release jar, which emits the
+ * events through jdk.jfr. The Java 8 classes do not link against that API.
+ */
+final class FlightRecorderSupport {
+
+    private FlightRecorderSupport() {
+    }
+
+
+    /**
+     * Whether events can be recorded; initializing the class fails where they cannot.
+     *
+     * @return false
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+
+    static Object begin(final boolean parse) {
+        return null;
+    }
+
+
+    static long end(final Object started, final String geometryType, final int vertices, final int size,
+                    final String encoding, final long slowNanos, final int hugeVertices) {
+        throw new IllegalStateException("No flight recorder event was started");
+    }
+
+
+    static boolean isParse(final Object event) {
+        return false;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.jfr;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.metrics.GeometryMetricsRegistry;
+
+
+/**
+ * Emits the net.postgis.GeometryParse and net.postgis.GeometrySerialize flight recorder events from the parsers and
+ * writers, to attribute latency spikes to individual pathological geometries.
+ *
+ * Only operations taking at least the slow threshold (system property net.postgis.jfr.slowNanos, default 1 ms) or
+ * involving at least the huge threshold of vertices (net.postgis.jfr.hugeVertices, default 100000) are recorded.
+ * Outside of a recording having the events enabled the calls allocate nothing and cost a flag check. Events are only
+ * emitted on Java 17 and newer, by the classes in META-INF/versions/17 of the multi-release jar; on older JVMs, and
+ * where the jdk.jfr module is missing, the calls only take the metrics.
+ *
+ * Every operation is also reported to the {@link GeometryMetricsRegistry} while any metrics are registered.
+ *
+ * Usage:
+ * <pre>
+ * Object event = GeometryEvents.beginParse();
+ * Geometry result = ...;
+ * GeometryEvents.end(event, result, value.length(), GeometryEvents.HEX);
+ * </pre>
+ */
+public final class GeometryEvents {
+
+    public static final String HEX = "hex";
+
+    public static final String BINARY = "binary";
+
+    public static final String WKT = "wkt";
+
+    private static final boolean AVAILABLE = available();
+
+    /** Returned instead of an event when only metrics are taken. */
+    private static final Object PARSE = new Object();
+
+    private static final Object SERIALIZE = new Object();
+
+    /** The start of the operation in progress on this thread when only metrics are taken; they do not nest. */
+    private static final ThreadLocal<long[]> START = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    private static volatile long slowNanos = Long.getLong("net.postgis.jfr.slowNanos", 1000000L);
+
+    private static volatile int hugeVertices = Integer.getInteger("net.postgis.jfr.hugeVertices", 100000);
+
+
+    private GeometryEvents() {
+    }
+
+
+    /**
+     * Change the thresholds of the events.
+     *
+     * @param slowNanos operations taking at least this long are recorded
+     * @param hugeVertices operations on geometries with at least this many vertices are recorded
+     */
+    public static void setThresholds(final long slowNanos, final int hugeVertices) {
+        GeometryEvents.slowNanos = slowNanos;
+        GeometryEvents.hugeVertices = hugeVertices;
+    }
+
+
+    /**
+     * Start timing a parse operation.
+     *
+     * @return the started event, or null if neither the event is recorded nor metrics are taken
+     */
+    public static Object beginParse() {
+        return begin(true);
+    }
+
+
+    /**
+     * Start timing a serialize operation.
+     *
+     * @return the started event, or null if neither the event is recorded nor metrics are taken
+     */
+    public static Object beginSerialize() {
+        return begin(false);
+    }
+
+
+    /**
+     * Finish a parse or serialize operation, commit its event if the operation was slow or huge and report it to the
+     * metrics.
+     *
+     * @param event the event returned by beginParse() or beginSerialize(), may be null
+     * @param geometry the parsed or serialized geometry
+     * @param size the size of the encoded form
+     * @param encoding one of {@link #HEX}, {@link #BINARY} and {@link #WKT}
+     */
+    public static void end(final Object event, final Geometry geometry, final int size, final String encoding) {
+        if (event != null) {
+            end(event, geometry.getTypeString(), geometry.numPoints(), size, encoding);
+        }
+    }
+
+
+    /**
+     * Finish a parse or serialize operation of a geometry of another model, commit its event if the operation was
+     * slow or huge and report it to the metrics.
+     *
+     * @param event the event returned by beginParse() or beginSerialize(), may be null
+     * @param geometryType the geometry type name, e.g. "POLYGON"
+     * @param vertices the number of vertices
+     * @param size the size of the encoded form
+     * @param encoding one of {@link #HEX}, {@link #BINARY} and {@link #WKT}
+     */
+    public static void end(final Object event, final String geometryType, final int vertices, final int size,
+                           final String encoding) {
+        if (event == null) {
+            return;
+        }
+        long nanos;
+        boolean parse;
+        if (event == PARSE || event == SERIALIZE) {
+            nanos = System.nanoTime() - START.get()[0];
+            parse = event == PARSE;
+        } else {
+            nanos = FlightRecorderSupport.end(event, geometryType, vertices, size, encoding, slowNanos, hugeVertices);
+            parse = FlightRecorderSupport.isParse(event);
+        }
+        if (GeometryMetricsRegistry.isEnabled()) {
+            if (parse) {
+                GeometryMetricsRegistry.decoded(geometryType, vertices, size, encoding, nanos);
+            } else {
+                GeometryMetricsRegistry.encoded(geometryType, vertices, size, encoding, nanos);
+            }
+        }
+    }
+
+
+    private static Object begin(final boolean parse) {
+        if (AVAILABLE) {
+            Object event = FlightRecorderSupport.begin(parse);
+            if (event != null) {
+                return event;
+            }
+        }
+        if (GeometryMetricsRegistry.isEnabled()) {
+            START.get()[0] = System.nanoTime();
+            return parse ? PARSE : SERIALIZE;
+        }
+        return null;
+    }
+
+
+    private static boolean available() {
+        try {
+            // initializes the event types, which fails without jdk.jfr or when the flight recorder is disabled
+            return FlightRecorderSupport.isSupported();
+        } catch (LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+}
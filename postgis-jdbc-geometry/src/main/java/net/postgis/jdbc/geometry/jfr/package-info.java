@@ -0,0 +1,6 @@
+/**
+ * Java Flight Recorder events for geometry parsing and serialization.
+ *
+ * The event classes are part of the Java 17 variant in META-INF/versions/17 of the multi-release jar only.
+ */
+package net.postgis.jdbc.geometry.jfr;
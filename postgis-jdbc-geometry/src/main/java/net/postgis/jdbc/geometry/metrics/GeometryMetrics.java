@@ -0,0 +1,60 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.metrics;
+
+
+/**
+ * Receives a measurement for every geometry decoded or encoded by the parsers and writers, and for every connection
+ * set up by the driver wrappers.
+ *
+ * Implementations are registered with {@link GeometryMetricsRegistry#register(GeometryMetrics)}, or listed in
+ * META-INF/services/net.postgis.jdbc.geometry.metrics.GeometryMetrics to be picked up on first use, so a bridge to a
+ * metrics library needs no dependency of this library on it. Methods are called on the decoding thread and must be
+ * cheap and thread safe.
+ */
+public interface GeometryMetrics {
+
+    /**
+     * A geometry was parsed.
+     *
+     * @param geometryType the geometry type name, e.g. "POLYGON"
+     * @param vertices the number of vertices
+     * @param size the size of the encoded value in bytes, characters for hex and WKT
+     * @param encoding hex, binary or wkt
+     * @param nanos the time taken
+     */
+    void decoded(String geometryType, int vertices, int size, String encoding, long nanos);
+
+
+    /**
+     * A geometry was serialized.
+     *
+     * @param geometryType the geometry type name, e.g. "POLYGON"
+     * @param vertices the number of vertices
+     * @param size the size of the encoded value in bytes, characters for hex
+     * @param encoding hex or binary
+     * @param nanos the time taken
+     */
+    void encoded(String geometryType, int vertices, int size, String encoding, long nanos);
+
+
+    /**
+     * The geometry types were registered on a new connection.
+     *
+     * @param nanos the time taken
+     */
+    void typesRegistered(long nanos);
+}
@@ -0,0 +1,124 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.metrics;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Dispatches measurements to the registered {@link GeometryMetrics}.
+ *
+ * While nothing is registered, the parsers and writers skip taking measurements altogether. Metrics are registered
+ * explicitly, listed in META-INF/services, or, for the {@link GeometryStatistics}, enabled by the system property
+ * {@value GeometryStatistics#JMX_PROPERTY}.
+ */
+public final class GeometryMetricsRegistry {
+
+    /** The static logger instance. */
+    private static final Logger logger = LoggerFactory.getLogger(GeometryMetricsRegistry.class);
+
+    private static final CopyOnWriteArrayList<GeometryMetrics> METRICS = new CopyOnWriteArrayList<GeometryMetrics>();
+
+    private static volatile boolean enabled;
+
+
+    static {
+        try {
+            Iterator<GeometryMetrics> services =
+                    ServiceLoader.load(GeometryMetrics.class, GeometryMetrics.class.getClassLoader()).iterator();
+            while (services.hasNext()) {
+                register(services.next());
+            }
+        } catch (ServiceConfigurationError e) {
+            logger.warn("Error loading geometry metrics implementations", e);
+        }
+        if (Boolean.getBoolean(GeometryStatistics.JMX_PROPERTY)) {
+            GeometryStatistics.register();
+        }
+    }
+
+
+    private GeometryMetricsRegistry() {
+    }
+
+
+    /**
+     * Add metrics to receive measurements; registering the same instance twice has no effect.
+     *
+     * @param metrics the metrics
+     */
+    public static void register(final GeometryMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("metrics must not be null");
+        }
+        METRICS.addIfAbsent(metrics);
+        enabled = true;
+    }
+
+
+    /**
+     * Stop sending measurements to the metrics.
+     *
+     * @param metrics the metrics
+     */
+    public static void unregister(final GeometryMetrics metrics) {
+        METRICS.remove(metrics);
+        enabled = !METRICS.isEmpty();
+    }
+
+
+    /**
+     * Check whether measurements are taken.
+     *
+     * @return true if any metrics are registered
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+
+    /** @see GeometryMetrics#decoded(String, int, int, String, long) */
+    public static void decoded(final String geometryType, final int vertices, final int size, final String encoding,
+                               final long nanos) {
+        for (GeometryMetrics metrics : METRICS) {
+            metrics.decoded(geometryType, vertices, size, encoding, nanos);
+        }
+    }
+
+
+    /** @see GeometryMetrics#encoded(String, int, int, String, long) */
+    public static void encoded(final String geometryType, final int vertices, final int size, final String encoding,
+                               final long nanos) {
+        for (GeometryMetrics metrics : METRICS) {
+            metrics.encoded(geometryType, vertices, size, encoding, nanos);
+        }
+    }
+
+
+    /** @see GeometryMetrics#typesRegistered(long) */
+    public static void typesRegistered(final long nanos) {
+        for (GeometryMetrics metrics : METRICS) {
+            metrics.typesRegistered(nanos);
+        }
+    }
+}
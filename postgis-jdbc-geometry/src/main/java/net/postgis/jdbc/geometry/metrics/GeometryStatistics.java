@@ -0,0 +1,283 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.metrics;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Accumulates the geometry throughput of this JVM and exposes it through JMX.
+ *
+ * Nothing is measured by default. Call {@link #register()}, or set the system property <code>net.postgis.jmx</code>
+ * to true, to publish the statistics as <code>net.postgis:type=GeometryStatistics</code>.
+ */
+public class GeometryStatistics implements GeometryMetrics, GeometryStatisticsMXBean {
+
+    /** The static logger instance. */
+    private static final Logger logger = LoggerFactory.getLogger(GeometryStatistics.class);
+
+    public static final String OBJECT_NAME = "net.postgis:type=GeometryStatistics";
+
+    /** The system property which, set to true, registers the statistics when the metrics registry is loaded. */
+    public static final String JMX_PROPERTY = "net.postgis.jmx";
+
+    private static final long[] BOUNDS = new long[]{1, 10, 100, 1000, 10000, 100000, 1000000, Long.MAX_VALUE};
+
+    private static GeometryStatistics instance;
+
+    private final ConcurrentMap<String, LongAdder> decoded = new ConcurrentHashMap<String, LongAdder>();
+
+    private final ConcurrentMap<String, LongAdder> encoded = new ConcurrentHashMap<String, LongAdder>();
+
+    private final LongAdder bytesIn = new LongAdder();
+
+    private final LongAdder bytesOut = new LongAdder();
+
+    private final LongAdder parseNanos = new LongAdder();
+
+    private final LongAdder writeNanos = new LongAdder();
+
+    private final LongAdder[] histogram = new LongAdder[BOUNDS.length];
+
+    private final LongAdder typeRegistrations = new LongAdder();
+
+    private final LongAdder typeRegistrationNanos = new LongAdder();
+
+
+    /** Instantiate with default state. */
+    public GeometryStatistics() {
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+
+    /**
+     * Register the shared statistics with the metrics registry and the platform MBean server. Calling this again has
+     * no effect.
+     *
+     * Nothing is registered while a native image is being built, as the MBean server of the builder is not carried
+     * over into the image.
+     *
+     * @return the shared statistics, null while building a native image
+     */
+    public static synchronized GeometryStatistics register() {
+        if ("buildtime".equals(System.getProperty("org.graalvm.nativeimage.imagecode"))) {
+            return null;
+        }
+        if (instance == null) {
+            instance = new GeometryStatistics();
+            GeometryMetricsRegistry.register(instance);
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName(OBJECT_NAME);
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(instance, name);
+                }
+            } catch (JMException | SecurityException e) {
+                logger.warn("Error registering the geometry statistics MBean", e);
+            }
+        }
+        return instance;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void decoded(final String geometryType, final int vertices, final int size, final String encoding,
+                        final long nanos) {
+        count(decoded, geometryType);
+        bytesIn.add(size);
+        parseNanos.add(nanos);
+        histogram[bucket(vertices)].increment();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void encoded(final String geometryType, final int vertices, final int size, final String encoding,
+                        final long nanos) {
+        count(encoded, geometryType);
+        bytesOut.add(size);
+        writeNanos.add(nanos);
+        histogram[bucket(vertices)].increment();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void typesRegistered(final long nanos) {
+        typeRegistrations.increment();
+        typeRegistrationNanos.add(nanos);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long getDecodedCount() {
+        return sum(decoded);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Long> getDecodedByType() {
+        return snapshot(decoded);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long getEncodedCount() {
+        return sum(encoded);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Long> getEncodedByType() {
+        return snapshot(encoded);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long getWriteNanos() {
+        return writeNanos.sum();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getVertexHistogramBounds() {
+        return BOUNDS.clone();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long[] getVertexHistogram() {
+        long[] result = new long[histogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            result[i] = histogram[i].sum();
+        }
+        return result;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long getTypeRegistrations() {
+        return typeRegistrations.sum();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public long getTypeRegistrationNanos() {
+        return typeRegistrationNanos.sum();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void reset() {
+        decoded.clear();
+        encoded.clear();
+        bytesIn.reset();
+        bytesOut.reset();
+        parseNanos.reset();
+        writeNanos.reset();
+        for (LongAdder bucket : histogram) {
+            bucket.reset();
+        }
+        typeRegistrations.reset();
+        typeRegistrationNanos.reset();
+    }
+
+
+    private static void count(final ConcurrentMap<String, LongAdder> counts, final String geometryType) {
+        LongAdder count = counts.get(geometryType);
+        if (count == null) {
+            LongAdder created = new LongAdder();
+            count = counts.putIfAbsent(geometryType, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.increment();
+    }
+
+
+    private static long sum(final ConcurrentMap<String, LongAdder> counts) {
+        long result = 0;
+        for (LongAdder count : counts.values()) {
+            result += count.sum();
+        }
+        return result;
+    }
+
+
+    private static Map<String, Long> snapshot(final ConcurrentMap<String, LongAdder> counts) {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for (Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+
+    private static int bucket(final int vertices) {
+        int i = 0;
+        while (vertices > BOUNDS[i]) {
+            i++;
+        }
+        return i;
+    }
+}
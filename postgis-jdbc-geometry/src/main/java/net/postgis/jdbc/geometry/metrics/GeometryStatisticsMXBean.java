@@ -0,0 +1,65 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.metrics;
+
+
+import java.util.Map;
+
+
+/**
+ * The JMX view of {@link GeometryStatistics}, registered as <code>net.postgis:type=GeometryStatistics</code>.
+ */
+public interface GeometryStatisticsMXBean {
+
+    /** @return the number of geometries decoded */
+    long getDecodedCount();
+
+    /** @return the number of geometries decoded, by geometry type */
+    Map<String, Long> getDecodedByType();
+
+    /** @return the number of geometries encoded */
+    long getEncodedCount();
+
+    /** @return the number of geometries encoded, by geometry type */
+    Map<String, Long> getEncodedByType();
+
+    /** @return the total size of the decoded values */
+    long getBytesIn();
+
+    /** @return the total size of the encoded values */
+    long getBytesOut();
+
+    /** @return the cumulative time spent decoding */
+    long getParseNanos();
+
+    /** @return the cumulative time spent encoding */
+    long getWriteNanos();
+
+    /** @return the inclusive upper vertex count bounds of the histogram buckets, the last one is unbounded */
+    long[] getVertexHistogramBounds();
+
+    /** @return the number of geometries decoded or encoded per vertex count bucket */
+    long[] getVertexHistogram();
+
+    /** @return the number of connections the geometry types were registered on */
+    long getTypeRegistrations();
+
+    /** @return the cumulative time spent registering the geometry types */
+    long getTypeRegistrationNanos();
+
+    /** Set all statistics back to zero. */
+    void reset();
+}
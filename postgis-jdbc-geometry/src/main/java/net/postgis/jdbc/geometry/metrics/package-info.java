@@ -0,0 +1,5 @@
+/**
+ * Throughput metrics of geometry parsing and serialization, with a JMX view and a plugin interface for metrics
+ * libraries.
+ */
+package net.postgis.jdbc.geometry.metrics;
@@ -0,0 +1,92 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Reads and writes the values of the binary representation in byte arrays at once, instead of byte by byte.
+ *
+ * This is the Java 17 variant of the class, shipped in META-INF/versions/17 of the multi-release jar. Values are
+ * accessed through byte array view VarHandles, which compile to single (possibly byte swapping) loads and stores, and
+ * hex strings are built from Latin-1 bytes, which become the string contents without compressing a char array.
+ */
+final class ByteArrays {
+
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.ISO_8859_1);
+
+
+    private ByteArrays() {
+    }
+
+
+    static int getInt(final byte[] array, final int index, final boolean bigEndian) {
+        return bigEndian ? (int) INT_BE.get(array, index) : (int) INT_LE.get(array, index);
+    }
+
+
+    static long getLong(final byte[] array, final int index, final boolean bigEndian) {
+        return bigEndian ? (long) LONG_BE.get(array, index) : (long) LONG_LE.get(array, index);
+    }
+
+
+    static void putInt(final byte[] array, final int index, final int value, final boolean bigEndian) {
+        if (bigEndian) {
+            INT_BE.set(array, index, value);
+        } else {
+            INT_LE.set(array, index, value);
+        }
+    }
+
+
+    static void putLong(final byte[] array, final int index, final long value, final boolean bigEndian) {
+        if (bigEndian) {
+            LONG_BE.set(array, index, value);
+        } else {
+            LONG_LE.set(array, index, value);
+        }
+    }
+
+
+    /**
+     * Hex encode bytes.
+     *
+     * @param array the bytes
+     * @return the upper case hex representation
+     */
+    static String hex(final byte[] array) {
+        byte[] chars = new byte[array.length * 2];
+        for (int i = 0, j = 0; i < array.length; i++, j += 2) {
+            chars[j] = HEX_DIGITS[(array[i] >>> 4) & 0xF];
+            chars[j + 1] = HEX_DIGITS[array[i] & 0xF];
+        }
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Bulk operations over coordinates and encoded values, used by the parsers and writers.
+ *
+ * This is the Java 17 variant of the class, shipped in META-INF/versions/17 of the multi-release jar. It uses the
+ * Vector API if the incubating jdk.incubator.vector module was added to the runtime with
+ * <code>--add-modules jdk.incubator.vector</code>, and falls back to the scalar implementation otherwise. Set the
+ * system property <code>net.postgis.vector</code> to false to always use the scalar implementation.
+ */
+public final class Kernels {
+
+    /** The static logger instance. */
+    private static final Logger logger = LoggerFactory.getLogger(Kernels.class);
+
+    private static final boolean VECTORIZED = vectorAvailable();
+
+
+    private Kernels() {
+    }
+
+
+    /**
+     * Check whether the Vector API implementation is used.
+     *
+     * @return true if vectorized, false for the scalar implementation
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+
+    /**
+     * Decode consecutive doubles of the binary representation.
+     *
+     * @param source the encoded bytes
+     * @param index the index of the first encoded double in source
+     * @param target the array to decode into
+     * @param offset the index of the first decoded value in target
+     * @param count the number of doubles
+     * @param bigEndian true for XDR, false for NDR
+     */
+    public static void getDoubles(final byte[] source, final int index, final double[] target, final int offset,
+                                  final int count, final boolean bigEndian) {
+        if (VECTORIZED) {
+            VectorKernels.getDoubles(source, index, target, offset, count, bigEndian);
+        } else {
+            ScalarKernels.getDoubles(source, index, target, offset, count, bigEndian);
+        }
+    }
+
+
+    /**
+     * Expand bounds to include the x and y ordinates of packed coordinates. NaN ordinates are ignored.
+     *
+     * @param coordinates the packed coordinates
+     * @param offset the index of the first ordinate of the first coordinate
+     * @param count the number of coordinates
+     * @param dimension the number of ordinates of each coordinate, at least 2
+     * @param bounds minimum x, minimum y, maximum x and maximum y, expanded in place; start from positive and
+     *               negative infinity for an empty envelope
+     */
+    public static void expandEnvelope(final double[] coordinates, final int offset, final int count,
+                                      final int dimension, final double[] bounds) {
+        if (VECTORIZED) {
+            VectorKernels.expandEnvelope(coordinates, offset, count, dimension, bounds);
+        } else {
+            ScalarKernels.expandEnvelope(coordinates, offset, count, dimension, bounds);
+        }
+    }
+
+
+    /**
+     * Hex encode bytes.
+     *
+     * @param bytes the bytes
+     * @return the upper case hex representation
+     */
+    public static String hex(final byte[] bytes) {
+        return VECTORIZED ? VectorKernels.hex(bytes) : ByteArrays.hex(bytes);
+    }
+
+
+    /**
+     * Decode the start of a hex string.
+     *
+     * @param hex the hex string
+     * @param target the array to decode into
+     * @param length the number of bytes to decode
+     * @throws IllegalArgumentException if the string contains other characters than hex digits
+     */
+    public static void unhex(final String hex, final byte[] target, final int length) {
+        // vectorizing would need a copy of the characters first, see VectorKernels
+        ScalarKernels.unhex(hex, target, length);
+    }
+
+
+    private static boolean vectorAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("net.postgis.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            // the incubator API changes between releases, so make sure this runtime still has what is used
+            return VectorKernels.selfTest();
+        } catch (LinkageError | RuntimeException e) {
+            logger.warn("Vector API kernels not usable, using scalar kernels", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * The Vector API implementations of the {@link Kernels}, written against the jdk.incubator.vector API of Java 17.
+ * Only loaded when the module is present.
+ *
+ * Hex decoding is not vectorized: the input is a String, and copying its characters to bytes first, with the
+ * validation that no character was truncated, costs about as much as the scalar table lookup.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    /** Interleaves the lower halves of two vectors; negative indexes select from the second vector. */
+    private static final VectorShuffle<Byte> ZIP_LOW = zip(0);
+
+    /** Interleaves the upper halves of two vectors. */
+    private static final VectorShuffle<Byte> ZIP_HIGH = zip(BYTES.length() / 2);
+
+    /** The x and y lanes of 2 and 4 dimensional coordinates, indexed by dimension. */
+    private static final VectorMask<Double>[] X_LANES = lanes(0);
+
+    private static final VectorMask<Double>[] Y_LANES = lanes(1);
+
+
+    private VectorKernels() {
+    }
+
+
+    static void getDoubles(final byte[] source, final int index, final double[] target, final int offset,
+                           final int count, final boolean bigEndian) {
+        ByteOrder order = bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        int bound = DOUBLES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromByteArray(DOUBLES, source, index + 8 * i, order).intoArray(target, offset + i);
+        }
+        ScalarKernels.getDoubles(source, index + 8 * i, target, offset + i, count - i, bigEndian);
+    }
+
+
+    static void expandEnvelope(final double[] coordinates, final int offset, final int count, final int dimension,
+                               final double[] bounds) {
+        int length = count * dimension;
+        if (dimension >= X_LANES.length || X_LANES[dimension] == null || length < DOUBLES.length()) {
+            ScalarKernels.expandEnvelope(coordinates, offset, count, dimension, bounds);
+            return;
+        }
+        // each vector starts at a coordinate, so every lane always holds the same ordinate
+        int bound = DOUBLES.loopBound(length);
+        DoubleVector min = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        DoubleVector max = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        for (int i = 0; i < bound; i += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, coordinates, offset + i);
+            // comparisons are false for NaN, which leaves the lanes untouched
+            min = min.blend(v, v.compare(VectorOperators.LT, min));
+            max = max.blend(v, v.compare(VectorOperators.GT, max));
+        }
+        double minX = min.reduceLanes(VectorOperators.MIN, X_LANES[dimension]);
+        double minY = min.reduceLanes(VectorOperators.MIN, Y_LANES[dimension]);
+        double maxX = max.reduceLanes(VectorOperators.MAX, X_LANES[dimension]);
+        double maxY = max.reduceLanes(VectorOperators.MAX, Y_LANES[dimension]);
+        if (minX < bounds[0]) {
+            bounds[0] = minX;
+        }
+        if (minY < bounds[1]) {
+            bounds[1] = minY;
+        }
+        if (maxX > bounds[2]) {
+            bounds[2] = maxX;
+        }
+        if (maxY > bounds[3]) {
+            bounds[3] = maxY;
+        }
+        ScalarKernels.expandEnvelope(coordinates, offset + bound, (length - bound) / dimension, dimension, bounds);
+    }
+
+
+    static String hex(final byte[] bytes) {
+        byte[] chars = new byte[bytes.length * 2];
+        int bound = BYTES.loopBound(bytes.length);
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            ByteVector b = ByteVector.fromArray(BYTES, bytes, i);
+            ByteVector high = digits(b.lanewise(VectorOperators.LSHR, 4));
+            ByteVector low = digits(b.and((byte) 0x0F));
+            high.rearrange(ZIP_LOW, low).intoArray(chars, 2 * i);
+            high.rearrange(ZIP_HIGH, low).intoArray(chars, 2 * i + BYTES.length());
+        }
+        ScalarKernels.hex(bytes, i, chars);
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+
+
+    /**
+     * Compare the kernels with the scalar ones on a sample.
+     *
+     * @return true if they agree
+     */
+    static boolean selfTest() {
+        byte[] bytes = new byte[8 * 4 * DOUBLES.length() + 24];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 37 + 11);
+        }
+        int count = bytes.length / 8;
+        double[] vector = new double[count];
+        double[] scalar = new double[count];
+        getDoubles(bytes, 0, vector, 0, count, true);
+        ScalarKernels.getDoubles(bytes, 0, scalar, 0, count, true);
+        if (!Arrays.equals(vector, scalar)) {
+            return false;
+        }
+        double[] coordinates = new double[count];
+        for (int i = 0; i < count; i++) {
+            coordinates[i] = (i * 7919) % 101 - 50;
+        }
+        double[] vectorBounds = new double[]{1, 1, 0, 0};
+        double[] scalarBounds = vectorBounds.clone();
+        expandEnvelope(coordinates, 0, count / 2, 2, vectorBounds);
+        ScalarKernels.expandEnvelope(coordinates, 0, count / 2, 2, scalarBounds);
+        return Arrays.equals(vectorBounds, scalarBounds) && hex(bytes).equals(ByteArrays.hex(bytes));
+    }
+
+
+    /** Map nibble values to upper case ASCII hex digits. */
+    private static ByteVector digits(final ByteVector nibbles) {
+        return nibbles.add((byte) '0')
+                .lanewise(VectorOperators.ADD, (byte) ('A' - '9' - 1), nibbles.compare(VectorOperators.GT, (byte) 9));
+    }
+
+
+    private static VectorShuffle<Byte> zip(final int from) {
+        int length = BYTES.length();
+        int[] indexes = new int[length];
+        for (int i = 0; i < length; i++) {
+            indexes[i] = (i & 1) == 0 ? from + i / 2 : from + i / 2 - length;
+        }
+        return VectorShuffle.fromArray(BYTES, indexes, 0);
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static VectorMask<Double>[] lanes(final int ordinate) {
+        VectorMask<Double>[] result = new VectorMask[5];
+        for (int dimension = 2; dimension <= 4; dimension += 2) {
+            if (DOUBLES.length() % dimension == 0) {
+                boolean[] bits = new boolean[DOUBLES.length()];
+                for (int i = 0; i < bits.length; i++) {
+                    bits[i] = i % dimension == ordinate;
+                }
+                result[dimension] = VectorMask.fromArray(DOUBLES, bits, 0);
+            }
+        }
+        return result;
+    }
+}
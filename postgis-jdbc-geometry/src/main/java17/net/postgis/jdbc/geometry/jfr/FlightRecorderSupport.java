@@ -0,0 +1,88 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.jfr;
+
+
+import jdk.jfr.EventType;
+
+
+/**
+ * The part of the event support that references jdk.jfr.
+ *
+ * This is the Java 17 variant of the class, shipped in META-INF/versions/17 of the multi-release jar together with
+ * the event classes. Initializing it fails on runtimes without the jdk.jfr module or with the flight recorder
+ * disabled, which {@link GeometryEvents} takes as no events being recorded.
+ */
+final class FlightRecorderSupport {
+
+    private static final EventType PARSE = EventType.getEventType(GeometryParseEvent.class);
+
+    private static final EventType SERIALIZE = EventType.getEventType(GeometrySerializeEvent.class);
+
+
+    private FlightRecorderSupport() {
+    }
+
+
+    static boolean isSupported() {
+        return true;
+    }
+
+
+    static Object begin(final boolean parse) {
+        GeometryOperationEvent event;
+        if (parse) {
+            if (!PARSE.isEnabled()) {
+                return null;
+            }
+            event = new GeometryParseEvent();
+        } else {
+            if (!SERIALIZE.isEnabled()) {
+                return null;
+            }
+            event = new GeometrySerializeEvent();
+        }
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+
+    /**
+     * Finish the event, committing it if the operation was slow or huge.
+     *
+     * @return the time taken by the operation
+     */
+    static long end(final Object started, final String geometryType, final int vertices, final int size,
+                    final String encoding, final long slowNanos, final int hugeVertices) {
+        GeometryOperationEvent event = (GeometryOperationEvent) started;
+        event.end();
+        long nanos = System.nanoTime() - event.startNanos;
+        if ((nanos >= slowNanos || vertices >= hugeVertices) && event.shouldCommit()) {
+            event.geometryType = geometryType;
+            event.vertices = vertices;
+            event.size = size;
+            event.encoding = encoding;
+            event.commit();
+        }
+        return nanos;
+    }
+
+
+    static boolean isParse(final Object event) {
+        return event instanceof GeometryParseEvent;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.jfr;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+
+/**
+ * The common fields of the geometry events.
+ *
+ * The JFR threshold is left at zero: {@link GeometryEvents} decides which operations are recorded, as a geometry
+ * qualifies by either duration or size.
+ */
+@Category("PostGIS")
+@StackTrace(true)
+@Threshold("0 ns")
+abstract class GeometryOperationEvent extends jdk.jfr.Event {
+
+    @Label("Geometry Type")
+    String geometryType;
+
+    @Label("Vertices")
+    int vertices;
+
+    @Label("Size")
+    @Description("Size of the encoded geometry; characters for hex and WKT")
+    @DataAmount
+    int size;
+
+    @Label("Encoding")
+    @Description("hex, binary or wkt")
+    String encoding;
+
+    /** The start of the operation, for the threshold check; not part of the event. */
+    transient long startNanos;
+}
@@ -0,0 +1,172 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry;
+
+
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+
+
+public class EnvelopeTest {
+
+    private final BinaryParser parser = new BinaryParser();
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+
+    @Test
+    public void testParsedEnvelopeMatchesComputed() throws SQLException {
+        String[] values = new String[]{
+                "POINT(1 2)",
+                "LINESTRING(0 5,-3 1,2 7)",
+                "LINESTRING(0 5 1,-3 1 -4,2 7 3)",
+                "LINESTRINGM(0 5 100,-3 1 200)",
+                "POLYGON((0 0,10 0,10 10,0 10,0 0),(2 2,2 3,3 3,2 2))",
+                "MULTIPOLYGON(((1 1,1 2,2 1,1 1)),((-5 5,5 6,6 6,-5 5)))",
+                "GEOMETRYCOLLECTION(POINT(20 -1),LINESTRING(0 0,1 1))",
+                "MULTIPOINT EMPTY"
+        };
+        for (String value : values) {
+            Geometry expected = GeometryBuilder.geomFromString(value);
+            Geometry parsed = parser.parse(writer.writeBinary(expected));
+            Assert.assertEquals(parsed.getEnvelope(), expected.getEnvelope(), value);
+        }
+        Assert.assertEquals(GeometryBuilder.geomFromString("LINESTRING(0 5 1,-3 1 -4,2 7 3)").getEnvelope(),
+                new Envelope(-3, 1, -4, 2, 7, 3));
+        Assert.assertEquals(GeometryBuilder.geomFromString("GEOMETRYCOLLECTION(POINT(20 -1),LINESTRING(0 0,1 1))")
+                .getEnvelope(), new Envelope(0, -1, 20, 1));
+        Assert.assertTrue(GeometryBuilder.geomFromString("MULTIPOINT EMPTY").getEnvelope().isEmpty());
+    }
+
+
+    @Test
+    public void testSettersInvalidateEnvelopes() throws SQLException {
+        Polygon polygon = (Polygon) parser.parse(writer.writeBinary(
+                GeometryBuilder.geomFromString("POLYGON((0 0,10 0,10 10,0 10,0 0))")));
+        Assert.assertEquals(polygon.getEnvelope(), new Envelope(0, 0, 10, 10));
+        polygon.getRing(0).getPoint(2).setX(20);
+        Assert.assertEquals(polygon.getEnvelope(), new Envelope(0, 0, 20, 10));
+        Assert.assertEquals(polygon.getRing(0).getEnvelope(), new Envelope(0, 0, 20, 10));
+        polygon.getRing(0).getPoint(2).y = -5;
+        polygon.invalidateEnvelope();
+        Assert.assertEquals(polygon.getEnvelope(), new Envelope(0, -5, 20, 10));
+    }
+
+
+    @Test
+    public void testChangesOnlyInvalidateContainingGeometries() throws SQLException {
+        LineString line = (LineString) GeometryBuilder.geomFromString("LINESTRING(0 0,1 1)");
+        LineString other = (LineString) GeometryBuilder.geomFromString("LINESTRING(5 5,6 6)");
+        Envelope cached = other.getEnvelope();
+        line.getPoint(1).setX(3);
+        Assert.assertSame(other.getEnvelope(), cached);
+        Assert.assertEquals(line.getEnvelope(), new Envelope(0, 0, 3, 1));
+
+        // a point shared by two geometries invalidates both
+        Point shared = line.getPoint(0);
+        MultiPoint multi = new MultiPoint(new Point[]{shared, new Point(2, 2)});
+        Assert.assertEquals(multi.getEnvelope(), new Envelope(0, 0, 2, 2));
+        shared.setY(-4);
+        Assert.assertEquals(multi.getEnvelope(), new Envelope(0, -4, 2, 2));
+        Assert.assertEquals(line.getEnvelope(), new Envelope(0, -4, 3, 1));
+
+        // replaced parts are picked up when invalidating any containing geometry
+        MultiLineString lines = new MultiLineString(new LineString[]{line, other});
+        Assert.assertEquals(lines.numPoints(), 4);
+        Point replaced = new Point(-8, 0);
+        line.getPoints()[1] = replaced;
+        lines.invalidateEnvelope();
+        Assert.assertEquals(line.getEnvelope(), new Envelope(-8, -4, 0, 0));
+        replaced.setY(9);
+        Assert.assertEquals(lines.getEnvelope(), new Envelope(-8, -4, 6, 9));
+    }
+
+
+    @Test
+    public void testPointSharedByManyGeometries() {
+        Point shared = new Point(0, 0);
+        LineString[] lines = new LineString[200000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = new LineString(new Point[]{shared, new Point(i, 1)});
+        }
+        Assert.assertEquals(lines[7].getEnvelope(), new Envelope(0, 0, 7, 1));
+        shared.setX(-2);
+        Assert.assertEquals(lines[7].getEnvelope(), new Envelope(-2, 0, 7, 1));
+        Assert.assertEquals(lines[lines.length - 1].getEnvelope().getMinX(), -2.0);
+    }
+
+
+    @Test
+    public void testEqualsAndHashCodeUseEnvelope() throws SQLException {
+        Geometry first = parser.parse(writer.writeHexed(GeometryBuilder.geomFromString("LINESTRING(0 0,1 1,2 2)")));
+        Geometry second = GeometryBuilder.geomFromString("LINESTRING(0 0,1 1,2 2)");
+        Geometry third = parser.parse(writer.writeHexed(GeometryBuilder.geomFromString("LINESTRING(0 0,1 1,2 3)")));
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+        Assert.assertNotEquals(first, third);
+        second.getEnvelope();
+        ((LineString) second).getPoint(1).setY(-1);
+        Assert.assertNotEquals(first, second);
+    }
+
+
+    @Test
+    public void testHashCodeFollowsEquals() throws SQLException {
+        Point point = new Point(0.0, Double.NaN);
+        Point other = new Point(-0.0, Double.longBitsToDouble(0x7ff8000000000001L));
+        other.z = 5; // not compared for 2d points
+        Assert.assertEquals(point, other);
+        Assert.assertEquals(point.hashCode(), other.hashCode());
+
+        Geometry first = GeometryBuilder.geomFromString("MULTIPOLYGON(((0 0,1 0,1 1,0 0)),((5 5,5 6,6 6,5 5)))");
+        Geometry second = GeometryBuilder.geomFromString("MULTIPOLYGON(((0 0,1 0,1 1,0 0)),((5 5,6 6,5 6,5 5)))");
+        Assert.assertEquals(first.getEnvelope(), second.getEnvelope());
+        Assert.assertNotEquals(first.hashCode(), second.hashCode());
+        LinearRing ring = ((MultiPolygon) second).getPolygon(1).getRing(0);
+        ring.getPoint(1).setX(5);
+        ring.getPoint(2).setX(6);
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+    }
+
+
+    @Test
+    public void testMeasureSetterInvalidatesHash() throws SQLException {
+        LineString first = (LineString) GeometryBuilder.geomFromString("LINESTRINGM(0 0 1,1 1 2)");
+        LineString second = (LineString) GeometryBuilder.geomFromString("LINESTRINGM(0 0 1,1 1 3)");
+        Assert.assertNotEquals(first.hashCode(), second.hashCode());
+        second.getPoint(1).setM(2);
+        Assert.assertEquals(second, first);
+        Assert.assertEquals(second.hashCode(), first.hashCode());
+    }
+
+
+    @Test
+    public void testIntersects() {
+        Envelope envelope = new Envelope(0, 0, 10, 10);
+        Assert.assertTrue(envelope.intersects(new Envelope(10, 10, 20, 20)));
+        Assert.assertFalse(envelope.intersects(new Envelope(10.5, 0, 20, 20)));
+        Assert.assertFalse(envelope.intersects(Envelope.EMPTY));
+        Assert.assertTrue(envelope.contains(5, 10));
+        Assert.assertFalse(envelope.contains(5, 11));
+    }
+
+
+}
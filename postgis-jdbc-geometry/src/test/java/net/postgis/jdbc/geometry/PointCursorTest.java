@@ -0,0 +1,131 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry;
+
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+
+public class PointCursorTest {
+
+    private static final String NESTED = "GEOMETRYCOLLECTION(POINT(0 0),MULTIPOLYGON(((1 1,1 2,2 1,1 1)),"
+            + "((5 5,5 6,6 6,5 5),(5.1 5.5,5.2 5.6,5.3 5.5,5.1 5.5))),MULTIPOINT EMPTY,LINESTRING(7 7,8 8))";
+
+
+    @Test
+    public void testCursorVisitorAndGetPointAgree() throws SQLException {
+        Geometry geometry = GeometryBuilder.geomFromString(NESTED);
+        Assert.assertEquals(geometry.numPoints(), 15);
+
+        final List<Point> visited = new ArrayList<Point>();
+        geometry.visitPoints(new PointVisitor() {
+            @Override
+            public void visit(final Point point) {
+                visited.add(point);
+            }
+        });
+        Assert.assertEquals(visited.size(), 15);
+
+        PointCursor cursor = new PointCursor(geometry);
+        for (int i = 0; i < geometry.numPoints(); i++) {
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(cursor.getIndex(), i);
+            Assert.assertSame(cursor.getPoint(), geometry.getPoint(i));
+            Assert.assertSame(visited.get(i), geometry.getPoint(i));
+        }
+        Assert.assertFalse(cursor.next());
+        Assert.assertNull(cursor.getPoint());
+
+        Point point = new Point(1, 2);
+        Assert.assertTrue(cursor.reset(point).next());
+        Assert.assertSame(cursor.getPoint(), point);
+        Assert.assertFalse(cursor.next());
+        Assert.assertFalse(cursor.reset(GeometryBuilder.geomFromString("MULTIPOINT EMPTY")).next());
+    }
+
+
+    @Test
+    public void testResetToIndex() throws SQLException {
+        Geometry geometry = GeometryBuilder.geomFromString(NESTED);
+        PointCursor cursor = new PointCursor(geometry);
+        for (int start = 0; start < geometry.numPoints(); start++) {
+            cursor.reset(geometry, start);
+            for (int i = start; i < geometry.numPoints(); i++) {
+                Assert.assertTrue(cursor.next());
+                Assert.assertSame(cursor.getPoint(), geometry.getPoint(i), "start " + start + ", point " + i);
+            }
+            Assert.assertFalse(cursor.next());
+        }
+        Assert.assertFalse(cursor.reset(geometry, geometry.numPoints()).next());
+    }
+
+
+    @Test
+    public void testStreamsSplitByVertexCount() throws SQLException {
+        StringBuilder large = new StringBuilder("((0 0");
+        for (int i = 1; i < 6000; i++) {
+            large.append(',').append(i).append(' ').append(i % 7);
+        }
+        large.append(",0 0))");
+        MultiPolygon multi = (MultiPolygon) GeometryBuilder.geomFromString("MULTIPOLYGON(((1 1,1 2,2 1,1 1)),"
+                + "((5 5,5 6,6 6,5 5))," + large + ",((7 7,7 8,8 8,7 7)))");
+
+        Spliterator<Point> points = multi.coordinates().spliterator();
+        Spliterator<Point> prefix = points.trySplit();
+        Assert.assertEquals(prefix.estimateSize(), multi.numPoints() / 2);
+        Assert.assertEquals(prefix.estimateSize() + points.estimateSize(), multi.numPoints());
+
+        Spliterator<Geometry> parts = multi.subGeometries().spliterator();
+        Assert.assertEquals(parts.trySplit().estimateSize(), 2); // the large polygon starts the second half
+        Assert.assertEquals(parts.estimateSize(), 2);
+
+        Assert.assertEquals(multi.coordinates().parallel().collect(Collectors.toList()),
+                multi.coordinates().collect(Collectors.toList()));
+        Assert.assertEquals(multi.coordinates().parallel().mapToDouble(p -> p.x).sum(),
+                multi.coordinates().mapToDouble(p -> p.x).sum());
+        Assert.assertEquals(multi.subGeometries().parallel().mapToInt(Geometry::numPoints).sum(),
+                multi.numPoints());
+    }
+
+
+    @Test(expectedExceptions = ArrayIndexOutOfBoundsException.class)
+    public void testGetPointBeyondLastPoint() throws SQLException {
+        GeometryBuilder.geomFromString(NESTED).getPoint(15);
+    }
+
+
+    @Test
+    public void testOffsetsFollowReplacedParts() throws SQLException {
+        MultiPolygon multi = (MultiPolygon) GeometryBuilder.geomFromString(
+                "MULTIPOLYGON(((1 1,1 2,2 1,1 1)),((5 5,5 6,6 6,5 5)))");
+        Assert.assertEquals(multi.getPoint(4), new Point(5, 5));
+        multi.getPolygon(0).getRing(0).getPoint(0).setX(0); // coordinate changes keep the offsets
+        Assert.assertEquals(multi.getPoint(0), new Point(0, 1));
+        multi.getPolygons()[0] = new Polygon("POLYGON((1 1,1 2,2 2,2 1,1 1))");
+        multi.invalidateEnvelope();
+        Assert.assertEquals(multi.numPoints(), 9);
+        Assert.assertEquals(multi.getPoint(5), new Point(5, 5));
+    }
+
+
+}
@@ -0,0 +1,151 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+
+public class CellCoveringTest {
+
+    private static final double EDGE = WebMercator.RADIUS * Math.PI;
+
+
+    @Test
+    public void testGeohash() {
+        Assert.assertEquals(CellCovering.geohash(-5.603, 42.605, 5), "ezs42");
+        Assert.assertEquals(CellCovering.geohash(-180, -90, 3), "000");
+        Assert.assertEquals(CellCovering.geohash(180, 90, 3), "zzz");
+    }
+
+
+    @Test
+    public void testPoints() throws SQLException {
+        Assert.assertEquals(CellCovering.geohashes(GeometryBuilder.geomFromString("POINT(-5.603 42.605)"), 5),
+                new TreeSet<String>(Arrays.asList("ezs42")));
+        Geometry mercator = WebMercator.transform(GeometryBuilder.geomFromString("SRID=4326;POINT(-5.603 42.605)"),
+                WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(CellCovering.geohashes(mercator, 5), new TreeSet<String>(Arrays.asList("ezs42")));
+        // the center of tile x=3, y=5 at zoom 3
+        Point tile = new Point(-EDGE + 3.5 * EDGE / 4, EDGE - 5.5 * EDGE / 4);
+        tile.setSrid(WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(CellCovering.quadkeys(tile, 3), new TreeSet<String>(Arrays.asList("213")));
+        WebMercator.transform(tile, WebMercator.WGS84);
+        Assert.assertEquals(CellCovering.quadkeys(tile, 3), new TreeSet<String>(Arrays.asList("213")));
+    }
+
+
+    @Test
+    public void testLineString() throws SQLException {
+        SortedSet<String> cells = CellCovering.geohashes(
+                GeometryBuilder.geomFromString("LINESTRING(0.5 0.5,89.5 0.5)"), 1);
+        Assert.assertEquals(cells, new TreeSet<String>(Arrays.asList(
+                CellCovering.geohash(0.5, 0.5, 1), CellCovering.geohash(89.5, 0.5, 1))));
+        Assert.assertEquals(CellCovering.quadkeys(
+                GeometryBuilder.geomFromString("LINESTRING(-170 10,170 10)"), 2),
+                new TreeSet<String>(Arrays.asList("02", "03", "12", "13")));
+    }
+
+
+    @Test
+    public void testPolygons() throws SQLException {
+        Geometry cell = GeometryBuilder.geomFromString("POLYGON((0.1 0.1,44.9 0.1,44.9 44.9,0.1 44.9,0.1 0.1))");
+        Assert.assertEquals(CellCovering.geohashes(cell, 1), new TreeSet<String>(Arrays.asList("s")));
+        SortedSet<String> cells = CellCovering.geohashes(cell, 2);
+        Assert.assertEquals(cells.size(), 32);
+        Assert.assertEquals(cells.first(), "s0");
+        Assert.assertEquals(cells.last(), "sz");
+        Assert.assertEquals(CellCovering.quadkeys(GeometryBuilder.geomFromString(
+                "POLYGON((-179 -85,179 -85,179 85,-179 85,-179 -85))"), 2).size(), 16);
+    }
+
+
+    @Test
+    public void testPolygonWithHoleCoversAllContainedPoints() throws SQLException {
+        Geometry geometry = GeometryBuilder.geomFromString("MULTIPOLYGON("
+                + "((-10 -10,50 -10,50 50,-10 50,-10 -10),(0 0,0 40,40 40,40 0,0 0)),"
+                + "((100 10,120 10,110 30,100 10)))");
+        SortedSet<String> cells = CellCovering.geohashes(geometry, 3);
+        PreparedPolygon polygon = new PreparedPolygon(geometry);
+        Random random = new Random(7);
+        Set<String> reached = new HashSet<String>();
+        for (int i = 0; i < 100000; i++) {
+            double x = -10 + random.nextDouble() * 130;
+            double y = -10 + random.nextDouble() * 60;
+            if (polygon.contains(x, y)) {
+                String geohash = CellCovering.geohash(x, y, 3);
+                Assert.assertTrue(cells.contains(geohash), geohash);
+                reached.add(geohash);
+            }
+        }
+        // the cells inside the hole are left out
+        Assert.assertFalse(cells.contains(CellCovering.geohash(20, 20, 3)));
+        Assert.assertTrue(cells.size() < reached.size() * 1.5, cells.size() + " " + reached.size());
+    }
+
+
+    @Test
+    public void testEwkb() throws SQLException {
+        Geometry geometry = GeometryBuilder.geomFromString(
+                "SRID=4326;GEOMETRYCOLLECTION(POINT(13.4 52.5),LINESTRING(2.35 48.85,-0.12 51.5))");
+        byte[] ewkb = new BinaryWriter().writeBinary(geometry);
+        Assert.assertEquals(CellCovering.geohashes(ewkb, 4), CellCovering.geohashes(geometry, 4));
+        Assert.assertEquals(CellCovering.quadkeys(ewkb, 10), CellCovering.quadkeys(geometry, 10));
+        Assert.assertTrue(CellCovering.geohashes(ewkb, 4).contains(CellCovering.geohash(13.4, 52.5, 4)));
+    }
+
+
+    @Test
+    public void testMaxCells() throws SQLException {
+        Geometry world = GeometryBuilder.geomFromString("POLYGON((-179 -85,179 -85,179 85,-179 85,-179 -85))");
+        Assert.assertEquals(CellCovering.quadkeys(world, 2, 16).size(), 16);
+        try {
+            CellCovering.quadkeys(world, 2, 15);
+            Assert.fail("covering exceeds its limit");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("15 cells"), e.getMessage());
+        }
+        try {
+            // about 4^30 tiles, rejected before any of them are produced
+            CellCovering.quadkeys(world, CellCovering.MAX_ZOOM);
+            Assert.fail("covering exceeds the default limit");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains(CellCovering.DEFAULT_MAX_CELLS + " cells"), e.getMessage());
+        }
+        Assert.assertEquals(CellCovering.geohashes(GeometryBuilder.geomFromString("POINT(1 2)"), 12, 1).size(), 1);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsPrecision() throws SQLException {
+        CellCovering.geohashes(GeometryBuilder.geomFromString("POINT(1 2)"), 13);
+    }
+
+
+}
@@ -0,0 +1,100 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Random;
+
+
+public class GeodesicTest {
+
+    @Test
+    public void testHaversine() {
+        double[] distances = new double[3];
+        Geodesic.haversine(0, 0, new double[]{1, 0, 9, 0, 1, 9, 180, 0, 9}, 0, 3, 3, distances);
+        Assert.assertEquals(distances[0], Geodesic.MEAN_RADIUS * Math.PI / 180, 1e-6);
+        Assert.assertEquals(distances[1], Geodesic.MEAN_RADIUS * Math.PI / 180, 1e-6);
+        Assert.assertEquals(distances[2], Geodesic.MEAN_RADIUS * Math.PI, 1e-6);
+    }
+
+
+    @Test
+    public void testVincenty() {
+        double[] distances = new double[4];
+        Geodesic.vincenty(144.42486788888888, -37.95103341666667, new double[]{
+                143.92649552777777, -37.65282113888889, // Flinders Peak to Buninyong, the example of Vincenty
+                1, 0,
+                144.42486788888888, -37.95103341666667,
+                -35.57513211111112, 37.95103341666667 // antipodal, does not converge
+        }, 0, 4, 2, distances);
+        Assert.assertEquals(distances[0], 54972.271, 1e-3);
+        Assert.assertEquals(distances[2], 0.0);
+        Assert.assertEquals(distances[3], Geodesic.MEAN_RADIUS * Math.PI, 1e-3);
+        Geodesic.vincenty(0, 0, new double[]{1, 0}, 0, 1, 2, distances);
+        Assert.assertEquals(distances[0], Geodesic.SEMI_MAJOR_AXIS * Math.PI / 180, 1e-6);
+    }
+
+
+    @Test
+    public void testPack() throws SQLException {
+        Geometry[] geometries = new Geometry[]{
+                GeometryBuilder.geomFromString("SRID=4326;POINT(13.4 52.5)"),
+                GeometryBuilder.geomFromString("SRID=4326;LINESTRING(2.35 48.85,3 49)")
+        };
+        Assert.assertEquals(Geodesic.pack(geometries, null), new double[]{13.4, 52.5, 2.35, 48.85});
+        double[] reused = new double[6];
+        Assert.assertSame(Geodesic.pack(geometries, reused), reused);
+    }
+
+
+    @Test
+    public void testNearest() {
+        Random random = new Random(42);
+        double[] distances = new double[1000];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = random.nextInt(200);
+        }
+        distances[17] = Double.NaN;
+        Integer[] sorted = new Integer[distances.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> Double.compare(distances[a], distances[b]));
+        for (int k : new int[]{0, 1, 10, 999, 1000, 2000}) {
+            int[] expected = new int[Math.min(k, distances.length)];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = sorted[i];
+            }
+            Assert.assertEquals(Geodesic.nearest(distances, distances.length, k), expected, "k=" + k);
+        }
+        Assert.assertEquals(Geodesic.nearest(distances, 3, 5).length, 3);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNearestRejectsNegativeK() {
+        Geodesic.nearest(new double[1], 1, -1);
+    }
+
+
+}
@@ -0,0 +1,136 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.LinearRing;
+import net.postgis.jdbc.geometry.MultiPolygon;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.Polygon;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.Random;
+
+
+public class PreparedPolygonTest {
+
+    @Test
+    public void testLocate() throws SQLException {
+        PreparedPolygon prepared = new PreparedPolygon(GeometryBuilder.geomFromString(
+                "MULTIPOLYGON(((0 0,10 0,10 10,0 10,0 0),(2 2,2 8,8 8,8 2,2 2)),((20 0,30 0,25 5,20 0)))"));
+        Assert.assertEquals(prepared.locate(1, 1), PreparedPolygon.INTERIOR);
+        Assert.assertEquals(prepared.locate(5, 5), PreparedPolygon.EXTERIOR); // in the hole
+        Assert.assertEquals(prepared.locate(25, 1), PreparedPolygon.INTERIOR);
+        Assert.assertEquals(prepared.locate(15, 1), PreparedPolygon.EXTERIOR);
+        Assert.assertEquals(prepared.locate(0, 5), PreparedPolygon.BOUNDARY);
+        Assert.assertEquals(prepared.locate(5, 10), PreparedPolygon.BOUNDARY); // on a horizontal edge
+        Assert.assertEquals(prepared.locate(8, 8), PreparedPolygon.BOUNDARY); // on a hole vertex
+        Assert.assertEquals(prepared.locate(25, 5), PreparedPolygon.BOUNDARY); // on the apex
+        Assert.assertEquals(prepared.locate(-1, 5), PreparedPolygon.EXTERIOR);
+        Assert.assertEquals(prepared.locate(Double.NaN, 5), PreparedPolygon.EXTERIOR);
+        Assert.assertTrue(prepared.contains(new Point(9, 9)));
+        Assert.assertFalse(prepared.contains(0, 5));
+        Assert.assertTrue(prepared.covers(0, 5));
+
+        PreparedPolygon empty = new PreparedPolygon(new MultiPolygon());
+        Assert.assertEquals(empty.locate(0, 0), PreparedPolygon.EXTERIOR);
+    }
+
+
+    @Test
+    public void testBatchMatchesRayCasting() {
+        // a star with many edges, and a hole in its centre
+        Random random = new Random(3);
+        int vertices = 2000;
+        Point[] shell = new Point[vertices + 1];
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double radius = 50 + (i % 2 == 0 ? 40 : 0) + random.nextDouble() * 5;
+            shell[i] = new Point(radius * Math.cos(angle), radius * Math.sin(angle));
+        }
+        shell[vertices] = shell[0];
+        Point[] hole = new Point[]{new Point(-10, -10), new Point(-10, 10), new Point(10, 10), new Point(10, -10),
+                new Point(-10, -10)};
+        Polygon polygon = new Polygon(new LinearRing[]{new LinearRing(shell), new LinearRing(hole)});
+        PreparedPolygon prepared = new PreparedPolygon(new MultiPolygon(new Polygon[]{polygon}));
+
+        double[] xy = new double[2 * 20000];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = random.nextDouble() * 200 - 100;
+        }
+        boolean[] inside = new boolean[xy.length / 2];
+        int hits = prepared.contains(xy, inside);
+        int expectedHits = 0;
+        for (int i = 0; i < inside.length; i++) {
+            boolean expected = crossings(shell, xy[2 * i], xy[2 * i + 1]) ^ crossings(hole, xy[2 * i], xy[2 * i + 1]);
+            Assert.assertEquals(inside[i], expected, "point " + xy[2 * i] + " " + xy[2 * i + 1]);
+            expectedHits += expected ? 1 : 0;
+        }
+        Assert.assertEquals(hits, expectedHits);
+        Assert.assertTrue(hits > 1000);
+    }
+
+
+    @Test
+    public void testCombIndexStaysLinear() {
+        // teeth of height 1000 and width 1, every vertical edge spans the whole envelope
+        int teeth = 5000;
+        Point[] shell = new Point[4 * teeth + 3];
+        int n = 0;
+        for (int i = 0; i < teeth; i++) {
+            shell[n++] = new Point(2 * i, 0);
+            shell[n++] = new Point(2 * i, 1000);
+            shell[n++] = new Point(2 * i + 1, 1000);
+            shell[n++] = new Point(2 * i + 1, 1);
+        }
+        shell[n++] = new Point(2 * teeth, 1);
+        shell[n++] = new Point(2 * teeth, -1);
+        shell[n] = shell[0];
+        PreparedPolygon prepared = new PreparedPolygon(new Polygon(new LinearRing[]{new LinearRing(shell)}));
+        Assert.assertTrue(prepared.indexSize() <= 6 * shell.length, "index size " + prepared.indexSize());
+
+        Assert.assertEquals(prepared.locate(0.5, 500), PreparedPolygon.INTERIOR);
+        Assert.assertEquals(prepared.locate(1.5, 500), PreparedPolygon.EXTERIOR);
+        Assert.assertEquals(prepared.locate(2 * teeth - 1.5, 999), PreparedPolygon.INTERIOR);
+        Assert.assertEquals(prepared.locate(1.5, 0), PreparedPolygon.INTERIOR);
+        Assert.assertEquals(prepared.locate(2, 700), PreparedPolygon.BOUNDARY);
+        Random random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            double x = random.nextDouble() * 2 * teeth;
+            double y = random.nextDouble() * 1001 - 1;
+            Assert.assertEquals(prepared.contains(x, y), crossings(shell, x, y), "point " + x + " " + y);
+        }
+    }
+
+
+    /** Plain ray casting over all edges of a closed ring. */
+    private static boolean crossings(final Point[] ring, final double x, final double y) {
+        boolean inside = false;
+        for (int i = 0; i + 1 < ring.length; i++) {
+            Point a = ring[i];
+            Point b = ring[i + 1];
+            if ((a.y > y) != (b.y > y) && x < a.x + (y - a.y) * (b.x - a.x) / (b.y - a.y)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+
+}
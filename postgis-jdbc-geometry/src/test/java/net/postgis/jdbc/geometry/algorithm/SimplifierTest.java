@@ -0,0 +1,102 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.MultiPolygon;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+
+
+public class SimplifierTest {
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+
+    @Test
+    public void testDouglasPeucker() throws SQLException {
+        Simplifier simplifier = Simplifier.douglasPeucker(1);
+        Assert.assertEquals(simplifier.simplify(GeometryBuilder.geomFromString(
+                "SRID=4326;LINESTRING(0 0,1 0.1,2 -0.1,3 0,4 5,5 10)")),
+                GeometryBuilder.geomFromString("SRID=4326;LINESTRING(0 0,3 0,5 10)"));
+        Assert.assertEquals(simplifier.simplify(GeometryBuilder.geomFromString("LINESTRINGM(0 0 1,1 0.1 2,2 0 3)")),
+                GeometryBuilder.geomFromString("LINESTRINGM(0 0 1,2 0 3)"));
+        Assert.assertEquals(simplifier.simplify(GeometryBuilder.geomFromString("LINESTRING(0 0 7,1 5 8)")),
+                GeometryBuilder.geomFromString("LINESTRING(0 0 7,1 5 8)"));
+    }
+
+
+    @Test
+    public void testVisvalingam() throws SQLException {
+        Assert.assertEquals(Simplifier.visvalingam(1).simplify(GeometryBuilder.geomFromString(
+                "LINESTRING(0 0,1 0.01,2 0,3 5,4 0)")),
+                GeometryBuilder.geomFromString("LINESTRING(0 0,2 0,3 5,4 0)"));
+        Assert.assertEquals(Simplifier.visvalingam(100).simplify(GeometryBuilder.geomFromString(
+                "LINESTRING(0 0,1 0.01,2 0,3 5,4 0)")),
+                GeometryBuilder.geomFromString("LINESTRING(0 0,4 0)"));
+    }
+
+
+    @Test
+    public void testRingsKeepFourPoints() throws SQLException {
+        String circle = circle(0, 0, 10, 64);
+        Geometry polygon = GeometryBuilder.geomFromString("POLYGON(" + circle + "," + circle(0, 0, 2, 16) + ")");
+        for (Simplifier simplifier : new Simplifier[]{Simplifier.douglasPeucker(1000),
+                Simplifier.visvalingam(1000)}) {
+            Geometry simplified = simplifier.simplify(polygon);
+            Assert.assertEquals(simplified.numPoints(), 8);
+            Assert.assertEquals(simplified.getFirstPoint(), simplified.getPoint(3));
+        }
+        Geometry simplified = Simplifier.douglasPeucker(0.5).simplify(polygon);
+        Assert.assertTrue(simplified.numPoints() > 8 && simplified.numPoints() < polygon.numPoints());
+    }
+
+
+    @Test
+    public void testSimplifyWhileParsing() throws SQLException {
+        Geometry multi = GeometryBuilder.geomFromString("SRID=3857;MULTIPOLYGON((" + circle(0, 0, 100, 500) + "),(("
+                + "200 0,300 0,300 0.001,300 100,200 100,200 0)))");
+        Simplifier simplifier = Simplifier.douglasPeucker(0.5);
+        Geometry expected = simplifier.simplify(multi);
+        Geometry parsed = new BinaryParser(simplifier).parse(writer.writeBinary(multi));
+        Assert.assertEquals(parsed, expected);
+        Assert.assertEquals(parsed.getEnvelope(), expected.getEnvelope());
+        Assert.assertEquals(((MultiPolygon) parsed).getPolygon(1).numPoints(), 5);
+        Assert.assertTrue(parsed.numPoints() < multi.numPoints() / 4);
+        Assert.assertEquals(parsed.srid, 3857);
+        Assert.assertEquals(new BinaryParser(simplifier).parse(writer.writeBinary(new Point(1, 2))), new Point(1, 2));
+    }
+
+
+    private static String circle(final double x, final double y, final double radius, final int vertices) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i <= vertices; i++) {
+            double angle = 2 * Math.PI * (i % vertices) / vertices;
+            sb.append(i == 0 ? "" : ",").append(x + radius * Math.cos(angle)).append(' ')
+                    .append(y + radius * Math.sin(angle));
+        }
+        return sb.append(')').toString();
+    }
+
+
+}
@@ -0,0 +1,156 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.algorithm;
+
+
+import net.postgis.jdbc.geometry.Envelope;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.GeometryCollection;
+import net.postgis.jdbc.geometry.LineString;
+import net.postgis.jdbc.geometry.LinearRing;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.Polygon;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+
+
+public class WebMercatorTest {
+
+    private static final double EDGE = 20037508.342789244;
+
+    private static final double MAX = WebMercator.MAX_LATITUDE;
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+
+    @Test
+    public void testKnownValues() {
+        double[] ordinates = new double[]{180, 0, 5, -180, 90, 6, 0, -MAX, 7, 13.4, 52.5, 8};
+        WebMercator.toMercator(ordinates, 0, 4, 3);
+        Assert.assertEquals(ordinates[0], EDGE, 1e-6);
+        Assert.assertEquals(ordinates[1], 0, 1e-6);
+        Assert.assertEquals(ordinates[3], -EDGE, 1e-6);
+        Assert.assertEquals(ordinates[4], EDGE, 1e-6); // clamped
+        Assert.assertEquals(ordinates[7], -EDGE, 1e-6);
+        Assert.assertEquals(ordinates[9], 1491681.1766, 1e-3);
+        Assert.assertEquals(ordinates[10], 6891041.7239, 1e-3);
+        Assert.assertEquals(new double[]{ordinates[2], ordinates[5], ordinates[8], ordinates[11]},
+                new double[]{5, 6, 7, 8});
+    }
+
+
+    @Test
+    public void testRoundTrip() {
+        double[] expected = new double[]{-1, 0, 0, 0, -179.5, -85, 13.4, 52.5, 179.99, 84.9};
+        double[] ordinates = expected.clone();
+        WebMercator.transform(ordinates, 2, 4, 2, WebMercator.WGS84, WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(ordinates[0], -1.0);
+        WebMercator.transform(ordinates, 2, 4, 2, WebMercator.WEB_MERCATOR, WebMercator.WGS84);
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(ordinates[i], expected[i], 1e-9);
+        }
+        WebMercator.transform(ordinates, 0, 5, 2, WebMercator.WGS84, WebMercator.WGS84);
+        Assert.assertEquals(ordinates[4], -179.5, 1e-9);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsOtherSrids() {
+        WebMercator.transform(new double[2], 0, 1, 2, 25832, WebMercator.WEB_MERCATOR);
+    }
+
+
+    @Test
+    public void testTransformGeometry() throws SQLException {
+        Geometry geometry = GeometryBuilder.geomFromString(
+                "SRID=4326;GEOMETRYCOLLECTION(POINT(180 0),LINESTRING(0 0,-180 0))");
+        Assert.assertEquals(geometry.getEnvelope().getMaxX(), 180.0);
+        Assert.assertSame(WebMercator.transform(geometry, WebMercator.WEB_MERCATOR), geometry);
+        Assert.assertEquals(geometry.getSrid(), WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(((GeometryCollection) geometry).getSubGeometry(1).getSrid(), WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(geometry.getPoint(0).x, EDGE, 1e-6);
+        Assert.assertEquals(geometry.getEnvelope().getMinX(), -EDGE, 1e-6);
+        WebMercator.transform(geometry, WebMercator.WGS84);
+        Assert.assertEquals(geometry.getPoint(2).x, -180, 1e-9);
+        Assert.assertEquals(geometry.getSrid(), WebMercator.WGS84);
+    }
+
+
+    @Test
+    public void testSharedPointsTransformedOnce() {
+        Point first = new Point(10, 20);
+        LinearRing ring = new LinearRing(new Point[]{first, new Point(11, 20), new Point(11, 21), first});
+        Polygon polygon = new Polygon(new LinearRing[]{ring});
+        polygon.setSrid(WebMercator.WGS84);
+        Envelope cached = polygon.getEnvelope();
+        WebMercator.transform(polygon, WebMercator.WEB_MERCATOR);
+        double[] expected = new double[]{10, 20};
+        WebMercator.toMercator(expected, 0, 1, 2);
+        Assert.assertEquals(first.x, expected[0], 1e-6);
+        Assert.assertEquals(first.y, expected[1], 1e-6);
+        Assert.assertNotEquals(polygon.getEnvelope(), cached);
+        Assert.assertEquals(polygon.getEnvelope().getMinX(), expected[0], 1e-6);
+    }
+
+
+    @Test
+    public void testGeometriesSharingPointsSeeTheChange() {
+        Point shared = new Point(10, 20);
+        LineString line = new LineString(new Point[]{shared, new Point(11, 21)});
+        LineString other = new LineString(new Point[]{new Point(0, 0), shared});
+        line.setSrid(WebMercator.WGS84);
+        Assert.assertEquals(other.getEnvelope().getMaxX(), 10.0);
+        int hash = other.hashCode();
+        WebMercator.transform(line, WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(other.getEnvelope().getMaxX(), shared.x);
+        Assert.assertNotEquals(other.hashCode(), hash);
+    }
+
+
+    @Test
+    public void testParserTransforms() throws SQLException {
+        Geometry source = GeometryBuilder.geomFromString(
+                "SRID=4326;MULTIPOLYGON(((0 0,180 0,180 10,0 0)),((1 1,2 1,2 2,1 1)))");
+        String hex = writer.writeHexed(source);
+        Geometry parsed = new BinaryParser(null, WebMercator.WEB_MERCATOR).parse(hex);
+        Geometry expected = WebMercator.transform(GeometryBuilder.geomFromString(source.toString()),
+                WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(parsed.getSrid(), WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(parsed.numPoints(), expected.numPoints());
+        for (int i = 0; i < expected.numPoints(); i++) {
+            Assert.assertEquals(parsed.getPoint(i).x, expected.getPoint(i).x, 1e-6);
+            Assert.assertEquals(parsed.getPoint(i).y, expected.getPoint(i).y, 1e-6);
+        }
+        Assert.assertEquals(parsed.getEnvelope().getMaxX(), EDGE, 1e-6);
+
+        BinaryParser parser = new BinaryParser(null, WebMercator.WGS84);
+        Point point = (Point) parser.parse(writer.writeHexed(GeometryBuilder.geomFromString(
+                "SRID=3857;POINT(20037508.342789244 0 12)")));
+        Assert.assertEquals(point.x, 180, 1e-9);
+        Assert.assertEquals(point.z, 12.0);
+        Assert.assertEquals(point.getSrid(), WebMercator.WGS84);
+        // geometries without SRID are left alone
+        Assert.assertEquals(parser.parse(writer.writeHexed(GeometryBuilder.geomFromString("POINT(1 2)"))),
+                new Point(1, 2));
+    }
+
+
+}
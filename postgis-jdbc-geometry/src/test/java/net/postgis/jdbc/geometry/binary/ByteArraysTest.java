@@ -0,0 +1,96 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Random;
+
+
+/**
+ * Checks the Java 17 variant of {@link ByteArrays} from the multi-release output against the Java 8 one, which is the
+ * one on the test class path.
+ */
+public class ByteArraysTest {
+
+    @Test
+    public void testVersionedVariantMatches() throws Exception {
+        File classes = new File(ByteArrays.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        File versioned = new File(classes, "META-INF/versions/17");
+        if (!versioned.isDirectory()) {
+            throw new SkipException("Java 17 classes were not built");
+        }
+        Class<?> variant;
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{versioned.toURI().toURL()}, null)) {
+            variant = loader.loadClass(ByteArrays.class.getName());
+            Random random = new Random(4326);
+            for (int round = 0; round < 100; round++) {
+                byte[] bytes = new byte[16 + random.nextInt(32)];
+                random.nextBytes(bytes);
+                int index = random.nextInt(bytes.length - 8);
+                for (boolean bigEndian : new boolean[]{true, false}) {
+                    Assert.assertEquals(invoke(variant, "getInt", bytes, index, bigEndian),
+                            ByteArrays.getInt(bytes, index, bigEndian));
+                    Assert.assertEquals(invoke(variant, "getLong", bytes, index, bigEndian),
+                            ByteArrays.getLong(bytes, index, bigEndian));
+
+                    int intValue = random.nextInt();
+                    long longValue = random.nextLong();
+                    byte[] expected = bytes.clone();
+                    byte[] actual = bytes.clone();
+                    ByteArrays.putInt(expected, index, intValue, bigEndian);
+                    invoke(variant, "putInt", actual, index, intValue, bigEndian);
+                    Assert.assertEquals(actual, expected);
+                    ByteArrays.putLong(expected, index, longValue, bigEndian);
+                    invoke(variant, "putLong", actual, index, longValue, bigEndian);
+                    Assert.assertEquals(actual, expected);
+                }
+                Assert.assertEquals(invoke(variant, "hex", (Object) bytes), ByteArrays.hex(bytes));
+            }
+        }
+    }
+
+
+    @Test
+    public void testValuesRoundTrip() {
+        byte[] bytes = new byte[12];
+        ByteArrays.putInt(bytes, 0, 0x01020304, true);
+        ByteArrays.putLong(bytes, 4, Double.doubleToLongBits(-1.5), false);
+        Assert.assertEquals(ByteArrays.hex(bytes), "01020304000000000000F8BF");
+        Assert.assertEquals(ByteArrays.getInt(bytes, 0, false), 0x04030201);
+        Assert.assertEquals(Double.longBitsToDouble(ByteArrays.getLong(bytes, 4, false)), -1.5);
+    }
+
+
+    private static Object invoke(final Class<?> type, final String name, final Object... args) throws Exception {
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                method.setAccessible(true);
+                return method.invoke(null, args);
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+
+}
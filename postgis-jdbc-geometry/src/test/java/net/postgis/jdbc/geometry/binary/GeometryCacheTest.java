@@ -0,0 +1,129 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.algorithm.Simplifier;
+import net.postgis.jdbc.geometry.algorithm.WebMercator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+public class GeometryCacheTest {
+
+    private final BinaryParser parser = new BinaryParser();
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+
+    @Test
+    public void testRepeatedValuesShareInstance() throws SQLException {
+        GeometryCache cache = new GeometryCache(2);
+        byte[] boundary = writer.writeBinary(GeometryBuilder.geomFromString(
+                "SRID=4326;POLYGON((0 0,10 0,10 1,9 1,9 2,8 2,8 3,7 3,7 4,6 4,6 5,5 5,5 6,4 6,4 7,0 7,0 0))"));
+        Assert.assertTrue(boundary.length >= GeometryCache.DEFAULT_MIN_BYTES);
+        byte[] reused = Arrays.copyOf(boundary, boundary.length + 64); // a larger buffer with a stale tail
+        Arrays.fill(reused, boundary.length, reused.length, (byte) 7);
+
+        Geometry first = cache.parse(parser, boundary);
+        Assert.assertSame(cache.parse(parser, reused, boundary.length), first);
+        Assert.assertEquals(first, parser.parse(boundary));
+        Assert.assertEquals(cache.getMisses(), 1);
+        Assert.assertEquals(cache.getHits(), 1);
+
+        byte[] point = writer.writeBinary(GeometryBuilder.geomFromString("POINT(1 2)"));
+        Assert.assertNotSame(cache.parse(parser, point), cache.parse(parser, point));
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws SQLException {
+        GeometryCache cache = new GeometryCache(2, 0);
+        byte[] a = writer.writeBinary(GeometryBuilder.geomFromString("LINESTRING(0 0,1 1)"));
+        byte[] b = writer.writeBinary(GeometryBuilder.geomFromString("LINESTRING(0 0,2 2)"));
+        byte[] c = writer.writeBinary(GeometryBuilder.geomFromString("LINESTRING(0 0,3 3)"));
+        Geometry first = cache.parse(parser, a);
+        Geometry second = cache.parse(parser, b);
+        Assert.assertSame(cache.parse(parser, a), first);
+        cache.parse(parser, c);
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertSame(cache.parse(parser, a), first);
+        Assert.assertNotSame(cache.parse(parser, b), second);
+    }
+
+
+    @Test
+    public void testParserSettingsArePartOfTheKey() throws SQLException {
+        GeometryCache cache = new GeometryCache(8, 0);
+        byte[] value = writer.writeBinary(GeometryBuilder.geomFromString(
+                "SRID=4326;LINESTRING(0 0,1 0.001,2 0,3 0.001,4 0)"));
+        Geometry plain = cache.parse(parser, value);
+        BinaryParser simplifying = new BinaryParser(Simplifier.douglasPeucker(0.01));
+        Geometry simplified = cache.parse(simplifying, value);
+        Geometry transformed = cache.parse(new BinaryParser(null, WebMercator.WEB_MERCATOR), value);
+        Assert.assertEquals(plain.numPoints(), 5);
+        Assert.assertEquals(simplified.numPoints(), 2);
+        Assert.assertEquals(transformed.getSrid(), WebMercator.WEB_MERCATOR);
+        Assert.assertSame(cache.parse(simplifying, value), simplified);
+        Assert.assertSame(cache.parse(parser, value), plain);
+        Assert.assertEquals(cache.size(), 3);
+    }
+
+
+    @Test
+    public void testSharedInstanceHashesAlikeInAllThreads() throws Exception {
+        StringBuilder wkt = new StringBuilder("MULTILINESTRING(");
+        for (int i = 0; i < 64; i++) {
+            wkt.append(i == 0 ? "(" : ",(").append(i).append(" 0,").append(i).append(" 1,").append(i + 1).append(" 2)");
+        }
+        byte[] value = writer.writeBinary(GeometryBuilder.geomFromString(wkt.append(')').toString()));
+        int expected = parser.parse(value).hashCode();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 50; round++) {
+                final Geometry shared = new GeometryCache(1, 0).parse(parser, value);
+                List<Future<Integer>> hashes = new ArrayList<Future<Integer>>();
+                for (int t = 0; t < 4; t++) {
+                    hashes.add(executor.submit(new Callable<Integer>() {
+                        @Override
+                        public Integer call() {
+                            return shared.hashCode();
+                        }
+                    }));
+                }
+                for (Future<Integer> hash : hashes) {
+                    Assert.assertEquals(hash.get().intValue(), expected);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+}
@@ -0,0 +1,178 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Random;
+
+
+public class KernelsTest {
+
+    private final Random random = new Random(4326);
+
+
+    @Test
+    public void testGetDoubles() {
+        double[] values = randomDoubles(37);
+        for (byte endian : new byte[]{ValueSetter.XDR.NUMBER, ValueSetter.NDR.NUMBER}) {
+            byte[] bytes = encode(values, endian);
+            double[] decoded = new double[values.length + 1];
+            Kernels.getDoubles(bytes, 3, decoded, 1, values.length, endian == ValueSetter.XDR.NUMBER);
+            Assert.assertEquals(Arrays.copyOfRange(decoded, 1, decoded.length), values);
+
+            ValueGetter getter = BinaryParser.valueGetterForEndian(new ByteGetter.BinaryByteGetter(bytes));
+            getter.position = 3;
+            getter.getDoubles(decoded, 0, values.length);
+            Assert.assertEquals(Arrays.copyOf(decoded, values.length), values);
+            Assert.assertEquals(getter.position, bytes.length);
+        }
+    }
+
+
+    @Test
+    public void testExpandEnvelopeIgnoresOtherOrdinatesAndNaN() {
+        double[] coordinates = new double[]{9, 1, -100, 3, Double.NaN, 100, -2, 7, 0, 4, Double.NaN, 0};
+        double[] bounds = new double[]{0, 5, 0, 5};
+        Kernels.expandEnvelope(coordinates, 3, 3, 3, bounds);
+        Assert.assertEquals(bounds, new double[]{-2, 5, 4, 7});
+    }
+
+
+    @Test
+    public void testHexRoundTrip() {
+        byte[] bytes = new byte[]{0, 1, (byte) 0x7F, (byte) 0x80, (byte) 0xAB, (byte) 0xFF};
+        Assert.assertEquals(Kernels.hex(bytes), "00017F80ABFF");
+        byte[] decoded = new byte[bytes.length];
+        Kernels.unhex("00017f80abFF", decoded, bytes.length);
+        Assert.assertEquals(decoded, bytes);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnhexRejectsNonHexCharacters() {
+        // U+0130 would pass as '0' if only the low byte were looked at
+        Kernels.unhex("01İA", new byte[2], 2);
+    }
+
+
+    @Test
+    public void testVersionedKernelsMatch() throws Exception {
+        File classes = new File(Kernels.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        File versioned = new File(classes, "META-INF/versions/17");
+        if (!versioned.isDirectory()) {
+            throw new SkipException("Java 17 classes were not built");
+        }
+        try (URLClassLoader loader = new VersionedLoader(versioned, classes)) {
+            Class<?> variant = loader.loadClass(Kernels.class.getName());
+            boolean vectorModule = isPresent("jdk.incubator.vector.DoubleVector");
+            Assert.assertEquals(invoke(variant, "isVectorized"), vectorModule);
+
+            for (int count = 0; count < 70; count++) {
+                double[] values = randomDoubles(count);
+                for (byte endian : new byte[]{ValueSetter.XDR.NUMBER, ValueSetter.NDR.NUMBER}) {
+                    byte[] bytes = encode(values, endian);
+                    double[] decoded = new double[count];
+                    invoke(variant, "getDoubles", bytes, 3, decoded, 0, count, endian == ValueSetter.XDR.NUMBER);
+                    Assert.assertEquals(decoded, values);
+                    Assert.assertEquals(invoke(variant, "hex", (Object) bytes), Kernels.hex(bytes));
+                }
+                for (int dimension = 2; dimension <= 4; dimension++) {
+                    double[] expected = new double[]{1, 2, -1, -2};
+                    double[] actual = expected.clone();
+                    int coordinates = count / dimension;
+                    Kernels.expandEnvelope(values, count % dimension, coordinates, dimension, expected);
+                    invoke(variant, "expandEnvelope", values, count % dimension, coordinates, dimension, actual);
+                    Assert.assertEquals(actual, expected, "dimension " + dimension + ", count " + count);
+                }
+            }
+        }
+    }
+
+
+    private double[] randomDoubles(final int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i % 17 == 16 ? Double.NaN : (random.nextDouble() - 0.5) * 1e6;
+        }
+        return values;
+    }
+
+
+    /** Encode the values behind three bytes of header, the first one being the endian flag. */
+    private static byte[] encode(final double[] values, final byte endian) {
+        ByteSetter.BinaryByteSetter bytes = new ByteSetter.BinaryByteSetter(3 + 8 * values.length);
+        ValueSetter setter = BinaryWriter.valueSetterForEndian(bytes, endian);
+        setter.setByte(endian);
+        setter.position = 3;
+        for (double value : values) {
+            setter.setDouble(value);
+        }
+        return bytes.result();
+    }
+
+
+    private static boolean isPresent(final String className) {
+        try {
+            Class.forName(className);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+
+    private static Object invoke(final Class<?> type, final String name, final Object... args) throws Exception {
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return method.invoke(null, args);
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+
+    /** Loads the classes of this package from the versioned classes first, like a multi-release jar on Java 17. */
+    private static final class VersionedLoader extends URLClassLoader {
+
+        VersionedLoader(final File versioned, final File classes) throws Exception {
+            super(new URL[]{versioned.toURI().toURL(), classes.toURI().toURL()}, KernelsTest.class.getClassLoader());
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(Kernels.class.getPackage().getName() + ".") || name.endsWith("Test")) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> result = findLoadedClass(name);
+                return result != null ? result : findClass(name);
+            }
+        }
+    }
+
+
+}
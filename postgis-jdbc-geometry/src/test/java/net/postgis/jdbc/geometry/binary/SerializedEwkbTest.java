@@ -0,0 +1,66 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.binary;
+
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.Arrays;
+
+
+public class SerializedEwkbTest {
+
+
+    @Test
+    public void testReadsTheGivenLength() throws IOException {
+        for (int length : new int[]{0, 1, 65536, 65537, 200000}) {
+            byte[] bytes = new byte[length + 3];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) (i * 31);
+            }
+            byte[] read = SerializedEwkb.read(new DataInputStream(new ByteArrayInputStream(bytes)), length);
+            Assert.assertEquals(read, Arrays.copyOf(bytes, length), "length " + length);
+        }
+    }
+
+
+    @Test
+    public void testRejectsInvalidLengths() throws IOException {
+        for (int length : new int[]{-1, Integer.MIN_VALUE, SerializedEwkb.MAX_LENGTH + 1, Integer.MAX_VALUE}) {
+            try {
+                SerializedEwkb.read(new DataInputStream(new ByteArrayInputStream(new byte[16])), length);
+                Assert.fail("accepted length " + length);
+            } catch (InvalidObjectException e) {
+                // expected
+            }
+        }
+    }
+
+
+    @Test(expectedExceptions = EOFException.class)
+    public void testFailsAtTheEndOfShortStreams() throws IOException {
+        // claims the maximum length, but only the bytes present and one chunk are allocated
+        SerializedEwkb.read(new DataInputStream(new ByteArrayInputStream(new byte[100000])), SerializedEwkb.MAX_LENGTH);
+    }
+
+
+}
@@ -0,0 +1,131 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.index;
+
+
+import net.postgis.jdbc.geometry.Envelope;
+import net.postgis.jdbc.geometry.Point;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+
+public class StrTreeTest {
+
+    @Test
+    public void testQueryMatchesScan() {
+        Random random = new Random(42);
+        List<Envelope> boxes = new ArrayList<Envelope>();
+        StrTree.Builder<Integer> builder = StrTree.builder(4);
+        for (int i = 0; i < 5000; i++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            Envelope box = new Envelope(x, y, x + random.nextDouble() * 20, y + random.nextDouble() * 20);
+            boxes.add(box);
+            builder.add(box, i);
+        }
+        StrTree<Integer> tree = builder.build();
+        Assert.assertEquals(tree.size(), 5000);
+        Assert.assertTrue(tree.getHeight() >= 6);
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            Envelope query = new Envelope(x, y, x + random.nextDouble() * 100, y + random.nextDouble() * 100);
+            HashSet<Integer> expected = new HashSet<Integer>();
+            for (int i = 0; i < boxes.size(); i++) {
+                if (boxes.get(i).intersects(query)) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> found = tree.query(query);
+            Assert.assertEquals(found.size(), expected.size());
+            Assert.assertEquals(new HashSet<Integer>(found), expected);
+        }
+    }
+
+
+    @Test
+    public void testNearestMatchesScan() {
+        Random random = new Random(7);
+        final List<Point> points = new ArrayList<Point>();
+        StrTree.Builder<Point> builder = StrTree.builder();
+        for (int i = 0; i < 3000; i++) {
+            Point point = new Point(random.nextGaussian() * 100, random.nextGaussian() * 100);
+            points.add(point);
+            builder.add(point, point);
+        }
+        StrTree<Point> tree = builder.build();
+        for (int q = 0; q < 50; q++) {
+            final double x = random.nextGaussian() * 150;
+            final double y = random.nextGaussian() * 150;
+            List<Point> expected = new ArrayList<Point>(points);
+            Collections.sort(expected, new Comparator<Point>() {
+                @Override
+                public int compare(final Point a, final Point b) {
+                    return Double.compare(Math.hypot(a.x - x, a.y - y), Math.hypot(b.x - x, b.y - y));
+                }
+            });
+            Assert.assertEquals(tree.nearest(x, y, 5), expected.subList(0, 5));
+        }
+    }
+
+
+    @Test
+    public void testNearestRefinesWithItemDistance() {
+        // the envelope of a diagonal line contains the query point, yet the line is farther away than the small box
+        Envelope diagonal = new Envelope(0, 0, 100, 100);
+        Envelope near = new Envelope(49, 58, 50, 59);
+        StrTree<Envelope> tree = StrTree.<Envelope>builder().add(diagonal, diagonal).add(near, near).build();
+        Assert.assertEquals(tree.nearest(50, 60, 1).get(0), diagonal);
+        List<Envelope> nearest = tree.nearest(50, 60, 2, new StrTree.ItemDistance<Envelope>() {
+            @Override
+            public double distance(final Envelope item, final double x, final double y) {
+                if (item == diagonal) {
+                    return Math.abs(x - y) / Math.sqrt(2); // the line x = y
+                }
+                double dx = Math.max(Math.max(item.getMinX() - x, 0), x - item.getMaxX());
+                double dy = Math.max(Math.max(item.getMinY() - y, 0), y - item.getMaxY());
+                return Math.hypot(dx, dy);
+            }
+        });
+        Assert.assertEquals(nearest.get(0), near);
+        Assert.assertEquals(nearest.get(1), diagonal);
+    }
+
+
+    @Test
+    public void testSmallTrees() {
+        StrTree<String> empty = StrTree.<String>builder().add(Envelope.EMPTY, "empty").build();
+        Assert.assertEquals(empty.size(), 0);
+        Assert.assertTrue(empty.query(new Envelope(0, 0, 1, 1)).isEmpty());
+        Assert.assertTrue(empty.nearest(0, 0, 3).isEmpty());
+        Assert.assertTrue(empty.getEnvelope().isEmpty());
+
+        StrTree<String> single = StrTree.<String>builder().add(new Point(3, 4), "p").build();
+        Assert.assertEquals(single.query(new Envelope(0, 0, 3, 4)), Collections.singletonList("p"));
+        Assert.assertTrue(single.query(new Envelope(0, 0, 2.9, 4)).isEmpty());
+        Assert.assertEquals(single.nearest(0, 0, 3), Collections.singletonList("p"));
+        Assert.assertEquals(single.getEnvelope(), new Envelope(3, 4, 3, 4));
+    }
+
+
+}
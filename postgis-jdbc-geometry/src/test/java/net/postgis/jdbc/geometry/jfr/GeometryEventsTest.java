@@ -0,0 +1,176 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.jfr;
+
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+
+public class GeometryEventsTest {
+
+    private static final String WKT = "SRID=4326;POLYGON((0 0,10 0,10 10,0 10,0 0),(2 2,2 3,3 3,2 2))";
+
+    /** The events of the Java 17 variant, loaded from META-INF/versions/17 as a multi-release jar would. */
+    private URLClassLoader loader;
+
+    private Class<?> variant;
+
+
+    @BeforeClass
+    public void loadVariant() throws Exception {
+        File classes = new File(GeometryEvents.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        File versioned = new File(classes, "META-INF/versions/17");
+        if (new File(versioned, "net/postgis/jdbc/geometry/jfr").isDirectory()) {
+            loader = new VersionedLoader(versioned, classes);
+            variant = loader.loadClass(GeometryEvents.class.getName());
+        }
+    }
+
+
+    @AfterClass
+    public void closeVariant() throws Exception {
+        if (loader != null) {
+            loader.close();
+        }
+    }
+
+
+    @Test
+    public void testBaseClassesRecordNothing() throws Exception {
+        Assert.assertTrue(record(() -> {
+            Geometry geometry = GeometryBuilder.geomFromString(WKT);
+            new BinaryParser().parse(new BinaryWriter().writeBinary(geometry));
+        }).isEmpty());
+    }
+
+
+    @Test
+    public void testEventsRecorded() throws Exception {
+        setThresholds(0, 0);
+        List<RecordedEvent> events = record(this::parseAndSerialize);
+        Assert.assertEquals(events.size(), 2);
+        assertEvent(events.get(0), "net.postgis.GeometryParse", GeometryEvents.HEX, 330);
+        assertEvent(events.get(1), "net.postgis.GeometrySerialize", GeometryEvents.BINARY, 165);
+    }
+
+
+    @Test
+    public void testFastSmallOperationsSkipped() throws Exception {
+        setThresholds(Long.MAX_VALUE, 9);
+        Assert.assertEquals(record(this::parseAndSerialize).size(), 2);
+        setThresholds(Long.MAX_VALUE, 10);
+        Assert.assertTrue(record(this::parseAndSerialize).isEmpty());
+    }
+
+
+    private void setThresholds(final long slowNanos, final int hugeVertices) throws Exception {
+        if (variant == null) {
+            throw new SkipException("Java 17 classes were not built");
+        }
+        variant.getMethod("setThresholds", long.class, int.class).invoke(null, slowNanos, hugeVertices);
+    }
+
+
+    /** Report a parse and a serialize operation through the Java 17 variant. */
+    private void parseAndSerialize() throws Exception {
+        Geometry geometry = GeometryBuilder.geomFromString(WKT);
+        Object parse = variant.getMethod("beginParse").invoke(null);
+        end(parse, geometry, 330, GeometryEvents.HEX);
+        Object serialize = variant.getMethod("beginSerialize").invoke(null);
+        end(serialize, geometry, 165, GeometryEvents.BINARY);
+    }
+
+
+    private void end(final Object event, final Geometry geometry, final int size, final String encoding)
+            throws Exception {
+        variant.getMethod("end", Object.class, Geometry.class, int.class, String.class)
+                .invoke(null, event, geometry, size, encoding);
+    }
+
+
+    private static List<RecordedEvent> record(final Operations operations) throws Exception {
+        Path file = Files.createTempFile("geometry-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("net.postgis.GeometryParse");
+            recording.enable("net.postgis.GeometrySerialize");
+            recording.start();
+            operations.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+
+    private static void assertEvent(final RecordedEvent event, final String name, final String encoding,
+                                    final int size) {
+        Assert.assertEquals(event.getEventType().getName(), name);
+        Assert.assertEquals(event.getString("geometryType"), "POLYGON");
+        Assert.assertEquals(event.getInt("vertices"), 9);
+        Assert.assertEquals(event.getString("encoding"), encoding);
+        Assert.assertEquals(event.getInt("size"), size);
+    }
+
+
+    private interface Operations {
+        void run() throws Exception;
+    }
+
+
+    /** Loads the classes of this package from the versioned classes first, like a multi-release jar on Java 17. */
+    private static final class VersionedLoader extends URLClassLoader {
+
+        VersionedLoader(final File versioned, final File classes) throws Exception {
+            super(new URL[]{versioned.toURI().toURL(), classes.toURI().toURL()},
+                    GeometryEventsTest.class.getClassLoader());
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(GeometryEvents.class.getPackage().getName() + ".") || name.endsWith("Test")) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> result = findLoadedClass(name);
+                return result != null ? result : findClass(name);
+            }
+        }
+    }
+
+
+}
@@ -0,0 +1,86 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.geometry.metrics;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+
+
+public class GeometryStatisticsTest {
+
+    private GeometryStatistics statistics;
+
+
+    @BeforeMethod
+    public void registerStatistics() {
+        statistics = new GeometryStatistics();
+        GeometryMetricsRegistry.register(statistics);
+    }
+
+
+    @AfterMethod
+    public void unregisterStatistics() {
+        GeometryMetricsRegistry.unregister(statistics);
+    }
+
+
+    @Test
+    public void testParseAndWriteCounted() throws SQLException {
+        Geometry polygon = GeometryBuilder.geomFromString("POLYGON((0 0,10 0,10 10,0 10,0 0))");
+        BinaryWriter writer = new BinaryWriter();
+        String hex = writer.writeHexed(polygon);
+        byte[] binary = writer.writeBinary(GeometryBuilder.geomFromString("POINT(1 2)"));
+        BinaryParser parser = new BinaryParser();
+        parser.parse(hex);
+        parser.parse(binary);
+
+        Assert.assertEquals(statistics.getDecodedCount(), 4);
+        Assert.assertEquals(statistics.getDecodedByType().get("POLYGON"), Long.valueOf(2));
+        Assert.assertEquals(statistics.getDecodedByType().get("POINT"), Long.valueOf(2));
+        Assert.assertEquals(statistics.getEncodedCount(), 2);
+        Assert.assertEquals(statistics.getBytesOut(), hex.length() + binary.length);
+        Assert.assertEquals(statistics.getBytesIn(), "POLYGON((0 0,10 0,10 10,0 10,0 0))".length()
+                + "POINT(1 2)".length() + hex.length() + binary.length);
+        Assert.assertTrue(statistics.getParseNanos() > 0);
+        Assert.assertTrue(statistics.getWriteNanos() > 0);
+        // point and polygon each parsed twice and written once
+        Assert.assertEquals(statistics.getVertexHistogram(), new long[]{3, 3, 0, 0, 0, 0, 0, 0});
+
+        statistics.reset();
+        Assert.assertEquals(statistics.getDecodedCount(), 0);
+        Assert.assertEquals(statistics.getVertexHistogram(), new long[8]);
+    }
+
+
+    @Test
+    public void testNothingCountedWhenUnregistered() {
+        GeometryMetricsRegistry.unregister(statistics);
+        Assert.assertFalse(GeometryMetricsRegistry.isEnabled());
+        new BinaryParser().parse("0101000000000000000000F03F0000000000000040");
+        Assert.assertEquals(statistics.getDecodedCount(), 0);
+    }
+
+
+}
@@ -26,6 +26,7 @@
 
 package net.postgis.jdbc.java2d;
 
+import net.postgis.jdbc.geometry.metrics.GeometryMetricsRegistry;
 import org.postgresql.Driver;
 import org.postgresql.PGConnection;
 
@@ -83,7 +84,9 @@ public class Java2DWrapper extends Driver {
     public java.sql.Connection connect(String url, Properties info) throws SQLException {
         url = mangleURL(url);
         Connection result = super.connect(url, info);
+        long start = System.nanoTime();
         addGISTypes((PGConnection) result);
+        GeometryMetricsRegistry.typesRegistered(System.nanoTime() - start);
         return result;
     }
 
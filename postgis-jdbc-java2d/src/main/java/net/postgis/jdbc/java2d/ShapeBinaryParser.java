@@ -31,6 +31,7 @@ import net.postgis.jdbc.geometry.binary.ByteGetter;
 import net.postgis.jdbc.geometry.binary.ValueGetter;
 import net.postgis.jdbc.geometry.binary.ByteGetter.BinaryByteGetter;
 import net.postgis.jdbc.geometry.binary.ByteGetter.StringByteGetter;
+import net.postgis.jdbc.geometry.jfr.GeometryEvents;
 
 /**
  * Parse binary representation of geometries. Currently, only text rep (hexed)
@@ -49,6 +50,9 @@ import net.postgis.jdbc.geometry.binary.ByteGetter.StringByteGetter;
  */
 public class ShapeBinaryParser {
 
+    /** Vertices parsed by the current call, for the parse event; guarded by the synchronized parse methods */
+    private int vertices;
+
     /**
      * Get the appropriate ValueGetter for my endianness
      * 
@@ -78,8 +82,14 @@ public class ShapeBinaryParser {
      * @return a potential SRID or Geometry.UNKNOWN_SRID if not present
      */
     public synchronized int parse(String value, GeneralPath path) {
+        Object event = GeometryEvents.beginParse();
         StringByteGetter bytes = new ByteGetter.StringByteGetter(value);
-        return parseGeometry(valueGetterForEndian(bytes), path);
+        vertices = 0;
+        int srid = parseGeometry(valueGetterForEndian(bytes), path);
+        if (event != null) {
+            record(event, bytes, vertices, value.length(), GeometryEvents.HEX);
+        }
+        return srid;
     }
 
     /**
@@ -94,8 +104,27 @@ public class ShapeBinaryParser {
      * @return a potential SRID or Geometry.UNKNOWN_SRID if not present
      */
     public synchronized int parse(byte[] value, GeneralPath path) {
+        Object event = GeometryEvents.beginParse();
         BinaryByteGetter bytes = new ByteGetter.BinaryByteGetter(value);
-        return parseGeometry(valueGetterForEndian(bytes), path);
+        vertices = 0;
+        int srid = parseGeometry(valueGetterForEndian(bytes), path);
+        if (event != null) {
+            record(event, bytes, vertices, value.length, GeometryEvents.BINARY);
+        }
+        return srid;
+    }
+
+    /**
+     * Finish the parse event, reading the type from the header again as it is not kept while parsing. The vertices
+     * are counted while parsing, as the path may already hold earlier shapes and closes rings with extra segments.
+     */
+    private static void record(final Object event, final ByteGetter bytes, final int vertices, final int size,
+                               final String encoding) {
+        ValueGetter data = valueGetterForEndian(bytes);
+        data.getByte();
+        int realtype = data.getInt() & 0x1FFFFFFF;
+        String type = realtype <= 7 ? Geometry.getTypeString(realtype) : String.valueOf(realtype);
+        GeometryEvents.end(event, type, vertices, size, encoding);
     }
 
     /**
@@ -156,6 +185,7 @@ public class ShapeBinaryParser {
     private void parsePoint(ValueGetter data, boolean haveZ, boolean haveM, GeneralPath path) {
         double x = data.getDouble();
         double y = data.getDouble();
+        vertices++;
         path.moveTo(x, y);
         path.lineTo(x, y);
         skipZM(data, haveZ, haveM);
@@ -188,6 +218,7 @@ public class ShapeBinaryParser {
      */
     private void parseCS(ValueGetter data, boolean haveZ, boolean haveM, GeneralPath path) {
         int count = data.getInt();
+        vertices += count;
         if (count > 0) {
             path.moveTo((float) data.getDouble(), (float) data.getDouble());
             skipZM(data, haveZ, haveM);
@@ -24,6 +24,8 @@
  */
 package net.postgis.jdbc.jts;
 
+import java.util.Locale;
+
 import org.locationtech.jts.geom.*;
 import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
@@ -31,6 +33,7 @@ import net.postgis.jdbc.geometry.binary.ByteGetter;
 import net.postgis.jdbc.geometry.binary.ByteGetter.BinaryByteGetter;
 import net.postgis.jdbc.geometry.binary.ByteGetter.StringByteGetter;
 import net.postgis.jdbc.geometry.binary.ValueGetter;
+import net.postgis.jdbc.geometry.jfr.GeometryEvents;
 
 /**
  * Parse binary representation of geometries. Currently, only text rep (hexed)
@@ -76,8 +79,14 @@ public class JtsBinaryParser {
      * @return the resulting parsed geometry
      */
     public Geometry parse(String value) {
+        Object event = GeometryEvents.beginParse();
         StringByteGetter bytes = new ByteGetter.StringByteGetter(value);
-        return parseGeometry(valueGetterForEndian(bytes));
+        Geometry result = parseGeometry(valueGetterForEndian(bytes));
+        if (event != null) {
+            GeometryEvents.end(event, result.getGeometryType().toUpperCase(Locale.ROOT), result.getNumPoints(), value.length(),
+                    GeometryEvents.HEX);
+        }
+        return result;
     }
 
 
@@ -87,8 +96,14 @@ public class JtsBinaryParser {
      * @return the resulting parsed geometry
      */
     public Geometry parse(byte[] value) {
+        Object event = GeometryEvents.beginParse();
         BinaryByteGetter bytes = new ByteGetter.BinaryByteGetter(value);
-        return parseGeometry(valueGetterForEndian(bytes));
+        Geometry result = parseGeometry(valueGetterForEndian(bytes));
+        if (event != null) {
+            GeometryEvents.end(event, result.getGeometryType().toUpperCase(Locale.ROOT), result.getNumPoints(), value.length,
+                    GeometryEvents.BINARY);
+        }
+        return result;
     }
 
 
@@ -200,6 +215,11 @@ public class JtsBinaryParser {
     private CoordinateSequence parseCS(ValueGetter data, boolean haveZ, boolean haveM) {
         int count = data.getInt();
         int dims = haveZ ? 3 : 2;
+        if (!haveM) {
+            double[] coords = new double[count * dims];
+            data.getDoubles(coords, 0, coords.length);
+            return new PackedEnvelopeSequence(coords, dims);
+        }
         CoordinateSequence cs = new PackedCoordinateSequence.Double(count, dims, 0);
 
         for (int i = 0; i < count; i++) {
@@ -24,6 +24,8 @@
  */
 package net.postgis.jdbc.jts;
 
+import java.util.Locale;
+
 import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
@@ -36,6 +38,7 @@ import org.locationtech.jts.geom.Polygon;
 
 import net.postgis.jdbc.geometry.binary.ByteSetter;
 import net.postgis.jdbc.geometry.binary.ValueSetter;
+import net.postgis.jdbc.geometry.jfr.GeometryEvents;
 
 /**
  * Create binary representation of geometries. Currently, only text rep (hexed)
@@ -82,10 +85,16 @@ public class JtsBinaryWriter {
      * @return String containing the hex-encoded geometry
      */
     public String writeHexed(Geometry geom, byte REP) {
+        Object event = GeometryEvents.beginSerialize();
         int length = estimateBytes(geom);
         ByteSetter.StringByteSetter bytes = new ByteSetter.StringByteSetter(length);
         writeGeometry(geom, valueSetterForEndian(bytes, REP));
-        return bytes.result();
+        String result = bytes.result();
+        if (event != null) {
+            GeometryEvents.end(event, geom.getGeometryType().toUpperCase(Locale.ROOT), geom.getNumPoints(), result.length(),
+                    GeometryEvents.HEX);
+        }
+        return result;
     }
 
     public String writeHexed(Geometry geom) {
@@ -103,10 +112,16 @@ public class JtsBinaryWriter {
      * @return byte array containing the encoded geometry
      */
     public byte[] writeBinary(Geometry geom, byte REP) {
+        Object event = GeometryEvents.beginSerialize();
         int length = estimateBytes(geom);
         ByteSetter.BinaryByteSetter bytes = new ByteSetter.BinaryByteSetter(length);
         writeGeometry(geom, valueSetterForEndian(bytes, REP));
-        return bytes.result();
+        byte[] result = bytes.result();
+        if (event != null) {
+            GeometryEvents.end(event, geom.getGeometryType().toUpperCase(Locale.ROOT), geom.getNumPoints(), result.length,
+                    GeometryEvents.BINARY);
+        }
+        return result;
     }
 
     public byte[] writeBinary(Geometry geom) {
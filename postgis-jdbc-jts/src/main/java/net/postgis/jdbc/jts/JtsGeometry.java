@@ -26,10 +26,13 @@
 
 package net.postgis.jdbc.jts;
 
+import java.io.ObjectStreamException;
 import java.sql.SQLException;
+import java.util.stream.Stream;
 
 import org.postgresql.util.PGobject;
 
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.CoordinateSequenceFactory;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
@@ -136,6 +139,28 @@ public class JtsGeometry extends PGobject {
         return geom;
     }
 
+    /**
+     * Stream the coordinates of the geometry, splitting evenly by vertex count
+     * when run in parallel.
+     *
+     * @return a sequential stream of the coordinates
+     * @see JtsStreams#coordinates(Geometry)
+     */
+    public Stream<Coordinate> coordinates() {
+        return JtsStreams.coordinates(geom);
+    }
+
+    /**
+     * Stream the parts of the geometry, splitting by vertex count rather than
+     * part count when run in parallel.
+     *
+     * @return a sequential stream of the parts
+     * @see JtsStreams#geometries(Geometry)
+     */
+    public Stream<Geometry> subGeometries() {
+        return JtsStreams.geometries(geom);
+    }
+
     public String toString() {
         return geom.toString();
     }
@@ -150,6 +175,20 @@ public class JtsGeometry extends PGobject {
         return obj;
     }
 
+    /**
+     * Serialize as type name and EWKB, see {@link SerializedJtsGeometry}. Subclasses and
+     * geometries that EWKB does not restore exactly keep the default form.
+     *
+     * @return the object to serialize in place of this value
+     * @throws ObjectStreamException never, declared for serialization
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        if (getClass() != JtsGeometry.class || (geom != null && !SerializedJtsGeometry.keepsAll(geom))) {
+            return this;
+        }
+        return new SerializedJtsGeometry(this);
+    }
+
     public boolean equals(Object obj) {
         if ((obj != null) && (obj instanceof JtsGeometry)) {
             Geometry other = ((JtsGeometry) obj).geom;
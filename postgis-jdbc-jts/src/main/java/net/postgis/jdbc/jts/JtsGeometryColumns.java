@@ -0,0 +1,78 @@
+/*
+ * JtsGeometryColumns.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.locationtech.jts.geom.Geometry;
+
+import net.postgis.jdbc.geometry.binary.ByteGetter;
+
+/**
+ * Reads geometry columns straight into JTS geometries, without the JtsGeometry
+ * wrapper that ResultSet.getObject() creates for every cell. The hex decode
+ * buffer and the parser are kept per thread and reused from row to row.
+ *
+ * @see net.postgis.jdbc.GeometryColumns
+ */
+public final class JtsGeometryColumns {
+
+    private static final ThreadLocal<JtsGeometryColumns> STATE = new ThreadLocal<JtsGeometryColumns>() {
+        protected JtsGeometryColumns initialValue() {
+            return new JtsGeometryColumns();
+        }
+    };
+
+    private final JtsBinaryParser parser = new JtsBinaryParser();
+
+    private byte[] buffer = new byte[256];
+
+    private JtsGeometryColumns() {
+    }
+
+    /**
+     * Read a geometry column of the current row.
+     *
+     * @param resultSet the ResultSet positioned on a row
+     * @param column the column index
+     * @return the geometry, or null for an SQL NULL value
+     * @throws SQLException when the column cannot be read or parsed
+     */
+    public static Geometry read(ResultSet resultSet, int column) throws SQLException {
+        String value = resultSet.getString(column);
+        return value == null ? null : STATE.get().parse(value);
+    }
+
+    private Geometry parse(String value) throws SQLException {
+        if (!(value.startsWith("00") || value.startsWith("01"))) {
+            return JtsGeometryDecoder.INSTANCE.decode(value);
+        }
+        try {
+            buffer = ByteGetter.StringByteGetter.unhex(value, buffer);
+            return parser.parse(buffer);
+        } catch (RuntimeException e) {
+            throw new SQLException("Error parsing SQL data:" + e, e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * JtsGeometryDecoder.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+import java.sql.SQLException;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+
+import net.postgis.jdbc.GeometryDecoder;
+
+/**
+ * Decodes raw geometry column values into JTS geometries. Every thread gets
+ * its own JtsBinaryParser and WKTReader, so an instance can be shared by the
+ * workers of a PipelinedGeometryReader.
+ *
+ * @see net.postgis.jdbc.PipelinedGeometryReader
+ */
+public class JtsGeometryDecoder implements GeometryDecoder<Geometry> {
+
+    /** Shared instance, the decoder holds no state besides its thread locals */
+    public static final JtsGeometryDecoder INSTANCE = new JtsGeometryDecoder();
+
+    private final ThreadLocal<JtsBinaryParser> parsers = new ThreadLocal<JtsBinaryParser>() {
+        protected JtsBinaryParser initialValue() {
+            return new JtsBinaryParser();
+        }
+    };
+
+    private final ThreadLocal<WKTReader> readers = new ThreadLocal<WKTReader>() {
+        protected WKTReader initialValue() {
+            return new WKTReader(JtsGeometry.geofac);
+        }
+    };
+
+    public Geometry decode(String value) throws SQLException {
+        try {
+            value = value.trim();
+            if (value.startsWith("00") || value.startsWith("01")) {
+                return parsers.get().parse(value);
+            }
+            // no srid := 0 in JTS world
+            int srid = 0;
+            if (value.startsWith("SRID=")) {
+                String[] temp = value.split(";");
+                value = temp[1].trim();
+                srid = Integer.parseInt(temp[0].substring(5));
+            }
+            Geometry result = readers.get().read(value);
+            JtsGeometry.setSridRecurse(result, srid);
+            return result;
+        } catch (Exception e) {
+            throw new SQLException("Error parsing SQL data:" + e, e);
+        }
+    }
+
+    public Geometry decode(byte[] value) throws SQLException {
+        try {
+            return parsers.get().parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Error parsing binary geometry:" + e, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * JtsGeometryPublisher.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+import java.sql.Connection;
+import java.util.concurrent.Executor;
+
+import org.locationtech.jts.geom.Geometry;
+
+import net.postgis.jdbc.GeometryPublisher;
+
+/**
+ * Publishes the JTS geometries of a query as subscribers signal demand.
+ *
+ * @see GeometryPublisher
+ */
+public class JtsGeometryPublisher extends GeometryPublisher<Geometry> {
+
+    /**
+     * @param connection the connection to run the query on
+     * @param sql the query
+     * @param parameters the query parameters, bound with setObject
+     * @param column the index of the geometry column in the query result
+     * @param executor the executor running the fetching, decoding and signalling
+     * @param fetchSize the number of rows fetched per round trip
+     */
+    public JtsGeometryPublisher(Connection connection, String sql, Object[] parameters, int column,
+            Executor executor, int fetchSize) {
+        super(connection, sql, parameters, column, JtsGeometryDecoder.INSTANCE, executor, fetchSize);
+    }
+}
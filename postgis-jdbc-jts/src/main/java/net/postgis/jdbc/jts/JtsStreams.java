@@ -0,0 +1,274 @@
+/*
+ * JtsStreams.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Stream views of the coordinates and parts of JTS geometries which split by vertex count, so that parallel streams
+ * give every thread an equal share of the vertices however they are distributed over the parts.
+ *
+ * @see net.postgis.jdbc.geometry.Geometry#coordinates()
+ */
+public final class JtsStreams {
+
+    /** Below this many coordinates a range is not split any further. */
+    private static final int MIN_SPLIT = 1024;
+
+    private JtsStreams() {
+    }
+
+
+    /**
+     * Stream all coordinates of a geometry, in the order of {@link Geometry#getCoordinates()} but without copying
+     * them into one array first. The geometry must not be changed while the stream is in use.
+     *
+     * @param geometry the geometry
+     * @return a sequential stream of the coordinates; these are the stored instances for sequences which keep
+     *         Coordinate objects, and new ones for packed sequences
+     */
+    public static Stream<Coordinate> coordinates(final Geometry geometry) {
+        List<CoordinateSequence> sequences = new ArrayList<CoordinateSequence>();
+        collectSequences(geometry, sequences);
+        int[] offsets = new int[sequences.size() + 1];
+        for (int i = 0; i < sequences.size(); i++) {
+            offsets[i + 1] = offsets[i] + sequences.get(i).size();
+        }
+        CoordinateSequence[] array = sequences.toArray(new CoordinateSequence[0]);
+        return StreamSupport.stream(new CoordinateSpliterator(array, offsets, 0, offsets[array.length]), false);
+    }
+
+
+    /**
+     * Stream the parts of a geometry, see {@link Geometry#getGeometryN(int)}. When run in parallel, the stream is
+     * split where both halves hold about the same number of vertices instead of the same number of parts.
+     *
+     * @param geometry the geometry
+     * @return a sequential stream of the parts, just the geometry itself unless it is a collection
+     */
+    public static Stream<Geometry> geometries(final Geometry geometry) {
+        int count = geometry.getNumGeometries();
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] = offsets[i] + geometry.getGeometryN(i).getNumPoints();
+        }
+        return StreamSupport.stream(new PartSpliterator(geometry, offsets, 0, count), false);
+    }
+
+
+    static void collectSequences(final Geometry geometry, final List<CoordinateSequence> sequences) {
+        if (geometry instanceof Point) {
+            sequences.add(((Point) geometry).getCoordinateSequence());
+        } else if (geometry instanceof LineString) {
+            sequences.add(((LineString) geometry).getCoordinateSequence());
+        } else if (geometry instanceof Polygon) {
+            Polygon polygon = (Polygon) geometry;
+            sequences.add(polygon.getExteriorRing().getCoordinateSequence());
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                sequences.add(polygon.getInteriorRingN(i).getCoordinateSequence());
+            }
+        } else if (geometry instanceof GeometryCollection) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                collectSequences(geometry.getGeometryN(i), sequences);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown geometry type: " + geometry.getGeometryType());
+        }
+    }
+
+
+    /**
+     * Find the last entry starting at or before a vertex, which skips empty entries.
+     *
+     * @param offsets the index of the first vertex of each entry, followed by the total
+     * @param entries the number of entries
+     * @param vertex the vertex index
+     * @return the entry index
+     */
+    private static int entryOf(final int[] offsets, final int entries, final int vertex) {
+        int low = 0;
+        int high = entries - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= vertex) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+
+    /** Splits a range of coordinates spanning several sequences by index. */
+    private static final class CoordinateSpliterator implements Spliterator<Coordinate> {
+
+        private final CoordinateSequence[] sequences;
+
+        private final int[] offsets;
+
+        private int index;
+
+        private final int fence;
+
+        /** The sequence holding index, -1 until traversal starts. */
+        private int sequence = -1;
+
+
+        CoordinateSpliterator(final CoordinateSequence[] sequences, final int[] offsets, final int index,
+                              final int fence) {
+            this.sequences = sequences;
+            this.offsets = offsets;
+            this.index = index;
+            this.fence = fence;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean tryAdvance(final Consumer<? super Coordinate> action) {
+            if (index >= fence) {
+                return false;
+            }
+            if (sequence < 0) {
+                sequence = entryOf(offsets, sequences.length, index);
+            }
+            while (offsets[sequence + 1] <= index) {
+                sequence++;
+            }
+            action.accept(sequences[sequence].getCoordinate(index - offsets[sequence]));
+            index++;
+            return true;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public Spliterator<Coordinate> trySplit() {
+            int remaining = fence - index;
+            if (remaining < MIN_SPLIT) {
+                return null;
+            }
+            int middle = index + (remaining >>> 1);
+            Spliterator<Coordinate> prefix = new CoordinateSpliterator(sequences, offsets, index, middle);
+            index = middle;
+            sequence = -1;
+            return prefix;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+
+    /** Splits a range of parts where both halves hold about the same number of vertices. */
+    private static final class PartSpliterator implements Spliterator<Geometry> {
+
+        private final Geometry geometry;
+
+        private final int[] offsets;
+
+        private int part;
+
+        private final int fence;
+
+
+        PartSpliterator(final Geometry geometry, final int[] offsets, final int part, final int fence) {
+            this.geometry = geometry;
+            this.offsets = offsets;
+            this.part = part;
+            this.fence = fence;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean tryAdvance(final Consumer<? super Geometry> action) {
+            if (part >= fence) {
+                return false;
+            }
+            action.accept(geometry.getGeometryN(part++));
+            return true;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public Spliterator<Geometry> trySplit() {
+            if (fence - part < 2) {
+                return null;
+            }
+            int first = offsets[part];
+            int last = offsets[fence];
+            int middle = last > first ? entryOf(offsets, offsets.length - 1, first + (last - first) / 2)
+                    : (part + fence) >>> 1;
+            // the part holding the middle vertex starts the suffix, as long as neither half is empty
+            int split = Math.min(Math.max(middle, part + 1), fence - 1);
+            Spliterator<Geometry> prefix = new PartSpliterator(geometry, offsets, part, split);
+            part = split;
+            return prefix;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public long estimateSize() {
+            return fence - part;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+
+}
@@ -0,0 +1,107 @@
+/*
+ * JtsWebMercator.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import net.postgis.jdbc.geometry.algorithm.WebMercator;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Transforms JTS geometries between WGS 84 longitude/latitude and spherical Web Mercator with the batch kernels of
+ * {@link WebMercator}.
+ */
+public final class JtsWebMercator {
+
+    private JtsWebMercator() {
+    }
+
+
+    /**
+     * Transform a coordinate sequence in place. Packed double sequences, as created by {@link JtsBinaryParser}, are
+     * transformed on their backing array, others through a scratch copy of their x and y ordinates.
+     *
+     * @param sequence the sequence
+     * @param sourceSrid the SRID of the coordinates
+     * @param targetSrid the SRID to transform to
+     * @throws IllegalArgumentException if the SRIDs are not {@link WebMercator#WGS84} and
+     *         {@link WebMercator#WEB_MERCATOR}
+     */
+    public static void transform(final CoordinateSequence sequence, final int sourceSrid, final int targetSrid) {
+        WebMercator.checkSrids(sourceSrid, targetSrid);
+        int count = sequence.size();
+        if (sourceSrid == targetSrid || count == 0) {
+            return;
+        }
+        if (sequence instanceof PackedCoordinateSequence.Double) {
+            double[] coords = ((PackedCoordinateSequence.Double) sequence).getRawCoordinates();
+            WebMercator.transform(coords, 0, count, sequence.getDimension(), sourceSrid, targetSrid);
+            // writing an ordinate drops the Coordinate objects the sequence may have cached
+            sequence.setOrdinate(0, CoordinateSequence.X, coords[0]);
+            return;
+        }
+        double[] xy = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            xy[2 * i] = sequence.getX(i);
+            xy[2 * i + 1] = sequence.getY(i);
+        }
+        WebMercator.transform(xy, 0, count, 2, sourceSrid, targetSrid);
+        for (int i = 0; i < count; i++) {
+            sequence.setOrdinate(i, CoordinateSequence.X, xy[2 * i]);
+            sequence.setOrdinate(i, CoordinateSequence.Y, xy[2 * i + 1]);
+        }
+    }
+
+
+    /**
+     * Transform a geometry in place, from its SRID to the target one, and set the target SRID on it and its parts.
+     *
+     * @param geometry the geometry, with SRID {@link WebMercator#WGS84} or {@link WebMercator#WEB_MERCATOR}
+     * @param targetSrid the SRID to transform to
+     * @return the geometry
+     * @throws IllegalArgumentException if the SRIDs are not {@link WebMercator#WGS84} and
+     *         {@link WebMercator#WEB_MERCATOR}
+     */
+    public static Geometry transform(final Geometry geometry, final int targetSrid) {
+        int sourceSrid = geometry.getSRID();
+        WebMercator.checkSrids(sourceSrid, targetSrid);
+        if (sourceSrid == targetSrid) {
+            return geometry;
+        }
+        List<CoordinateSequence> sequences = new ArrayList<CoordinateSequence>();
+        JtsStreams.collectSequences(geometry, sequences);
+        for (CoordinateSequence sequence : sequences) {
+            transform(sequence, sourceSrid, targetSrid);
+        }
+        geometry.geometryChanged();
+        JtsGeometry.setSridRecurse(geometry, targetSrid);
+        return geometry;
+    }
+
+
+}
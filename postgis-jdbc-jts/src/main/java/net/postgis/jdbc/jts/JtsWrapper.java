@@ -32,6 +32,7 @@ import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import net.postgis.jdbc.geometry.metrics.GeometryMetricsRegistry;
 import org.postgresql.Driver;
 import org.postgresql.PGConnection;
 
@@ -92,7 +93,9 @@ public class JtsWrapper extends Driver {
     public java.sql.Connection connect(String url, Properties info) throws SQLException {
         url = mangleURL(url);
         Connection result = super.connect(url, info);
+        long start = System.nanoTime();
         addGISTypes((PGConnection)result);
+        GeometryMetricsRegistry.typesRegistered(System.nanoTime() - start);
         return result;
     }
 
@@ -0,0 +1,64 @@
+/*
+ * PackedEnvelopeSequence.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import net.postgis.jdbc.geometry.binary.Kernels;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+
+
+/**
+ * The packed coordinate sequence created by the parser, computing envelopes with {@link Kernels#expandEnvelope}
+ * instead of coordinate by coordinate.
+ */
+class PackedEnvelopeSequence extends PackedCoordinateSequence.Double {
+
+    private static final long serialVersionUID = -2829562735372036402L;
+
+
+    PackedEnvelopeSequence(final double[] coords, final int dimension) {
+        super(coords, dimension, 0);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Envelope expandEnvelope(final Envelope env) {
+        double[] coords = getRawCoordinates();
+        int count = size();
+        if (count == 0) {
+            return env;
+        }
+        double[] bounds = env.isNull()
+                ? new double[]{java.lang.Double.POSITIVE_INFINITY, java.lang.Double.POSITIVE_INFINITY,
+                               java.lang.Double.NEGATIVE_INFINITY, java.lang.Double.NEGATIVE_INFINITY}
+                : new double[]{env.getMinX(), env.getMinY(), env.getMaxX(), env.getMaxY()};
+        Kernels.expandEnvelope(coords, 0, count, getDimension(), bounds);
+        if (bounds[0] <= bounds[2] && bounds[1] <= bounds[3]) {
+            env.expandToInclude(bounds[0], bounds[1]);
+            env.expandToInclude(bounds[2], bounds[3]);
+        }
+        return env;
+    }
+}
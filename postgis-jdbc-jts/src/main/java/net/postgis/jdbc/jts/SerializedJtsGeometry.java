@@ -0,0 +1,169 @@
+/*
+ * SerializedJtsGeometry.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFactory;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.CoordinateArraySequenceFactory;
+
+import net.postgis.jdbc.geometry.binary.SerializedEwkb;
+
+
+/**
+ * The serialized form of a {@link JtsGeometry}: its type name and the EWKB of the geometry.
+ *
+ * The default form writes the JTS object graph including the geometry factory and every coordinate sequence. EWKB
+ * keeps the coordinates and SRIDs and is parsed back with a floating precision model, so only geometries that
+ * {@link #keepsAll(Geometry) survive this} are written this way; the others keep the default form.
+ *
+ * @see JtsGeometry#writeReplace()
+ */
+final class SerializedJtsGeometry implements Externalizable {
+
+    private static final long serialVersionUID = -6153920470883140771L;
+
+    private static final PrecisionModel FLOATING = new PrecisionModel();
+
+    private JtsGeometry value;
+
+
+    /** Instantiate with default state, used by deserialization. */
+    public SerializedJtsGeometry() {
+    }
+
+
+    SerializedJtsGeometry(final JtsGeometry value) {
+        this.value = value;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeExternal(final ObjectOutput out) throws IOException {
+        out.writeUTF(value.getType());
+        if (value.geom == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = JtsGeometry.bw.writeBinary(value.geom);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException {
+        String type = in.readUTF();
+        int length = in.readInt();
+        value = new JtsGeometry();
+        value.setType(type);
+        if (length != -1) {
+            byte[] bytes = SerializedEwkb.read(in, length);
+            try {
+                value.geom = JtsGeometry.bp.parse(bytes);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                InvalidObjectException exception = new InvalidObjectException("Invalid serialized geometry: " + e);
+                exception.initCause(e);
+                throw exception;
+            }
+        }
+    }
+
+
+    private Object readResolve() throws ObjectStreamException {
+        return value;
+    }
+
+
+    /**
+     * Check whether parsing the EWKB of a geometry gives back an equal geometry. This is not the case for
+     * LinearRings outside polygons, which come back as LineStrings, for empty geometries other than collections,
+     * which are written as empty collections, for subclasses, user data, measures and more than three ordinates,
+     * and for factories with another precision model or SRID. Coordinate sequence factories other than the
+     * defaults of JTS and of {@link JtsGeometry} are kept in the default form as well.
+     *
+     * @param geom the geometry to check, with all its parts
+     * @return true if the geometry can be serialized as EWKB
+     */
+    static boolean keepsAll(final Geometry geom) {
+        CoordinateSequenceFactory sequences = geom.getFactory().getCoordinateSequenceFactory();
+        if (geom.getUserData() != null || geom.getFactory().getSRID() != 0
+                || !FLOATING.equals(geom.getPrecisionModel())
+                || !(sequences instanceof CoordinateArraySequenceFactory || sequences == JtsGeometry.csfac)) {
+            return false;
+        }
+        Class<?> type = geom.getClass();
+        if (geom.isEmpty()) {
+            return type == GeometryCollection.class;
+        } else if (type == Point.class) {
+            return keepsAll(((Point) geom).getCoordinateSequence());
+        } else if (type == LineString.class) {
+            return keepsAll(((LineString) geom).getCoordinateSequence());
+        } else if (type == Polygon.class) {
+            Polygon polygon = (Polygon) geom;
+            if (!keepsAll(polygon.getExteriorRing().getCoordinateSequence())) {
+                return false;
+            }
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                if (!keepsAll(polygon.getInteriorRingN(i).getCoordinateSequence())) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (type == MultiPoint.class || type == MultiLineString.class || type == MultiPolygon.class
+                || type == GeometryCollection.class) {
+            for (int i = 0; i < geom.getNumGeometries(); i++) {
+                if (!keepsAll(geom.getGeometryN(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+
+    private static boolean keepsAll(final CoordinateSequence sequence) {
+        return sequence.getMeasures() == 0 && sequence.getDimension() <= 3;
+    }
+
+
+}
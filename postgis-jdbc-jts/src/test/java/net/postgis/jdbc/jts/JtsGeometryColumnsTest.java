@@ -0,0 +1,95 @@
+/*
+ * JtsGeometryColumnsTest.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import net.postgis.jdbc.geometry.binary.ValueSetter;
+import net.postgis.tools.testutils.StubResultSet;
+import org.locationtech.jts.geom.Geometry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+
+public class JtsGeometryColumnsTest {
+
+    private final JtsBinaryWriter writer = new JtsBinaryWriter();
+
+
+    @Test
+    public void testReadMatchesGetObjectParsing() throws SQLException {
+        StringBuilder large = new StringBuilder("LINESTRING(0 0");
+        for (int i = 1; i < 200; i++) {
+            large.append(',').append(i).append(' ').append(i % 7);
+        }
+        String[] values = new String[]{
+                large.append(')').toString(),
+                "SRID=4326;MULTIPOLYGON(((10 10,20 10,20 20,10 10)),((5 5,5 6,6 6,5 5)))",
+                "POINT(1 2 3)",
+                "SRID=3857;LINESTRING(0 0,1 1,2 2,3 3,4 4,5 5,6 6,7 7,8 8,9 9,10 10,11 11,12 12,13 13,14 14,15 15)"
+        };
+        // the long value first, so that the shorter ones are decoded into a larger reused buffer
+        Object[][] rows = new Object[values.length + 2][];
+        for (int i = 0; i < values.length; i++) {
+            rows[i] = new Object[]{writer.writeHexed(JtsGeometry.geomFromString(values[i]))};
+        }
+        rows[values.length] = new Object[]{values[1]}; // EWKT as sent by old servers
+        rows[values.length + 1] = new Object[]{writer.writeHexed(JtsGeometry.geomFromString(values[2]),
+                ValueSetter.XDR.NUMBER)};
+        ResultSet rs = StubResultSet.of(rows);
+        for (Object[] row : rows) {
+            Assert.assertTrue(rs.next());
+            Geometry expected = new JtsGeometry((String) row[0]).getGeometry();
+            JtsGeometryDecoderTest.assertSameGeometry(JtsGeometryColumns.read(rs, 1), expected);
+        }
+        Assert.assertFalse(rs.next());
+    }
+
+
+    @Test
+    public void testNullValue() throws SQLException {
+        ResultSet rs = StubResultSet.of(new Object[][]{{null}});
+        Assert.assertTrue(rs.next());
+        Assert.assertNull(JtsGeometryColumns.read(rs, 1));
+    }
+
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testInvalidHexFails() throws SQLException {
+        ResultSet rs = StubResultSet.of(new Object[][]{{"01FFFF"}});
+        Assert.assertTrue(rs.next());
+        JtsGeometryColumns.read(rs, 1);
+    }
+
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testInvalidTextFails() throws SQLException {
+        ResultSet rs = StubResultSet.of(new Object[][]{{"SRID=4326;NOT A GEOMETRY"}});
+        Assert.assertTrue(rs.next());
+        JtsGeometryColumns.read(rs, 1);
+    }
+
+
+}
@@ -0,0 +1,176 @@
+/*
+ * JtsGeometryDecoderTest.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import net.postgis.jdbc.PipelinedGeometryReader;
+import net.postgis.tools.testutils.StubResultSet;
+import org.locationtech.jts.geom.Geometry;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+public class JtsGeometryDecoderTest {
+
+    private static final int ROWS = 100;
+
+    private final JtsBinaryWriter writer = new JtsBinaryWriter();
+
+    private ExecutorService pool;
+
+
+    @BeforeClass
+    public void startPool() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+
+    @AfterClass
+    public void stopPool() {
+        pool.shutdownNow();
+    }
+
+
+    @Test
+    public void testDecodeMatchesJtsGeometry() throws SQLException {
+        String[] values = new String[]{
+                "SRID=4326;MULTIPOLYGON(((10 10,20 10,20 20,10 10)),((5 5,5 6,6 6,5 5)))",
+                "POINT(1 2 3)",
+                "SRID=3857;GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,1 1))"
+        };
+        for (String value : values) {
+            Geometry expected = JtsGeometry.geomFromString(value);
+            String hex = writer.writeHexed(expected);
+            assertSameGeometry(JtsGeometryDecoder.INSTANCE.decode(value), expected);
+            assertSameGeometry(JtsGeometryDecoder.INSTANCE.decode(" " + hex + " "), expected);
+            assertSameGeometry(JtsGeometryDecoder.INSTANCE.decode(writer.writeBinary(expected)), expected);
+        }
+    }
+
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testInvalidTextFails() throws SQLException {
+        JtsGeometryDecoder.INSTANCE.decode("SRID=4326;NOT A GEOMETRY");
+    }
+
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testInvalidBinaryFails() throws SQLException {
+        JtsGeometryDecoder.INSTANCE.decode(new byte[]{1, (byte) 0xFF, (byte) 0xFF, 0, 0});
+    }
+
+
+    @Test
+    public void testSharedAcrossThreads() throws Exception {
+        List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        for (int task = 0; task < 8; task++) {
+            final int offset = task;
+            results.add(pool.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws SQLException {
+                    for (int i = 0; i < ROWS; i++) {
+                        String wkt = "SRID=4326;LINESTRING(" + (offset + i) + " 0," + i + " 1)";
+                        Geometry expected = JtsGeometry.geomFromString(wkt);
+                        if (!JtsGeometryDecoder.INSTANCE.decode(writer.writeBinary(expected)).equalsExact(expected)
+                                || !JtsGeometryDecoder.INSTANCE.decode(wkt).equalsExact(expected)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            Assert.assertTrue(result.get());
+        }
+    }
+
+
+    @Test
+    public void testPipelinedRowsDeliveredInOrder() throws SQLException {
+        Object[][] rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            Geometry geom = JtsGeometry.geomFromString("SRID=4326;LINESTRING(" + i + " 0," + i + " 1)");
+            rows[i] = new Object[]{i, writer.writeHexed(geom)};
+        }
+        ResultSet rs = StubResultSet.of(rows);
+        try (PipelinedGeometryReader<Geometry> reader = new PipelinedGeometryReader<Geometry>(
+                rs, 2, JtsGeometryDecoder.INSTANCE, pool, 8, PipelinedGeometryReader.Format.TEXT, new int[]{1})) {
+            int count = 0;
+            while (reader.next()) {
+                Assert.assertEquals(reader.getCarried(0), count);
+                Geometry geom = reader.getGeometry();
+                Assert.assertEquals(geom.getSRID(), 4326);
+                Assert.assertEquals(geom.getCoordinates()[0].x, (double) count);
+                count++;
+            }
+            Assert.assertEquals(count, ROWS);
+        }
+    }
+
+
+    @Test
+    public void testPipelinedBinaryAndNullValues() throws SQLException {
+        Geometry point = JtsGeometry.geomFromString("POINT(1 2)");
+        ResultSet rs = StubResultSet.of(new Object[][]{{writer.writeBinary(point)}, {null}});
+        try (PipelinedGeometryReader<Geometry> reader = new PipelinedGeometryReader<Geometry>(
+                rs, 1, JtsGeometryDecoder.INSTANCE, pool, 4, PipelinedGeometryReader.Format.BINARY, null)) {
+            Assert.assertTrue(reader.next());
+            assertSameGeometry(reader.getGeometry(), point);
+            Assert.assertTrue(reader.next());
+            Assert.assertNull(reader.getGeometry());
+            Assert.assertFalse(reader.next());
+        }
+    }
+
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testPipelinedDecodeFailureSurfacesOnConsumer() throws SQLException {
+        ResultSet rs = StubResultSet.of(new Object[][]{{"01FFFF"}});
+        try (PipelinedGeometryReader<Geometry> reader =
+                     new PipelinedGeometryReader<Geometry>(rs, 1, JtsGeometryDecoder.INSTANCE, pool, 2)) {
+            Assert.assertTrue(reader.next());
+            reader.getGeometry();
+        }
+    }
+
+
+    static void assertSameGeometry(final Geometry actual, final Geometry expected) {
+        Assert.assertTrue(actual.equalsExact(expected), actual + " instead of " + expected);
+        Assert.assertEquals(actual.getSRID(), expected.getSRID(), expected.toString());
+        Assert.assertEquals(actual.getGeometryType(), expected.getGeometryType());
+    }
+
+
+}
@@ -0,0 +1,250 @@
+/*
+ * JtsSerializationTest.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+
+public class JtsSerializationTest {
+
+    private final GeometryFactory factory = new GeometryFactory();
+
+
+    @Test
+    public void testEwkbRoundTrip() throws Exception {
+        String[] values = new String[]{
+                "SRID=4326;POINT(1 2)",
+                "POINT(1 2 3)",
+                "LINESTRING(0 0,1 1,2 2)",
+                "SRID=4326;MULTIPOLYGON(((1 1,1 2,2 1,1 1)),((5 5,5 6,6 6,5 5),(5.2 5.2,5.2 5.5,5.5 5.5,5.2 5.2)))",
+                "GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,1 1))",
+                "GEOMETRYCOLLECTION EMPTY"
+        };
+        for (String value : values) {
+            JtsGeometry geometry = new JtsGeometry(value);
+            Assert.assertTrue(SerializedJtsGeometry.keepsAll(geometry.getGeometry()), value);
+            assertRestored(roundTrip(geometry), geometry);
+        }
+        Geometry line = JtsGeometry.geomFromString("SRID=3857;LINESTRING(0 0 1,1 1 2)");
+        JtsGeometry parsed = new JtsGeometry(JtsGeometry.bw.writeHexed(line));
+        Assert.assertTrue(SerializedJtsGeometry.keepsAll(parsed.getGeometry()));
+        assertRestored(roundTrip(parsed), parsed);
+    }
+
+
+    @Test
+    public void testEmptyValueRoundTrip() throws Exception {
+        JtsGeometry value = new JtsGeometry();
+        value.setType("public.geometry");
+        JtsGeometry copy = roundTrip(value);
+        Assert.assertEquals(copy.getType(), "public.geometry");
+        Assert.assertNull(copy.getGeometry());
+    }
+
+
+    @Test
+    public void testEmptyGeometriesKeepTheirClass() throws Exception {
+        String[] values = new String[]{"POINT EMPTY", "LINESTRING EMPTY", "MULTIPOINT EMPTY", "MULTIPOLYGON EMPTY"};
+        for (String value : values) {
+            JtsGeometry geometry = new JtsGeometry(value);
+            Assert.assertFalse(SerializedJtsGeometry.keepsAll(geometry.getGeometry()), value);
+            assertRestored(roundTrip(geometry), geometry);
+        }
+        JtsGeometry nested = new JtsGeometry("GEOMETRYCOLLECTION(POINT(1 2),POINT EMPTY)");
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(nested.getGeometry()));
+        assertRestored(roundTrip(nested), nested);
+    }
+
+
+    @Test
+    public void testLinearRingsKeepTheirClass() throws Exception {
+        LinearRing ring = factory.createLinearRing(coordinates(0, 0, 1, 0, 0, 1, 0, 0));
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(ring));
+        assertRestored(roundTrip(new JtsGeometry(ring)), new JtsGeometry(ring));
+
+        Point point = factory.createPoint(new Coordinate(5, 5));
+        Geometry collection = factory.createGeometryCollection(new Geometry[]{point, ring});
+        collection.setSRID(4326);
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(collection));
+        JtsGeometry copy = roundTrip(new JtsGeometry(collection));
+        assertRestored(copy, new JtsGeometry(collection));
+        Assert.assertEquals(copy.getGeometry().getGeometryN(1).getClass(), LinearRing.class);
+    }
+
+
+    @Test
+    public void testFactoriesAreKept() throws Exception {
+        GeometryFactory fixed = new GeometryFactory(new PrecisionModel(100));
+        Point point = fixed.createPoint(new Coordinate(1.25, 2.5));
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(point));
+        JtsGeometry copy = roundTrip(new JtsGeometry(point));
+        assertRestored(copy, new JtsGeometry(point));
+        Assert.assertEquals(copy.getGeometry().getPrecisionModel().getScale(), 100.0);
+
+        GeometryFactory single = new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING_SINGLE));
+        LineString line = single.createLineString(coordinates(0, 0, 1.5, 2.5));
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(line));
+        assertRestored(roundTrip(new JtsGeometry(line)), new JtsGeometry(line));
+
+        GeometryFactory srid = new GeometryFactory(new PrecisionModel(), 4326);
+        Point located = srid.createPoint(new Coordinate(8.5, 47.4));
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(located));
+        Assert.assertEquals(roundTrip(new JtsGeometry(located)).getGeometry().getFactory().getSRID(), 4326);
+    }
+
+
+    @Test
+    public void testMeasuresAreKept() throws Exception {
+        CoordinateSequence xym = new PackedCoordinateSequence.Double(new double[]{0, 0, 7, 1, 1, 8}, 3, 1);
+        LineString line = factory.createLineString(xym);
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(line));
+        JtsGeometry copy = roundTrip(new JtsGeometry(line));
+        assertRestored(copy, new JtsGeometry(line));
+        CoordinateSequence sequence = ((LineString) copy.getGeometry()).getCoordinateSequence();
+        Assert.assertEquals(sequence.getMeasures(), 1);
+        Assert.assertEquals(sequence.getM(1), 8.0);
+
+        CoordinateSequence xyzm = new PackedCoordinateSequence.Double(new double[]{0, 0, 1, 7, 1, 1, 2, 8}, 4, 1);
+        Geometry multi = factory.createMultiLineString(new LineString[]{factory.createLineString(xyzm)});
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(multi));
+        assertRestored(roundTrip(new JtsGeometry(multi)), new JtsGeometry(multi));
+    }
+
+
+    @Test
+    public void testUserDataIsKept() throws Exception {
+        Point point = factory.createPoint(new Coordinate(1, 2));
+        point.setUserData("a");
+        Geometry collection = factory.createGeometryCollection(new Geometry[]{point});
+        Assert.assertFalse(SerializedJtsGeometry.keepsAll(collection));
+        JtsGeometry copy = roundTrip(new JtsGeometry(collection));
+        Assert.assertEquals(copy.getGeometry().getGeometryN(0).getUserData(), "a");
+    }
+
+
+    @Test
+    public void testInvalidLengthsAreRejected() throws Exception {
+        JtsGeometry value = new JtsGeometry("SRID=4326;LINESTRING(0 0,1 1,2 2)");
+        byte[] ewkb = JtsGeometry.bw.writeBinary(value.getGeometry());
+        byte[] stream = serialize(value);
+        int start = 4;
+        while (!Arrays.equals(Arrays.copyOfRange(stream, start, start + ewkb.length), ewkb)) {
+            start++;
+        }
+        for (int length : new int[]{-2, Integer.MAX_VALUE}) {
+            byte[] copy = stream.clone();
+            copy[start - 4] = (byte) (length >>> 24);
+            copy[start - 3] = (byte) (length >>> 16);
+            copy[start - 2] = (byte) (length >>> 8);
+            copy[start - 1] = (byte) length;
+            try {
+                deserialize(copy);
+                Assert.fail("accepted length " + length);
+            } catch (InvalidObjectException e) {
+                // expected
+            }
+        }
+    }
+
+
+    private static void assertRestored(final JtsGeometry copy, final JtsGeometry value) {
+        Assert.assertEquals(copy.getType(), value.getType());
+        Geometry expected = value.getGeometry();
+        Geometry actual = copy.getGeometry();
+        String message = expected.toString();
+        Assert.assertEquals(actual.getClass(), expected.getClass(), message);
+        Assert.assertEquals(actual.getPrecisionModel(), expected.getPrecisionModel(), message);
+        Assert.assertEquals(actual.getSRID(), expected.getSRID(), message);
+        Assert.assertEquals(actual.getNumGeometries(), expected.getNumGeometries(), message);
+        for (int i = 0; i < expected.getNumGeometries(); i++) {
+            Assert.assertEquals(actual.getGeometryN(i).getClass(), expected.getGeometryN(i).getClass(), message);
+            Assert.assertEquals(actual.getGeometryN(i).getSRID(), expected.getGeometryN(i).getSRID(), message);
+        }
+        Assert.assertTrue(Arrays.equals(ordinates(actual), ordinates(expected)), message);
+    }
+
+
+    private static double[] ordinates(final Geometry geometry) {
+        Coordinate[] coordinates = geometry.getCoordinates();
+        double[] ordinates = new double[4 * coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            ordinates[4 * i] = coordinates[i].getX();
+            ordinates[4 * i + 1] = coordinates[i].getY();
+            ordinates[4 * i + 2] = coordinates[i].getZ();
+            ordinates[4 * i + 3] = coordinates[i].getM();
+        }
+        return ordinates;
+    }
+
+
+    private static Coordinate[] coordinates(final double... xy) {
+        Coordinate[] coordinates = new Coordinate[xy.length / 2];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = new Coordinate(xy[2 * i], xy[2 * i + 1]);
+        }
+        return coordinates;
+    }
+
+
+    private static byte[] serialize(final Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+
+    private static Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(final T object) throws IOException, ClassNotFoundException {
+        return (T) deserialize(serialize(object));
+    }
+
+
+}
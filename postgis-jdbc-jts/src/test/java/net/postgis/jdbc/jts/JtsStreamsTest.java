@@ -0,0 +1,164 @@
+/*
+ * JtsStreamsTest.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+
+public class JtsStreamsTest {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.NONNULL;
+
+
+    @Test
+    public void testCoordinatesOfNestedCollections() throws SQLException {
+        String wkt = "GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,1 1,2 0),"
+                + "POLYGON((0 0,0 9,9 9,9 0,0 0),(1 1,2 1,1 2,1 1)),MULTIPOINT((3 3),(4 4)),"
+                + "GEOMETRYCOLLECTION(LINESTRING(5 5,6 6),POINT EMPTY,GEOMETRYCOLLECTION(POINT(7 7))),LINESTRING EMPTY)";
+        Geometry built = JtsGeometry.geomFromString(wkt);
+        // parsed EWKB has packed sequences; the writer does not support empty parts
+        Geometry parsed = JtsGeometry.geomFromString(JtsGeometry.bw.writeHexed(JtsGeometry.geomFromString(
+                wkt.replace(",POINT EMPTY", "").replace(",LINESTRING EMPTY", ""))));
+        for (Geometry geometry : new Geometry[]{built, parsed}) {
+            List<Coordinate> expected = Arrays.asList(geometry.getCoordinates());
+            Assert.assertEquals(JtsStreams.coordinates(geometry).collect(Collectors.toList()), expected);
+            Assert.assertEquals(JtsStreams.coordinates(geometry).parallel().collect(Collectors.toList()), expected);
+            Assert.assertEquals(split(JtsStreams.coordinates(geometry).spliterator()), expected);
+        }
+        Assert.assertEquals(JtsStreams.geometries(built).count(), 6);
+        Assert.assertEquals(new JtsGeometry(built).subGeometries().collect(Collectors.toList()),
+                Arrays.asList(built.getGeometryN(0), built.getGeometryN(1), built.getGeometryN(2),
+                        built.getGeometryN(3), built.getGeometryN(4), built.getGeometryN(5)));
+    }
+
+
+    @Test
+    public void testCoordinatesSplitByIndex() throws SQLException {
+        Geometry multi = JtsGeometry.geomFromString("MULTILINESTRING((0 0,1 1)," + line(5000) + ",(7 7,8 8))");
+        Spliterator<Coordinate> coordinates = JtsStreams.coordinates(multi).spliterator();
+        Assert.assertEquals(coordinates.characteristics(), CHARACTERISTICS);
+        Assert.assertEquals(coordinates.estimateSize(), multi.getNumPoints());
+        Spliterator<Coordinate> prefix = coordinates.trySplit();
+        Assert.assertEquals(prefix.characteristics(), CHARACTERISTICS);
+        Assert.assertEquals(prefix.estimateSize(), multi.getNumPoints() / 2);
+        Assert.assertEquals(prefix.estimateSize() + coordinates.estimateSize(), multi.getNumPoints());
+
+        List<Coordinate> all = new ArrayList<Coordinate>(split(prefix));
+        all.addAll(split(coordinates));
+        Assert.assertEquals(all, Arrays.asList(multi.getCoordinates()));
+
+        Spliterator<Coordinate> small = JtsStreams.coordinates(JtsGeometry.geomFromString("LINESTRING(0 0,1 1)"))
+                .spliterator();
+        Assert.assertNull(small.trySplit());
+    }
+
+
+    @Test
+    public void testPartsSplitByVertexCount() throws SQLException {
+        Geometry multi = JtsGeometry.geomFromString("MULTILINESTRING((1 1,1 2),(5 5,5 6)," + line(6000)
+                + ",(7 7,7 8))");
+        Spliterator<Geometry> parts = JtsStreams.geometries(multi).spliterator();
+        Assert.assertEquals(parts.characteristics(), CHARACTERISTICS);
+        Assert.assertEquals(parts.estimateSize(), 4);
+        Assert.assertEquals(parts.trySplit().estimateSize(), 2); // the large line starts the second half
+        Assert.assertEquals(parts.estimateSize(), 2);
+
+        Assert.assertEquals(split(JtsStreams.geometries(multi).spliterator()),
+                JtsStreams.geometries(multi).collect(Collectors.toList()));
+        Assert.assertEquals(JtsStreams.geometries(multi).parallel().mapToInt(Geometry::getNumPoints).sum(),
+                multi.getNumPoints());
+
+        Spliterator<Geometry> single = JtsStreams.geometries(JtsGeometry.geomFromString("POINT(1 2)")).spliterator();
+        Assert.assertEquals(single.estimateSize(), 1);
+        Assert.assertNull(single.trySplit());
+    }
+
+
+    @Test
+    public void testEmptyGeometries() throws SQLException {
+        for (String wkt : new String[]{"POINT EMPTY", "LINESTRING EMPTY", "POLYGON EMPTY", "GEOMETRYCOLLECTION EMPTY",
+                "GEOMETRYCOLLECTION(POINT EMPTY,LINESTRING EMPTY)"}) {
+            Geometry geometry = JtsGeometry.geomFromString(wkt);
+            Spliterator<Coordinate> coordinates = JtsStreams.coordinates(geometry).spliterator();
+            Assert.assertEquals(coordinates.estimateSize(), 0, wkt);
+            Assert.assertNull(coordinates.trySplit(), wkt);
+            Assert.assertFalse(coordinates.tryAdvance(c -> Assert.fail(wkt)), wkt);
+            Assert.assertEquals(JtsStreams.geometries(geometry).count(), geometry.getNumGeometries(), wkt);
+        }
+
+        // parts without vertices are split by count, and empty parts between others are kept in order
+        Geometry empties = JtsGeometry.geomFromString("MULTILINESTRING(EMPTY,EMPTY,EMPTY,EMPTY)");
+        Spliterator<Geometry> parts = JtsStreams.geometries(empties).spliterator();
+        Assert.assertEquals(parts.trySplit().estimateSize(), 2);
+        Assert.assertEquals(parts.estimateSize(), 2);
+
+        Geometry mixed = JtsGeometry.geomFromString("MULTILINESTRING(EMPTY,(0 0,1 1),EMPTY," + line(3000)
+                + ",EMPTY)");
+        Assert.assertEquals(split(JtsStreams.geometries(mixed).spliterator()),
+                JtsStreams.geometries(mixed).collect(Collectors.toList()));
+        Assert.assertEquals(split(JtsStreams.coordinates(mixed).spliterator()), Arrays.asList(mixed.getCoordinates()));
+        Assert.assertEquals(JtsStreams.coordinates(mixed).parallel().count(), mixed.getNumPoints());
+    }
+
+
+    /**
+     * Split a spliterator as far as it goes and traverse the pieces in order, checking that each piece yields as many
+     * elements as it estimated.
+     */
+    private static <T> List<T> split(final Spliterator<T> spliterator) {
+        List<T> result = new ArrayList<T>();
+        Spliterator<T> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            result.addAll(split(prefix));
+            result.addAll(split(spliterator));
+            return result;
+        }
+        long size = spliterator.estimateSize();
+        spliterator.forEachRemaining(result::add);
+        Assert.assertEquals(result.size(), size);
+        return result;
+    }
+
+
+    private static String line(final int vertices) {
+        StringBuilder line = new StringBuilder("(0 0");
+        for (int i = 1; i < vertices; i++) {
+            line.append(',').append(i).append(' ').append(i % 7);
+        }
+        return line.append(')').toString();
+    }
+
+
+}
@@ -0,0 +1,130 @@
+/*
+ * JtsWebMercatorTest.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import net.postgis.jdbc.geometry.algorithm.WebMercator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.impl.CoordinateArraySequence;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class JtsWebMercatorTest {
+
+    private static final double EDGE = 20037508.342789244;
+
+    private final GeometryFactory factory = new GeometryFactory();
+
+
+    @Test
+    public void testRoundTrip() {
+        double[] expected = new double[]{0, 0, -179.5, -85, 13.4, 52.5, 179.99, 84.9};
+        CoordinateSequence packed = new PackedCoordinateSequence.Double(expected.clone(), 2, 0);
+        CoordinateSequence array = new CoordinateArraySequence(coordinates(expected));
+        for (CoordinateSequence sequence : new CoordinateSequence[]{packed, array}) {
+            JtsWebMercator.transform(sequence, WebMercator.WGS84, WebMercator.WEB_MERCATOR);
+            Assert.assertEquals(sequence.getX(2), 1491681.1766, 1e-3);
+            Assert.assertEquals(sequence.getY(2), 6891041.7239, 1e-3);
+            JtsWebMercator.transform(sequence, WebMercator.WEB_MERCATOR, WebMercator.WGS84);
+            for (int i = 0; i < expected.length / 2; i++) {
+                Assert.assertEquals(sequence.getX(i), expected[2 * i], 1e-9);
+                Assert.assertEquals(sequence.getY(i), expected[2 * i + 1], 1e-9);
+            }
+        }
+    }
+
+
+    @Test
+    public void testClampsPoles() {
+        CoordinateSequence sequence = new PackedCoordinateSequence.Double(
+                new double[]{180, 90, 5, -180, -90, 6, 0, WebMercator.MAX_LATITUDE, 7}, 3, 0);
+        JtsWebMercator.transform(sequence, WebMercator.WGS84, WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(sequence.getX(0), EDGE, 1e-6);
+        Assert.assertEquals(sequence.getY(0), EDGE, 1e-6);
+        Assert.assertEquals(sequence.getX(1), -EDGE, 1e-6);
+        Assert.assertEquals(sequence.getY(1), -EDGE, 1e-6);
+        Assert.assertEquals(sequence.getY(2), EDGE, 1e-6);
+        Assert.assertEquals(sequence.getZ(1), 6.0);
+
+        // the edge of the square maps back to the latitude limit, not the pole
+        JtsWebMercator.transform(sequence, WebMercator.WEB_MERCATOR, WebMercator.WGS84);
+        Assert.assertEquals(sequence.getY(0), WebMercator.MAX_LATITUDE, 1e-9);
+        Assert.assertEquals(sequence.getY(1), -WebMercator.MAX_LATITUDE, 1e-9);
+        Assert.assertEquals(sequence.getX(1), -180, 1e-9);
+    }
+
+
+    @Test
+    public void testTransformGeometry() {
+        // the closing coordinate is the same instance as the first one
+        Coordinate first = new Coordinate(10, 20);
+        LinearRing shell = factory.createLinearRing(new Coordinate[]{first, new Coordinate(11, 20),
+                new Coordinate(11, 21), first});
+        Polygon polygon = factory.createPolygon(shell);
+        Geometry collection = factory.createGeometryCollection(new Geometry[]{polygon, factory.createPoint(
+                new Coordinate(180, 0))});
+        collection.setSRID(WebMercator.WGS84);
+        Assert.assertEquals(collection.getEnvelopeInternal().getMaxX(), 180.0);
+
+        Assert.assertSame(JtsWebMercator.transform(collection, WebMercator.WEB_MERCATOR), collection);
+        Assert.assertEquals(collection.getSRID(), WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(polygon.getExteriorRing().getSRID(), WebMercator.WEB_MERCATOR);
+        Assert.assertEquals(collection.getEnvelopeInternal().getMaxX(), EDGE, 1e-6);
+        double[] expected = new double[]{10, 20};
+        WebMercator.toMercator(expected, 0, 1, 2);
+        Assert.assertEquals(first.x, expected[0], 1e-6);
+        Assert.assertEquals(first.y, expected[1], 1e-6);
+        Assert.assertTrue(shell.isClosed());
+
+        JtsWebMercator.transform(collection, WebMercator.WGS84);
+        Assert.assertEquals(first.x, 10, 1e-9);
+        Assert.assertEquals(collection.getSRID(), WebMercator.WGS84);
+        Assert.assertSame(JtsWebMercator.transform(collection, WebMercator.WGS84), collection);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsOtherSrids() {
+        Geometry point = factory.createPoint(new Coordinate(1, 2));
+        point.setSRID(25832);
+        JtsWebMercator.transform(point, WebMercator.WEB_MERCATOR);
+    }
+
+
+    private static Coordinate[] coordinates(final double[] xy) {
+        Coordinate[] result = new Coordinate[xy.length / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new Coordinate(xy[2 * i], xy[2 * i + 1]);
+        }
+        return result;
+    }
+
+
+}
@@ -0,0 +1,84 @@
+/*
+ * PackedEnvelopeSequenceTest.java
+ *
+ * Wrapper for PostgreSQL JDBC driver to allow transparent reading and writing
+ * of JTS geometries
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+
+package net.postgis.jdbc.jts;
+
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+
+public class PackedEnvelopeSequenceTest {
+
+    private final GeometryFactory factory = new GeometryFactory();
+
+
+    @Test
+    public void testEnvelopesMatchJts() {
+        Random random = new Random(42);
+        for (int dimension = 2; dimension <= 3; dimension++) {
+            for (int count : new int[]{0, 1, 2, 3, 7, 8, 9, 100, 1001}) {
+                for (int round = 0; round < 10; round++) {
+                    double[] coords = new double[count * dimension];
+                    double scale = Math.pow(10, random.nextInt(8) - 2);
+                    for (int i = 0; i < coords.length; i++) {
+                        coords[i] = (random.nextDouble() - 0.5) * scale;
+                    }
+                    String message = count + " coordinates of dimension " + dimension;
+                    CoordinateSequence packed = new PackedEnvelopeSequence(coords.clone(), dimension);
+                    CoordinateSequence plain = new PackedCoordinateSequence.Double(coords.clone(), dimension, 0);
+
+                    Envelope expected = plain.expandEnvelope(new Envelope());
+                    Assert.assertEquals(packed.expandEnvelope(new Envelope()), expected, message);
+                    Assert.assertEquals(packed.expandEnvelope(new Envelope()).isNull(), count == 0, message);
+
+                    Envelope start = new Envelope(-0.25 * scale, 0.1 * scale, 0.2 * scale, -0.3 * scale);
+                    Envelope expanded = plain.expandEnvelope(new Envelope(start));
+                    Assert.assertEquals(packed.expandEnvelope(new Envelope(start)), expanded, message);
+
+                    if (count == 0 || count >= 2) {
+                        Assert.assertEquals(factory.createLineString(packed).getEnvelopeInternal(),
+                                factory.createLineString(plain).getEnvelopeInternal(), message);
+                    }
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void testSinglePoint() {
+        CoordinateSequence packed = new PackedEnvelopeSequence(new double[]{3, -4, 5}, 3);
+        Envelope envelope = packed.expandEnvelope(new Envelope());
+        Assert.assertEquals(envelope, new Envelope(3, 3, -4, -4));
+        Assert.assertEquals(envelope.getArea(), 0.0);
+        Assert.assertEquals(factory.createPoint(packed).getEnvelopeInternal(), envelope);
+    }
+
+
+}
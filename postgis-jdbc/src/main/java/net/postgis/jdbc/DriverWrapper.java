@@ -27,6 +27,7 @@ import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import net.postgis.jdbc.geometry.metrics.GeometryMetricsRegistry;
 import org.postgresql.Driver;
 import org.postgresql.PGConnection;
 
@@ -132,13 +133,21 @@ public class DriverWrapper extends Driver {
     }
 
 
+    /**
+     * Create the TypesAdder for a pgjdbc version.
+     *
+     * The adders are created directly rather than looked up by name, so the class initialization of the wrappers
+     * needs no reflection, e.g. in a native image.
+     */
     private static TypesAdder loadTypesAdder(final String version) throws SQLException {
-        try {
-            Class klass = Class.forName("net.postgis.jdbc.DriverWrapper$TypesAdder" + version);
-            return (TypesAdder) klass.newInstance();
-        } catch (Exception e) {
-            throw new SQLException("Cannot create TypesAdder instance! " + e.getMessage());
+        if ("72".equals(version)) {
+            return new TypesAdder72();
+        } else if ("74".equals(version)) {
+            return new TypesAdder74();
+        } else if ("80".equals(version)) {
+            return new TypesAdder80();
         }
+        throw new SQLException("Cannot create TypesAdder instance! Unknown version " + version);
     }
 
 
@@ -160,7 +169,9 @@ public class DriverWrapper extends Driver {
             return null;
         }
         Connection result = super.connect(url, info);
+        long start = System.nanoTime();
         typesAdder.addGT(result, useLW(result));
+        GeometryMetricsRegistry.typesRegistered(System.nanoTime() - start);
         return result;
     }
 
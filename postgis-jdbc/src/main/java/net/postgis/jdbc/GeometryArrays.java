@@ -0,0 +1,121 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import org.postgresql.core.BaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+
+/**
+ * Helpers for binding many geometries as one geometry[] parameter.
+ *
+ * Sending N geometries as N parameters (or N batched statements) costs one bind value each and, for large N, runs
+ * into the 32767 parameter limit of the protocol. A single {@link PGgeometryArray} parameter is sent in one piece and
+ * expanded on the server with unnest().
+ *
+ * Table and column names passed to the SQL builders are used as is; quote them if needed.
+ */
+public final class GeometryArrays {
+
+    private GeometryArrays() {
+    }
+
+
+    /**
+     * Create an array value for the given connection, resolving the oid of its geometry type so the value can be
+     * sent in binary format.
+     *
+     * @param connection the connection the value will be bound on
+     * @param geometries the geometries, may contain null elements
+     * @return the array value
+     * @throws SQLException when the geometry type cannot be looked up
+     */
+    public static PGgeometryArray create(final Connection connection, final Geometry... geometries)
+            throws SQLException {
+        int oid = 0;
+        if (connection.isWrapperFor(BaseConnection.class)) {
+            oid = connection.unwrap(BaseConnection.class).getTypeInfo().getPGType("geometry");
+        }
+        return new PGgeometryArray(geometries, oid);
+    }
+
+
+    /**
+     * Bind geometries as one geometry[] statement parameter.
+     *
+     * @param statement the statement
+     * @param parameterIndex the parameter index
+     * @param geometries the geometries, may contain null elements
+     * @throws SQLException when the parameter cannot be set
+     */
+    public static void setGeometries(final PreparedStatement statement, final int parameterIndex,
+                                     final Geometry... geometries) throws SQLException {
+        statement.setObject(parameterIndex, create(statement.getConnection(), geometries));
+    }
+
+
+    /**
+     * Build an insert statement taking all geometries from one array parameter.
+     *
+     * @param table the table name
+     * @param column the geometry column name
+     * @return <code>INSERT INTO table (column) SELECT unnest(?::geometry[])</code>
+     */
+    public static String insertSql(final String table, final String column) {
+        return "INSERT INTO " + table + " (" + column + ") SELECT unnest(?::geometry[])";
+    }
+
+
+    /**
+     * Build a condition matching rows whose geometry intersects any element of an array parameter.
+     *
+     * ST_Intersects is a function, not an operator, so <code>ST_Intersects(geom, ANY(?))</code> is not valid SQL.
+     * The array is unnested in a semi-join instead, which keeps the spatial index usable per element.
+     *
+     * @param column the (possibly qualified) geometry column name
+     * @return the condition, with one geometry[] parameter
+     */
+    public static String intersectsAnySql(final String column) {
+        return "EXISTS (SELECT 1 FROM unnest(?::geometry[]) AS q(g) WHERE ST_Intersects(" + column + ", q.g))";
+    }
+
+
+    /**
+     * Insert geometries into a table with a single statement.
+     *
+     * @param connection the connection
+     * @param table the table name
+     * @param column the geometry column name
+     * @param geometries the geometries to insert, may contain null elements
+     * @return the number of inserted rows
+     * @throws SQLException when the insert fails
+     */
+    public static int insert(final Connection connection, final String table, final String column,
+                             final Geometry... geometries) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(insertSql(table, column))) {
+            statement.setObject(1, create(connection, geometries));
+            return statement.executeUpdate();
+        }
+    }
+
+
+}
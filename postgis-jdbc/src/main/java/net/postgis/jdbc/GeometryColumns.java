@@ -0,0 +1,250 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.ByteGetter;
+import net.postgis.jdbc.geometry.binary.GeometryCache;
+import net.postgis.jdbc.geometry.binary.ValueGetter;
+import net.postgis.jdbc.geometry.index.StrTree;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+
+/**
+ * Reads geometry columns straight into the geometry model, without going through ResultSet.getObject().
+ *
+ * getObject() instantiates a PGgeometry per cell, which holds the type name, keeps the value string and then parses
+ * it. The methods here take the raw column text instead, decode the hex into a per-thread buffer that is reused
+ * from row to row and run a per-thread BinaryParser on it. For loops which only need one geometry at a time, the
+ * holder variants refill an existing PGgeometry or Point instead of allocating a new one per row. Results which
+ * repeat large values can be read through a {@link GeometryCache}, which parses each distinct value once.
+ *
+ * Values that are not hex encoded EWKB (EWKT from PostGIS 0.x servers) are handed to {@link GeometryBuilder}.
+ */
+public final class GeometryColumns {
+
+    private static final ThreadLocal<GeometryColumns> STATE = new ThreadLocal<GeometryColumns>() {
+        @Override
+        protected GeometryColumns initialValue() {
+            return new GeometryColumns();
+        }
+    };
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final BinaryParser parser = new BinaryParser();
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+
+    private GeometryColumns() {
+    }
+
+
+    /**
+     * Read a geometry column of the current row.
+     *
+     * @param resultSet the ResultSet positioned on a row
+     * @param column the column index
+     * @return the geometry, or null for an SQL NULL value
+     * @throws SQLException when the column cannot be read or parsed
+     */
+    public static Geometry read(final ResultSet resultSet, final int column) throws SQLException {
+        String value = resultSet.getString(column);
+        return value == null ? null : STATE.get().parse(value, null);
+    }
+
+
+    /**
+     * Read a geometry column of the current row through an interning cache, so that rows repeating a value get
+     * the same instance. The returned geometry may be shared and must not be changed.
+     *
+     * @param resultSet the ResultSet positioned on a row
+     * @param column the column index
+     * @param cache the cache to look values up in and to add parsed values to
+     * @return the geometry, or null for an SQL NULL value
+     * @throws SQLException when the column cannot be read or parsed
+     */
+    public static Geometry read(final ResultSet resultSet, final int column, final GeometryCache cache)
+            throws SQLException {
+        String value = resultSet.getString(column);
+        return value == null ? null : STATE.get().parse(value, cache);
+    }
+
+
+    /**
+     * Read a geometry column of the current row into an existing wrapper.
+     *
+     * @param resultSet the ResultSet positioned on a row
+     * @param column the column index
+     * @param holder the wrapper to put the geometry into
+     * @return the holder, or null for an SQL NULL value (the holder is left unchanged then)
+     * @throws SQLException when the column cannot be read or parsed
+     */
+    public static PGgeometry read(final ResultSet resultSet, final int column, final PGgeometry holder)
+            throws SQLException {
+        Geometry geometry = read(resultSet, column);
+        if (geometry == null) {
+            return null;
+        }
+        holder.setGeometry(geometry);
+        return holder;
+    }
+
+
+    /**
+     * Read the geometry column of all remaining rows into a spatial index.
+     *
+     * For large results, let the driver fetch the rows in batches instead of all at once: disable auto-commit and
+     * set a fetch size on the statement. Rows with an SQL NULL or empty geometry are skipped.
+     *
+     * @param resultSet the ResultSet, positioned before the first row to index
+     * @param column the column index
+     * @return the index of the geometries
+     * @throws SQLException when the rows cannot be read or parsed
+     */
+    public static StrTree<Geometry> index(final ResultSet resultSet, final int column) throws SQLException {
+        StrTree.Builder<Geometry> builder = StrTree.builder();
+        while (resultSet.next()) {
+            Geometry geometry = read(resultSet, column);
+            if (geometry != null) {
+                builder.add(geometry, geometry);
+            }
+        }
+        return builder.build();
+    }
+
+
+    /**
+     * Read all remaining rows into a spatial index, keyed by the envelope of their geometry column.
+     *
+     * @param resultSet the ResultSet, positioned before the first row to index
+     * @param column the index of the geometry column
+     * @param mapper maps each row to the item to index, called after the geometry was read
+     * @param <R> the item type
+     * @return the index of the mapped rows
+     * @throws SQLException when the rows cannot be read or parsed
+     * @see #index(ResultSet, int)
+     */
+    public static <R> StrTree<R> index(final ResultSet resultSet, final int column,
+                                       final TiledQuery.RowMapper<R> mapper) throws SQLException {
+        StrTree.Builder<R> builder = StrTree.builder();
+        while (resultSet.next()) {
+            Geometry geometry = read(resultSet, column);
+            if (geometry != null) {
+                builder.add(geometry, mapper.map(resultSet));
+            }
+        }
+        return builder.build();
+    }
+
+
+    /**
+     * Read a point column of the current row into an existing Point, allocating nothing for hex encoded values.
+     *
+     * @param resultSet the ResultSet positioned on a row
+     * @param column the column index
+     * @param target the point to overwrite with srid, dimension, measure flag and ordinates of the value
+     * @return true if a point was read, false for an SQL NULL value
+     * @throws SQLException when the column cannot be read, or does not hold a point
+     */
+    public static boolean readPoint(final ResultSet resultSet, final int column, final Point target)
+            throws SQLException {
+        String value = resultSet.getString(column);
+        if (value == null) {
+            return false;
+        }
+        STATE.get().parsePoint(value, target);
+        return true;
+    }
+
+
+    private Geometry parse(final String value, final GeometryCache cache) throws SQLException {
+        if (!isHexEWKB(value)) {
+            return GeometryBuilder.geomFromString(value, parser);
+        }
+        try {
+            buffer = ByteGetter.StringByteGetter.unhex(value, buffer);
+            return cache == null ? parser.parse(buffer) : cache.parse(parser, buffer, value.length() / 2);
+        } catch (RuntimeException e) {
+            throw new SQLException("Error parsing geometry: " + e, e);
+        }
+    }
+
+
+    private void parsePoint(final String value, final Point target) throws SQLException {
+        if (!isHexEWKB(value)) {
+            Geometry geometry = GeometryBuilder.geomFromString(value, parser);
+            if (!(geometry instanceof Point)) {
+                throw new SQLException("Not a point: " + geometry.getTypeString());
+            }
+            Point point = (Point) geometry;
+            fillPoint(target, point.srid, point.dimension == 3, point.haveMeasure, point.x, point.y, point.z, point.m);
+            return;
+        }
+        try {
+            buffer = ByteGetter.StringByteGetter.unhex(value, buffer);
+            ValueGetter data = BinaryParser.valueGetterForEndian(new ByteGetter.BinaryByteGetter(buffer));
+            data.getByte(); // skip endian flag, already evaluated above
+            int typeword = data.getInt();
+            int realtype = typeword & 0x1FFFFFFF;
+            if (realtype != Geometry.POINT) {
+                throw new SQLException("Not a point: " + Geometry.getTypeString(realtype));
+            }
+            boolean haveZ = (typeword & 0x80000000) != 0;
+            boolean haveM = (typeword & 0x40000000) != 0;
+            int srid = Geometry.UNKNOWN_SRID;
+            if ((typeword & 0x20000000) != 0) {
+                srid = Geometry.parseSRID(data.getInt());
+            }
+            double x = data.getDouble();
+            double y = data.getDouble();
+            double z = haveZ ? data.getDouble() : 0.0;
+            double m = haveM ? data.getDouble() : 0.0;
+            fillPoint(target, srid, haveZ, haveM, x, y, z, m);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new SQLException("Error parsing point: " + e, e);
+        }
+    }
+
+
+    private static void fillPoint(final Point target, final int srid, final boolean haveZ, final boolean haveM,
+                                  final double x, final double y, final double z, final double m) {
+        target.srid = srid;
+        target.dimension = haveZ ? 3 : 2;
+        target.haveMeasure = haveM;
+        target.x = x;
+        target.y = y;
+        target.z = z;
+        target.m = m;
+        // the target may be part of a geometry caching its envelope
+        target.invalidateEnvelope();
+    }
+
+
+    private static boolean isHexEWKB(final String value) {
+        return value.startsWith("00") || value.startsWith("01");
+    }
+
+
+}
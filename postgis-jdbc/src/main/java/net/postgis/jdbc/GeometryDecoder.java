@@ -0,0 +1,88 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+
+import java.sql.SQLException;
+
+
+/**
+ * Decodes raw geometry column values, as fetched from a ResultSet, into a geometry model.
+ *
+ * Implementations may be invoked concurrently from several threads (see {@link PipelinedGeometryReader}), so they
+ * must not share mutable parse state between calls.
+ *
+ * @param <T> the geometry model produced by this decoder
+ */
+public interface GeometryDecoder<T> {
+
+    /**
+     * Decode the text representation of a geometry (hex encoded EWKB or EWKT).
+     *
+     * @param value the text value
+     * @return the decoded geometry
+     * @throws SQLException when the value cannot be decoded
+     */
+    T decode(String value) throws SQLException;
+
+
+    /**
+     * Decode the binary (EWKB) representation of a geometry.
+     *
+     * @param value the binary value
+     * @return the decoded geometry
+     * @throws SQLException when the value cannot be decoded
+     */
+    T decode(byte[] value) throws SQLException;
+
+
+    /**
+     * A decoder producing {@link Geometry} instances using one {@link BinaryParser} per thread, so concurrent callers
+     * do not contend on the parser's monitor.
+     */
+    GeometryDecoder<Geometry> GEOMETRY = new GeometryDecoder<Geometry>() {
+
+        private final ThreadLocal<BinaryParser> parsers = new ThreadLocal<BinaryParser>() {
+            @Override
+            protected BinaryParser initialValue() {
+                return new BinaryParser();
+            }
+        };
+
+        /** {@inheritDoc} */
+        @Override
+        public Geometry decode(final String value) throws SQLException {
+            return GeometryBuilder.geomFromString(value, parsers.get());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Geometry decode(final byte[] value) throws SQLException {
+            try {
+                return parsers.get().parse(value);
+            } catch (IllegalArgumentException e) {
+                throw new SQLException("Error parsing binary geometry: " + e.getMessage(), e);
+            }
+        }
+    };
+
+
+}
@@ -0,0 +1,271 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Publishes the decoded geometries of a query, fetching rows from the server only as subscribers signal demand.
+ *
+ * The contract follows java.util.concurrent.Flow (and Reactive Streams): signals to a subscriber are serialized,
+ * no more items are emitted than requested, and cancellation releases the statement. As this library still targets
+ * Java 8, the nested {@link Subscriber} and {@link Subscription} interfaces stand in for the Flow ones, and adapting
+ * to them is a matter of delegating the four methods.
+ *
+ * Every subscription executes the query on first demand, with the configured fetch size. PostgreSQL only uses a
+ * server side cursor, fetching that many rows per round trip, when the connection is not in autocommit mode, so
+ * callers wanting bounded memory should disable autocommit. All JDBC access and all signals run on the given
+ * executor. SQL NULL geometries are skipped.
+ *
+ * @param <T> the geometry model produced by the decoder
+ */
+public class GeometryPublisher<T> {
+
+    /** Receiver of decoded geometries, mirroring java.util.concurrent.Flow.Subscriber. */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+
+    /** Link between publisher and subscriber, mirroring java.util.concurrent.Flow.Subscription. */
+    public interface Subscription {
+
+        void request(long n);
+
+        void cancel();
+    }
+
+
+    private final Connection connection;
+
+    private final String sql;
+
+    private final Object[] parameters;
+
+    private final int column;
+
+    private final GeometryDecoder<T> decoder;
+
+    private final Executor executor;
+
+    private final int fetchSize;
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param connection the connection to run the query on
+     * @param sql the query
+     * @param parameters the query parameters, bound with setObject
+     * @param column the index of the geometry column in the query result
+     * @param decoder the decoder for the geometry column
+     * @param executor the executor running the fetching, decoding and signalling
+     * @param fetchSize the number of rows fetched per round trip
+     */
+    public GeometryPublisher(final Connection connection, final String sql, final Object[] parameters,
+                             final int column, final GeometryDecoder<T> decoder, final Executor executor,
+                             final int fetchSize) {
+        this.connection = Objects.requireNonNull(connection, "connection must not be null");
+        this.sql = Objects.requireNonNull(sql, "sql must not be null");
+        this.parameters = parameters == null ? new Object[0] : parameters.clone();
+        this.decoder = Objects.requireNonNull(decoder, "decoder must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be at least 1: " + fetchSize);
+        }
+        this.column = column;
+        this.fetchSize = fetchSize;
+    }
+
+
+    /**
+     * Subscribe to the query results. Every subscriber gets its own execution of the query.
+     *
+     * @param subscriber the subscriber
+     */
+    public void subscribe(final Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber must not be null");
+        CursorSubscription subscription = new CursorSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+
+    /** Drains demand against the query ResultSet, one executor task at a time. */
+    private final class CursorSubscription implements Subscription, Runnable {
+
+        private final Subscriber<? super T> subscriber;
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        private volatile Throwable badRequest;
+
+        private PreparedStatement statement;
+
+        private ResultSet resultSet;
+
+        private boolean done;
+
+
+        CursorSubscription(final Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("non-positive subscription request: " + n);
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n;
+                    if (next < 0) {
+                        next = Long.MAX_VALUE;
+                    }
+                } while (!requested.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (done) {
+                    return;
+                }
+                if (cancelled) {
+                    finish();
+                    return;
+                }
+                if (badRequest != null) {
+                    finish();
+                    subscriber.onError(badRequest);
+                    return;
+                }
+                try {
+                    long demand = requested.get();
+                    long emitted = 0;
+                    while (emitted != demand) {
+                        if (cancelled) {
+                            finish();
+                            return;
+                        }
+                        if (resultSet == null) {
+                            open();
+                        }
+                        if (!resultSet.next()) {
+                            finish();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        T item = readItem();
+                        if (item != null) {
+                            subscriber.onNext(item);
+                            emitted++;
+                        }
+                    }
+                    if (demand != Long.MAX_VALUE) {
+                        requested.addAndGet(-emitted);
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    finish();
+                    subscriber.onError(e);
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+
+        private void open() throws SQLException {
+            statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            resultSet = statement.executeQuery();
+        }
+
+
+        private T readItem() throws SQLException {
+            String value = resultSet.getString(column);
+            return value == null ? null : decoder.decode(value);
+        }
+
+
+        /** Close the JDBC resources, ignoring failures as no further signals may follow a terminal one. */
+        private void finish() {
+            done = true;
+            try {
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                if (statement != null) {
+                    statement.close();
+                }
+            } catch (SQLException e) {
+                DriverWrapper.logger.fine("Error closing publisher statement: " + e.getMessage());
+            } finally {
+                resultSet = null;
+                statement = null;
+            }
+        }
+    }
+
+
+}
@@ -27,6 +27,7 @@
 
 package net.postgis.jdbc;
 
+import net.postgis.jdbc.geometry.Envelope;
 import net.postgis.jdbc.geometry.Point;
 
 import java.sql.SQLException;
@@ -43,6 +44,15 @@ public class PGbox2d extends PGboxbase {
         super(llb, urt);
     }
 
+    /**
+     * Instantiate with the bounds of an envelope, e.g. of {@link net.postgis.jdbc.geometry.Geometry#getEnvelope()}.
+     *
+     * @param envelope the envelope, must not be empty
+     */
+    public PGbox2d(Envelope envelope) {
+        super(envelope, false);
+    }
+
     public PGbox2d(String value) throws SQLException {
         super(value);
     }
@@ -28,6 +28,7 @@
 
 package net.postgis.jdbc;
 
+import net.postgis.jdbc.geometry.Envelope;
 import net.postgis.jdbc.geometry.Point;
 
 import java.sql.SQLException;
@@ -44,6 +45,15 @@ public class PGbox3d extends PGboxbase {
         super(llb, urt);
     }
 
+    /**
+     * Instantiate with the bounds of an envelope, e.g. of {@link net.postgis.jdbc.geometry.Geometry#getEnvelope()}.
+     *
+     * @param envelope the envelope, must not be empty
+     */
+    public PGbox3d(Envelope envelope) {
+        super(envelope, true);
+    }
+
     public PGbox3d(String value) throws SQLException {
         super(value);
     }
@@ -28,12 +28,14 @@
 
 package net.postgis.jdbc;
 
+import net.postgis.jdbc.geometry.Envelope;
 import net.postgis.jdbc.geometry.Geometry;
 import net.postgis.jdbc.geometry.GeometryBuilder;
 import net.postgis.jdbc.geometry.GeometryTokenizer;
 import net.postgis.jdbc.geometry.Point;
 import org.postgresql.util.PGobject;
 
+import java.io.ObjectStreamException;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -83,6 +85,26 @@ public abstract class PGboxbase extends PGobject {
         this.urt = urt;
     }
 
+    /**
+     * Instantiate with the corners of an envelope.
+     *
+     * @param envelope the envelope, must not be empty
+     * @param withZ whether to take over the z range of the envelope, if it has one
+     */
+    protected PGboxbase(Envelope envelope, boolean withZ) {
+        this();
+        if (envelope.isEmpty()) {
+            throw new IllegalArgumentException("Cannot create a box from an empty envelope");
+        }
+        if (withZ && envelope.is3d()) {
+            this.llb = new Point(envelope.getMinX(), envelope.getMinY(), envelope.getMinZ());
+            this.urt = new Point(envelope.getMaxX(), envelope.getMaxY(), envelope.getMaxZ());
+        } else {
+            this.llb = new Point(envelope.getMinX(), envelope.getMinY());
+            this.urt = new Point(envelope.getMaxX(), envelope.getMaxY());
+        }
+    }
+
     public PGboxbase(String value) throws SQLException {
         this();
         setValue(value);
@@ -186,6 +208,16 @@ public abstract class PGboxbase extends PGobject {
         return obj;
     }
 
+    /**
+     * Serialize as type name and EWKB of the corners, see {@link SerializedValue}.
+     *
+     * @return the object to serialize in place of this box
+     * @throws ObjectStreamException never, declared for serialization
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        return SerializedValue.replace(this);
+    }
+
     /**
      * Obtain a new instance of a PGboxbase
      *
@@ -28,6 +28,7 @@ import net.postgis.jdbc.geometry.GeometryBuilder;
 import net.postgis.jdbc.geometry.binary.BinaryParser;
 import org.postgresql.util.PGobject;
 
+import java.io.ObjectStreamException;
 import java.sql.SQLException;
 
 
@@ -132,4 +133,15 @@ public class PGgeo extends PGobject {
     }
 
 
+    /**
+     * Serialize as type name and EWKB, see {@link SerializedValue}.
+     *
+     * @return the object to serialize in place of this value
+     * @throws ObjectStreamException never, declared for serialization
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        return SerializedValue.replace(this);
+    }
+
+
 }
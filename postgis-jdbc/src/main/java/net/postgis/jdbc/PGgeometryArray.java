@@ -0,0 +1,268 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.postgresql.util.PGBinaryObject;
+import org.postgresql.util.PGobject;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * A PostgreSQL JDBC PGobject extension data type modeling a one-dimensional geometry[] value.
+ *
+ * This allows binding any number of geometries as a single statement parameter, e.g. for
+ * <code>INSERT INTO t (geom) SELECT unnest(?)</code>, instead of one parameter per geometry.
+ *
+ * When binary transfer is enabled for the array type (connection property <code>binaryTransferEnable=_geometry</code>),
+ * the value is sent in the binary array format with raw EWKB elements. This needs the oid of the geometry type,
+ * which differs between databases, see {@link GeometryArrays#create(java.sql.Connection, Geometry...)}. Otherwise
+ * the value is sent as array literal of hex-encoded EWKB elements.
+ *
+ * Note that array literals of the geometry type separate their elements with ':', as declared by the type
+ * (typdelim), not with ','.
+ */
+public class PGgeometryArray extends PGobject implements PGBinaryObject {
+
+    private static final long serialVersionUID = 2406633981911294187L;
+
+    /** The size of the binary array header for one dimension: ndim, flags, element oid, size, lower bound. */
+    private static final int HEADER_SIZE = 20;
+
+    /** The array element delimiter of the geometry type. */
+    private static final char DELIMITER = ':';
+
+    /** The encapsulated geometries, may contain null elements. */
+    Geometry[] geometries;
+
+    /** The oid of the geometry element type, 0 if unknown. */
+    int elementOid;
+
+    /** EWKB encoded elements, built on first use for binary transfer. */
+    private transient byte[][] encoded;
+
+
+    /** Instantiate with default state. */
+    public PGgeometryArray() {
+        this(new Geometry[0], 0);
+    }
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param geometries the geometries to instantiate with, may contain null elements
+     * @param elementOid the oid of the geometry type in the target database, 0 if unknown
+     */
+    public PGgeometryArray(final Geometry[] geometries, final int elementOid) {
+        setType("_geometry");
+        this.geometries = geometries;
+        this.elementOid = elementOid;
+    }
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param value the array literal to instantiate with
+     */
+    public PGgeometryArray(final String value) throws SQLException {
+        this();
+        setValue(value);
+    }
+
+
+    public Geometry[] getGeometries() {
+        return geometries;
+    }
+
+
+    public void setGeometries(final Geometry[] geometries) {
+        this.geometries = geometries;
+        this.encoded = null;
+    }
+
+
+    public int getElementOid() {
+        return elementOid;
+    }
+
+
+    public void setElementOid(final int elementOid) {
+        this.elementOid = elementOid;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setValue(final String value) throws SQLException {
+        String trimmed = value.trim();
+        if (!trimmed.startsWith("{") || !trimmed.endsWith("}")) {
+            throw new SQLException("Not a geometry array literal: " + value);
+        }
+        String content = trimmed.substring(1, trimmed.length() - 1).trim();
+        List<Geometry> result = new ArrayList<Geometry>();
+        if (!content.isEmpty()) {
+            BinaryParser parser = new BinaryParser();
+            for (String element : content.split(String.valueOf(DELIMITER))) {
+                element = element.trim();
+                if (element.startsWith("\"") && element.endsWith("\"")) {
+                    element = element.substring(1, element.length() - 1);
+                }
+                result.add(element.equalsIgnoreCase("NULL") ? null : GeometryBuilder.geomFromString(element, parser));
+            }
+        }
+        setGeometries(result.toArray(new Geometry[0]));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String getValue() {
+        BinaryWriter writer = new BinaryWriter();
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < geometries.length; i++) {
+            if (i > 0) {
+                sb.append(DELIMITER);
+            }
+            sb.append(geometries[i] == null ? "NULL" : writer.writeHexed(geometries[i]));
+        }
+        return sb.append('}').toString();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public int lengthInBytes() {
+        if (geometries.length == 0) {
+            return HEADER_SIZE - 8;
+        }
+        int length = HEADER_SIZE;
+        for (byte[] element : encoded()) {
+            length += 4 + (element == null ? 0 : element.length);
+        }
+        return length;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void toBytes(final byte[] bytes, final int offset) {
+        byte[][] elements = encoded();
+        boolean hasNull = false;
+        for (byte[] element : elements) {
+            hasNull |= element == null;
+        }
+        int pos = offset;
+        pos = putInt(bytes, pos, elements.length == 0 ? 0 : 1);
+        pos = putInt(bytes, pos, hasNull ? 1 : 0);
+        pos = putInt(bytes, pos, elementOid);
+        if (elements.length == 0) {
+            return;
+        }
+        pos = putInt(bytes, pos, elements.length);
+        pos = putInt(bytes, pos, 1);
+        for (byte[] element : elements) {
+            if (element == null) {
+                pos = putInt(bytes, pos, -1);
+            } else {
+                pos = putInt(bytes, pos, element.length);
+                System.arraycopy(element, 0, bytes, pos, element.length);
+                pos += element.length;
+            }
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void setByteValue(final byte[] value, final int offset) throws SQLException {
+        try {
+            int dimensions = getInt(value, offset);
+            if (dimensions > 1) {
+                throw new SQLException("Only one-dimensional geometry arrays are supported, got " + dimensions);
+            }
+            int oid = getInt(value, offset + 8);
+            if (dimensions == 0) {
+                elementOid = oid;
+                setGeometries(new Geometry[0]);
+                return;
+            }
+            int size = getInt(value, offset + 12);
+            int pos = offset + HEADER_SIZE;
+            BinaryParser parser = new BinaryParser();
+            Geometry[] result = new Geometry[size];
+            for (int i = 0; i < size; i++) {
+                int length = getInt(value, pos);
+                pos += 4;
+                if (length >= 0) {
+                    result[i] = parser.parse(Arrays.copyOfRange(value, pos, pos + length));
+                    pos += length;
+                }
+            }
+            elementOid = oid;
+            setGeometries(result);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new SQLException("Error parsing geometry array: " + e, e);
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Object clone() {
+        return new PGgeometryArray(geometries.clone(), elementOid);
+    }
+
+
+    private byte[][] encoded() {
+        if (encoded == null) {
+            BinaryWriter writer = new BinaryWriter();
+            byte[][] result = new byte[geometries.length][];
+            for (int i = 0; i < geometries.length; i++) {
+                result[i] = geometries[i] == null ? null : writer.writeBinary(geometries[i]);
+            }
+            encoded = result;
+        }
+        return encoded;
+    }
+
+
+    private static int putInt(final byte[] bytes, final int pos, final int value) {
+        bytes[pos] = (byte) (value >>> 24);
+        bytes[pos + 1] = (byte) (value >>> 16);
+        bytes[pos + 2] = (byte) (value >>> 8);
+        bytes[pos + 3] = (byte) value;
+        return pos + 4;
+    }
+
+
+    private static int getInt(final byte[] bytes, final int pos) {
+        return ((bytes[pos] & 0xFF) << 24) | ((bytes[pos + 1] & 0xFF) << 16)
+                | ((bytes[pos + 2] & 0xFF) << 8) | (bytes[pos + 3] & 0xFF);
+    }
+
+
+}
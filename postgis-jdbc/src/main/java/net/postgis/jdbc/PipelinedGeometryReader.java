@@ -0,0 +1,257 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * Reads a geometry column from a ResultSet while decoding the fetched values on an executor.
+ *
+ * The ResultSet is only ever touched by the thread calling {@link #next()}, which reads ahead up to a fixed window
+ * of rows and hands their raw values (hex encoded EWKB / EWKT text, or binary EWKB) to the executor. Waiting for the
+ * next fetch batch from the server thus overlaps with parsing the rows already received. Rows are delivered in
+ * ResultSet order, and reading ahead stops as soon as the window is full, so a slow consumer never causes more than
+ * the window of undecoded and decoded rows to be held in memory.
+ *
+ * The executor is owned by the caller: a fixed platform thread pool or, on Java 21 and newer, a virtual thread per
+ * task executor both work. Neither the executor nor the ResultSet are closed by this reader.
+ *
+ * <code>
+ * try (PipelinedGeometryReader&lt;Geometry&gt; reader =
+ *         new PipelinedGeometryReader&lt;&gt;(rs, 2, GeometryDecoder.GEOMETRY, pool, 256)) {
+ *     while (reader.next()) {
+ *         Geometry geom = reader.getGeometry();
+ *     }
+ * }
+ * </code>
+ *
+ * @param <T> the geometry model produced by the decoder
+ */
+public class PipelinedGeometryReader<T> implements AutoCloseable {
+
+    /** How the raw column value is fetched from the ResultSet. */
+    public enum Format {
+        /** Fetch with {@link ResultSet#getString(int)}, the default for the text protocol. */
+        TEXT,
+        /** Fetch with {@link ResultSet#getBytes(int)}, for binary transfer of EWKB. */
+        BINARY
+    }
+
+    private static final Object[] NO_CARRIED = new Object[0];
+
+    private final ResultSet resultSet;
+
+    private final int column;
+
+    private final int[] carriedColumns;
+
+    private final GeometryDecoder<T> decoder;
+
+    private final ExecutorService executor;
+
+    private final int window;
+
+    private final Format format;
+
+    private final ArrayDeque<Row<T>> inFlight;
+
+    private Row<T> current;
+
+    private boolean exhausted;
+
+
+    /**
+     * Instantiate a reader fetching the column as text.
+     *
+     * @param resultSet the ResultSet to read from
+     * @param column the index of the geometry column
+     * @param decoder the decoder to run on the executor
+     * @param executor the executor to decode on
+     * @param window the maximum number of rows read ahead of the consumer
+     */
+    public PipelinedGeometryReader(final ResultSet resultSet, final int column, final GeometryDecoder<T> decoder,
+                                   final ExecutorService executor, final int window) {
+        this(resultSet, column, decoder, executor, window, Format.TEXT, null);
+    }
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param resultSet the ResultSet to read from
+     * @param column the index of the geometry column
+     * @param decoder the decoder to run on the executor
+     * @param executor the executor to decode on
+     * @param window the maximum number of rows read ahead of the consumer
+     * @param format how the raw column value is fetched
+     * @param carriedColumns indexes of further columns read along with each row, may be null
+     */
+    public PipelinedGeometryReader(final ResultSet resultSet, final int column, final GeometryDecoder<T> decoder,
+                                   final ExecutorService executor, final int window, final Format format,
+                                   final int[] carriedColumns) {
+        this.resultSet = Objects.requireNonNull(resultSet, "resultSet must not be null");
+        this.decoder = Objects.requireNonNull(decoder, "decoder must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.format = Objects.requireNonNull(format, "format must not be null");
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1: " + window);
+        }
+        this.column = column;
+        this.window = window;
+        this.carriedColumns = carriedColumns == null ? new int[0] : carriedColumns.clone();
+        this.inFlight = new ArrayDeque<Row<T>>(window);
+    }
+
+
+    /**
+     * Advance to the next row, reading further rows ahead as the window allows.
+     *
+     * @return true if there is a current row, false if the ResultSet is exhausted
+     * @throws SQLException when reading from the ResultSet fails
+     */
+    public boolean next() throws SQLException {
+        fill();
+        current = inFlight.poll();
+        if (current == null) {
+            return false;
+        }
+        // top up the window so the fetch of the following rows overlaps with decoding the current one
+        fill();
+        return true;
+    }
+
+
+    /**
+     * Get the decoded geometry of the current row, waiting for the decoder if necessary.
+     *
+     * @return the decoded geometry, or null for an SQL NULL value
+     * @throws SQLException when there is no current row or decoding failed
+     */
+    public T getGeometry() throws SQLException {
+        if (current == null) {
+            throw new SQLException("No current row, call next() first");
+        }
+        try {
+            return current.geometry.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for geometry decoding", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("Error decoding geometry: " + cause, cause);
+        }
+    }
+
+
+    /**
+     * Get a carried column value of the current row.
+     *
+     * @param index the index into the carried columns given at construction, starting at 0
+     * @return the value as returned by {@link ResultSet#getObject(int)}
+     * @throws SQLException when there is no current row
+     */
+    public Object getCarried(final int index) throws SQLException {
+        if (current == null) {
+            throw new SQLException("No current row, call next() first");
+        }
+        return current.carried[index];
+    }
+
+
+    /**
+     * Cancel all decoding that has not been consumed yet. The ResultSet and the executor are left open.
+     */
+    @Override
+    public void close() {
+        Row<T> row;
+        while ((row = inFlight.poll()) != null) {
+            row.geometry.cancel(true);
+        }
+        current = null;
+        exhausted = true;
+    }
+
+
+    private void fill() throws SQLException {
+        while (!exhausted && inFlight.size() < window) {
+            if (!resultSet.next()) {
+                exhausted = true;
+                return;
+            }
+            inFlight.add(readRow());
+        }
+    }
+
+
+    private Row<T> readRow() throws SQLException {
+        Object[] carried = NO_CARRIED;
+        if (carriedColumns.length > 0) {
+            carried = new Object[carriedColumns.length];
+            for (int i = 0; i < carriedColumns.length; i++) {
+                carried[i] = resultSet.getObject(carriedColumns[i]);
+            }
+        }
+        final Future<T> geometry;
+        if (format == Format.BINARY) {
+            final byte[] raw = resultSet.getBytes(column);
+            geometry = raw == null ? CompletableFuture.<T>completedFuture(null) : executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws SQLException {
+                    return decoder.decode(raw);
+                }
+            });
+        } else {
+            final String raw = resultSet.getString(column);
+            geometry = raw == null ? CompletableFuture.<T>completedFuture(null) : executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws SQLException {
+                    return decoder.decode(raw);
+                }
+            });
+        }
+        return new Row<T>(geometry, carried);
+    }
+
+
+    /** A row read ahead of the consumer. */
+    private static final class Row<T> {
+
+        final Future<T> geometry;
+
+        final Object[] carried;
+
+        Row(final Future<T> geometry, final Object[] carried) {
+            this.geometry = geometry;
+            this.carried = carried;
+        }
+    }
+
+
+}
@@ -0,0 +1,202 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.jdbc.geometry.binary.SerializedEwkb;
+import org.postgresql.util.PGobject;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+
+/**
+ * The serialized form of the PostGIS data types: the type name and the EWKB of the geometry or of the box corners.
+ *
+ * Only the classes of this package are replaced, subclasses keep their default form as their state is unknown here.
+ * The same holds for the geometries held, see {@link Geometry#isSerializedCompact()}.
+ *
+ * @see PGgeo#writeReplace()
+ * @see PGboxbase#writeReplace()
+ */
+final class SerializedValue implements Externalizable {
+
+    private static final long serialVersionUID = 377384384810375999L;
+
+    private static final byte GEO = 0;
+
+    private static final byte GEOMETRY = 1;
+
+    private static final byte GEOMETRY_LW = 2;
+
+    private static final byte GEOGRAPHY = 3;
+
+    private static final byte GEOGRAPHY_LW = 4;
+
+    private static final byte BOX2D = 5;
+
+    private static final byte BOX3D = 6;
+
+    private PGobject value;
+
+
+    /** Instantiate with default state, used by deserialization. */
+    public SerializedValue() {
+    }
+
+
+    private SerializedValue(final PGobject value) {
+        this.value = value;
+    }
+
+
+    /**
+     * Get the object to serialize in place of a value.
+     *
+     * @param value the value being serialized
+     * @return the serialized form, or the value itself if it is of an unknown subclass or holds a geometry without a
+     *         compact form
+     */
+    static Object replace(final PGobject value) {
+        if (kind(value.getClass()) < 0) {
+            return value;
+        } else if (value instanceof PGboxbase) {
+            PGboxbase box = (PGboxbase) value;
+            if (!isCompact(box.llb) || !isCompact(box.urt)) {
+                return value;
+            }
+        } else if (!isCompact(((PGgeo) value).geometry)) {
+            return value;
+        }
+        return new SerializedValue(value);
+    }
+
+
+    private static boolean isCompact(final Geometry geometry) {
+        return geometry == null || geometry.isSerializedCompact();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeExternal(final ObjectOutput out) throws IOException {
+        byte kind = kind(value.getClass());
+        out.writeByte(kind);
+        out.writeUTF(value.getType());
+        if (kind >= BOX2D) {
+            PGboxbase box = (PGboxbase) value;
+            writeGeometry(out, box.llb);
+            writeGeometry(out, box.urt);
+        } else {
+            writeGeometry(out, ((PGgeo) value).geometry);
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException {
+        byte kind = in.readByte();
+        String type = in.readUTF();
+        try {
+            switch (kind) {
+                case GEO:
+                    value = new PGgeo(readGeometry(in));
+                    break;
+                case GEOMETRY:
+                    value = new PGgeometry(readGeometry(in));
+                    break;
+                case GEOMETRY_LW:
+                    value = new PGgeometryLW(readGeometry(in));
+                    break;
+                case GEOGRAPHY:
+                    value = new PGgeography(readGeometry(in));
+                    break;
+                case GEOGRAPHY_LW:
+                    value = new PGgeographyLW(readGeometry(in));
+                    break;
+                case BOX2D:
+                    value = new PGbox2d((Point) readGeometry(in), (Point) readGeometry(in));
+                    break;
+                case BOX3D:
+                    value = new PGbox3d((Point) readGeometry(in), (Point) readGeometry(in));
+                    break;
+                default:
+                    throw new InvalidObjectException("Unknown serialized PostGIS type " + kind);
+            }
+        } catch (ClassCastException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            InvalidObjectException exception = new InvalidObjectException("Invalid serialized PostGIS value: " + e);
+            exception.initCause(e);
+            throw exception;
+        }
+        value.setType(type);
+    }
+
+
+    private Object readResolve() throws ObjectStreamException {
+        return value;
+    }
+
+
+    private static byte kind(final Class<?> type) {
+        if (type == PGgeometry.class) {
+            return GEOMETRY;
+        } else if (type == PGgeometryLW.class) {
+            return GEOMETRY_LW;
+        } else if (type == PGgeography.class) {
+            return GEOGRAPHY;
+        } else if (type == PGgeographyLW.class) {
+            return GEOGRAPHY_LW;
+        } else if (type == PGbox2d.class) {
+            return BOX2D;
+        } else if (type == PGbox3d.class) {
+            return BOX3D;
+        } else if (type == PGgeo.class) {
+            return GEO;
+        }
+        return -1;
+    }
+
+
+    private static void writeGeometry(final ObjectOutput out, final Geometry geometry) throws IOException {
+        if (geometry == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = new BinaryWriter().writeBinary(geometry);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+
+    private static Geometry readGeometry(final ObjectInput in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        return new BinaryParser().parse(SerializedEwkb.read(in, length));
+    }
+
+
+}
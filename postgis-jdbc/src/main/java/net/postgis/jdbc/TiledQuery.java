@@ -0,0 +1,358 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Point;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Runs a spatial query over a large extent as many per-tile queries in parallel, merging the rows into one stream.
+ *
+ * The extent is split into a grid of tiles. A fixed number of workers, each holding one connection from the
+ * DataSource for its whole lifetime, take tiles off a shared queue and run the query for them. The tile envelope is
+ * bound as the first statement parameter (a {@link PGbox2d}), further parameters follow, for example:
+ *
+ * <code>
+ * SELECT id, geom FROM parcels WHERE geom &amp;&amp; ST_SetSRID(?::box2d, 4326) AND landuse = ?
+ * </code>
+ *
+ * A feature straddling tile edges is returned by several tile queries; only the first row seen for each key is
+ * passed on. Rows are handed over through a bounded queue, so workers wait when the consumer falls behind. The
+ * order of the merged rows is unspecified.
+ *
+ * Deduplication keeps the key of every row passed on until the last tile query is done, as any tile still to come
+ * may return the same feature again. The set thus grows with the distinct features of the whole extent, not of one
+ * tile: a set entry costs about 50 bytes plus the key object itself. For results of millions of rows, turn it off
+ * with {@link #setDeduplicate(boolean)} and either accept duplicates or write the query so that every feature is
+ * returned for one tile only, for example the tile holding the lower left corner of its bounding box.
+ *
+ * The executor is owned by the caller; on Java 21 and newer a virtual thread per task executor may be used. Close
+ * the returned stream to stop outstanding work early.
+ *
+ * @param <R> the row type produced by the mapper
+ */
+public class TiledQuery<R> {
+
+    /** Maps the current row of a tile query. */
+    public interface RowMapper<R> {
+        R map(ResultSet resultSet) throws SQLException;
+    }
+
+
+    /** Extracts the deduplication key of a mapped row. */
+    public interface KeyExtractor<R> {
+        Object key(R row);
+    }
+
+
+    private static final Object END = new Object();
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final DataSource dataSource;
+
+    private final ExecutorService executor;
+
+    private final int connections;
+
+    private final String sql;
+
+    private final RowMapper<R> mapper;
+
+    private final KeyExtractor<R> keyExtractor;
+
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private boolean deduplicate = true;
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param dataSource the (pooled) DataSource to take connections from
+     * @param executor the executor running the workers
+     * @param connections the number of workers, and thus of concurrently used connections
+     * @param sql the query, with the tile envelope as first parameter
+     * @param mapper maps each row of a tile query
+     * @param keyExtractor extracts the deduplication key of a row, null to disable deduplication; see the class
+     *        comment for the memory kept for the keys
+     */
+    public TiledQuery(final DataSource dataSource, final ExecutorService executor, final int connections,
+                      final String sql, final RowMapper<R> mapper, final KeyExtractor<R> keyExtractor) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.sql = Objects.requireNonNull(sql, "sql must not be null");
+        this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be at least 1: " + connections);
+        }
+        this.connections = connections;
+        this.keyExtractor = keyExtractor;
+    }
+
+
+    /**
+     * Set the number of rows which may be buffered between the workers and the consumer.
+     *
+     * @param queueCapacity the buffer size
+     */
+    public void setQueueCapacity(final int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+
+    /**
+     * Set whether rows with the key of a row passed on before are dropped. This is the default when a key extractor
+     * is given; the keys of all rows passed on are kept until the last tile query is done.
+     *
+     * @param deduplicate false to pass on every row of every tile query
+     */
+    public void setDeduplicate(final boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+
+    /**
+     * Split a box into a grid of equally sized tiles, row by row from the lower left corner.
+     *
+     * @param extent the box to split
+     * @param columns the number of tiles along x
+     * @param rows the number of tiles along y
+     * @return the tiles
+     */
+    public static List<PGbox2d> tiles(final PGbox2d extent, final int columns, final int rows) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("Tile grid must be at least 1x1: " + columns + "x" + rows);
+        }
+        Point llb = extent.getLLB();
+        Point urt = extent.getURT();
+        double width = (urt.x - llb.x) / columns;
+        double height = (urt.y - llb.y) / rows;
+        List<PGbox2d> tiles = new ArrayList<PGbox2d>(columns * rows);
+        for (int row = 0; row < rows; row++) {
+            // use the outer edges of the extent as is, to not lose features to rounding
+            double ymin = llb.y + row * height;
+            double ymax = row == rows - 1 ? urt.y : llb.y + (row + 1) * height;
+            for (int column = 0; column < columns; column++) {
+                double xmin = llb.x + column * width;
+                double xmax = column == columns - 1 ? urt.x : llb.x + (column + 1) * width;
+                tiles.add(new PGbox2d(new Point(xmin, ymin), new Point(xmax, ymax)));
+            }
+        }
+        return tiles;
+    }
+
+
+    /**
+     * Run the query for every tile of the extent.
+     *
+     * @param extent the extent to query
+     * @param columns the number of tiles along x
+     * @param rows the number of tiles along y
+     * @param parameters further statement parameters, bound after the tile envelope
+     * @return the merged rows, deduplicated unless turned off; failures of tile queries surface as IllegalStateException
+     */
+    public Stream<R> stream(final PGbox2d extent, final int columns, final int rows, final Object... parameters) {
+        final Run run = new Run(tiles(extent, columns, rows), parameters);
+        run.start();
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(run, Spliterator.NONNULL), false
+        ).onClose(new Runnable() {
+            @Override
+            public void run() {
+                run.cancel();
+            }
+        });
+    }
+
+
+    /** One execution of the tiled query, consumed as an iterator. */
+    private final class Run implements Iterator<R> {
+
+        private final ConcurrentLinkedQueue<PGbox2d> pending;
+
+        private final Object[] parameters;
+
+        private final BlockingQueue<Object> results = new ArrayBlockingQueue<Object>(queueCapacity);
+
+        private final Set<Object> seen = keyExtractor == null || !deduplicate ? null : ConcurrentHashMap.newKeySet();
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private final List<Future<?>> workers = new ArrayList<Future<?>>();
+
+        /** Set when the consumer closed the stream, nothing is handed over anymore. */
+        private volatile boolean cancelled;
+
+        /** Set when a tile query failed, the remaining tiles are skipped. */
+        private volatile boolean failed;
+
+        private Object next;
+
+
+        Run(final List<PGbox2d> tiles, final Object[] parameters) {
+            this.pending = new ConcurrentLinkedQueue<PGbox2d>(tiles);
+            this.parameters = parameters == null ? new Object[0] : parameters.clone();
+        }
+
+
+        void start() {
+            int count = Math.min(connections, pending.size());
+            running.set(count);
+            for (int i = 0; i < count; i++) {
+                workers.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        work();
+                    }
+                }));
+            }
+        }
+
+
+        void cancel() {
+            cancelled = true;
+            for (Future<?> worker : workers) {
+                worker.cancel(true);
+            }
+            results.clear();
+        }
+
+
+        private void work() {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 2, parameters[i]);
+                }
+                PGbox2d tile;
+                while (!cancelled && !failed && (tile = pending.poll()) != null) {
+                    statement.setObject(1, tile);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (!cancelled && !failed && resultSet.next()) {
+                            R row = mapper.map(resultSet);
+                            if (seen == null || seen.add(keyExtractor.key(row))) {
+                                put(row);
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                failed = true;
+                put(new Failure(new IllegalStateException("Tiled query failed: " + e.getMessage(), e)));
+            } finally {
+                if (running.decrementAndGet() == 0) {
+                    // no row is compared anymore, release the keys while the consumer drains the queue
+                    if (seen != null) {
+                        seen.clear();
+                    }
+                    put(END);
+                }
+            }
+        }
+
+
+        /** Hand over to the consumer, waiting while the queue is full unless the stream got closed. */
+        private void put(final Object item) {
+            try {
+                while (!results.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = results.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    throw new IllegalStateException("Interrupted while waiting for tile results", e);
+                }
+            }
+            if (next instanceof Failure) {
+                IllegalStateException failure = ((Failure) next).exception;
+                cancel();
+                next = END;
+                throw failure;
+            }
+            return next != END;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override
+        @SuppressWarnings("unchecked")
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            R row = (R) next;
+            next = null;
+            return row;
+        }
+    }
+
+
+    /** Marks a failed tile query in the result queue. */
+    private static final class Failure {
+
+        final IllegalStateException exception;
+
+        Failure(final IllegalStateException exception) {
+            this.exception = exception;
+        }
+    }
+
+
+}
@@ -28,8 +28,12 @@
 package net.postgis.jdbc;
 
 
+import net.postgis.jdbc.geometry.Envelope;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.sql.SQLException;
@@ -60,4 +64,19 @@ public class DatatypesTest {
     }
 
 
-}
\ No newline at end of file
+    @Test
+    public void testBoxesFromEnvelope() throws SQLException {
+        Geometry line = GeometryBuilder.geomFromString("LINESTRING(1 2 3,4 5 6)");
+        Assert.assertEquals(new PGbox3d(line.getEnvelope()), new PGbox3d("BOX3D(1 2 3,4 5 6)"));
+        Assert.assertEquals(new PGbox2d(line.getEnvelope()), new PGbox2d("BOX(1 2,4 5)"));
+        Assert.assertEquals(new PGbox3d(new Envelope(1, 2, 4, 5)).toString(), "BOX3D(1 2,4 5)");
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBoxFromEmptyEnvelope() {
+        new PGbox2d(Envelope.EMPTY);
+    }
+
+
+}
@@ -0,0 +1,133 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.jdbc.geometry.metrics.GeometryStatistics;
+import net.postgis.tools.testutils.FakePgServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+
+/** Decodes geometry rows end to end through the driver, served by the in-process fake server. */
+public class FakeServerDecodeTest {
+
+    private static final int ROWS = 25;
+
+    private Geometry geometry;
+
+    private FakePgServer server;
+
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        Class.forName("net.postgis.jdbc.DriverWrapper");
+        geometry = GeometryBuilder.geomFromString("SRID=4326;POLYGON((0 0 1,0 10 1,10 10 1,10 0 1,0 0 1))");
+        server = new FakePgServer(FakePgServer.repeating(
+                new FakePgServer.Column[]{
+                        new FakePgServer.Column("id", FakePgServer.INT4_OID),
+                        new FakePgServer.Column("geom", FakePgServer.GEOMETRY_OID)
+                },
+                new Object[]{42, new BinaryWriter().writeBinary(geometry)},
+                ROWS));
+    }
+
+
+    @AfterClass
+    public void stopServer() throws Exception {
+        server.close();
+    }
+
+
+    @Test
+    public void testTextRowsDecodeThroughDriverWrapper() throws SQLException {
+        try (Connection connection = connect(new Properties());
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, geom FROM parcels")) {
+            int rows = 0;
+            while (resultSet.next()) {
+                Assert.assertEquals(resultSet.getInt(1), 42);
+                Object value = resultSet.getObject(2);
+                Assert.assertTrue(value instanceof PGgeometry, String.valueOf(value));
+                Assert.assertEquals(((PGgeometry) value).getGeometry(), geometry);
+                rows++;
+            }
+            Assert.assertEquals(rows, ROWS);
+        }
+    }
+
+
+    @Test
+    public void testBinaryRowsAndCursorFetch() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("binaryTransferEnable", String.valueOf(FakePgServer.GEOMETRY_OID));
+        properties.setProperty("prepareThreshold", "-1");
+        try (Connection connection = connect(properties)) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT id, geom FROM parcels WHERE id > ?")) {
+                statement.setInt(1, 0);
+                statement.setFetchSize(10);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    int rows = 0;
+                    while (resultSet.next()) {
+                        Assert.assertEquals(GeometryDecoder.GEOMETRY.decode(resultSet.getBytes(2)), geometry);
+                        rows++;
+                    }
+                    Assert.assertEquals(rows, ROWS);
+                }
+            }
+            connection.commit();
+        }
+    }
+
+
+    @Test
+    public void testStatisticsMBeanCountsDecodedRows() throws Exception {
+        GeometryStatistics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(GeometryStatistics.OBJECT_NAME);
+        long decoded = (Long) server.getAttribute(name, "DecodedCount");
+        long registrations = (Long) server.getAttribute(name, "TypeRegistrations");
+        testTextRowsDecodeThroughDriverWrapper();
+        Assert.assertEquals((long) (Long) server.getAttribute(name, "DecodedCount"), decoded + ROWS);
+        Assert.assertEquals((long) (Long) server.getAttribute(name, "TypeRegistrations"), registrations + 1);
+    }
+
+
+    private Connection connect(final Properties properties) throws SQLException {
+        properties.setProperty("user", "postgis");
+        return DriverManager.getConnection(DriverWrapper.POSTGIS_PROTOCOL + server.getUrlSuffix("postgis"), properties);
+    }
+
+
+}
@@ -0,0 +1,116 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.tools.testutils.TestContainerController;
+import org.testng.Assert;
+import org.testng.ITestContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/** Sends geometry arrays through a real server, in the default text format. */
+public class GeometryArraysServerTest {
+
+    private Connection connection = null;
+
+
+    private static Geometry[] geometries() throws SQLException {
+        return new Geometry[]{
+                GeometryBuilder.geomFromString("SRID=4326;POINT(1 2)"),
+                null,
+                GeometryBuilder.geomFromString("SRID=4326;POLYGON((0 0,0 10,10 10,10 0,0 0))")
+        };
+    }
+
+
+    @Test
+    public void testInsertAndUnnest() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE array_insert (id serial PRIMARY KEY, geom geometry)");
+        }
+        Assert.assertEquals(GeometryArrays.insert(connection, "array_insert", "geom", geometries()), 3);
+        List<Geometry> read = new ArrayList<Geometry>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT geom FROM array_insert ORDER BY id")) {
+            while (rs.next()) {
+                read.add(GeometryColumns.read(rs, 1));
+            }
+        }
+        Assert.assertEquals(read.toArray(new Geometry[0]), geometries());
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT count(*) FROM array_insert WHERE " + GeometryArrays.intersectsAnySql("geom"))) {
+            GeometryArrays.setGeometries(statement, 1,
+                    GeometryBuilder.geomFromString("SRID=4326;POINT(5 5)"),
+                    GeometryBuilder.geomFromString("SRID=4326;POINT(50 50)"));
+            try (ResultSet rs = statement.executeQuery()) {
+                Assert.assertTrue(rs.next());
+                Assert.assertEquals(rs.getInt(1), 1);
+            }
+        }
+    }
+
+
+    @Test
+    public void testReadServerArray() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT ?::geometry[]")) {
+            GeometryArrays.setGeometries(statement, 1, geometries());
+            try (ResultSet rs = statement.executeQuery()) {
+                Assert.assertTrue(rs.next());
+                Assert.assertTrue(rs.getString(1).contains(":NULL:"), rs.getString(1));
+                Assert.assertEquals(new PGgeometryArray(rs.getString(1)).getGeometries(), geometries());
+            }
+        }
+    }
+
+
+    @BeforeClass
+    public void initJdbcConnection(ITestContext ctx) throws Exception {
+        final String jdbcUrlSuffix = (String)ctx.getAttribute(TestContainerController.TEST_CONTAINER_JDBC_URL_SUFFIX);
+        Assert.assertNotNull(jdbcUrlSuffix);
+        final String jdbcUrl = "jdbc:postgresql" + jdbcUrlSuffix;
+        final String jdbcUsername = (String)ctx.getAttribute(TestContainerController.TEST_CONTAINER_ENV_USER_PARAM_NAME);
+        Assert.assertNotNull(jdbcUsername);
+        final String jdbcPassword = (String)ctx.getAttribute(TestContainerController.TEST_CONTAINER_ENV_PW_PARAM_NAME);
+        Assert.assertNotNull(jdbcPassword);
+        Class.forName("net.postgis.jdbc.DriverWrapper");
+        connection = DriverManager.getConnection(jdbcUrl, jdbcUsername, jdbcPassword);
+    }
+
+
+    @AfterClass
+    public void shutdown() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+
+}
@@ -0,0 +1,92 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+
+
+public class GeometryArraysTest {
+
+    private static Geometry[] geometries() throws SQLException {
+        return new Geometry[]{
+                GeometryBuilder.geomFromString("SRID=4326;POINT(1 2)"),
+                null,
+                GeometryBuilder.geomFromString("POLYGON((0 0 1,0 10 1,10 10 1,10 0 1,0 0 1))")
+        };
+    }
+
+
+    @Test
+    public void testBinaryRoundTrip() throws SQLException {
+        PGgeometryArray array = new PGgeometryArray(geometries(), 12345);
+        byte[] bytes = new byte[array.lengthInBytes() + 3];
+        array.toBytes(bytes, 3);
+        // header: one dimension, has nulls, element oid, three elements, lower bound 1
+        Assert.assertEquals(bytes[3 + 3], 1);
+        Assert.assertEquals(bytes[3 + 7], 1);
+        Assert.assertEquals(bytes[3 + 15], 3);
+        Assert.assertEquals(bytes[3 + 19], 1);
+
+        PGgeometryArray read = new PGgeometryArray();
+        read.setByteValue(bytes, 3);
+        Assert.assertEquals(read.getElementOid(), 12345);
+        Assert.assertEquals(read.getGeometries(), geometries());
+    }
+
+
+    @Test
+    public void testEmptyArrayIsNotSentAsNull() throws SQLException {
+        PGgeometryArray array = new PGgeometryArray(new Geometry[0], 7);
+        Assert.assertEquals(array.lengthInBytes(), 12);
+        byte[] bytes = new byte[12];
+        array.toBytes(bytes, 0);
+        PGgeometryArray read = new PGgeometryArray(geometries(), 0);
+        read.setByteValue(bytes, 0);
+        Assert.assertEquals(read.getGeometries().length, 0);
+        Assert.assertEquals(read.getElementOid(), 7);
+        Assert.assertEquals(array.getValue(), "{}");
+    }
+
+
+    @Test
+    public void testTextRoundTrip() throws SQLException {
+        PGgeometryArray array = new PGgeometryArray(geometries(), 0);
+        String value = array.getValue();
+        Assert.assertTrue(value.startsWith("{0101000020E6100000"), value);
+        Assert.assertTrue(value.contains(":NULL:"), value);
+        Assert.assertEquals(new PGgeometryArray(value).getGeometries(), geometries());
+        Assert.assertEquals(new PGgeometryArray("{\"POINT(1 2)\": NULL}").getGeometries(),
+                new Geometry[]{GeometryBuilder.geomFromString("POINT(1 2)"), null});
+    }
+
+
+    @Test
+    public void testSqlBuilders() {
+        Assert.assertEquals(GeometryArrays.insertSql("parcels", "geom"),
+                "INSERT INTO parcels (geom) SELECT unnest(?::geometry[])");
+        Assert.assertEquals(GeometryArrays.intersectsAnySql("p.geom"),
+                "EXISTS (SELECT 1 FROM unnest(?::geometry[]) AS q(g) WHERE ST_Intersects(p.geom, q.g))");
+    }
+
+
+}
@@ -0,0 +1,113 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Envelope;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.jdbc.geometry.binary.ValueSetter;
+import net.postgis.jdbc.geometry.index.StrTree;
+import net.postgis.tools.testutils.StubResultSet;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+
+public class GeometryColumnsTest {
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+
+    @Test
+    public void testReadMatchesGetObjectParsing() throws SQLException {
+        String[] values = new String[]{
+                "SRID=4326;MULTIPOLYGON(((10 10,20 10,20 20,10 10)),((5 5,5 6,6 6,5 5)))",
+                "POINT(1 2 3)",
+                "LINESTRING(0 0,1 1,2 2,3 3,4 4,5 5,6 6,7 7,8 8,9 9,10 10,11 11,12 12,13 13,14 14,15 15)"
+        };
+        Object[][] rows = new Object[values.length + 1][];
+        for (int i = 0; i < values.length; i++) {
+            rows[i] = new Object[]{writer.writeHexed(GeometryBuilder.geomFromString(values[i]))};
+        }
+        rows[values.length] = new Object[]{values[0]}; // EWKT as sent by old servers
+        ResultSet rs = StubResultSet.of(rows);
+        PGgeometry holder = new PGgeometry();
+        for (int i = 0; i < rows.length; i++) {
+            Assert.assertTrue(rs.next());
+            Geometry expected = new PGgeometry((String) rows[i][0]).getGeometry();
+            Assert.assertEquals(GeometryColumns.read(rs, 1), expected);
+            Assert.assertSame(GeometryColumns.read(rs, 1, holder), holder);
+            Assert.assertEquals(holder.getGeometry(), expected);
+        }
+    }
+
+
+    @Test
+    public void testReadPointReusesTarget() throws SQLException {
+        Point xdr = (Point) GeometryBuilder.geomFromString("SRID=3857;POINT(10 20 30 40)");
+        ResultSet rs = StubResultSet.of(new Object[][]{
+                {writer.writeHexed(xdr, ValueSetter.XDR.NUMBER)},
+                {writer.writeHexed(GeometryBuilder.geomFromString("POINT(1 2)"))},
+                {null}
+        });
+        Point target = new Point();
+        Assert.assertTrue(rs.next());
+        Assert.assertTrue(GeometryColumns.readPoint(rs, 1, target));
+        Assert.assertEquals(target, xdr);
+        Assert.assertTrue(rs.next());
+        Assert.assertTrue(GeometryColumns.readPoint(rs, 1, target));
+        Assert.assertEquals(target, new Point(1, 2));
+        Assert.assertTrue(rs.next());
+        Assert.assertFalse(GeometryColumns.readPoint(rs, 1, target));
+        Assert.assertNull(GeometryColumns.read(rs, 1));
+    }
+
+
+    @Test
+    public void testIndexRows() throws SQLException {
+        ResultSet rs = StubResultSet.of(new Object[][]{
+                {writer.writeHexed(GeometryBuilder.geomFromString("LINESTRING(0 0,10 10)"))},
+                {null},
+                {writer.writeHexed(GeometryBuilder.geomFromString("POINT(20 20)"))},
+                {writer.writeHexed(GeometryBuilder.geomFromString("POLYGON((30 0,40 0,40 5,30 0))"))}
+        });
+        StrTree<Geometry> index = GeometryColumns.index(rs, 1);
+        Assert.assertEquals(index.size(), 3);
+        Assert.assertEquals(index.query(new Envelope(5, 5, 25, 25)), Arrays.asList(
+                GeometryBuilder.geomFromString("LINESTRING(0 0,10 10)"),
+                GeometryBuilder.geomFromString("POINT(20 20)")));
+        Assert.assertEquals(index.nearest(35, 10, 1).get(0).getType(), Geometry.POLYGON);
+    }
+
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testReadPointRejectsOtherTypes() throws SQLException {
+        ResultSet rs = StubResultSet.of(new Object[][]{
+                {writer.writeHexed(GeometryBuilder.geomFromString("LINESTRING(0 0,1 1)"))}
+        });
+        Assert.assertTrue(rs.next());
+        GeometryColumns.readPoint(rs, 1, new Point());
+    }
+
+
+}
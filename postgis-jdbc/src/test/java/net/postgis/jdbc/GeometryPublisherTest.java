@@ -0,0 +1,124 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.tools.testutils.StubResultSet;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+
+public class GeometryPublisherTest {
+
+    /** Runs every task on the calling thread. */
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+
+    @Test
+    public void testEmitsOnlyRequestedItems() {
+        GeometryPublisher<Geometry> publisher = new GeometryPublisher<Geometry>(
+                StubResultSet.connection(new Object[][]{{"POINT(1 1)"}, {null}, {"POINT(2 2)"}, {"POINT(3 3)"}}),
+                "SELECT geom FROM t", null, 1, GeometryDecoder.GEOMETRY, DIRECT, 2
+        );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        Assert.assertTrue(subscriber.items.isEmpty());
+
+        subscriber.subscription.request(2);
+        Assert.assertEquals(subscriber.items.size(), 2);
+        Assert.assertEquals(subscriber.items.get(1).getFirstPoint().x, 2.0);
+        Assert.assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(5);
+        Assert.assertEquals(subscriber.items.size(), 3);
+        Assert.assertTrue(subscriber.completed);
+        Assert.assertNull(subscriber.error);
+    }
+
+
+    @Test
+    public void testCancelStopsEmission() {
+        GeometryPublisher<Geometry> publisher = new GeometryPublisher<Geometry>(
+                StubResultSet.connection(new Object[][]{{"POINT(1 1)"}, {"POINT(2 2)"}}),
+                "SELECT geom FROM t", null, 1, GeometryDecoder.GEOMETRY, DIRECT, 10
+        );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+        Assert.assertEquals(subscriber.items.size(), 1);
+        Assert.assertFalse(subscriber.completed);
+    }
+
+
+    @Test
+    public void testNonPositiveRequestSignalsError() {
+        GeometryPublisher<Geometry> publisher = new GeometryPublisher<Geometry>(
+                StubResultSet.connection(new Object[][]{{"POINT(1 1)"}}),
+                "SELECT geom FROM t", null, 1, GeometryDecoder.GEOMETRY, DIRECT, 10
+        );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+
+    private static class RecordingSubscriber implements GeometryPublisher.Subscriber<Geometry> {
+
+        final List<Geometry> items = new ArrayList<Geometry>();
+
+        GeometryPublisher.Subscription subscription;
+
+        boolean completed;
+
+        Throwable error;
+
+        @Override
+        public void onSubscribe(final GeometryPublisher.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final Geometry item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+
+}
@@ -0,0 +1,121 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.tools.testutils.StubResultSet;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+public class PipelinedGeometryReaderTest {
+
+    private static final int ROWS = 100;
+
+    private final BinaryWriter writer = new BinaryWriter();
+
+    private ExecutorService pool;
+
+
+    @BeforeClass
+    public void startPool() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+
+    @AfterClass
+    public void stopPool() {
+        pool.shutdownNow();
+    }
+
+
+    @Test
+    public void testRowsDeliveredInOrder() throws SQLException {
+        Object[][] rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            Geometry geom = GeometryBuilder.geomFromString("SRID=4326;LINESTRING(" + i + " 0," + i + " 1)");
+            rows[i] = new Object[]{i, writer.writeHexed(geom)};
+        }
+        ResultSet rs = StubResultSet.of(rows);
+        try (PipelinedGeometryReader<Geometry> reader = new PipelinedGeometryReader<Geometry>(
+                rs, 2, GeometryDecoder.GEOMETRY, pool, 8, PipelinedGeometryReader.Format.TEXT, new int[]{1})) {
+            int count = 0;
+            while (reader.next()) {
+                Assert.assertEquals(reader.getCarried(0), count);
+                Geometry geom = reader.getGeometry();
+                Assert.assertEquals(geom.getSrid(), 4326);
+                Assert.assertEquals(geom.getFirstPoint().x, (double) count);
+                count++;
+            }
+            Assert.assertEquals(count, ROWS);
+        }
+    }
+
+
+    @Test
+    public void testBinaryAndNullValues() throws SQLException {
+        Geometry point = GeometryBuilder.geomFromString("POINT(1 2)");
+        ResultSet rs = StubResultSet.of(new Object[][]{{writer.writeBinary(point)}, {null}});
+        try (PipelinedGeometryReader<Geometry> reader = new PipelinedGeometryReader<Geometry>(
+                rs, 1, GeometryDecoder.GEOMETRY, pool, 4, PipelinedGeometryReader.Format.BINARY, null)) {
+            Assert.assertTrue(reader.next());
+            Assert.assertEquals(reader.getGeometry(), point);
+            Assert.assertTrue(reader.next());
+            Assert.assertNull(reader.getGeometry());
+            Assert.assertFalse(reader.next());
+        }
+    }
+
+
+    @Test
+    public void testReadAheadIsBounded() throws SQLException {
+        Object[][] rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Object[]{"POINT(" + i + " 0)"};
+        }
+        ResultSet rs = StubResultSet.of(rows);
+        try (PipelinedGeometryReader<Geometry> reader =
+                     new PipelinedGeometryReader<Geometry>(rs, 1, GeometryDecoder.GEOMETRY, pool, 5)) {
+            Assert.assertTrue(reader.next());
+            // the current row plus a full window behind it
+            Assert.assertEquals(StubResultSet.nextCalls(rs), 6);
+        }
+    }
+
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testDecodeFailureSurfacesOnConsumer() throws SQLException {
+        ResultSet rs = StubResultSet.of(new Object[][]{{"01FFFF"}});
+        try (PipelinedGeometryReader<Geometry> reader =
+                     new PipelinedGeometryReader<Geometry>(rs, 1, GeometryDecoder.GEOMETRY, pool, 2)) {
+            Assert.assertTrue(reader.next());
+            reader.getGeometry();
+        }
+    }
+
+
+}
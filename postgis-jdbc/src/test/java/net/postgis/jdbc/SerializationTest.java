@@ -28,12 +28,24 @@
 package net.postgis.jdbc;
 
 
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.LineString;
+import net.postgis.jdbc.geometry.LinearRing;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.postgresql.util.PGobject;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
 import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 
 
 public class SerializationTest {
@@ -51,4 +63,154 @@ public class SerializationTest {
     }
 
 
+    @Test
+    public void testGeometriesRoundTrip() throws Exception {
+        String[] values = new String[]{
+                "SRID=4326;POINT(1 2)",
+                "POINT(1 2 3)",
+                "SRID=3857;POINTM(1 2 4)",
+                "LINESTRING(0 0,1 1,2 2)",
+                "SRID=4326;MULTIPOLYGON(((1 1,1 2,2 1,1 1)),((5 5,5 6,6 6,5 5),(5.2 5.2,5.2 5.5,5.5 5.5,5.2 5.2)))",
+                "GEOMETRYCOLLECTION(POINT(1 2),LINESTRING(0 0,1 1 ))",
+                "MULTIPOINT EMPTY"
+        };
+        for (String value : values) {
+            Geometry geometry = GeometryBuilder.geomFromString(value);
+            Assert.assertEquals(roundTrip(geometry), geometry, value);
+        }
+        LinearRing ring = new LinearRing(new Point[]{new Point(0, 0), new Point(1, 0), new Point(0, 1), new Point(0, 0)});
+        Assert.assertEquals(roundTrip(ring), ring);
+    }
+
+
+    @Test
+    public void testValuesRoundTrip() throws Exception {
+        String wkt = "SRID=4326;MULTIPOLYGON(((1 1,1 2,2 1,1 1)))";
+        PGobject[] values = new PGobject[]{
+                new PGgeometry(wkt),
+                new PGgeometryLW(wkt),
+                new PGgeography("SRID=4326;POINT(8.5 47.4)"),
+                new PGgeographyLW("SRID=4326;POINT(8.5 47.4)"),
+                new PGgeometry(),
+                new PGbox2d("BOX(1 2,3 4)"),
+                new PGbox3d("SRID=4326;BOX3D(1 2 3,4 5 6)")
+        };
+        values[1].setType("public.geometry");
+        for (PGobject value : values) {
+            PGobject copy = roundTrip(value);
+            Assert.assertEquals(copy.getClass(), value.getClass());
+            Assert.assertEquals(copy.getType(), value.getType());
+            if (value instanceof PGboxbase) {
+                Assert.assertEquals(copy, value);
+            } else {
+                Assert.assertEquals(((PGgeo) copy).getGeometry(), ((PGgeo) value).getGeometry());
+            }
+        }
+    }
+
+
+    @Test
+    public void testSerializedFormIsCompact() throws Exception {
+        StringBuilder wkt = new StringBuilder("SRID=4326;LINESTRING(");
+        for (int i = 0; i < 1000; i++) {
+            wkt.append(i == 0 ? "" : ",").append(i).append(' ').append(i * 0.5);
+        }
+        PGgeometry value = new PGgeometry(wkt.append(')').toString());
+        // 16 bytes per point, plus EWKB header and stream overhead
+        Assert.assertTrue(serialize(value).length < 16 * 1000 + 200, "serialized size " + serialize(value).length);
+        Assert.assertTrue(serialize(value.getGeometry()).length < 16 * 1000 + 200);
+    }
+
+
+    @Test
+    public void testSubclassesKeepDefaultForm() throws Exception {
+        TaggedPoint point = new TaggedPoint(1, 2, "a");
+        TaggedPoint copy = roundTrip(point);
+        Assert.assertEquals(copy.tag, "a");
+        Assert.assertEquals(copy, point);
+
+        LineString line = new LineString(new Point[]{new Point(0, 0), new TaggedPoint(1, 1, "b")});
+        Assert.assertFalse(line.isSerializedCompact());
+        LineString lineCopy = roundTrip(line);
+        Assert.assertEquals(lineCopy.getPoint(0).getClass(), Point.class);
+        Assert.assertEquals(((TaggedPoint) lineCopy.getPoint(1)).tag, "b");
+
+        PGgeometry value = roundTrip(new PGgeometry(new TaggedPoint(3, 4, "c")));
+        Assert.assertEquals(((TaggedPoint) value.getGeometry()).tag, "c");
+        PGbox2d box = roundTrip(new PGbox2d(new TaggedPoint(1, 2, "d"), new Point(3, 4)));
+        Assert.assertEquals(((TaggedPoint) box.getLLB()).tag, "d");
+    }
+
+
+    @Test
+    public void testInvalidLengthsAreRejected() throws Exception {
+        Geometry geometry = GeometryBuilder.geomFromString("SRID=4326;LINESTRING(0 0,1 1,2 2)");
+        byte[] ewkb = new BinaryWriter().writeBinary(geometry);
+        for (Object value : new Object[]{geometry, new PGgeometry(geometry)}) {
+            for (int length : new int[]{-2, Integer.MAX_VALUE}) {
+                try {
+                    deserialize(withLength(serialize(value), ewkb, length));
+                    Assert.fail("accepted length " + length + " for " + value.getClass());
+                } catch (InvalidObjectException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+
+    /** Replace the length written before the EWKB in a serialized stream. */
+    private static byte[] withLength(final byte[] stream, final byte[] ewkb, final int length) {
+        for (int i = 4; i + ewkb.length <= stream.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(stream, i, i + ewkb.length), ewkb)) {
+                byte[] copy = stream.clone();
+                copy[i - 4] = (byte) (length >>> 24);
+                copy[i - 3] = (byte) (length >>> 16);
+                copy[i - 2] = (byte) (length >>> 8);
+                copy[i - 1] = (byte) length;
+                return copy;
+            }
+        }
+        throw new AssertionError("EWKB not found in the stream");
+    }
+
+
+    private static byte[] serialize(final Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(final T object) throws IOException, ClassNotFoundException {
+        return (T) deserialize(serialize(object));
+    }
+
+
+    private static Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+
+    private static final class TaggedPoint extends Point {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String tag;
+
+
+        TaggedPoint(final double x, final double y, final String tag) {
+            super(x, y);
+            this.tag = tag;
+        }
+
+
+    }
+
+
 }
@@ -0,0 +1,129 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.jdbc;
+
+
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.tools.testutils.StubResultSet;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class TiledQueryTest {
+
+    private ExecutorService pool;
+
+
+    @BeforeClass
+    public void startPool() {
+        pool = Executors.newFixedThreadPool(3);
+    }
+
+
+    @AfterClass
+    public void stopPool() {
+        pool.shutdownNow();
+    }
+
+
+    @Test
+    public void testTilesCoverExtent() {
+        List<PGbox2d> tiles = TiledQuery.tiles(new PGbox2d(new Point(0, 0), new Point(10, 3)), 3, 2);
+        Assert.assertEquals(tiles.size(), 6);
+        Assert.assertEquals(tiles.get(0), new PGbox2d(new Point(0, 0), new Point(10.0 / 3, 1.5)));
+        Assert.assertEquals(tiles.get(5).getURT(), new Point(10, 3));
+        Assert.assertEquals(tiles.get(4).getLLB().y, 1.5);
+    }
+
+
+    @Test
+    public void testRowsFromAllTilesAreDeduplicated() {
+        // every tile query returns the same straddling features
+        final DataSource dataSource = dataSource(new Object[][]{{1, "a"}, {2, "b"}, {3, "c"}});
+        TiledQuery<Object[]> query = new TiledQuery<Object[]>(dataSource, pool, 3, "SELECT id, name FROM t",
+                new TiledQuery.RowMapper<Object[]>() {
+                    @Override
+                    public Object[] map(final ResultSet resultSet) throws SQLException {
+                        return new Object[]{resultSet.getObject(1), resultSet.getObject(2)};
+                    }
+                },
+                new TiledQuery.KeyExtractor<Object[]>() {
+                    @Override
+                    public Object key(final Object[] row) {
+                        return row[0];
+                    }
+                });
+        query.setQueueCapacity(2);
+        try (Stream<Object[]> rows = query.stream(new PGbox2d(new Point(0, 0), new Point(4, 4)), 4, 4)) {
+            List<Object> ids = rows.map(row -> row[0]).sorted().collect(Collectors.toList());
+            Assert.assertEquals(ids, java.util.Arrays.<Object>asList(1, 2, 3));
+        }
+    }
+
+
+    @Test
+    public void testDeduplicationCanBeTurnedOff() {
+        final DataSource dataSource = dataSource(new Object[][]{{1, "a"}, {2, "b"}, {3, "c"}});
+        TiledQuery<Object[]> query = new TiledQuery<Object[]>(dataSource, pool, 3, "SELECT id, name FROM t",
+                new TiledQuery.RowMapper<Object[]>() {
+                    @Override
+                    public Object[] map(final ResultSet resultSet) throws SQLException {
+                        return new Object[]{resultSet.getObject(1), resultSet.getObject(2)};
+                    }
+                },
+                new TiledQuery.KeyExtractor<Object[]>() {
+                    @Override
+                    public Object key(final Object[] row) {
+                        return row[0];
+                    }
+                });
+        query.setDeduplicate(false);
+        try (Stream<Object[]> rows = query.stream(new PGbox2d(new Point(0, 0), new Point(4, 4)), 4, 4)) {
+            Assert.assertEquals(rows.count(), 16 * 3);
+        }
+    }
+
+
+    private static DataSource dataSource(final Object[][] rows) {
+        return (DataSource) Proxy.newProxyInstance(TiledQueryTest.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        if (method.getName().equals("getConnection")) {
+                            return StubResultSet.connection(rows);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+
+}
@@ -0,0 +1,292 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.tools.corpus;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryCollection;
+import net.postgis.jdbc.geometry.LineString;
+import net.postgis.jdbc.geometry.LinearRing;
+import net.postgis.jdbc.geometry.MultiPolygon;
+import net.postgis.jdbc.geometry.Point;
+import net.postgis.jdbc.geometry.Polygon;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+
+/**
+ * Generates reproducible synthetic geometries.
+ *
+ * Every geometry is derived from the corpus seed and its own generation parameters only, so the same call returns
+ * the same geometry on every JVM and regardless of what else was generated before. Coordinates are lon/lat like
+ * (SRID 4326); Z values are heights, M values grow along each line.
+ *
+ * Besides the single generators, {@link #samples()} returns the standard corpus used by the benchmarks and
+ * round trip tests, and {@link #main(String[])} writes it to a directory as pre-encoded EWKB files.
+ */
+public final class GeometryCorpus {
+
+    /** The shapes generated by {@link #generate(Shape, int, boolean, boolean)}. */
+    public enum Shape {
+        POINT,
+        LINESTRING,
+        /** A polygon with holes. */
+        POLYGON,
+        MULTIPOLYGON,
+        /** Nested geometry collections. */
+        GEOMETRYCOLLECTION
+    }
+
+
+    /** The seed of the standard corpus. */
+    public static final long DEFAULT_SEED = 4326L;
+
+    /** The vertex counts of the standard corpus. */
+    public static final int[] SAMPLE_VERTICES = new int[]{16, 256, 4096};
+
+    /** The nesting depth of generated collections. */
+    public static final int COLLECTION_DEPTH = 4;
+
+    private static final int SRID = 4326;
+
+    private final long seed;
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param seed the seed all geometries are derived from
+     */
+    public GeometryCorpus(final long seed) {
+        this.seed = seed;
+    }
+
+
+    /** Instantiate with the seed of the standard corpus. */
+    public GeometryCorpus() {
+        this(DEFAULT_SEED);
+    }
+
+
+    public long getSeed() {
+        return seed;
+    }
+
+
+    /**
+     * Generate a geometry of the given shape.
+     *
+     * @param shape the shape
+     * @param vertices the total number of vertices, ignored for points
+     * @param haveZ whether the vertices have a Z ordinate
+     * @param haveM whether the vertices have a measure
+     * @return the geometry, with SRID 4326
+     */
+    public Geometry generate(final Shape shape, final int vertices, final boolean haveZ, final boolean haveM) {
+        Random random = random(shape + "/" + vertices + "/" + haveZ + "/" + haveM);
+        Geometry geometry;
+        switch (shape) {
+            case POINT:
+                geometry = point(random, 0, haveZ, haveM);
+                break;
+            case LINESTRING:
+                geometry = lineString(random, vertices, haveZ, haveM);
+                break;
+            case POLYGON:
+                geometry = polygon(random, vertices, holes(vertices), haveZ, haveM);
+                break;
+            case MULTIPOLYGON:
+                geometry = multiPolygon(random, vertices, haveZ, haveM);
+                break;
+            case GEOMETRYCOLLECTION:
+                geometry = collection(random, vertices, COLLECTION_DEPTH, haveZ, haveM);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported shape: " + shape);
+        }
+        geometry.setSrid(SRID);
+        return geometry;
+    }
+
+
+    /**
+     * Build the standard corpus: every shape with every vertex count of {@link #SAMPLE_VERTICES} and every
+     * combination of Z and M (points once per combination).
+     *
+     * @return the samples, in a fixed order
+     */
+    public List<Sample> samples() {
+        List<Sample> samples = new ArrayList<Sample>();
+        for (Shape shape : Shape.values()) {
+            int[] counts = shape == Shape.POINT ? new int[]{1} : SAMPLE_VERTICES;
+            for (int vertices : counts) {
+                for (int ordinates = 0; ordinates < 4; ordinates++) {
+                    boolean haveZ = (ordinates & 1) != 0;
+                    boolean haveM = (ordinates & 2) != 0;
+                    String name = shape.name().toLowerCase(Locale.ROOT) + "-" + vertices + "-xy"
+                            + (haveZ ? "z" : "") + (haveM ? "m" : "");
+                    samples.add(new Sample(name, generate(shape, vertices, haveZ, haveM)));
+                }
+            }
+        }
+        return samples;
+    }
+
+
+    /**
+     * Write the standard corpus of a seed to a directory, see {@link Sample#write(Path)}.
+     *
+     * @param args the target directory, optionally followed by the seed
+     * @throws IOException when writing fails
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: GeometryCorpus <directory> [seed]");
+            System.exit(1);
+        }
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        Path directory = Paths.get(args[0]);
+        List<Sample> samples = new GeometryCorpus(seed).samples();
+        for (Sample sample : samples) {
+            sample.write(directory);
+        }
+        System.out.println("Wrote " + samples.size() + " samples with seed " + seed + " to " + directory);
+    }
+
+
+    private Random random(final String key) {
+        // String.hashCode() and java.util.Random are both fully specified, which makes the corpus portable
+        return new Random(seed * 0x9E3779B97F4A7C15L + key.hashCode());
+    }
+
+
+    private static int holes(final int vertices) {
+        return Math.min(8, vertices / 64);
+    }
+
+
+    private static Point point(final Random random, final int index, final boolean haveZ, final boolean haveM) {
+        return vertex(random, -170 + 340 * random.nextDouble(), -80 + 160 * random.nextDouble(), index, haveZ, haveM);
+    }
+
+
+    private static Point vertex(final Random random, final double x, final double y, final int index,
+                                final boolean haveZ, final boolean haveM) {
+        Point point = haveZ ? new Point(x, y, 1000 * random.nextDouble()) : new Point(x, y);
+        if (haveM) {
+            point.haveMeasure = true;
+            point.m = index;
+        }
+        return point;
+    }
+
+
+    /** A random walk with a slowly turning heading. */
+    private static LineString lineString(final Random random, final int vertices, final boolean haveZ,
+                                         final boolean haveM) {
+        Point[] points = new Point[Math.max(2, vertices)];
+        double x = -170 + 340 * random.nextDouble();
+        double y = -80 + 160 * random.nextDouble();
+        double heading = 2 * Math.PI * random.nextDouble();
+        for (int i = 0; i < points.length; i++) {
+            points[i] = vertex(random, x, y, i, haveZ, haveM);
+            heading += 0.5 * random.nextGaussian();
+            double step = 0.001 + 0.01 * random.nextDouble();
+            x += step * Math.cos(heading);
+            y += step * Math.sin(heading);
+        }
+        return new LineString(points);
+    }
+
+
+    /**
+     * A star shaped shell with holes on a circle around its center. The shell radius stays above 0.75 r while the
+     * holes stay within 0.6 r, which keeps the polygon valid.
+     */
+    private static Polygon polygon(final Random random, final int vertices, final int holes, final boolean haveZ,
+                                   final boolean haveM) {
+        double cx = -170 + 340 * random.nextDouble();
+        double cy = -80 + 160 * random.nextDouble();
+        double radius = 0.01 + random.nextDouble();
+        int holeVertices = Math.max(4, vertices / (2 * Math.max(1, holes)));
+        int shellVertices = Math.max(4, vertices - holes * holeVertices);
+        LinearRing[] rings = new LinearRing[1 + holes];
+        rings[0] = ring(random, cx, cy, radius, 0.75, shellVertices, false, haveZ, haveM);
+        for (int h = 0; h < holes; h++) {
+            double angle = 2 * Math.PI * h / holes;
+            double holeRadius = Math.min(0.2, 0.32 * Math.sin(Math.PI / Math.max(2, holes))) * radius;
+            rings[1 + h] = ring(random, cx + 0.4 * radius * Math.cos(angle), cy + 0.4 * radius * Math.sin(angle),
+                    holeRadius, 0.75, holeVertices, true, haveZ, haveM);
+        }
+        return new Polygon(rings);
+    }
+
+
+    /** A closed ring with jittered angles and radii between minRadius * radius and radius. */
+    private static LinearRing ring(final Random random, final double cx, final double cy, final double radius,
+                                   final double minRadius, final int vertices, final boolean clockwise,
+                                   final boolean haveZ, final boolean haveM) {
+        int distinct = vertices - 1;
+        Point[] points = new Point[vertices];
+        for (int i = 0; i < distinct; i++) {
+            double angle = 2 * Math.PI * (i + 0.8 * random.nextDouble()) / distinct;
+            if (clockwise) {
+                angle = -angle;
+            }
+            double r = radius * (minRadius + (1 - minRadius) * random.nextDouble());
+            points[i] = vertex(random, cx + r * Math.cos(angle), cy + r * Math.sin(angle), i, haveZ, haveM);
+        }
+        Point first = points[0];
+        points[distinct] = haveZ ? new Point(first.x, first.y, first.z) : new Point(first.x, first.y);
+        points[distinct].haveMeasure = first.haveMeasure;
+        points[distinct].m = first.m;
+        return new LinearRing(points);
+    }
+
+
+    private static MultiPolygon multiPolygon(final Random random, final int vertices, final boolean haveZ,
+                                             final boolean haveM) {
+        Polygon[] polygons = new Polygon[Math.max(1, Math.min(16, vertices / 16))];
+        int each = Math.max(4, vertices / polygons.length);
+        for (int i = 0; i < polygons.length; i++) {
+            polygons[i] = polygon(random, each, holes(each), haveZ, haveM);
+        }
+        return new MultiPolygon(polygons);
+    }
+
+
+    /** A point, a line, a polygon and a nested collection with the remaining vertices, down to the given depth. */
+    private static GeometryCollection collection(final Random random, final int vertices, final int depth,
+                                                 final boolean haveZ, final boolean haveM) {
+        int share = Math.max(4, vertices / 4);
+        List<Geometry> members = new ArrayList<Geometry>();
+        members.add(point(random, 0, haveZ, haveM));
+        members.add(lineString(random, share, haveZ, haveM));
+        members.add(polygon(random, share, holes(share), haveZ, haveM));
+        if (depth > 1) {
+            members.add(collection(random, Math.max(4, vertices - 2 * share - 1), depth - 1, haveZ, haveM));
+        }
+        return new GeometryCollection(members.toArray(new Geometry[0]));
+    }
+
+
+}
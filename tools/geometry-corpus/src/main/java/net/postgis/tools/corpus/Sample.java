@@ -0,0 +1,125 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.tools.corpus;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import net.postgis.jdbc.geometry.binary.ValueSetter;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+
+/**
+ * A named corpus geometry with its encodings.
+ */
+public final class Sample {
+
+    private final String name;
+
+    private final Geometry geometry;
+
+
+    /**
+     * Instantiate with the specified state.
+     *
+     * @param name the file system friendly name of the sample
+     * @param geometry the geometry
+     */
+    public Sample(final String name, final Geometry geometry) {
+        this.name = Objects.requireNonNull(name, "name must not be null");
+        this.geometry = Objects.requireNonNull(geometry, "geometry must not be null");
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+
+    /**
+     * Encode as binary EWKB.
+     *
+     * @param rep the byte order, {@link ValueSetter.NDR#NUMBER} or {@link ValueSetter.XDR#NUMBER}
+     * @return the encoded geometry
+     */
+    public byte[] binary(final byte rep) {
+        return new BinaryWriter().writeBinary(geometry, rep);
+    }
+
+
+    /**
+     * Encode as hex-encoded EWKB, as sent by the server.
+     *
+     * @param rep the byte order, {@link ValueSetter.NDR#NUMBER} or {@link ValueSetter.XDR#NUMBER}
+     * @return the encoded geometry
+     */
+    public String hex(final byte rep) {
+        return new BinaryWriter().writeHexed(geometry, rep);
+    }
+
+
+    /**
+     * Convert to a JTS geometry, using the JTS EWKB reader so the result is independent of the converters under test.
+     *
+     * @return the JTS geometry, with the SRID of the sample
+     */
+    public org.locationtech.jts.geom.Geometry jts() {
+        try {
+            return new WKBReader().read(binary(ValueSetter.NDR.NUMBER));
+        } catch (ParseException e) {
+            throw new IllegalStateException("JTS cannot read sample " + name, e);
+        }
+    }
+
+
+    /**
+     * Write the sample to a directory as <code>name.ndr.hex</code>, <code>name.xdr.hex</code>,
+     * <code>name.ndr.wkb</code> and <code>name.xdr.wkb</code>.
+     *
+     * @param directory the directory, created if missing
+     * @throws IOException when writing fails
+     */
+    public void write(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.write(directory.resolve(name + ".ndr.hex"),
+                hex(ValueSetter.NDR.NUMBER).getBytes(StandardCharsets.US_ASCII));
+        Files.write(directory.resolve(name + ".xdr.hex"),
+                hex(ValueSetter.XDR.NUMBER).getBytes(StandardCharsets.US_ASCII));
+        Files.write(directory.resolve(name + ".ndr.wkb"), binary(ValueSetter.NDR.NUMBER));
+        Files.write(directory.resolve(name + ".xdr.wkb"), binary(ValueSetter.XDR.NUMBER));
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return name;
+    }
+
+
+}
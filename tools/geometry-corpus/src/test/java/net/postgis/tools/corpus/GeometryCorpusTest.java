@@ -0,0 +1,93 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.tools.corpus;
+
+
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.binary.BinaryParser;
+import net.postgis.jdbc.geometry.binary.ValueSetter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class GeometryCorpusTest {
+
+    private final List<Sample> samples = new GeometryCorpus().samples();
+
+
+    @Test
+    public void testGenerationIsReproducible() {
+        GeometryCorpus corpus = new GeometryCorpus();
+        Geometry polygon = corpus.generate(GeometryCorpus.Shape.POLYGON, 256, true, true);
+        // generating something else in between must not change the result
+        corpus.generate(GeometryCorpus.Shape.LINESTRING, 1000, false, false);
+        Assert.assertEquals(new GeometryCorpus().generate(GeometryCorpus.Shape.POLYGON, 256, true, true), polygon);
+        Assert.assertNotEquals(new GeometryCorpus(1).generate(GeometryCorpus.Shape.POLYGON, 256, true, true), polygon);
+        Assert.assertEquals(samples.size(), 4 + 4 * 3 * 4);
+    }
+
+
+    @Test
+    public void testSamplesRoundTrip() throws SQLException {
+        BinaryParser parser = new BinaryParser();
+        for (Sample sample : samples) {
+            Geometry geometry = sample.getGeometry();
+            Assert.assertTrue(geometry.checkConsistency(), sample.getName());
+            for (byte rep : new byte[]{ValueSetter.NDR.NUMBER, ValueSetter.XDR.NUMBER}) {
+                Assert.assertEquals(parser.parse(sample.binary(rep)), geometry, sample.getName());
+                Assert.assertEquals(parser.parse(sample.hex(rep)), geometry, sample.getName());
+            }
+            Assert.assertEquals(GeometryBuilder.geomFromString(geometry.toString()), geometry, sample.getName());
+        }
+    }
+
+
+    @Test
+    public void testSamplesAreValidJtsGeometries() {
+        for (Sample sample : samples) {
+            org.locationtech.jts.geom.Geometry jts = sample.jts();
+            Assert.assertEquals(jts.getNumPoints(), sample.getGeometry().numPoints(), sample.getName());
+            Assert.assertEquals(jts.getSRID(), 4326, sample.getName());
+            if (!sample.getName().startsWith("linestring") && !sample.getName().startsWith("geometrycollection")) {
+                Assert.assertTrue(jts.isValid(), sample.getName());
+            }
+        }
+    }
+
+
+    @Test
+    public void testWriteFiles() throws IOException {
+        Path directory = Files.createTempDirectory("corpus");
+        Sample sample = samples.get(samples.size() - 1);
+        sample.write(directory);
+        Assert.assertEquals(new String(Files.readAllBytes(directory.resolve(sample.getName() + ".xdr.hex")),
+                StandardCharsets.US_ASCII), sample.hex(ValueSetter.XDR.NUMBER));
+        Assert.assertTrue(Arrays.equals(Files.readAllBytes(directory.resolve(sample.getName() + ".ndr.wkb")),
+                sample.binary(ValueSetter.NDR.NUMBER)));
+        Assert.assertEquals(directory.toFile().list().length, 4);
+    }
+
+
+}
@@ -0,0 +1,128 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.postgis.jdbc.smoketest;
+
+
+import net.postgis.jdbc.DriverWrapper;
+import net.postgis.jdbc.DriverWrapperAutoprobe;
+import net.postgis.jdbc.DriverWrapperLW;
+import net.postgis.jdbc.PGgeometry;
+import net.postgis.jdbc.Version;
+import net.postgis.jdbc.geometry.Geometry;
+import net.postgis.jdbc.geometry.GeometryBuilder;
+import net.postgis.jdbc.geometry.binary.BinaryWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+
+/**
+ * Smoke test for a native image of the driver, run by the <code>native</code> profile of this module.
+ *
+ * Checks what differs between the JVM and a native image: version resource, driver registration, reflective creation
+ * of the data types as done by pgjdbc, and the binary and text codecs. With database parameters, it also queries a
+ * geometry through the wrapper driver.
+ *
+ * Exits with status 1 when a check fails.
+ */
+public class NativeImage {
+
+    private static final Logger logger = LoggerFactory.getLogger(NativeImage.class);
+
+    private static final String WKT = "SRID=4326;POLYGON((0 0,10 0,10 10,0 10,0 0),(2 2,2 3,3 3,2 2))";
+
+
+    private NativeImage() {
+    }
+
+
+    public static void main(final String[] args) {
+        try {
+            checkVersion();
+            checkDriverRegistration();
+            checkDataTypes();
+            if (args.length >= 3) {
+                checkQuery(args[0], args[1], args[2]);
+            }
+        } catch (Exception e) {
+            logger.error("Native image smoke test failed", e);
+            System.exit(1);
+        }
+        logger.info("Native image smoke test passed");
+    }
+
+
+    private static void checkVersion() {
+        check(Version.MAJOR >= 0 && Version.VERSION != null, "version resource not read: " + Version.FULL);
+        logger.info("{}", Version.getFullVersion());
+    }
+
+
+    private static void checkDriverRegistration() throws SQLException {
+        check(DriverManager.getDriver(DriverWrapper.POSTGIS_PROTOCOL + "//localhost/postgis") instanceof DriverWrapper,
+                "DriverWrapper is not registered");
+        check(DriverManager.getDriver(DriverWrapperLW.POSTGIS_LWPROTOCOL + "//localhost/postgis")
+                instanceof DriverWrapperLW, "DriverWrapperLW is not registered");
+        check(DriverManager.getDriver(DriverWrapperAutoprobe.POSTGIS_AUTOPROTOCOL + "//localhost/postgis")
+                instanceof DriverWrapperAutoprobe, "DriverWrapperAutoprobe is not registered");
+    }
+
+
+    private static void checkDataTypes() throws Exception {
+        Geometry geometry = GeometryBuilder.geomFromString(WKT);
+        String hex = new BinaryWriter().writeHexed(geometry);
+        check(GeometryBuilder.geomFromString(hex).equals(geometry), "binary round trip failed for " + hex);
+        // pgjdbc creates registered types by name through their no-arg constructor
+        for (String type : new String[]{"net.postgis.jdbc.PGgeometry", "net.postgis.jdbc.PGgeometryLW",
+                "net.postgis.jdbc.PGgeography", "net.postgis.jdbc.PGbox2d", "net.postgis.jdbc.PGbox3d"}) {
+            Class.forName(type).getDeclaredConstructor().newInstance();
+        }
+        PGgeometry value = (PGgeometry) Class.forName("net.postgis.jdbc.PGgeometry").getDeclaredConstructor()
+                .newInstance();
+        value.setValue(hex);
+        check(value.getGeometry().equals(geometry), "PGgeometry did not parse " + hex);
+    }
+
+
+    private static void checkQuery(final String jdbcUrl, final String jdbcUsername, final String jdbcPassword)
+            throws SQLException {
+        String url = jdbcUrl.replace(DriverWrapper.POSTGRES_PROTOCOL, DriverWrapper.POSTGIS_PROTOCOL);
+        try (Connection connection = DriverManager.getConnection(url, jdbcUsername, jdbcPassword);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT '" + WKT + "'::geometry")) {
+            check(resultSet.next(), "no row returned");
+            Object value = resultSet.getObject(1);
+            check(value instanceof PGgeometry, "geometry type not registered, got " + value);
+            check(((PGgeometry) value).getGeometry().equals(GeometryBuilder.geomFromString(WKT)),
+                    "unexpected geometry " + value);
+        }
+    }
+
+
+    private static void check(final boolean condition, final String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+
+}
@@ -0,0 +1,940 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.tools.testutils;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * A minimal in-process stand-in for a PostgreSQL server, speaking enough of the version 3 wire protocol for the
+ * pgjdbc driver to connect, run simple and extended queries and decode the rows.
+ *
+ * Rows come from a {@link QueryHandler}. Cell values are sent in the format the client asks for: a byte[] value is
+ * sent as is in binary format and as upper case hex in text format, which is how the server sends geometry
+ * (hex EWKB) and geography values. The pg_type lookups issued by the driver for unknown column types are answered
+ * from a small built-in catalog, which includes the PostGIS types under the oids defined here.
+ *
+ * There is no authentication, no SSL and no transaction semantics beyond reporting the transaction state. Result
+ * rows are produced lazily, so large row counts cost no memory. This allows measuring connect, type registration
+ * and ResultSet decode throughput without a database, e.g. in hermetic CI.
+ */
+public class FakePgServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FakePgServer.class);
+
+    public static final int BOOL_OID = 16;
+
+    public static final int BYTEA_OID = 17;
+
+    public static final int NAME_OID = 19;
+
+    public static final int INT8_OID = 20;
+
+    public static final int INT2_OID = 21;
+
+    public static final int INT4_OID = 23;
+
+    public static final int TEXT_OID = 25;
+
+    public static final int OID_OID = 26;
+
+    public static final int FLOAT4_OID = 700;
+
+    public static final int FLOAT8_OID = 701;
+
+    public static final int VARCHAR_OID = 1043;
+
+    /** The oid of the geometry type in the built-in catalog; unlike the built-in types it varies on real servers. */
+    public static final int GEOMETRY_OID = 90001;
+
+    public static final int GEOGRAPHY_OID = 90002;
+
+    public static final int BOX2D_OID = 90003;
+
+    public static final int BOX3D_OID = 90004;
+
+    public static final int GEOMETRY_ARRAY_OID = 90005;
+
+    private static final int PROTOCOL_VERSION_3 = 196608;
+
+    private static final int SSL_REQUEST_CODE = 80877103;
+
+    private static final int GSSENC_REQUEST_CODE = 80877104;
+
+    private static final Pattern PARAMETER_PATTERN = Pattern.compile("\\$(\\d+)");
+
+
+    /** A result column. */
+    public static final class Column {
+
+        private final String name;
+
+        private final int oid;
+
+
+        /**
+         * Instantiate with the specified state.
+         *
+         * @param name the column name
+         * @param oid the type oid, see the constants of {@link FakePgServer}
+         */
+        public Column(final String name, final int oid) {
+            this.name = Objects.requireNonNull(name, "name must not be null");
+            this.oid = oid;
+        }
+
+
+        public String getName() {
+            return name;
+        }
+
+
+        public int getOid() {
+            return oid;
+        }
+    }
+
+
+    /** The result of a query: columns and rows for a query returning rows, only a command tag otherwise. */
+    public static final class Result {
+
+        private final Column[] columns;
+
+        private final List<Object[]> rows;
+
+        private final String commandTag;
+
+
+        private Result(final Column[] columns, final List<Object[]> rows, final String commandTag) {
+            this.columns = columns;
+            this.rows = rows;
+            this.commandTag = commandTag;
+        }
+
+
+        /**
+         * Create a result returning rows.
+         *
+         * @param columns the columns
+         * @param rows the rows, each with one value per column; may be a lazy list
+         * @return the result
+         */
+        public static Result rows(final Column[] columns, final List<Object[]> rows) {
+            return new Result(columns.clone(), rows, null);
+        }
+
+
+        /**
+         * Create a result of a command not returning rows.
+         *
+         * @param commandTag the tag, e.g. "INSERT 0 1"
+         * @return the result
+         */
+        public static Result command(final String commandTag) {
+            return new Result(null, Collections.<Object[]>emptyList(), commandTag);
+        }
+
+
+        boolean hasRows() {
+            return columns != null;
+        }
+    }
+
+
+    /** Answers the queries sent to the server. */
+    public interface QueryHandler {
+
+        /**
+         * Answer a query.
+         *
+         * @param sql the query text, with $n parameter placeholders for extended queries
+         * @param parameters the parameter values in text form (binary geometries as hex), or null when the query is
+         *                   only described and the result columns are needed
+         * @return the result, or null if the query is not handled; unhandled SELECT queries fail, other commands
+         *         succeed with their first keyword as command tag
+         */
+        Result query(String sql, List<String> parameters);
+    }
+
+
+    private final ServerSocket serverSocket;
+
+    private final QueryHandler handler;
+
+    private final Map<Integer, String> typeNames = new ConcurrentHashMap<Integer, String>();
+
+    private final Map<String, Integer> typeOids = new ConcurrentHashMap<String, Integer>();
+
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+
+    private final Thread acceptor;
+
+    private volatile boolean closed;
+
+
+    /**
+     * Start a server on an ephemeral port of the loopback interface.
+     *
+     * @param handler answers the queries
+     * @throws IOException when the server socket cannot be opened
+     */
+    public FakePgServer(final QueryHandler handler) throws IOException {
+        this.handler = Objects.requireNonNull(handler, "handler must not be null");
+        registerType(BOOL_OID, "bool");
+        registerType(BYTEA_OID, "bytea");
+        registerType(NAME_OID, "name");
+        registerType(INT8_OID, "int8");
+        registerType(INT2_OID, "int2");
+        registerType(INT4_OID, "int4");
+        registerType(TEXT_OID, "text");
+        registerType(OID_OID, "oid");
+        registerType(FLOAT4_OID, "float4");
+        registerType(FLOAT8_OID, "float8");
+        registerType(VARCHAR_OID, "varchar");
+        registerType(GEOMETRY_OID, "geometry");
+        registerType(GEOGRAPHY_OID, "geography");
+        registerType(BOX2D_OID, "box2d");
+        registerType(BOX3D_OID, "box3d");
+        registerType(GEOMETRY_ARRAY_OID, "_geometry");
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "fake-pg-server-" + serverSocket.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+
+    /**
+     * Create a handler answering every SELECT with the same row, repeated.
+     *
+     * @param columns the result columns
+     * @param row the row values
+     * @param count the number of rows
+     * @return the handler
+     */
+    public static QueryHandler repeating(final Column[] columns, final Object[] row, final int count) {
+        final Result result = Result.rows(columns, Collections.nCopies(count, row));
+        return new QueryHandler() {
+            @Override
+            public Result query(final String sql, final List<String> parameters) {
+                return isSelect(sql) ? result : null;
+            }
+        };
+    }
+
+
+    /**
+     * Add a type to the catalog answering the driver's pg_type lookups.
+     *
+     * @param oid the type oid
+     * @param name the type name, array types start with an underscore
+     */
+    public void registerType(final int oid, final String name) {
+        typeNames.put(oid, name);
+        typeOids.put(name, oid);
+    }
+
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+
+    /**
+     * Build the part of a JDBC URL following the protocol, e.g. to append to "jdbc:postgresql:".
+     *
+     * @param database the database name reported to the client
+     * @return the URL suffix, "//host:port/database"
+     */
+    public String getUrlSuffix(final String database) {
+        return "//" + serverSocket.getInetAddress().getHostAddress() + ":" + getPort() + "/" + database;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+
+    private void accept() {
+        while (!closed) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                Thread session = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            new Session(socket).run();
+                        } catch (EOFException | SocketException e) {
+                            logger.trace("client disconnected", e);
+                        } catch (IOException | RuntimeException e) {
+                            logger.warn("fake server session failed", e);
+                        } finally {
+                            clients.remove(socket);
+                            try {
+                                socket.close();
+                            } catch (IOException e) {
+                                logger.trace("closing client socket failed", e);
+                            }
+                        }
+                    }
+                }, "fake-pg-session-" + socket.getPort());
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("accepting connection failed", e);
+                }
+            }
+        }
+    }
+
+
+    static boolean isSelect(final String sql) {
+        String trimmed = sql.trim().toUpperCase(Locale.ROOT);
+        return trimmed.startsWith("SELECT") || trimmed.startsWith("WITH") || trimmed.startsWith("VALUES");
+    }
+
+
+    /** Answer the query from the catalog, the handler or the defaults. */
+    private Result resolve(final String sql, final List<String> parameters) {
+        if (sql.contains("pg_catalog.pg_type")) {
+            return catalog(sql, parameters);
+        }
+        Result result = handler.query(sql, parameters);
+        if (result != null) {
+            return result;
+        }
+        if (isSelect(sql)) {
+            throw new IllegalArgumentException("No result for query: " + sql);
+        }
+        String trimmed = sql.trim();
+        if (trimmed.isEmpty()) {
+            return Result.command("");
+        }
+        return Result.command(trimmed.split("\\s+")[0].replace(";", "").toUpperCase(Locale.ROOT));
+    }
+
+
+    /** Answer the pg_type lookups of the driver (TypeInfoCache). */
+    private Result catalog(final String sql, final List<String> parameters) {
+        String parameter = parameters == null || parameters.isEmpty() ? null : parameters.get(0);
+        if (sql.startsWith("SELECT n.nspname = ANY(current_schemas(true)), n.nspname, t.typname")) {
+            Column[] columns = new Column[]{
+                    new Column("?column?", BOOL_OID), new Column("nspname", NAME_OID), new Column("typname", NAME_OID)
+            };
+            String name = parameter == null ? null : typeNames.get(Integer.valueOf(parameter));
+            return Result.rows(columns, name == null ? Collections.<Object[]>emptyList()
+                    : Collections.singletonList(new Object[]{Boolean.TRUE, "public", name}));
+        } else if (sql.contains("typinput='pg_catalog.array_in'::regproc as is_array")) {
+            Column[] columns = new Column[]{
+                    new Column("is_array", BOOL_OID), new Column("typtype", TEXT_OID),
+                    new Column("typname", NAME_OID), new Column("oid", OID_OID)
+            };
+            Integer oid = parameter == null ? null : Integer.valueOf(parameter);
+            String name = oid == null ? null : typeNames.get(oid);
+            return Result.rows(columns, name == null ? Collections.<Object[]>emptyList()
+                    : Collections.singletonList(new Object[]{name.startsWith("_"), "b", name, oid}));
+        } else if (sql.startsWith("SELECT pg_type.oid, typname") || sql.startsWith("SELECT t.oid, t.typname")) {
+            Column[] columns = new Column[]{new Column("oid", OID_OID), new Column("typname", NAME_OID)};
+            String name = sql.contains("t.typelem =") && parameter != null ? "_" + parameter : parameter;
+            Integer oid = name == null ? null : typeOids.get(name);
+            return Result.rows(columns, oid == null ? Collections.<Object[]>emptyList()
+                    : Collections.singletonList(new Object[]{oid, name}));
+        }
+        return Result.rows(new Column[]{new Column("?column?", TEXT_OID)}, Collections.<Object[]>emptyList());
+    }
+
+
+    /** A parsed statement of the extended protocol. */
+    private static final class Statement {
+
+        final String sql;
+
+        final int[] parameterOids;
+
+        Statement(final String sql, final int[] parameterOids) {
+            this.sql = sql;
+            this.parameterOids = parameterOids;
+        }
+    }
+
+
+    /** A bound portal of the extended protocol. */
+    private static final class Portal {
+
+        final Result result;
+
+        final short[] formats;
+
+        int position;
+
+        Portal(final Result result, final short[] formats) {
+            this.result = result;
+            this.formats = formats;
+        }
+    }
+
+
+    /** One client connection. */
+    private final class Session {
+
+        private final DataInputStream in;
+
+        private final DataOutputStream out;
+
+        private final Map<String, Statement> statements = new HashMap<String, Statement>();
+
+        private final Map<String, Portal> portals = new HashMap<String, Portal>();
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private final DataOutputStream message = new DataOutputStream(buffer);
+
+        /** Set after an error in the extended protocol, messages are skipped up to the next Sync. */
+        private boolean failed;
+
+        private char transactionStatus = 'I';
+
+
+        Session(final Socket socket) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 8192));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 65536));
+        }
+
+
+        void run() throws IOException {
+            if (!startup()) {
+                return;
+            }
+            while (true) {
+                char type = (char) in.readUnsignedByte();
+                byte[] body = new byte[in.readInt() - 4];
+                in.readFully(body);
+                if (type == 'X') {
+                    return;
+                } else if (type == 'S') {
+                    failed = false;
+                    readyForQuery();
+                } else if (type == 'H') {
+                    out.flush();
+                } else if (type == 'Q') {
+                    simpleQuery(new Reader(body).cstring());
+                } else if (!failed) {
+                    try {
+                        extended(type, new Reader(body));
+                    } catch (RuntimeException e) {
+                        failed = true;
+                        error(e.getMessage() == null ? e.toString() : e.getMessage());
+                    }
+                }
+            }
+        }
+
+
+        private boolean startup() throws IOException {
+            while (true) {
+                byte[] body = new byte[in.readInt() - 4];
+                in.readFully(body);
+                Reader reader = new Reader(body);
+                int code = reader.int32();
+                if (code == SSL_REQUEST_CODE || code == GSSENC_REQUEST_CODE) {
+                    out.write('N');
+                    out.flush();
+                } else if (code == PROTOCOL_VERSION_3) {
+                    break;
+                } else {
+                    return false;
+                }
+            }
+            begin();
+            message.writeInt(0);
+            send('R');
+            parameterStatus("server_version", "17.0");
+            parameterStatus("server_encoding", "UTF8");
+            parameterStatus("client_encoding", "UTF8");
+            parameterStatus("DateStyle", "ISO, MDY");
+            parameterStatus("integer_datetimes", "on");
+            parameterStatus("standard_conforming_strings", "on");
+            parameterStatus("TimeZone", "UTC");
+            begin();
+            message.writeInt(1);
+            message.writeInt(0);
+            send('K');
+            readyForQuery();
+            return true;
+        }
+
+
+        private void simpleQuery(final String sql) throws IOException {
+            try {
+                Result result = resolve(sql, Collections.<String>emptyList());
+                if (result.hasRows()) {
+                    rowDescription(result.columns, null);
+                }
+                Portal portal = new Portal(result, null);
+                execute(portal, 0);
+            } catch (RuntimeException e) {
+                error(e.getMessage() == null ? e.toString() : e.getMessage());
+            }
+            readyForQuery();
+        }
+
+
+        private void extended(final char type, final Reader reader) throws IOException {
+            switch (type) {
+                case 'P': {
+                    String name = reader.cstring();
+                    String sql = reader.cstring();
+                    int[] oids = new int[reader.int16()];
+                    for (int i = 0; i < oids.length; i++) {
+                        oids[i] = reader.int32();
+                    }
+                    statements.put(name, new Statement(sql, oids));
+                    begin();
+                    send('1');
+                    break;
+                }
+                case 'B': {
+                    String portalName = reader.cstring();
+                    Statement statement = statement(reader.cstring());
+                    short[] parameterFormats = reader.formats();
+                    int count = reader.int16();
+                    List<String> parameters = new ArrayList<String>(count);
+                    for (int i = 0; i < count; i++) {
+                        byte[] value = reader.value();
+                        int oid = i < statement.parameterOids.length ? statement.parameterOids[i] : 0;
+                        parameters.add(value == null ? null : decodeParameter(value, format(parameterFormats, i), oid));
+                    }
+                    portals.put(portalName, new Portal(resolve(statement.sql, parameters), reader.formats()));
+                    begin();
+                    send('2');
+                    break;
+                }
+                case 'D': {
+                    char kind = (char) reader.int8();
+                    String name = reader.cstring();
+                    if (kind == 'S') {
+                        Statement statement = statement(name);
+                        int[] oids = Arrays.copyOf(statement.parameterOids, parameterCount(statement));
+                        begin();
+                        message.writeShort(oids.length);
+                        for (int oid : oids) {
+                            message.writeInt(oid == 0 ? TEXT_OID : oid);
+                        }
+                        send('t');
+                        describe(resolve(statement.sql, null), null);
+                    } else {
+                        Portal portal = portals.get(name);
+                        if (portal == null) {
+                            throw new IllegalArgumentException("Unknown portal: " + name);
+                        }
+                        describe(portal.result, portal.formats);
+                    }
+                    break;
+                }
+                case 'E': {
+                    String name = reader.cstring();
+                    Portal portal = portals.get(name);
+                    if (portal == null) {
+                        throw new IllegalArgumentException("Unknown portal: " + name);
+                    }
+                    execute(portal, reader.int32());
+                    break;
+                }
+                case 'C': {
+                    char kind = (char) reader.int8();
+                    String name = reader.cstring();
+                    if (kind == 'S') {
+                        statements.remove(name);
+                    } else {
+                        portals.remove(name);
+                    }
+                    begin();
+                    send('3');
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unsupported message: " + type);
+            }
+        }
+
+
+        private Statement statement(final String name) {
+            Statement statement = statements.get(name);
+            if (statement == null) {
+                throw new IllegalArgumentException("Unknown statement: " + name);
+            }
+            return statement;
+        }
+
+
+        private int parameterCount(final Statement statement) {
+            int count = statement.parameterOids.length;
+            Matcher matcher = PARAMETER_PATTERN.matcher(statement.sql);
+            while (matcher.find()) {
+                count = Math.max(count, Integer.parseInt(matcher.group(1)));
+            }
+            return count;
+        }
+
+
+        private void describe(final Result result, final short[] formats) throws IOException {
+            if (result.hasRows()) {
+                rowDescription(result.columns, formats);
+            } else {
+                begin();
+                send('n');
+            }
+        }
+
+
+        private void execute(final Portal portal, final int maxRows) throws IOException {
+            Result result = portal.result;
+            if (!result.hasRows()) {
+                commandComplete(result.commandTag);
+                return;
+            }
+            int end = result.rows.size();
+            if (maxRows > 0) {
+                end = (int) Math.min(end, (long) portal.position + maxRows);
+            }
+            for (; portal.position < end; portal.position++) {
+                dataRow(result.columns, result.rows.get(portal.position), portal.formats);
+            }
+            if (portal.position < result.rows.size()) {
+                begin();
+                send('s');
+            } else {
+                commandComplete("SELECT " + result.rows.size());
+            }
+        }
+
+
+        private void rowDescription(final Column[] columns, final short[] formats) throws IOException {
+            begin();
+            message.writeShort(columns.length);
+            for (int i = 0; i < columns.length; i++) {
+                cstring(columns[i].name);
+                message.writeInt(0);
+                message.writeShort(0);
+                message.writeInt(columns[i].oid);
+                message.writeShort(typeLength(columns[i].oid));
+                message.writeInt(-1);
+                message.writeShort(format(formats, i));
+            }
+            send('T');
+        }
+
+
+        private void dataRow(final Column[] columns, final Object[] row, final short[] formats) throws IOException {
+            begin();
+            message.writeShort(columns.length);
+            for (int i = 0; i < columns.length; i++) {
+                byte[] value = encode(row[i], columns[i].oid, format(formats, i) == 1);
+                if (value == null) {
+                    message.writeInt(-1);
+                } else {
+                    message.writeInt(value.length);
+                    message.write(value);
+                }
+            }
+            send('D');
+        }
+
+
+        private void commandComplete(final String tag) throws IOException {
+            String upper = tag.toUpperCase(Locale.ROOT);
+            if (upper.startsWith("BEGIN") || upper.startsWith("START")) {
+                transactionStatus = 'T';
+            } else if (upper.startsWith("COMMIT") || upper.startsWith("ROLLBACK") || upper.startsWith("END")) {
+                transactionStatus = 'I';
+            }
+            begin();
+            if (tag.isEmpty()) {
+                send('I');
+                return;
+            }
+            cstring(tag);
+            send('C');
+        }
+
+
+        private void parameterStatus(final String name, final String value) throws IOException {
+            begin();
+            cstring(name);
+            cstring(value);
+            send('S');
+        }
+
+
+        private void error(final String text) throws IOException {
+            begin();
+            message.writeByte('S');
+            cstring("ERROR");
+            message.writeByte('V');
+            cstring("ERROR");
+            message.writeByte('C');
+            cstring("XX000");
+            message.writeByte('M');
+            cstring(text);
+            message.writeByte(0);
+            send('E');
+        }
+
+
+        private void readyForQuery() throws IOException {
+            begin();
+            message.writeByte(transactionStatus);
+            send('Z');
+            out.flush();
+        }
+
+
+        private void begin() {
+            buffer.reset();
+        }
+
+
+        private void cstring(final String value) throws IOException {
+            message.write(value.getBytes(StandardCharsets.UTF_8));
+            message.writeByte(0);
+        }
+
+
+        private void send(final char type) throws IOException {
+            out.writeByte(type);
+            out.writeInt(buffer.size() + 4);
+            buffer.writeTo(out);
+        }
+    }
+
+
+    private static short format(final short[] formats, final int index) {
+        if (formats == null || formats.length == 0) {
+            return 0;
+        }
+        return formats.length == 1 ? formats[0] : formats[index];
+    }
+
+
+    private static int typeLength(final int oid) {
+        switch (oid) {
+            case BOOL_OID:
+                return 1;
+            case INT2_OID:
+                return 2;
+            case INT4_OID:
+            case OID_OID:
+            case FLOAT4_OID:
+                return 4;
+            case INT8_OID:
+            case FLOAT8_OID:
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+
+    /** Encode a cell value in text or binary format. */
+    static byte[] encode(final Object value, final int oid, final boolean binary) {
+        if (value == null) {
+            return null;
+        }
+        if (!binary) {
+            String text;
+            if (value instanceof byte[]) {
+                text = hex((byte[]) value);
+            } else if (value instanceof Boolean) {
+                text = (Boolean) value ? "t" : "f";
+            } else {
+                text = String.valueOf(value);
+            }
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        switch (oid) {
+            case BOOL_OID:
+                return new byte[]{(byte) (Boolean.parseBoolean(value.toString()) || "t".equals(value) ? 1 : 0)};
+            case INT2_OID:
+                return bigEndian(Long.parseLong(value.toString()), 2);
+            case INT4_OID:
+            case OID_OID:
+                return bigEndian(Long.parseLong(value.toString()), 4);
+            case INT8_OID:
+                return bigEndian(Long.parseLong(value.toString()), 8);
+            case FLOAT4_OID:
+                return bigEndian(Float.floatToIntBits(Float.parseFloat(value.toString())), 4);
+            case FLOAT8_OID:
+                return bigEndian(Double.doubleToLongBits(Double.parseDouble(value.toString())), 8);
+            default:
+                return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+
+    /** Decode a bind parameter into its text form. */
+    static String decodeParameter(final byte[] value, final short format, final int oid) {
+        if (format == 0) {
+            return new String(value, StandardCharsets.UTF_8);
+        }
+        switch (oid) {
+            case BOOL_OID:
+                return value[0] != 0 ? "t" : "f";
+            case INT2_OID:
+            case INT4_OID:
+            case INT8_OID:
+                return Long.toString(fromBigEndian(value));
+            case OID_OID:
+                return Long.toString(fromBigEndian(value) & 0xFFFFFFFFL);
+            case FLOAT4_OID:
+                return Float.toString(Float.intBitsToFloat((int) fromBigEndian(value)));
+            case FLOAT8_OID:
+                return Double.toString(Double.longBitsToDouble(fromBigEndian(value)));
+            case TEXT_OID:
+            case VARCHAR_OID:
+            case NAME_OID:
+                return new String(value, StandardCharsets.UTF_8);
+            default:
+                return hex(value);
+        }
+    }
+
+
+    private static byte[] bigEndian(final long value, final int length) {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) (value >>> (8 * (length - 1 - i)));
+        }
+        return result;
+    }
+
+
+    private static long fromBigEndian(final byte[] value) {
+        long result = value.length > 0 && value[0] < 0 ? -1L : 0L;
+        for (byte b : value) {
+            result = (result << 8) | (b & 0xFF);
+        }
+        return result;
+    }
+
+
+    private static String hex(final byte[] value) {
+        char[] digits = "0123456789ABCDEF".toCharArray();
+        char[] result = new char[value.length * 2];
+        for (int i = 0; i < value.length; i++) {
+            result[2 * i] = digits[(value[i] >> 4) & 0x0F];
+            result[2 * i + 1] = digits[value[i] & 0x0F];
+        }
+        return new String(result);
+    }
+
+
+    /** Reads the fields of a message body. */
+    private static final class Reader {
+
+        private final byte[] data;
+
+        private int position;
+
+        Reader(final byte[] data) {
+            this.data = data;
+        }
+
+        int int8() {
+            return data[position++] & 0xFF;
+        }
+
+        int int16() {
+            return (short) ((int8() << 8) | int8());
+        }
+
+        int int32() {
+            return (int8() << 24) | (int8() << 16) | (int8() << 8) | int8();
+        }
+
+        String cstring() {
+            int start = position;
+            while (data[position] != 0) {
+                position++;
+            }
+            return new String(data, start, position++ - start, StandardCharsets.UTF_8);
+        }
+
+        short[] formats() {
+            short[] formats = new short[int16()];
+            for (int i = 0; i < formats.length; i++) {
+                formats[i] = (short) int16();
+            }
+            return formats;
+        }
+
+        byte[] value() {
+            int length = int32();
+            if (length < 0) {
+                return null;
+            }
+            byte[] value = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return value;
+        }
+    }
+
+
+}
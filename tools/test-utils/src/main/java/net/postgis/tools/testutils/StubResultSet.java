@@ -0,0 +1,121 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.postgis.tools.testutils;
+
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+
+/**
+ * A forward-only ResultSet over in-memory rows, supporting just the accessors used by the row readers under test.
+ */
+public final class StubResultSet implements InvocationHandler {
+
+    private final Object[][] rows;
+
+    private int position = -1;
+
+    private int nextCalls = 0;
+
+
+    private StubResultSet(final Object[][] rows) {
+        this.rows = rows;
+    }
+
+
+    public static ResultSet of(final Object[][] rows) {
+        return (ResultSet) Proxy.newProxyInstance(
+                StubResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, new StubResultSet(rows)
+        );
+    }
+
+
+    /**
+     * Get a Connection whose prepared statements all return a fresh stub ResultSet over the given rows.
+     *
+     * @param rows the rows every query returns
+     * @return the stub Connection
+     */
+    public static Connection connection(final Object[][] rows) {
+        final InvocationHandler statementHandler = new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                if (method.getName().equals("executeQuery")) {
+                    return of(rows);
+                }
+                return null;
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                StubResultSet.class.getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        if (method.getName().equals("prepareStatement")) {
+                            return Proxy.newProxyInstance(StubResultSet.class.getClassLoader(),
+                                    new Class<?>[]{PreparedStatement.class}, statementHandler);
+                        } else if (method.getName().equals("close")) {
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+        );
+    }
+
+
+    /**
+     * Get the number of times next() was invoked on a ResultSet created by {@link #of(Object[][])}.
+     *
+     * @param resultSet the stub ResultSet
+     * @return the number of next() calls
+     */
+    public static int nextCalls(final ResultSet resultSet) {
+        return ((StubResultSet) Proxy.getInvocationHandler(resultSet)).nextCalls;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final String name = method.getName();
+        if (name.equals("next")) {
+            nextCalls++;
+            if (position < rows.length) {
+                position++;
+            }
+            return position < rows.length;
+        } else if (name.equals("close")) {
+            return null;
+        } else if (name.equals("getString") || name.equals("getBytes") || name.equals("getObject")) {
+            if (position < 0 || position >= rows.length) {
+                throw new SQLException("ResultSet not positioned on a row");
+            }
+            return rows[position][(Integer) args[0] - 1];
+        } else if (name.equals("wasNull")) {
+            return false;
+        }
+        throw new UnsupportedOperationException(name);
+    }
+
+
+}